@@ -1,18 +1,55 @@
 package com.bank.cdk.stack;
 
+import software.amazon.awscdk.Duration;
+import software.amazon.awscdk.RemovalPolicy;
 import software.amazon.awscdk.Stack;
 import software.amazon.awscdk.StackProps;
+import software.amazon.awscdk.services.applicationautoscaling.AdjustmentType;
+import software.amazon.awscdk.services.applicationautoscaling.BasicStepScalingPolicyProps;
+import software.amazon.awscdk.services.applicationautoscaling.EnableScalingProps;
+import software.amazon.awscdk.services.applicationautoscaling.ScalingInterval;
+import software.amazon.awscdk.services.cloudwatch.MathExpression;
+import software.amazon.awscdk.services.cloudwatch.Metric;
 import software.amazon.awscdk.services.ec2.*;
 import software.amazon.awscdk.services.ecs.*;
 import software.amazon.awscdk.services.ecs.patterns.*;
+import software.amazon.awscdk.services.efs.AccessPoint;
+import software.amazon.awscdk.services.efs.AccessPointOptions;
+import software.amazon.awscdk.services.efs.Acl;
+import software.amazon.awscdk.services.efs.FileSystem;
+import software.amazon.awscdk.services.efs.PosixUser;
+import software.amazon.awscdk.services.efs.ThroughputMode;
+import software.amazon.awscdk.services.iam.PolicyStatement;
 import software.amazon.awscdk.services.logs.*;
 import software.amazon.awscdk.services.rds.*;
 import software.constructs.Construct;
 
+import java.util.List;
 import java.util.Map;
 
 public class CreditCardServiceStack extends Stack {
 
+    // Every task may open DB_POOL_SIZE connections, so RDS must admit that many per task at full
+    // scale, plus headroom for migrations and admin sessions
+    static final int MIN_TASKS = 2;
+    static final int MAX_TASKS = 8;
+    static final int DB_POOL_SIZE = 10;
+    static final int DB_RESERVED_CONNECTIONS = 15;
+    static final int DB_MAX_CONNECTIONS = MAX_TASKS * DB_POOL_SIZE + DB_RESERVED_CONNECTIONS;
+
+    // Published by the service's aws profile; see application-aws.yml
+    static final String METRICS_NAMESPACE = "CreditCardService";
+    static final String DECISION_LATENCY_METRIC = "applications.decision.latency.avg";
+    static final String BACKLOG_METRIC = "applications.backlog.value";
+
+    static final double DECISION_LATENCY_TARGET_MILLIS = 5_000;
+    static final double BACKLOG_SCALE_IN_BELOW = 50;
+    static final double BACKLOG_SCALE_OUT_ABOVE = 500;
+    static final double BACKLOG_SURGE_ABOVE = 2_000;
+
+    // Each task journals into its own subdirectory; see journal.instance in application-aws.yml
+    static final String JOURNAL_PATH = "/mnt/journal";
+
     public CreditCardServiceStack(final Construct scope, final String id) {
         this(scope, id, null);
     }
@@ -37,11 +74,31 @@ public class CreditCardServiceStack extends Stack {
                         .build())
                 .build();
 
+        // Shared HMAC key for bearer tokens, so a token issued by one task verifies on the others
+        software.amazon.awscdk.services.secretsmanager.Secret tokenSecret =
+                software.amazon.awscdk.services.secretsmanager.Secret.Builder.create(this, "TokenSigningSecret")
+                .description("Bearer token signing key")
+                .generateSecretString(software.amazon.awscdk.services.secretsmanager.SecretStringGenerator.builder()
+                        .passwordLength(64)
+                        .excludePunctuation(true)
+                        .build())
+                .build();
+
+        IInstanceEngine engine = DatabaseInstanceEngine.postgres(PostgresInstanceEngineProps.builder()
+                .version(PostgresEngineVersion.VER_15)
+                .build());
+
+        // Sized for the largest task count the scaling policies can reach
+        ParameterGroup dbParameters = ParameterGroup.Builder.create(this, "CreditCardDbParameters")
+                .engine(engine)
+                .description("Connection limit matching the service's scaling bounds")
+                .parameters(Map.of("max_connections", String.valueOf(DB_MAX_CONNECTIONS)))
+                .build();
+
         // Create RDS PostgreSQL instance
         DatabaseInstance database = DatabaseInstance.Builder.create(this, "CreditCardDb")
-                .engine(DatabaseInstanceEngine.postgres(PostgresInstanceEngineProps.builder()
-                        .version(PostgresEngineVersion.VER_15)
-                        .build()))
+                .engine(engine)
+                .parameterGroup(dbParameters)
                 .vpc(vpc)
                 .vpcSubnets(SubnetSelection.builder()
                         .subnetType(SubnetType.PRIVATE_WITH_EGRESS)
@@ -65,17 +122,22 @@ public class CreditCardServiceStack extends Stack {
                         .cluster(cluster)
                         .cpu(512)
                         .memoryLimitMiB(1024)
-                        .desiredCount(2)
+                        .desiredCount(MIN_TASKS)
                         .taskImageOptions(ApplicationLoadBalancedTaskImageOptions.builder()
                                 .image(ContainerImage.fromAsset("../credit-card-service"))
                                 .containerPort(8080)
                                 .environment(Map.of(
-                                        "SPRING_PROFILES_ACTIVE", "aws",
-                                        "SERVER_PORT", "8080"
+                                        "SPRING_PROFILES_ACTIVE", "aws,faststart",
+                                        "SERVER_PORT", "8080",
+                                        "SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE", String.valueOf(DB_POOL_SIZE),
+                                        "METRICS_CLOUDWATCH_NAMESPACE", METRICS_NAMESPACE,
+                                        "JOURNAL_DIRECTORY", JOURNAL_PATH
                                 ))
                                 .secrets(Map.of(
                                         "SPRING_DATASOURCE_PASSWORD", 
-                                        software.amazon.awscdk.services.ecs.Secret.fromSecretsManager(dbSecret, "password")
+                                        software.amazon.awscdk.services.ecs.Secret.fromSecretsManager(dbSecret, "password"),
+                                        "AUTH_TOKEN_SECRET",
+                                        software.amazon.awscdk.services.ecs.Secret.fromSecretsManager(tokenSecret)
                                 ))
                                 .logDriver(LogDriver.awsLogs(AwsLogDriverProps.builder()
                                         .streamPrefix("credit-card-service")
@@ -92,12 +154,118 @@ public class CreditCardServiceStack extends Stack {
                 "Allow Fargate to RDS"
         );
 
+        addJournalVolume(vpc, fargateService);
+
         // Configure health check
         fargateService.getTargetGroup().configureHealthCheck(software.amazon.awscdk.services.elasticloadbalancingv2.HealthCheck.builder()
                 .path("/actuator/health")
                 .build());
 
+        fargateService.getTaskDefinition().addToTaskRolePolicy(PolicyStatement.Builder.create()
+                .actions(List.of("cloudwatch:PutMetricData"))
+                .resources(List.of("*"))
+                .conditions(Map.of("StringEquals", Map.of("cloudwatch:namespace", METRICS_NAMESPACE)))
+                .build());
+        configureScaling(fargateService.getService());
+
         // Output the ALB URL
         this.exportValue(fargateService.getLoadBalancer().getLoadBalancerDnsName());
     }
+
+    /**
+     * The decision journal outlives tasks and is read across them for timelines, so it goes on EFS
+     * rather than the task's ephemeral storage.
+     */
+    private void addJournalVolume(Vpc vpc, ApplicationLoadBalancedFargateService fargateService) {
+        FileSystem journal = FileSystem.Builder.create(this, "DecisionJournal")
+                .vpc(vpc)
+                .vpcSubnets(SubnetSelection.builder()
+                        .subnetType(SubnetType.PRIVATE_WITH_EGRESS)
+                        .build())
+                .encrypted(true)
+                .throughputMode(ThroughputMode.ELASTIC)
+                .removalPolicy(RemovalPolicy.RETAIN)
+                .build();
+        AccessPoint accessPoint = journal.addAccessPoint("DecisionJournalAccessPoint", AccessPointOptions.builder()
+                .path("/journal")
+                .createAcl(Acl.builder().ownerUid("1000").ownerGid("1000").permissions("750").build())
+                .posixUser(PosixUser.builder().uid("1000").gid("1000").build())
+                .build());
+
+        FargateTaskDefinition taskDefinition = fargateService.getTaskDefinition();
+        taskDefinition.addVolume(software.amazon.awscdk.services.ecs.Volume.builder()
+                .name("journal")
+                .efsVolumeConfiguration(EfsVolumeConfiguration.builder()
+                        .fileSystemId(journal.getFileSystemId())
+                        .transitEncryption("ENABLED")
+                        .authorizationConfig(AuthorizationConfig.builder()
+                                .accessPointId(accessPoint.getAccessPointId())
+                                .iam("ENABLED")
+                                .build())
+                        .build())
+                .build());
+        taskDefinition.getDefaultContainer().addMountPoints(MountPoint.builder()
+                .sourceVolume("journal")
+                .containerPath(JOURNAL_PATH)
+                .readOnly(false)
+                .build());
+        journal.grantReadWrite(taskDefinition.getTaskRole());
+        journal.getConnections().allowDefaultPortFrom(fargateService.getService());
+    }
+
+    /**
+     * The pipeline mostly waits on the bureau and the database, so CPU says little about load.
+     * Decision latency is tracked to a target, and the backlog adds or removes tasks in steps,
+     * so a burst of submissions scales out before latency has caught up with it. A task queues only
+     * {@code pipeline.scheduler.spill-above} decisions in memory and leaves the rest DEFERRED in
+     * the database, so the tasks added for a backlog take their share through the retry sweep.
+     */
+    private void configureScaling(FargateService service) {
+        ScalableTaskCount taskCount = service.autoScaleTaskCount(EnableScalingProps.builder()
+                .minCapacity(MIN_TASKS)
+                .maxCapacity(MAX_TASKS)
+                .build());
+
+        taskCount.scaleToTrackCustomMetric("DecisionLatencyTracking", TrackCustomMetricProps.builder()
+                .metric(Metric.Builder.create()
+                        .namespace(METRICS_NAMESPACE)
+                        .metricName(DECISION_LATENCY_METRIC)
+                        .statistic("Average")
+                        .period(Duration.minutes(1))
+                        .build())
+                .targetValue(DECISION_LATENCY_TARGET_MILLIS)
+                .scaleOutCooldown(Duration.minutes(1))
+                .scaleInCooldown(Duration.minutes(5))
+                .build());
+
+        // Every task reports the same database-wide counts, so Maximum de-duplicates them
+        MathExpression backlog = MathExpression.Builder.create()
+                .label("Applications awaiting a decision")
+                .expression("pending + inReview + deferred")
+                .usingMetrics(Map.of(
+                        "pending", backlogMetric("pending"),
+                        "inReview", backlogMetric("in_review"),
+                        "deferred", backlogMetric("deferred")))
+                .period(Duration.minutes(1))
+                .build();
+        taskCount.scaleOnMetric("BacklogStepScaling", BasicStepScalingPolicyProps.builder()
+                .metric(backlog)
+                .adjustmentType(AdjustmentType.CHANGE_IN_CAPACITY)
+                .scalingSteps(List.of(
+                        ScalingInterval.builder().upper(BACKLOG_SCALE_IN_BELOW).change(-1).build(),
+                        ScalingInterval.builder().lower(BACKLOG_SCALE_OUT_ABOVE).change(1).build(),
+                        ScalingInterval.builder().lower(BACKLOG_SURGE_ABOVE).change(3).build()))
+                .cooldown(Duration.minutes(2))
+                .build());
+    }
+
+    private static Metric backlogMetric(String status) {
+        return Metric.Builder.create()
+                .namespace(METRICS_NAMESPACE)
+                .metricName(BACKLOG_METRIC)
+                .dimensionsMap(Map.of("status", status))
+                .statistic("Maximum")
+                .period(Duration.minutes(1))
+                .build();
+    }
 }
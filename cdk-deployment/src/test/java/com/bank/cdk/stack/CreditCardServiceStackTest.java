@@ -0,0 +1,128 @@
+package com.bank.cdk.stack;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import software.amazon.awscdk.App;
+import software.amazon.awscdk.assertions.Match;
+import software.amazon.awscdk.assertions.Template;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class CreditCardServiceStackTest {
+
+    private static Template template;
+
+    @BeforeClass
+    public static void synthesize() {
+        // Asset staging would copy the whole service tree; the template only needs the asset hash
+        App app = App.Builder.create()
+                .context(Map.of("aws:cdk:disable-asset-staging", true))
+                .build();
+        template = Template.fromStack(new CreditCardServiceStack(app, "TestStack"));
+    }
+
+    @Test
+    public void scalesTasksBetweenTheConfiguredBounds() {
+        template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalableTarget", Map.of(
+                "MinCapacity", CreditCardServiceStack.MIN_TASKS,
+                "MaxCapacity", CreditCardServiceStack.MAX_TASKS,
+                "ScalableDimension", "ecs:service:DesiredCount"));
+    }
+
+    @Test
+    public void tracksDecisionLatencyInsteadOfCpu() {
+        template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalingPolicy", Map.of(
+                "PolicyType", "TargetTrackingScaling",
+                "TargetTrackingScalingPolicyConfiguration", Match.objectLike(Map.of(
+                        "TargetValue", CreditCardServiceStack.DECISION_LATENCY_TARGET_MILLIS,
+                        "CustomizedMetricSpecification", Match.objectLike(Map.of(
+                                "Namespace", CreditCardServiceStack.METRICS_NAMESPACE,
+                                "MetricName", CreditCardServiceStack.DECISION_LATENCY_METRIC,
+                                "Statistic", "Average"))))));
+        template.resourcePropertiesCountIs("AWS::ApplicationAutoScaling::ScalingPolicy", Map.of(
+                "TargetTrackingScalingPolicyConfiguration", Match.objectLike(Map.of(
+                        "PredefinedMetricSpecification", Match.anyValue()))), 0);
+    }
+
+    @Test
+    public void stepsOnTheBacklogInBothDirections() {
+        template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalingPolicy", Map.of(
+                "PolicyType", "StepScaling",
+                "StepScalingPolicyConfiguration", Match.objectLike(Map.of(
+                        "AdjustmentType", "ChangeInCapacity",
+                        "StepAdjustments", List.of(Match.objectLike(Map.of("ScalingAdjustment", -1)))))));
+        template.hasResourceProperties("AWS::ApplicationAutoScaling::ScalingPolicy", Map.of(
+                "PolicyType", "StepScaling",
+                "StepScalingPolicyConfiguration", Match.objectLike(Map.of(
+                        "StepAdjustments", Match.arrayWith(List.of(
+                                Match.objectLike(Map.of("ScalingAdjustment", 1)),
+                                Match.objectLike(Map.of("ScalingAdjustment", 3))))))));
+    }
+
+    @Test
+    public void alarmsOnEveryUndecidedStatus() {
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "ComparisonOperator", "GreaterThanOrEqualToThreshold",
+                "Threshold", CreditCardServiceStack.BACKLOG_SCALE_OUT_ABOVE,
+                "Metrics", Match.arrayWith(List.of(
+                        Match.objectLike(Map.of("Expression", "pending + inReview + deferred")),
+                        Match.objectLike(Map.of("MetricStat", Match.objectLike(Map.of(
+                                "Metric", Match.objectLike(Map.of(
+                                        "Namespace", CreditCardServiceStack.METRICS_NAMESPACE,
+                                        "MetricName", CreditCardServiceStack.BACKLOG_METRIC)),
+                                "Stat", "Maximum"))))))));
+        template.hasResourceProperties("AWS::CloudWatch::Alarm", Map.of(
+                "ComparisonOperator", "LessThanOrEqualToThreshold",
+                "Threshold", CreditCardServiceStack.BACKLOG_SCALE_IN_BELOW));
+    }
+
+    @Test
+    public void allowsEveryTaskItsFullConnectionPool() {
+        template.hasResourceProperties("AWS::RDS::DBParameterGroup", Map.of(
+                "Family", "postgres15",
+                "Parameters", Map.of("max_connections", String.valueOf(CreditCardServiceStack.DB_MAX_CONNECTIONS))));
+        template.hasResourceProperties("AWS::RDS::DBInstance", Map.of(
+                "DBParameterGroupName", Match.anyValue()));
+        template.hasResourceProperties("AWS::ECS::TaskDefinition", Map.of(
+                "ContainerDefinitions", Match.arrayWith(List.of(Match.objectLike(Map.of(
+                        "Environment", Match.arrayWith(List.of(Map.of(
+                                "Name", "SPRING_DATASOURCE_HIKARI_MAXIMUM_POOL_SIZE",
+                                "Value", String.valueOf(CreditCardServiceStack.DB_POOL_SIZE))))))))));
+        assertEquals(CreditCardServiceStack.MAX_TASKS * CreditCardServiceStack.DB_POOL_SIZE
+                + CreditCardServiceStack.DB_RESERVED_CONNECTIONS, CreditCardServiceStack.DB_MAX_CONNECTIONS);
+    }
+
+    @Test
+    public void letsTasksPublishOnlyToTheServiceNamespace() {
+        template.hasResourceProperties("AWS::IAM::Policy", Map.of(
+                "PolicyDocument", Match.objectLike(Map.of(
+                        "Statement", Match.arrayWith(List.of(Match.objectLike(Map.of(
+                                "Action", "cloudwatch:PutMetricData",
+                                "Condition", Map.of("StringEquals",
+                                        Map.of("cloudwatch:namespace", CreditCardServiceStack.METRICS_NAMESPACE))))))))));
+    }
+
+    @Test
+    public void journalsToSharedStorageThatOutlivesTasks() {
+        template.hasResource("AWS::EFS::FileSystem", Map.of(
+                "Properties", Match.objectLike(Map.of("Encrypted", true)),
+                "DeletionPolicy", "Retain"));
+        template.hasResourceProperties("AWS::ECS::TaskDefinition", Map.of(
+                "Volumes", List.of(Match.objectLike(Map.of(
+                        "Name", "journal",
+                        "EFSVolumeConfiguration", Match.objectLike(Map.of(
+                                "TransitEncryption", "ENABLED",
+                                "AuthorizationConfig", Match.objectLike(Map.of("IAM", "ENABLED"))))))),
+                "ContainerDefinitions", Match.arrayWith(List.of(Match.objectLike(Map.of(
+                        "MountPoints", List.of(Map.of(
+                                "SourceVolume", "journal",
+                                "ContainerPath", CreditCardServiceStack.JOURNAL_PATH,
+                                "ReadOnly", false)),
+                        "Environment", Match.arrayWith(List.of(Map.of(
+                                "Name", "JOURNAL_DIRECTORY",
+                                "Value", CreditCardServiceStack.JOURNAL_PATH)))))))));
+    }
+}
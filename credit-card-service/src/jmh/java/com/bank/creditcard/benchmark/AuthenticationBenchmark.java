@@ -0,0 +1,51 @@
+package com.bank.creditcard.benchmark;
+
+import com.bank.creditcard.security.BearerTokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request credential check: HTTP Basic against a BCrypt hash versus an HMAC-signed bearer token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthenticationBenchmark {
+
+    private PasswordEncoder passwordEncoder;
+    private String passwordHash;
+    private BearerTokenService tokenService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder();
+        passwordHash = passwordEncoder.encode("password");
+        tokenService = new BearerTokenService("0123456789abcdef0123456789abcdef", Duration.ofMinutes(15));
+        token = tokenService.issue(UsernamePasswordAuthenticationToken.authenticated("user", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"))).getAccessToken();
+    }
+
+    @Benchmark
+    public boolean basicBcrypt() {
+        return passwordEncoder.matches("password", passwordHash);
+    }
+
+    @Benchmark
+    public Authentication bearerToken() {
+        return tokenService.verify(token);
+    }
+}
@@ -0,0 +1,158 @@
+package com.bank.creditcard.benchmark;
+
+import com.bank.creditcard.rules.BatchRiskScorer;
+import com.bank.creditcard.rules.CompiledDecisionRules;
+import com.bank.creditcard.rules.DecisionRulesDefinition;
+import com.bank.creditcard.rules.RiskScoreBatch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hard-coded BigDecimal scoring (as it was before rules were externalised) against {@link CompiledDecisionRules},
+ * and against {@link BatchRiskScorer} over the same inputs as one batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RiskScoringBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    private CompiledDecisionRules rules;
+    private int[] creditScores;
+    private BigDecimal[] incomes;
+    private BigDecimal[] debts;
+    private int[] delinquencies;
+    private int[] inquiries;
+    private BigDecimal[] balances;
+    private BigDecimal[] limits;
+    private BatchRiskScorer batchScorer;
+    private RiskScoreBatch batch;
+    private long[] scores;
+
+    @Setup
+    public void setUp() throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/decision-rules.json")) {
+            rules = CompiledDecisionRules.compile(new ObjectMapper().readValue(in, DecisionRulesDefinition.class));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        creditScores = new int[INPUTS];
+        incomes = new BigDecimal[INPUTS];
+        debts = new BigDecimal[INPUTS];
+        delinquencies = new int[INPUTS];
+        inquiries = new int[INPUTS];
+        balances = new BigDecimal[INPUTS];
+        limits = new BigDecimal[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            creditScores[i] = random.nextInt(300, 851);
+            incomes[i] = BigDecimal.valueOf(random.nextInt(20_000, 250_000));
+            debts[i] = BigDecimal.valueOf(random.nextInt(0, 8_000));
+            delinquencies[i] = random.nextInt(0, 5);
+            inquiries[i] = random.nextInt(0, 8);
+            limits[i] = BigDecimal.valueOf(random.nextInt(0, 50_000));
+            balances[i] = BigDecimal.valueOf(random.nextInt(0, 50_000));
+        }
+        batchScorer = BatchRiskScorer.of(rules);
+        batch = new RiskScoreBatch(INPUTS);
+        for (int i = 0; i < INPUTS; i++) {
+            batch.add(creditScores[i], incomes[i], debts[i], delinquencies[i], inquiries[i], balances[i], limits[i]);
+        }
+        scores = new long[INPUTS];
+    }
+
+    @Benchmark
+    public void hardCoded(Blackhole blackhole) {
+        for (int i = 0; i < INPUTS; i++) {
+            blackhole.consume(HardCodedScorer.riskScore(creditScores[i], incomes[i], debts[i],
+                    delinquencies[i], inquiries[i], balances[i], limits[i]));
+        }
+    }
+
+    @Benchmark
+    public void compiled(Blackhole blackhole) {
+        for (int i = 0; i < INPUTS; i++) {
+            blackhole.consume(rules.riskScore(creditScores[i], incomes[i], debts[i],
+                    delinquencies[i], inquiries[i], balances[i], limits[i]));
+        }
+    }
+
+    @Benchmark
+    public long[] batch() {
+        batchScorer.score(batch, scores);
+        return scores;
+    }
+
+    static final class HardCodedScorer {
+
+        static BigDecimal riskScore(int creditScore, BigDecimal annualIncome, BigDecimal monthlyDebt,
+                                    int delinquent, int inquiries, BigDecimal balance, BigDecimal limit) {
+            return creditScoreRisk(creditScore).multiply(BigDecimal.valueOf(0.35))
+                    .add(dtiRisk(annualIncome, monthlyDebt).multiply(BigDecimal.valueOf(0.25)))
+                    .add(delinquencyRisk(delinquent).multiply(BigDecimal.valueOf(0.20)))
+                    .add(utilizationRisk(balance, limit).multiply(BigDecimal.valueOf(0.15)))
+                    .add(inquiryRisk(inquiries).multiply(BigDecimal.valueOf(0.05)))
+                    .setScale(2, RoundingMode.HALF_UP);
+        }
+
+        private static BigDecimal creditScoreRisk(int creditScore) {
+            if (creditScore >= 800) return BigDecimal.valueOf(5);
+            if (creditScore >= 740) return BigDecimal.valueOf(15);
+            if (creditScore >= 670) return BigDecimal.valueOf(30);
+            if (creditScore >= 580) return BigDecimal.valueOf(60);
+            return BigDecimal.valueOf(90);
+        }
+
+        private static BigDecimal dtiRisk(BigDecimal annualIncome, BigDecimal monthlyDebt) {
+            BigDecimal monthlyIncome = annualIncome.divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_UP);
+            if (monthlyIncome.compareTo(BigDecimal.ZERO) == 0) {
+                return BigDecimal.valueOf(100);
+            }
+            BigDecimal ratio = monthlyDebt.divide(monthlyIncome, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100));
+            if (ratio.compareTo(BigDecimal.valueOf(20)) <= 0) return BigDecimal.valueOf(10);
+            if (ratio.compareTo(BigDecimal.valueOf(30)) <= 0) return BigDecimal.valueOf(25);
+            if (ratio.compareTo(BigDecimal.valueOf(40)) <= 0) return BigDecimal.valueOf(50);
+            if (ratio.compareTo(BigDecimal.valueOf(50)) <= 0) return BigDecimal.valueOf(75);
+            return BigDecimal.valueOf(95);
+        }
+
+        private static BigDecimal delinquencyRisk(int delinquent) {
+            if (delinquent == 0) return BigDecimal.valueOf(5);
+            if (delinquent == 1) return BigDecimal.valueOf(40);
+            if (delinquent == 2) return BigDecimal.valueOf(70);
+            return BigDecimal.valueOf(95);
+        }
+
+        private static BigDecimal inquiryRisk(int inquiries) {
+            if (inquiries <= 1) return BigDecimal.valueOf(10);
+            if (inquiries <= 3) return BigDecimal.valueOf(30);
+            if (inquiries <= 5) return BigDecimal.valueOf(60);
+            return BigDecimal.valueOf(85);
+        }
+
+        private static BigDecimal utilizationRisk(BigDecimal balance, BigDecimal limit) {
+            if (limit.compareTo(BigDecimal.ZERO) == 0) {
+                return BigDecimal.valueOf(50);
+            }
+            BigDecimal utilization = balance.divide(limit, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
+            if (utilization.compareTo(BigDecimal.valueOf(10)) <= 0) return BigDecimal.valueOf(5);
+            if (utilization.compareTo(BigDecimal.valueOf(30)) <= 0) return BigDecimal.valueOf(20);
+            if (utilization.compareTo(BigDecimal.valueOf(50)) <= 0) return BigDecimal.valueOf(45);
+            if (utilization.compareTo(BigDecimal.valueOf(70)) <= 0) return BigDecimal.valueOf(70);
+            return BigDecimal.valueOf(90);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.creditcard.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over 64-bit hashes. Sized for {@code expectedInsertions} at false-positive rate
+ * {@code fpp}; the {@code k} probe positions are derived from the two halves of the hash
+ * (Kirsch-Mitzenmacher), so callers hash each value once. Adds and lookups are lock-free.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final LongAdder bitsSet = new LongAdder();
+
+    public BloomFilter(long expectedInsertions, double fpp) {
+        this.bits = optimalBits(expectedInsertions, fpp);
+        this.hashes = optimalHashes(expectedInsertions, bits);
+        this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+    }
+
+    public void add(long hash) {
+        for (int i = 0; i < hashes; i++) {
+            long index = index(hash, i, bits);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    bitsSet.increment();
+                    break;
+                }
+                current = words.get(word);
+            }
+        }
+    }
+
+    public boolean mightContain(long hash) {
+        for (int i = 0; i < hashes; i++) {
+            long index = index(hash, i, bits);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * False-positive rate at the current fill, which rises above the sizing target once more than
+     * {@code expectedInsertions} values are in.
+     */
+    public double expectedFpp() {
+        return Math.pow((double) bitsSet.sum() / bits, hashes);
+    }
+
+    public long bitSize() {
+        return bits;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+
+    static long optimalBits(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        return Math.max(64, (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+    }
+
+    static int optimalHashes(long expectedInsertions, long bits) {
+        return Math.max(1, (int) Math.round((double) bits / Math.max(1, expectedInsertions) * Math.log(2)));
+    }
+
+    static long index(long hash, int i, long size) {
+        int low = (int) hash;
+        int high = (int) (hash >>> 32);
+        long combined = low + (long) i * high;
+        return Math.floorMod(combined, size);
+    }
+}
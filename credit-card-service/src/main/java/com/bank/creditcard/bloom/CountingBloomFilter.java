@@ -0,0 +1,93 @@
+package com.bank.creditcard.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter that supports removal: each position is a 4-bit counter instead of a bit, sixteen
+ * to a word. A counter that reaches 15 stays there, since it no longer knows how many values
+ * share it; that only keeps a value in the filter for longer, never drops one.
+ *
+ * <p>Removing a value that was never added would decrement counters that other values depend on,
+ * so {@link #remove(long)} leaves the filter alone unless the value appears to be present.
+ */
+public class CountingBloomFilter {
+
+    private static final long MAX_COUNT = 15;
+
+    private final AtomicLongArray words;
+    private final long counters;
+    private final int hashes;
+    private final LongAdder nonZero = new LongAdder();
+
+    public CountingBloomFilter(long expectedInsertions, double fpp) {
+        this.counters = BloomFilter.optimalBits(expectedInsertions, fpp);
+        this.hashes = BloomFilter.optimalHashes(expectedInsertions, counters);
+        this.words = new AtomicLongArray(Math.toIntExact((counters + 15) / 16));
+    }
+
+    public void add(long hash) {
+        for (int i = 0; i < hashes; i++) {
+            update(BloomFilter.index(hash, i, counters), 1);
+        }
+    }
+
+    /**
+     * Returns {@code false}, changing nothing, if the value was not in the filter.
+     */
+    public boolean remove(long hash) {
+        if (!mightContain(hash)) {
+            return false;
+        }
+        for (int i = 0; i < hashes; i++) {
+            update(BloomFilter.index(hash, i, counters), -1);
+        }
+        return true;
+    }
+
+    public boolean mightContain(long hash) {
+        for (int i = 0; i < hashes; i++) {
+            if (count(BloomFilter.index(hash, i, counters)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double expectedFpp() {
+        return Math.pow((double) nonZero.sum() / counters, hashes);
+    }
+
+    public long counterCount() {
+        return counters;
+    }
+
+    private long count(long index) {
+        return (words.get((int) (index >>> 4)) >>> shift(index)) & MAX_COUNT;
+    }
+
+    private void update(long index, int delta) {
+        int word = (int) (index >>> 4);
+        int shift = shift(index);
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & MAX_COUNT;
+            if (count == MAX_COUNT || (delta < 0 && count == 0)) {
+                return;
+            }
+            long updated = current + ((long) delta << shift);
+            if (words.compareAndSet(word, current, updated)) {
+                if (count == 0) {
+                    nonZero.increment();
+                } else if (count == 1 && delta < 0) {
+                    nonZero.decrement();
+                }
+                return;
+            }
+        }
+    }
+
+    private static int shift(long index) {
+        return (int) (index & 15) << 2;
+    }
+}
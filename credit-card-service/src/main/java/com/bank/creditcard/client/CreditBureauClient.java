@@ -1,10 +1,15 @@
 package com.bank.creditcard.client;
 
 import com.bank.creditcard.dto.CreditBureauReport;
+import com.bank.creditcard.exception.DeadlineExceededException;
+import com.bank.creditcard.logging.Pii;
+import com.bank.creditcard.logging.PiiMasker;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,19 +22,44 @@ public class CreditBureauClient {
     private final Random random = new Random();
 
     public CreditBureauReport getCreditReport(String ssn) {
-        log.info("Fetching credit report for SSN: {}", maskSsn(ssn));
+        return getCreditReport(ssn, null);
+    }
+
+    /**
+     * Gives up after {@code timeout} (none when null).
+     *
+     * @throws DeadlineExceededException if the bureau has not answered in time
+     */
+    public CreditBureauReport getCreditReport(String ssn, Duration timeout) {
+        log.info("Fetching credit report for SSN: {}", Pii.ssn(ssn));
         
         // Simulate API call delay
+        long delay = random.nextInt(500) + 500;
+        boolean timedOut = timeout != null && delay > timeout.toMillis();
         try {
-            Thread.sleep(random.nextInt(500) + 500);
+            Thread.sleep(timedOut ? timeout.toMillis() : delay);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        if (timedOut) {
+            throw new DeadlineExceededException("bureau", timeout);
+        }
 
         // Generate mock credit report
         return generateMockCreditReport(ssn);
     }
 
+    /**
+     * Same report without parking a thread for the simulated bureau latency.
+     */
+    public Mono<CreditBureauReport> fetchCreditReport(String ssn) {
+        return Mono.defer(() -> {
+                    log.info("Fetching credit report for SSN: {}", Pii.ssn(ssn));
+                    return Mono.delay(Duration.ofMillis(random.nextInt(500) + 500));
+                })
+                .map(tick -> generateMockCreditReport(ssn));
+    }
+
     private CreditBureauReport generateMockCreditReport(String ssn) {
         // Generate credit scores with better distribution for testing
         // 70% chance of good score (650-850), 20% medium (580-649), 10% poor (300-579)
@@ -117,10 +147,7 @@ public class CreditBureauClient {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
-    private String maskSsn(String ssn) {
-        if (ssn == null || ssn.length() < 4) {
-            return "***-**-****";
-        }
-        return "***-**-" + ssn.substring(ssn.length() - 4);
+    public static String maskSsn(String ssn) {
+        return PiiMasker.maskSsn(ssn);
     }
 }
@@ -0,0 +1,206 @@
+package com.bank.creditcard.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.sql.SQLTransientException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD concurrency limit driven by measured latency. Every permit reports how long its work took;
+ * a call that failed or took longer than {@code maxLatency} cuts the limit by {@value #BACKOFF_RATIO},
+ * any other call raises it by {@code 1/limit} (about +1 per round of calls) while the limit is
+ * actually being used. When the database or the bureau slows down, calls cross the latency bound
+ * and fewer of them are let through until latency recovers.
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxLatencyNanos;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final LongAdder rejected = new LongAdder();
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, Duration maxLatency) {
+        this(name, initialLimit, minLimit, maxLimit, maxLatency, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, Duration maxLatency,
+                               LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max, got " + minLimit + ".." + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * A permit if the limit has room, otherwise {@code null} (counted as a rejection).
+     */
+    public Permit tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= currentLimit()) {
+                rejected.increment();
+                return null;
+            }
+            return grant();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits up to {@code maxWait} for room under the limit; {@code null} (a rejection) on timeout.
+     */
+    public Permit acquire(Duration maxWait) throws InterruptedException {
+        long remaining = maxWait.toNanos();
+        lock.lock();
+        try {
+            while (inFlight >= currentLimit()) {
+                if (remaining <= 0) {
+                    rejected.increment();
+                    return null;
+                }
+                remaining = released.awaitNanos(remaining);
+            }
+            return grant();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a failure means the downstream is saturated (pool or query timeouts) rather than a bug
+     * or a business outcome.
+     */
+    public static boolean isOverload(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientException || t instanceof TimeoutException
+                    || t instanceof TransientDataAccessException || t instanceof CannotCreateTransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Permit grant() {
+        inFlight++;
+        return new Permit(nanoClock.getAsLong(), inFlight);
+    }
+
+    private void release(long latencyNanos, boolean dropped, int inFlightAtStart) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (dropped || latencyNanos > maxLatencyNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (inFlightAtStart * 2 >= limit) {
+                // Growing while mostly idle would only hide the next overload
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("limiter", name)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder("concurrency.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("limiter", name)
+                .register(registry);
+        FunctionCounter.builder("concurrency.rejected", this, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .tag("limiter", name)
+                .description("Calls turned away because the limit was reached")
+                .register(registry);
+    }
+
+    /**
+     * One unit of admitted work. Closing it reports the elapsed time as a successful sample unless
+     * {@link #dropped()} was called first.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private boolean dropped;
+        private boolean released;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Marks the work as failed for a reason that signals overload (timeouts, pool exhaustion).
+         */
+        public void dropped() {
+            dropped = true;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            release(nanoClock.getAsLong() - startNanos, dropped, inFlightAtStart);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.bank.creditcard.concurrency;
+
+import com.bank.creditcard.model.CreditCardApplication;
+
+import java.util.Locale;
+
+/**
+ * Scheduling class of a decision-pipeline job, most urgent first.
+ */
+public enum PipelinePriority {
+    CRITICAL,
+    HIGH,
+    NORMAL,
+    LOW;
+
+    private static final PipelinePriority[] TIERS = values();
+
+    /**
+     * Premium cards rank above standard ones. Branch applications, with a customer waiting at the
+     * desk, move up one class and partner batches down one.
+     */
+    public static PipelinePriority of(CreditCardApplication.CardType cardType, CreditCardApplication.Channel channel) {
+        int tier = cardType == CreditCardApplication.CardType.INFINITE
+                || cardType == CreditCardApplication.CardType.PLATINUM ? HIGH.ordinal() : NORMAL.ordinal();
+        if (channel == CreditCardApplication.Channel.BRANCH) {
+            tier--;
+        } else if (channel == CreditCardApplication.Channel.PARTNER) {
+            tier++;
+        }
+        return TIERS[tier];
+    }
+
+    /**
+     * This class promoted by {@code steps}, but never above {@link #CRITICAL}.
+     */
+    public PipelinePriority promoted(long steps) {
+        return TIERS[(int) (ordinal() - Math.min(steps, ordinal()))];
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
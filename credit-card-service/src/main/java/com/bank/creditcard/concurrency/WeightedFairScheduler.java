@@ -0,0 +1,274 @@
+package com.bank.creditcard.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs pipeline jobs on an executor in priority and weighted-fair order instead of arrival order.
+ *
+ * <p>Jobs queue per source (the submitting principal) and {@link PipelinePriority}. A free worker
+ * takes the queued job with the best priority; a job is promoted one class for every
+ * {@code agingInterval} it has waited, so low-priority work still finishes under steady urgent
+ * load. Among jobs of equal priority, start-time fair queuing picks the earliest virtual start
+ * tag. Each source's tags advance by {@code 1 / weight} per job, so while several sources have
+ * work queued they share the workers in proportion to their weights. A partner's 50k-job batch
+ * then delays another source's next job by about one of its own jobs, not by the whole batch.
+ *
+ * <p>At most {@code workers} drain loops run on the executor at a time. Each loop runs jobs until
+ * the queues are empty, so the executor's own FIFO queue never holds pipeline work.
+ */
+@Slf4j
+public class WeightedFairScheduler implements MeterBinder {
+
+    private static final PipelinePriority[] PRIORITIES = PipelinePriority.values();
+
+    private final Executor executor;
+    private final int workers;
+    private final int capacity;
+    private final long agingNanos;
+    private final Map<String, Double> weights;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Source> sources = new HashMap<>();
+    private final int[] queued = new int[PRIORITIES.length];
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder promoted = new LongAdder();
+    private volatile Timer[] waitTimers;
+    private double virtualTime;
+    private int size;
+    private int running;
+
+    public WeightedFairScheduler(Executor executor, int workers, int capacity, Duration agingInterval,
+                                 Map<String, Double> weights) {
+        this(executor, workers, capacity, agingInterval, weights, System::nanoTime);
+    }
+
+    WeightedFairScheduler(Executor executor, int workers, int capacity, Duration agingInterval,
+                          Map<String, Double> weights, LongSupplier nanoClock) {
+        if (workers < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Workers and capacity must be positive, got " + workers + " and "
+                    + capacity);
+        }
+        weights.forEach((source, weight) -> {
+            if (!(weight > 0)) {
+                throw new IllegalArgumentException("Weight of " + source + " must be positive, got " + weight);
+            }
+        });
+        this.executor = executor;
+        this.workers = workers;
+        this.capacity = capacity;
+        this.agingNanos = agingInterval.toNanos();
+        this.weights = Map.copyOf(weights);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Queues {@code task}; throws {@link RejectedExecutionException} if {@code capacity} jobs are
+     * already waiting.
+     */
+    public void submit(String source, PipelinePriority priority, Runnable task) {
+        boolean startWorker;
+        lock.lock();
+        try {
+            if (size >= capacity) {
+                rejected.increment();
+                throw new RejectedExecutionException("Pipeline queue is full (" + capacity + " jobs)");
+            }
+            Source queues = sources.computeIfAbsent(source, name -> new Source(weights.getOrDefault(name, 1.0)));
+            // A source that was idle starts at the current virtual time rather than catching up
+            double startTag = Math.max(virtualTime, queues.lastFinish);
+            queues.lastFinish = startTag + 1.0 / queues.weight;
+            queues.byPriority[priority.ordinal()].add(new Job(task, priority, startTag, nanoClock.getAsLong()));
+            queues.size++;
+            queued[priority.ordinal()]++;
+            size++;
+            startWorker = running < workers;
+            if (startWorker) {
+                running++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (startWorker) {
+            startWorker();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Timer[] timers = new Timer[PRIORITIES.length];
+        for (PipelinePriority priority : PRIORITIES) {
+            Gauge.builder("pipeline.queue.depth", this, scheduler -> scheduler.depth(priority))
+                    .tag("priority", priority.tag())
+                    .description("Pipeline jobs waiting, by the priority they were submitted with")
+                    .register(registry);
+            Gauge.builder("pipeline.queue.oldest", this, scheduler -> scheduler.oldestSeconds(priority))
+                    .tag("priority", priority.tag())
+                    .baseUnit("seconds")
+                    .description("Age of the longest-waiting pipeline job")
+                    .register(registry);
+            timers[priority.ordinal()] = Timer.builder("pipeline.queue.wait")
+                    .tag("priority", priority.tag())
+                    .description("Time from submission until a worker started the job")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+        }
+        waitTimers = timers;
+        FunctionCounter.builder("pipeline.queue.rejected", rejected, LongAdder::sum)
+                .description("Pipeline jobs refused because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("pipeline.queue.promoted", promoted, LongAdder::sum)
+                .description("Pipeline jobs that ran ahead of their priority after waiting")
+                .register(registry);
+    }
+
+    Runnable next() {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            Source bestSource = null;
+            Job best = null;
+            int bestRank = Integer.MAX_VALUE;
+            Iterator<Source> iterator = sources.values().iterator();
+            while (iterator.hasNext()) {
+                Source source = iterator.next();
+                if (source.size == 0) {
+                    iterator.remove();
+                    continue;
+                }
+                for (ArrayDeque<Job> queue : source.byPriority) {
+                    Job head = queue.peek();
+                    if (head == null) {
+                        continue;
+                    }
+                    int rank = effectivePriority(head, now).ordinal();
+                    if (rank < bestRank || rank == bestRank && head.startTag < best.startTag) {
+                        bestSource = source;
+                        best = head;
+                        bestRank = rank;
+                    }
+                }
+            }
+            if (best == null) {
+                running--;
+                return null;
+            }
+            bestSource.byPriority[best.priority.ordinal()].poll();
+            bestSource.size--;
+            queued[best.priority.ordinal()]--;
+            size--;
+            virtualTime = Math.max(virtualTime, best.startTag);
+            if (bestRank < best.priority.ordinal()) {
+                promoted.increment();
+            }
+            Timer[] timers = waitTimers;
+            if (timers != null) {
+                timers[best.priority.ordinal()].record(now - best.enqueuedNanos, TimeUnit.NANOSECONDS);
+            }
+            return best.task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void startWorker() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            lock.lock();
+            try {
+                running--;
+            } finally {
+                lock.unlock();
+            }
+            // The job stays queued; the next submission or a running loop picks it up
+            log.warn("Executor refused a pipeline worker; {} jobs wait for the next one", size());
+        }
+    }
+
+    private void drain() {
+        Runnable task;
+        while ((task = next()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Pipeline job failed", e);
+            }
+        }
+    }
+
+    private PipelinePriority effectivePriority(Job job, long now) {
+        return agingNanos > 0 ? job.priority.promoted((now - job.enqueuedNanos) / agingNanos) : job.priority;
+    }
+
+    private int depth(PipelinePriority priority) {
+        lock.lock();
+        try {
+            return queued[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double oldestSeconds(PipelinePriority priority) {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            long oldest = 0;
+            for (Source source : sources.values()) {
+                Job head = source.byPriority[priority.ordinal()].peek();
+                if (head != null) {
+                    oldest = Math.max(oldest, now - head.enqueuedNanos);
+                }
+            }
+            return oldest / 1e9;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Source {
+
+        private final double weight;
+        @SuppressWarnings("unchecked")
+        private final ArrayDeque<Job>[] byPriority = new ArrayDeque[PRIORITIES.length];
+        private double lastFinish;
+        private int size;
+
+        private Source(double weight) {
+            this.weight = weight;
+            for (int i = 0; i < byPriority.length; i++) {
+                byPriority[i] = new ArrayDeque<>();
+            }
+        }
+    }
+
+    private record Job(Runnable task, PipelinePriority priority, double startTag, long enqueuedNanos) {
+    }
+}
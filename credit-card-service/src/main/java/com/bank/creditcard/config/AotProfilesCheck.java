@@ -0,0 +1,71 @@
+package com.bank.creditcard.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Refuses to start an AOT-built context with other profiles than the ones it was built with, or with a
+ * property that would have switched a job on. Under {@code -Dspring.aot.enabled=true} every profile and
+ * property condition was evaluated once by processAot (build.gradle, which records its profiles in
+ * {@link #RECORD}), so a difference would otherwise be ignored without a word.
+ */
+public class AotProfilesCheck implements EnvironmentPostProcessor {
+
+    static final String RECORD = "META-INF/aot-profiles.properties";
+
+    // Job switches (see the job package); the jobs are left out of the AOT context
+    static final List<String> JOB_PROPERTIES = List.of(
+            "import.applications.input", "backtest.from", "export.decisions.output");
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (AotDetector.useGeneratedArtifacts()) {
+            check(environment, loadRecord());
+        }
+    }
+
+    static void check(ConfigurableEnvironment environment, Properties record) {
+        if (record == null) {
+            throw new IllegalStateException("Started with -Dspring.aot.enabled=true, but " + RECORD
+                    + " is missing: the jar was not built with processAot");
+        }
+        Set<String> built = StringUtils.commaDelimitedListToSet(record.getProperty("profiles", ""));
+        String active = environment.getProperty("spring.profiles.active");
+        if (active != null) {
+            Set<String> requested = StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(active));
+            if (!requested.equals(built)) {
+                throw new IllegalStateException("Profiles " + requested + " requested, but the AOT context was "
+                        + "built for " + built + "; rebuild with those profiles in processAot or start without "
+                        + "-Dspring.aot.enabled=true");
+            }
+        }
+        for (String property : JOB_PROPERTIES) {
+            if (environment.containsProperty(property)) {
+                throw new IllegalStateException(property + " is set, but jobs are not part of the AOT context; "
+                        + "run jobs without -Dspring.aot.enabled=true");
+            }
+        }
+    }
+
+    private static Properties loadRecord() {
+        ClassPathResource resource = new ClassPathResource(RECORD);
+        if (!resource.exists()) {
+            return null;
+        }
+        try {
+            return PropertiesLoaderUtils.loadProperties(resource);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read " + RECORD, e);
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package com.bank.creditcard.config;
 
+import com.bank.creditcard.concurrency.WeightedFairScheduler;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
 
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
     @Bean(name = "applicationProcessorExecutor")
@@ -23,4 +32,29 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Orders decision-pipeline work by priority and per-principal fair share, then runs it on the
+     * application processor threads. Weights are {@code principal=weight} pairs; others weigh 1.
+     */
+    @Bean
+    public WeightedFairScheduler pipelineScheduler(
+            @Qualifier("applicationProcessorExecutor") Executor applicationProcessorExecutor,
+            @Value("${pipeline.scheduler.workers:5}") int workers,
+            @Value("${pipeline.scheduler.capacity:100000}") int capacity,
+            @Value("${pipeline.scheduler.aging-interval:PT1M}") Duration agingInterval,
+            @Value("${pipeline.scheduler.weights:}") List<String> weights) {
+        Map<String, Double> bySource = new HashMap<>();
+        for (String entry : weights) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] pair = entry.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected principal=weight, got '" + entry + "'");
+            }
+            bySource.put(pair[0].trim(), Double.parseDouble(pair[1].trim()));
+        }
+        return new WeightedFairScheduler(applicationProcessorExecutor, workers, capacity, agingInterval, bySource);
+    }
 }
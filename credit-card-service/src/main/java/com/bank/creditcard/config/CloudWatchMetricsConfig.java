@@ -0,0 +1,49 @@
+package com.bank.creditcard.config;
+
+import io.micrometer.cloudwatch2.CloudWatchConfig;
+import io.micrometer.cloudwatch2.CloudWatchMeterRegistry;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchAsyncClient;
+
+import java.util.List;
+
+/**
+ * Publishes the metrics the ECS scaling policies act on to CloudWatch. Only meters whose names
+ * start with one of {@code metrics.cloudwatch.include} are sent, since every CloudWatch metric is
+ * billed; everything else stays on the actuator endpoint.
+ */
+@Configuration
+@Profile("aws")
+public class CloudWatchMetricsConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloudWatchAsyncClient cloudWatchAsyncClient() {
+        return CloudWatchAsyncClient.create();
+    }
+
+    @Bean
+    public CloudWatchMeterRegistry cloudWatchMeterRegistry(
+            CloudWatchAsyncClient cloudWatchAsyncClient,
+            Environment environment,
+            @Value("${metrics.cloudwatch.include:applications.}") List<String> include) {
+        // Reads metrics.cloudwatch.namespace, metrics.cloudwatch.step, ...
+        CloudWatchConfig config = key -> environment.getProperty("metrics." + key);
+        CloudWatchMeterRegistry registry = new CloudWatchMeterRegistry(config, Clock.SYSTEM, cloudWatchAsyncClient);
+        registry.config().meterFilter(MeterFilter.denyUnless(
+                id -> include.stream().anyMatch(prefix -> id.getName().startsWith(prefix))));
+        return registry;
+    }
+
+    // Any registry bean switches off Boot's default one, which backs /actuator/metrics
+    @Bean
+    public SimpleMeterRegistry simpleMeterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
@@ -0,0 +1,51 @@
+package com.bank.creditcard.config;
+
+import com.bank.creditcard.concurrency.AdaptiveConcurrencyLimiter;
+import com.bank.creditcard.concurrency.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Both limiters start from the Hikari pool size, so together they begin close to the number of
+ * connections actually available and adapt from there.
+ */
+@Configuration
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter httpConcurrencyLimiter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${concurrency.http.max-latency:PT3S}") Duration maxLatency) {
+        // Requests hold a connection for only part of their time, so allow some oversubscription
+        return new AdaptiveConcurrencyLimiter("http", poolSize, 1, poolSize * 4, maxLatency);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter pipelineConcurrencyLimiter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${concurrency.pipeline.max-latency:PT3S}") Duration maxLatency) {
+        // Bounds the pipeline's load and persist transactions; leave at least half of the pool to HTTP traffic
+        return new AdaptiveConcurrencyLimiter("pipeline", Math.max(1, poolSize / 2), 1, Math.max(1, poolSize / 2),
+                maxLatency);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimiter httpConcurrencyLimiter, ObjectMapper objectMapper,
+            @Value("${concurrency.http.excluded-paths:/api/v1/exports,/api/v1/backtests,/api/v1/auth}")
+            List<String> excludedPaths) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(httpConcurrencyLimiter, excludedPaths, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        // After Spring Security, so unauthenticated requests never take a permit
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 10);
+        return registration;
+    }
+}
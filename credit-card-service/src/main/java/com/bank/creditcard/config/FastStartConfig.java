@@ -0,0 +1,62 @@
+package com.bank.creditcard.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+/**
+ * Startup trimming for the {@code faststart} profile. Beans from non-critical packages (API docs by
+ * default) are marked lazy so they stay off the path to readiness; everything serving applications
+ * is still created eagerly, unlike global lazy initialization.
+ */
+@Configuration
+@Profile("faststart")
+@Slf4j
+public class FastStartConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyNonCriticalBeans(Environment environment) {
+        List<String> packages = Binder.get(environment)
+                .bind("faststart.lazy-packages", Bindable.listOf(String.class))
+                .orElse(List.of("org.springdoc"));
+        return beanFactory -> markLazy(beanFactory, packages);
+    }
+
+    static int markLazy(ConfigurableListableBeanFactory beanFactory, List<String> packages) {
+        int marked = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            String source = declaringClassName(beanFactory, definition);
+            if (source != null && packages.stream().anyMatch(prefix -> source.startsWith(prefix + "."))) {
+                definition.setLazyInit(true);
+                marked++;
+            }
+        }
+        log.debug("Marked {} bean definitions from {} as lazy", marked, packages);
+        return marked;
+    }
+
+    // @Bean methods have no bean class name; attribute them to the configuration class declaring them
+    private static String declaringClassName(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated && annotated.getFactoryMethodMetadata() != null) {
+            return annotated.getFactoryMethodMetadata().getDeclaringClassName();
+        }
+        if (definition.getBeanClassName() != null) {
+            return definition.getBeanClassName();
+        }
+        String factoryBean = definition.getFactoryBeanName();
+        return factoryBean != null && beanFactory.containsBeanDefinition(factoryBean)
+                ? beanFactory.getBeanDefinition(factoryBean).getBeanClassName()
+                : null;
+    }
+}
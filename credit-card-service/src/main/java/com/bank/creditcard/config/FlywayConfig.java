@@ -0,0 +1,28 @@
+package com.bank.creditcard.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Checks {@code spring.flyway.enabled} again when migrations are about to run. In an AOT-built context the
+ * Flyway beans are fixed at build time, so the property alone no longer keeps a start (the image's
+ * training run, say) from connecting to migrate.
+ */
+@Configuration
+@Slf4j
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(Environment environment) {
+        return flyway -> {
+            if (environment.getProperty("spring.flyway.enabled", Boolean.class, true)) {
+                flyway.migrate();
+            } else {
+                log.info("spring.flyway.enabled is false; migrations skipped");
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.bank.creditcard.config;
+
+import com.bank.creditcard.concurrency.AdaptiveConcurrencyLimiter;
+import com.bank.creditcard.reactive.ApplicationStatusHub;
+import com.bank.creditcard.reactive.ReactiveApplicationRepository;
+import com.bank.creditcard.reactive.ReactiveServer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+/**
+ * Parent-context side of the reactive stack; the web side lives in its own child context.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveStackConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter reactivePipelineConcurrencyLimiter(
+            @Value("${reactive.pipeline.max-concurrency:256}") int maxConcurrency,
+            @Value("${reactive.pipeline.max-latency:PT5S}") Duration maxLatency) {
+        // Decisions wait on timers, not threads or connections, so the bound is far above the JDBC pipeline's
+        return new AdaptiveConcurrencyLimiter("reactive-pipeline", maxConcurrency, 1, maxConcurrency, maxLatency);
+    }
+
+    @Bean
+    public ApplicationStatusHub applicationStatusHub(ReactiveApplicationRepository applicationRepository,
+                                                     @Value("${reactive.watch.poll-interval:PT1S}") Duration pollInterval,
+                                                     @Value("${reactive.watch.batch-size:1000}") int batchSize,
+                                                     @Value("${reactive.watch.max-duration:PT5M}") Duration maxDuration) {
+        return new ApplicationStatusHub(applicationRepository, pollInterval, batchSize, maxDuration);
+    }
+
+    @Bean
+    public ReactiveServer reactiveServer(ApplicationContext applicationContext,
+                                         @Value("${reactive.server.port:8081}") int port) {
+        return new ReactiveServer(applicationContext, port);
+    }
+}
@@ -0,0 +1,112 @@
+package com.bank.creditcard.config;
+
+import com.bank.creditcard.routing.ReadYourWritesFilter;
+import com.bank.creditcard.routing.ReadYourWritesTracker;
+import com.bank.creditcard.routing.ReplicaLagMonitor;
+import com.bank.creditcard.routing.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+/**
+ * Replaces the auto-configured pool with a primary and a replica pool behind a routing proxy, but
+ * only when {@code datasource.replica.url} is set. Without it the primary pool is the data source.
+ *
+ * <p>The URL is looked at when the beans are created rather than in a bean condition: an AOT-built
+ * context evaluates conditions once at build time, where no replica is configured. The replica
+ * beans are null (absent to other beans) when there is none.
+ */
+@Configuration
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Nullable
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, Environment environment,
+                                              @Value("${datasource.replica.url:}") String url,
+                                              @Value("${datasource.replica.username:}") String username,
+                                              @Value("${datasource.replica.password:}") String password) {
+        if (url.isBlank()) {
+            return null;
+        }
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        // Bound here, not with @ConfigurationProperties, which cannot bind a bean that may be null
+        Binder.get(environment).bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Nullable
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Nullable @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${datasource.replica.lag-query:" + ReplicaLagMonitor.POSTGRES_LAG_QUERY + "}") String lagQuery,
+            @Value("${datasource.replica.max-lag:PT2S}") Duration maxLag,
+            @Value("${datasource.replica.lag-check-interval:PT1S}") Duration checkInterval) {
+        if (replica == null) {
+            return null;
+        }
+        return new ReplicaLagMonitor(replica, lagQuery, maxLag, checkInterval);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${datasource.replica.sticky-window:PT5S}") Duration stickyWindow) {
+        return new ReadYourWritesTracker(stickyWindow);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWritesTracker tracker) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(tracker));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 20);
+        return registration;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Nullable @Qualifier("replicaDataSource") DataSource replica,
+                                 @Nullable ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        if (replica == null) {
+            return primary;
+        }
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor, readYourWritesTracker));
+        // Known up front so that beginning a transaction never fetches a connection before routing
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+}
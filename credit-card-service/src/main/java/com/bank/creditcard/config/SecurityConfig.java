@@ -1,5 +1,8 @@
 package com.bank.creditcard.config;
 
+import com.bank.creditcard.controller.AuthController;
+import com.bank.creditcard.security.BearerTokenAuthenticationFilter;
+import com.bank.creditcard.security.BearerTokenService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -12,22 +15,32 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // BCrypt hashes of the demo credentials, computed once offline rather than on every boot
+    private static final String USER_PASSWORD_HASH = "$2a$10$QzTdEb79.4XwsjopOOtEq.HZ4C7T7Ei/0lhqvLUCLnpAUsz.vx5O2";
+    private static final String ADMIN_PASSWORD_HASH = "$2a$10$KqPKfLcs4ynLwh13nhdtY.gl5iFx0957vF8Mgae3FhjolA./uZbdq";
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, BearerTokenService tokenService) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                 .requestMatchers("/actuator/health/**").permitAll()
+                .requestMatchers("/api/v1/exports/**").hasRole("ADMIN")
+                .requestMatchers("/api/v1/backtests/**").hasRole("ADMIN")
+                .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
                 .requestMatchers("/api/v1/credit-card-applications/**").authenticated()
                 .anyRequest().authenticated()
             )
+            .addFilterBefore(new BearerTokenAuthenticationFilter(tokenService, AuthController.TOKEN_PATH),
+                    BasicAuthenticationFilter.class)
             .httpBasic(basic -> {});
         
         return http.build();
@@ -37,13 +50,13 @@ public class SecurityConfig {
     public UserDetailsService userDetailsService() {
         UserDetails user = User.builder()
                 .username("user")
-                .password(passwordEncoder().encode("password"))
+                .password(USER_PASSWORD_HASH)
                 .roles("USER")
                 .build();
         
         UserDetails admin = User.builder()
                 .username("admin")
-                .password(passwordEncoder().encode("admin123"))
+                .password(ADMIN_PASSWORD_HASH)
                 .roles("ADMIN", "USER")
                 .build();
         
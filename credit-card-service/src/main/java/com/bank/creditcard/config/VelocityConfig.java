@@ -0,0 +1,24 @@
+package com.bank.creditcard.config;
+
+import com.bank.creditcard.velocity.VelocityCounters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * A key costs about 200 bytes with hourly buckets over a day, so the default bound keeps the
+ * counters under roughly 50 MB.
+ */
+@Configuration
+public class VelocityConfig {
+
+    @Bean
+    public VelocityCounters velocityCounters(@Value("${velocity.window:PT24H}") Duration window,
+                                             @Value("${velocity.buckets:24}") int buckets,
+                                             @Value("${velocity.stripes:64}") int stripes,
+                                             @Value("${velocity.max-keys:250000}") int maxKeys) {
+        return new VelocityCounters(window, buckets, stripes, maxKeys);
+    }
+}
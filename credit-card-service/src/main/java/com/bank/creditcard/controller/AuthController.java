@@ -0,0 +1,32 @@
+package com.bank.creditcard.controller;
+
+import com.bank.creditcard.dto.TokenResponse;
+import com.bank.creditcard.security.BearerTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/auth")
+@RequiredArgsConstructor
+@Tag(name = "Authentication", description = "Exchange Basic credentials for a short-lived bearer token")
+public class AuthController {
+
+    public static final String TOKEN_PATH = "/api/v1/auth/token";
+
+    private final BearerTokenService tokenService;
+
+    @PostMapping("/token")
+    @Operation(summary = "Issue a bearer token for the Basic-authenticated caller")
+    public ResponseEntity<TokenResponse> issueToken(Authentication authentication) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(tokenService.issue(authentication));
+    }
+}
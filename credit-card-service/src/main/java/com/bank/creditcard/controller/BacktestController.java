@@ -0,0 +1,45 @@
+package com.bank.creditcard.controller;
+
+import com.bank.creditcard.dto.BacktestReport;
+import com.bank.creditcard.exception.InvalidExportRangeException;
+import com.bank.creditcard.rules.CompiledDecisionRules;
+import com.bank.creditcard.rules.DecisionRulesDefinition;
+import com.bank.creditcard.rules.DecisionRulesRegistry;
+import com.bank.creditcard.service.BacktestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/v1/backtests")
+@RequiredArgsConstructor
+@Tag(name = "Backtests", description = "Re-decide historical applications under candidate rules")
+public class BacktestController {
+
+    private final BacktestService backtestService;
+    private final DecisionRulesRegistry decisionRulesRegistry;
+
+    @PostMapping
+    @Operation(summary = "Score decided applications in a range with the given rules (or the active ones)")
+    public ResponseEntity<BacktestReport> runBacktest(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestBody(required = false) DecisionRulesDefinition rules) {
+        if (!from.isBefore(to)) {
+            throw new InvalidExportRangeException("'from' must be before 'to'");
+        }
+        CompiledDecisionRules candidate = rules != null
+                ? CompiledDecisionRules.compile(rules)
+                : decisionRulesRegistry.current();
+        return ResponseEntity.ok(backtestService.run(from, to, candidate));
+    }
+}
@@ -1,7 +1,10 @@
 package com.bank.creditcard.controller;
 
+import com.bank.creditcard.dto.ApplicationField;
+import com.bank.creditcard.dto.ApplicationListVersion;
 import com.bank.creditcard.dto.CreditCardApplicationRequest;
 import com.bank.creditcard.dto.CreditCardApplicationResponse;
+import com.bank.creditcard.journal.JournalEntry;
 import com.bank.creditcard.service.CreditCardApplicationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,11 +12,17 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/credit-card-applications")
@@ -21,6 +30,9 @@ import java.util.List;
 @Tag(name = "Credit Card Applications", description = "APIs for managing credit card applications")
 public class CreditCardApplicationController {
 
+    // Clients may keep the representation but must revalidate it with If-None-Match on every poll
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final CreditCardApplicationService applicationService;
 
     @PostMapping
@@ -37,29 +49,92 @@ public class CreditCardApplicationController {
     }
 
     @GetMapping("/{applicationNumber}")
-    @Operation(summary = "Get application by application number")
+    @Operation(summary = "Get application by application number; fields=a,b or view=summary for a subset")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Application found"),
+            @ApiResponse(responseCode = "304", description = "Application unchanged since the given ETag"),
+            @ApiResponse(responseCode = "400", description = "Unknown field or view"),
             @ApiResponse(responseCode = "404", description = "Application not found")
     })
-    public ResponseEntity<CreditCardApplicationResponse> getApplication(
-            @PathVariable String applicationNumber) {
-        CreditCardApplicationResponse response = applicationService.getApplication(applicationNumber);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<?> getApplication(
+            @PathVariable String applicationNumber,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
+        Optional<Set<ApplicationField>> selection = ApplicationField.selection(fields, view);
+        String etag = "\"" + applicationService.getApplicationVersion(applicationNumber) + "\"";
+        if (selection.isPresent()) {
+            Set<ApplicationField> selected = selection.get();
+            return conditional(request, etag(etag, selected),
+                    () -> applicationService.getApplication(applicationNumber, selected));
+        }
+        return conditional(request, etag, () -> applicationService.getApplication(applicationNumber));
+    }
+
+    @GetMapping("/{applicationNumber}/timeline")
+    @Operation(summary = "Get every status transition of an application from the decision journal")
+    public ResponseEntity<List<JournalEntry>> getTimeline(@PathVariable String applicationNumber) {
+        return ResponseEntity.ok(applicationService.getTimeline(applicationNumber));
     }
 
     @GetMapping("/customer/{email}")
-    @Operation(summary = "Get applications by customer email")
-    public ResponseEntity<List<CreditCardApplicationResponse>> getApplicationsByEmail(
-            @PathVariable String email) {
-        List<CreditCardApplicationResponse> applications = applicationService.getApplicationsByEmail(email);
-        return ResponseEntity.ok(applications);
+    @Operation(summary = "Get applications by customer email; fields=a,b or view=summary for a subset")
+    public ResponseEntity<?> getApplicationsByEmail(
+            @PathVariable String email,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
+        Optional<Set<ApplicationField>> selection = ApplicationField.selection(fields, view);
+        String etag = etag(applicationService.getApplicationsByEmailVersion(email));
+        if (selection.isPresent()) {
+            Set<ApplicationField> selected = selection.get();
+            return conditional(request, etag(etag, selected),
+                    () -> applicationService.getApplicationsByEmail(email, selected));
+        }
+        return conditional(request, etag, () -> applicationService.getApplicationsByEmail(email));
     }
 
     @GetMapping("/pending")
-    @Operation(summary = "Get all pending applications")
-    public ResponseEntity<List<CreditCardApplicationResponse>> getPendingApplications() {
-        List<CreditCardApplicationResponse> applications = applicationService.getPendingApplications();
-        return ResponseEntity.ok(applications);
+    @Operation(summary = "Get all pending applications; fields=a,b or view=summary for a subset")
+    public ResponseEntity<?> getPendingApplications(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            WebRequest request) {
+        Optional<Set<ApplicationField>> selection = ApplicationField.selection(fields, view);
+        String etag = etag(applicationService.getPendingApplicationsVersion());
+        if (selection.isPresent()) {
+            Set<ApplicationField> selected = selection.get();
+            return conditional(request, etag(etag, selected),
+                    () -> applicationService.getPendingApplications(selected));
+        }
+        return conditional(request, etag, applicationService::getPendingApplications);
+    }
+
+    /**
+     * The tag is always read before the body, so a body can be newer than its tag (costing one
+     * extra 200 on the next poll) but never older.
+     */
+    private static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    // A subset is a representation of its own, so it needs its own tag: the field set goes in as a bit mask
+    private static String etag(String etag, Set<ApplicationField> fields) {
+        int mask = 0;
+        for (ApplicationField field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return etag.substring(0, etag.length() - 1) + "-f" + Integer.toHexString(mask) + "\"";
+    }
+
+    private static String etag(ApplicationListVersion version) {
+        if (version.getCount() == 0) {
+            return "\"0\"";
+        }
+        long newest = version.getNewestCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        return "\"" + version.getCount() + "-" + version.getVersionSum() + "-" + Long.toHexString(newest) + "\"";
     }
 }
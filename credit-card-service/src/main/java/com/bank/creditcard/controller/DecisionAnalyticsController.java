@@ -0,0 +1,34 @@
+package com.bank.creditcard.controller;
+
+import com.bank.creditcard.dto.DecisionAnalyticsResponse;
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.service.DecisionAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "Decision Analytics", description = "Approval rates and score distributions from in-memory aggregates")
+public class DecisionAnalyticsController {
+
+    private final DecisionAnalyticsService analyticsService;
+
+    @GetMapping("/decisions")
+    @Operation(summary = "Get decision analytics for a rolling time window")
+    public ResponseEntity<DecisionAnalyticsResponse> getDecisionAnalytics(
+            @RequestParam(defaultValue = "24") @Min(1) @Max(168) int windowHours,
+            @RequestParam(required = false) CreditCardApplication.CardType cardType) {
+        return ResponseEntity.ok(analyticsService.snapshot(windowHours, cardType));
+    }
+}
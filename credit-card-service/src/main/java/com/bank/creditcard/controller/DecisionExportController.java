@@ -0,0 +1,45 @@
+package com.bank.creditcard.controller;
+
+import com.bank.creditcard.exception.InvalidExportRangeException;
+import com.bank.creditcard.service.DecisionExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/v1/exports")
+@RequiredArgsConstructor
+@Tag(name = "Decision Exports", description = "Bulk decision exports for audit and regulators")
+public class DecisionExportController {
+
+    private final DecisionExportService exportService;
+
+    @GetMapping("/decisions")
+    @Operation(summary = "Stream every decision in a date range as CSV or gzipped NDJSON")
+    public void exportDecisions(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "CSV") DecisionExportService.Format format,
+            HttpServletResponse response) throws IOException {
+        if (!from.isBefore(to)) {
+            throw new InvalidExportRangeException("'from' must be before 'to'");
+        }
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("decisions-" + from.toLocalDate() + "-" + to.toLocalDate() + format.getFileExtension())
+                .build()
+                .toString());
+        exportService.export(from, to, format, response.getOutputStream());
+    }
+}
@@ -0,0 +1,50 @@
+package com.bank.creditcard.controller;
+
+import com.bank.creditcard.dto.SlaReport;
+import com.bank.creditcard.exception.InvalidExportRangeException;
+import com.bank.creditcard.service.SlaReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/v1/admin/sla")
+@RequiredArgsConstructor
+@Validated
+@Tag(name = "SLA", description = "Where decision time goes, by pipeline stage")
+public class SlaReportController {
+
+    static final Duration MAX_RANGE = Duration.ofDays(31);
+
+    private final SlaReportService slaReportService;
+
+    @GetMapping
+    @Operation(summary = "Decision time percentiles by stage and day, and the slowest decisions (default: last 7 days)")
+    public ResponseEntity<SlaReport> getSlaReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "20") @Min(0) @Max(500) int slowest) {
+        LocalDateTime end = to != null ? to : LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime start = from != null ? from : end.minusDays(7);
+        if (!start.isBefore(end)) {
+            throw new InvalidExportRangeException("'from' must be before 'to'");
+        }
+        if (Duration.between(start, end).compareTo(MAX_RANGE) > 0) {
+            throw new InvalidExportRangeException("The report covers at most " + MAX_RANGE.toDays() + " days");
+        }
+        return ResponseEntity.ok(slaReportService.report(start, end, slowest));
+    }
+}
@@ -0,0 +1,112 @@
+package com.bank.creditcard.dto;
+
+import com.bank.creditcard.exception.InvalidFieldSelectionException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The properties of {@link CreditCardApplicationResponse} a client can select with {@code fields=},
+ * each with the columns it is read from. Selected fields come back in declaration order, which is
+ * the order of the full response.
+ */
+public enum ApplicationField {
+
+    ID("id", false, "id"),
+    APPLICATION_NUMBER("applicationNumber", false, "applicationNumber"),
+    STATUS("status", false, "status"),
+    CUSTOMER_NAME("customerName", true, "firstName", "lastName"),
+    EMAIL("email", true, "email"),
+    REQUESTED_LIMIT("requestedLimit", false, "requestedLimit"),
+    APPROVED_LIMIT("approvedLimit", false, "approvedLimit"),
+    CARD_TYPE("cardType", false, "cardType"),
+    CREDIT_SCORE("creditScore", false, "creditScore"),
+    RISK_SCORE("riskScore", false, "riskScore"),
+    DECISION_REASON("decisionReason", false, "decisionReason"),
+    RULES_VERSION("rulesVersion", false, "rulesVersion"),
+    CREATED_AT("createdAt", false, "createdAt"),
+    DECIDED_AT("decidedAt", false, "decidedAt");
+
+    public static final String SUMMARY_VIEW = "summary";
+
+    /**
+     * {@code view=summary}: enough to show an application in a list or on a dashboard.
+     */
+    public static final Set<ApplicationField> SUMMARY = Collections.unmodifiableSet(
+            EnumSet.of(APPLICATION_NUMBER, STATUS, CARD_TYPE, CREATED_AT, DECIDED_AT));
+
+    private final String property;
+    private final boolean customer;
+    private final String[] attributes;
+
+    ApplicationField(String property, boolean customer, String... attributes) {
+        this.property = property;
+        this.customer = customer;
+        this.attributes = attributes;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Whether the attributes are the customer's rather than the application's.
+     */
+    public boolean fromCustomer() {
+        return customer;
+    }
+
+    public String[] attributes() {
+        return attributes.clone();
+    }
+
+    /**
+     * The response value from this field's attribute values, in the order of {@link #attributes()}.
+     */
+    public Object value(Object[] values) {
+        // As ApplicationMapper builds it
+        return this == CUSTOMER_NAME ? values[0] + " " + values[1] : values[0];
+    }
+
+    /**
+     * The fields asked for with {@code fields=a,b} or {@code view=summary}; empty for the full response.
+     *
+     * @throws InvalidFieldSelectionException for an unknown field or view, or both parameters at once
+     */
+    public static Optional<Set<ApplicationField>> selection(String fields, String view) {
+        boolean hasFields = fields != null && !fields.isBlank();
+        boolean hasView = view != null && !view.isBlank();
+        if (hasFields && hasView) {
+            throw new InvalidFieldSelectionException("Use either 'fields' or 'view', not both");
+        }
+        if (hasView) {
+            if (!SUMMARY_VIEW.equals(view.trim().toLowerCase(Locale.ROOT))) {
+                throw new InvalidFieldSelectionException("Unknown view '" + view + "'; expected '" + SUMMARY_VIEW + "'");
+            }
+            return Optional.of(SUMMARY);
+        }
+        if (!hasFields) {
+            return Optional.empty();
+        }
+        Set<ApplicationField> selected = EnumSet.noneOf(ApplicationField.class);
+        for (String name : fields.split(",", -1)) {
+            selected.add(byProperty(name.trim()));
+        }
+        return Optional.of(selected);
+    }
+
+    private static ApplicationField byProperty(String property) {
+        for (ApplicationField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new InvalidFieldSelectionException("Unknown field '" + property + "'; expected any of "
+                + Arrays.stream(values()).map(ApplicationField::property).collect(Collectors.joining(", ")));
+    }
+}
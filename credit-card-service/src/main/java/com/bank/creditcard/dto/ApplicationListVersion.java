@@ -0,0 +1,17 @@
+package com.bank.creditcard.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fingerprint of a list of applications. Versions only grow and applications are only ever added
+ * with a newer creation time, so any change to membership or content changes at least one field.
+ */
+@Value
+public class ApplicationListVersion {
+
+    Long count;
+    Long versionSum;
+    LocalDateTime newestCreatedAt;
+}
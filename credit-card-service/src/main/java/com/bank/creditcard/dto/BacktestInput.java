@@ -0,0 +1,17 @@
+package com.bank.creditcard.dto;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class BacktestInput {
+    CreditCardApplication.ApplicationStatus status;
+    BigDecimal annualIncome;
+    BigDecimal requestedLimit;
+    BigDecimal approvedLimit;
+    BigDecimal riskScore;
+    short encodingVersion;
+    byte[] payload;
+}
@@ -0,0 +1,37 @@
+package com.bank.creditcard.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class BacktestReport {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String candidateRulesVersion;
+    private long applications;
+    private long skipped;
+    private Side recorded;
+    private Side candidate;
+    private double approvalRateDelta;
+    private BigDecimal averageLimitDelta;
+    private BigDecimal averageRiskScoreDelta;
+    private long newlyApproved;
+    private long newlyRejected;
+    private long elapsedMillis;
+    private long applicationsPerSecond;
+
+    @Data
+    @Builder
+    public static class Side {
+        private long approved;
+        private long rejected;
+        private double approvalRate;
+        private BigDecimal averageApprovedLimit;
+        private BigDecimal averageRiskScore;
+    }
+}
@@ -47,4 +47,8 @@ public class CreditCardApplicationRequest {
 
     @NotNull(message = "Card type is required")
     private String cardType;
+
+    // Optional client device fingerprint, used in velocity screening
+    @Size(max = 128, message = "Device ID must be at most 128 characters")
+    private String deviceId;
 }
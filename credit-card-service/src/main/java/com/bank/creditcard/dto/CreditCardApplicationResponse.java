@@ -22,6 +22,7 @@ public class CreditCardApplicationResponse {
     private Integer creditScore;
     private BigDecimal riskScore;
     private String decisionReason;
+    private String rulesVersion;
     private LocalDateTime createdAt;
     private LocalDateTime decidedAt;
 }
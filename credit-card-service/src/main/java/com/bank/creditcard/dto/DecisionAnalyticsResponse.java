@@ -0,0 +1,43 @@
+package com.bank.creditcard.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class DecisionAnalyticsResponse {
+
+    private int windowHours;
+    private String cardType;
+    private LocalDateTime windowStart;
+    private long decisions;
+    private long approved;
+    private long rejected;
+    private double approvalRate;
+    private Map<String, Long> statusCounts;
+    private Map<String, CardTypeSummary> byCardType;
+    private List<HistogramBin> creditScoreHistogram;
+    private List<HistogramBin> riskScoreHistogram;
+    private Map<String, Long> rejectionReasons;
+
+    @Data
+    @Builder
+    public static class CardTypeSummary {
+        private long decisions;
+        private long approved;
+        private long rejected;
+        private double approvalRate;
+    }
+
+    @Data
+    @Builder
+    public static class HistogramBin {
+        private int lowerBound;
+        private int upperBound;
+        private long count;
+    }
+}
@@ -0,0 +1,27 @@
+package com.bank.creditcard.dto;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Value
+public class DecisionExportRow {
+
+    String applicationNumber;
+    CreditCardApplication.ApplicationStatus status;
+    CreditCardApplication.CardType cardType;
+    String firstName;
+    String lastName;
+    String email;
+    String ssn;
+    BigDecimal annualIncome;
+    BigDecimal requestedLimit;
+    BigDecimal approvedLimit;
+    Integer creditScore;
+    BigDecimal riskScore;
+    String decisionReason;
+    LocalDateTime createdAt;
+    LocalDateTime decidedAt;
+}
@@ -0,0 +1,20 @@
+package com.bank.creditcard.dto;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Value
+public class DecisionRecord {
+
+    UUID id;
+    CreditCardApplication.ApplicationStatus status;
+    CreditCardApplication.CardType cardType;
+    Integer creditScore;
+    BigDecimal riskScore;
+    String decisionReason;
+    LocalDateTime decidedAt;
+}
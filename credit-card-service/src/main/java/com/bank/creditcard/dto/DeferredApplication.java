@@ -0,0 +1,18 @@
+package com.bank.creditcard.dto;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * What the retry sweep needs to queue a deferred application again.
+ */
+@Value
+public class DeferredApplication {
+
+    UUID id;
+    String ssn;
+    CreditCardApplication.CardType cardType;
+    CreditCardApplication.Channel channel;
+}
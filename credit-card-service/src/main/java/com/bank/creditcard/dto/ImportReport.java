@@ -0,0 +1,22 @@
+package com.bank.creditcard.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ImportReport {
+
+    private String source;
+    private long resumedFromOffset;
+    private long rowsRead;
+    private long rowsRejected;
+    private long applicationsImported;
+    private long customersImported;
+    // Valid rows the database already had (same application number)
+    private long duplicatesSkipped;
+    // Imported undecided, and DEFERRED so that the retry sweep decides them
+    private long deferredImported;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
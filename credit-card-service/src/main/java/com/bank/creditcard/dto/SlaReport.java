@@ -0,0 +1,47 @@
+package com.bank.creditcard.dto;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+public class SlaReport {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // By day of decision, then stage: queue_wait, compliance, bureau, scoring, persist and total
+    private List<StageDay> stages;
+    private List<SlowApplication> slowest;
+
+    @Data
+    @Builder
+    public static class StageDay {
+        private LocalDate day;
+        private String stage;
+        private long applications;
+        private double p50Ms;
+        private double p90Ms;
+        private double p99Ms;
+        private long maxMs;
+    }
+
+    @Data
+    @Builder
+    public static class SlowApplication {
+        private UUID applicationId;
+        private CreditCardApplication.ApplicationStatus status;
+        private LocalDateTime decidedAt;
+        private long totalMs;
+        private Integer queueWaitMs;
+        private Integer complianceMs;
+        private Integer bureauMs;
+        private Integer scoringMs;
+        private Integer persistMs;
+    }
+}
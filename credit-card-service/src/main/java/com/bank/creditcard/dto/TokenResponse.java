@@ -0,0 +1,16 @@
+package com.bank.creditcard.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class TokenResponse {
+
+    private String accessToken;
+    private String tokenType;
+    private long expiresIn;
+    private Instant expiresAt;
+}
@@ -0,0 +1,22 @@
+package com.bank.creditcard.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The identifiers an application is counted by in velocity screening.
+ */
+@Value
+public class VelocityRecord {
+
+    UUID id;
+    String ssn;
+    String phoneNumber;
+    String email;
+    String streetAddress;
+    String zipCode;
+    String deviceId;
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,20 @@
+package com.bank.creditcard.exception;
+
+import java.time.Duration;
+
+/**
+ * An application's decision ran past its time budget; the stage named gave up waiting.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage, Duration budget) {
+        super("Time budget of " + budget + " ran out in " + stage);
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+}
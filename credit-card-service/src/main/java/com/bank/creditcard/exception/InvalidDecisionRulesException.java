@@ -0,0 +1,11 @@
+package com.bank.creditcard.exception;
+
+public class InvalidDecisionRulesException extends RuntimeException {
+    public InvalidDecisionRulesException(String message) {
+        super(message);
+    }
+
+    public InvalidDecisionRulesException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package com.bank.creditcard.exception;
+
+/**
+ * A requested range of decisions, for an export, a report or a backtest, is empty or longer than allowed.
+ */
+public class InvalidExportRangeException extends RuntimeException {
+    public InvalidExportRangeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.bank.creditcard.exception;
+
+/**
+ * A {@code fields} or {@code view} request parameter names a field or view the responses do not have.
+ */
+public class InvalidFieldSelectionException extends RuntimeException {
+    public InvalidFieldSelectionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,223 @@
+package com.bank.creditcard.importer;
+
+import com.bank.creditcard.dto.AddressDto;
+import com.bank.creditcard.dto.CreditCardApplicationRequest;
+import com.bank.creditcard.model.CreditCardApplication;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns records of a legacy export into applications. Columns are found by header name, in any
+ * order. The applicant's fields go through the same Bean Validation rules as
+ * {@link CreditCardApplicationRequest}; the historical fields (status, decision, timestamps) are
+ * checked here, along with the column lengths the database would otherwise reject mid-batch.
+ */
+public class ApplicationCsvMapper {
+
+    enum Column {
+        APPLICATION_NUMBER(true, 50),
+        STATUS(true, 20),
+        FIRST_NAME(true, 100),
+        LAST_NAME(true, 100),
+        EMAIL(true, 255),
+        PHONE_NUMBER(true, 20),
+        SSN(true, 11),
+        DATE_OF_BIRTH(true, 0),
+        STREET_ADDRESS(true, 255),
+        CITY(true, 100),
+        STATE(true, 2),
+        ZIP_CODE(true, 10),
+        COUNTRY(false, 50),
+        ANNUAL_INCOME(true, 0),
+        EMPLOYMENT_STATUS(true, 50),
+        REQUESTED_LIMIT(false, 0),
+        APPROVED_LIMIT(false, 0),
+        CREDIT_SCORE(false, 0),
+        RISK_SCORE(false, 0),
+        CARD_TYPE(true, 20),
+        DECISION_REASON(false, 0),
+        DEVICE_ID(false, 128),
+        CHANNEL(false, 16),
+        CREATED_AT(true, 0),
+        DECIDED_AT(false, 0);
+
+        private final boolean required;
+        private final int maxLength;
+
+        Column(boolean required, int maxLength) {
+            this.required = required;
+            this.maxLength = maxLength;
+        }
+
+        String header() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private final Validator validator;
+    private final int[] positions = new int[COLUMNS.length];
+    private final String[] values = new String[COLUMNS.length];
+
+    /**
+     * Reads the column positions from the header record the reader is on.
+     */
+    public ApplicationCsvMapper(MappedCsvReader header, Validator validator) {
+        this.validator = validator;
+        Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < header.fieldCount(); i++) {
+            byName.putIfAbsent(header.field(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = new ArrayList<>();
+        for (Column column : COLUMNS) {
+            positions[column.ordinal()] = byName.getOrDefault(column.header(), -1);
+            if (column.required && positions[column.ordinal()] < 0) {
+                missing.add(column.header());
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header lacks required columns " + missing);
+        }
+    }
+
+    /**
+     * Maps the reader's current record; throws {@link IllegalArgumentException} naming every
+     * problem found if the record cannot be imported.
+     */
+    public ImportedApplication map(MappedCsvReader record) {
+        List<String> problems = new ArrayList<>();
+        for (Column column : COLUMNS) {
+            int position = positions[column.ordinal()];
+            String value = position < 0 ? null : record.field(position);
+            if (value != null) {
+                value = value.trim();
+                if (value.isEmpty()) {
+                    value = null;
+                } else if (column.maxLength > 0 && value.length() > column.maxLength) {
+                    problems.add(column.header() + " is longer than " + column.maxLength + " characters");
+                }
+            }
+            values[column.ordinal()] = value;
+        }
+
+        AddressDto address = new AddressDto();
+        address.setStreetAddress(value(Column.STREET_ADDRESS));
+        address.setCity(value(Column.CITY));
+        address.setState(value(Column.STATE));
+        address.setZipCode(value(Column.ZIP_CODE));
+        if (value(Column.COUNTRY) != null) {
+            address.setCountry(value(Column.COUNTRY));
+        }
+        CreditCardApplicationRequest request = new CreditCardApplicationRequest();
+        request.setFirstName(value(Column.FIRST_NAME));
+        request.setLastName(value(Column.LAST_NAME));
+        request.setEmail(value(Column.EMAIL));
+        request.setPhoneNumber(value(Column.PHONE_NUMBER));
+        request.setSsn(value(Column.SSN));
+        request.setDateOfBirth(parse(Column.DATE_OF_BIRTH, LocalDate::parse, problems));
+        request.setAddress(address);
+        request.setAnnualIncome(parse(Column.ANNUAL_INCOME, BigDecimal::new, problems));
+        request.setEmploymentStatus(value(Column.EMPLOYMENT_STATUS));
+        request.setRequestedLimit(parse(Column.REQUESTED_LIMIT, BigDecimal::new, problems));
+        request.setCardType(value(Column.CARD_TYPE));
+        request.setDeviceId(value(Column.DEVICE_ID));
+
+        if (value(Column.SSN) == null) {
+            problems.add("SSN is required");
+        }
+        Set<ConstraintViolation<CreditCardApplicationRequest>> violations = validator.validate(request);
+        for (ConstraintViolation<CreditCardApplicationRequest> violation : violations) {
+            problems.add(violation.getMessage());
+        }
+
+        ImportedApplication application = new ImportedApplication(
+                value(Column.APPLICATION_NUMBER),
+                parseEnum(Column.STATUS, CreditCardApplication.ApplicationStatus.class, problems),
+                request,
+                parseEnum(Column.CARD_TYPE, CreditCardApplication.CardType.class, problems),
+                value(Column.CHANNEL) == null ? CreditCardApplication.Channel.ONLINE
+                        : parseEnum(Column.CHANNEL, CreditCardApplication.Channel.class, problems),
+                parse(Column.APPROVED_LIMIT, BigDecimal::new, problems),
+                parse(Column.CREDIT_SCORE, Integer::valueOf, problems),
+                parse(Column.RISK_SCORE, BigDecimal::new, problems),
+                value(Column.DECISION_REASON),
+                parse(Column.CREATED_AT, LocalDateTime::parse, problems),
+                parse(Column.DECIDED_AT, LocalDateTime::parse, problems));
+        for (Column column : List.of(Column.APPLICATION_NUMBER, Column.STATUS, Column.CREATED_AT)) {
+            if (value(column) == null) {
+                problems.add(column.header() + " is required");
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException(problems.stream().distinct().collect(Collectors.joining("; ")));
+        }
+        return application;
+    }
+
+    private String value(Column column) {
+        return values[column.ordinal()];
+    }
+
+    private <T> T parse(Column column, Parser<T> parser, List<String> problems) {
+        String value = value(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.parse(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            problems.add(column.header() + " '" + value + "' is not valid");
+            return null;
+        }
+    }
+
+    private <E extends Enum<E>> E parseEnum(Column column, Class<E> type, List<String> problems) {
+        String value = value(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            problems.add(column.header() + " '" + value + "' is not one of " + List.of(type.getEnumConstants()));
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Parser<T> {
+        T parse(String value);
+    }
+
+    /**
+     * One application from the legacy export, with the applicant as a validated request.
+     */
+    @Value
+    public static class ImportedApplication {
+        String applicationNumber;
+        CreditCardApplication.ApplicationStatus status;
+        CreditCardApplicationRequest applicant;
+        CreditCardApplication.CardType cardType;
+        CreditCardApplication.Channel channel;
+        BigDecimal approvedLimit;
+        Integer creditScore;
+        BigDecimal riskScore;
+        String decisionReason;
+        LocalDateTime createdAt;
+        LocalDateTime decidedAt;
+    }
+}
@@ -0,0 +1,107 @@
+package com.bank.creditcard.importer;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Buffers rows in PostgreSQL's COPY text format (tab-separated, {@code \N} for null) and sends
+ * them with one {@code COPY ... FROM STDIN}. The buffer is kept between batches.
+ */
+public final class CopyWriter {
+
+    private final String sql;
+    private byte[] buffer = new byte[1 << 20];
+    private int length;
+    private int rows;
+    private boolean rowStarted;
+
+    /**
+     * @param table the target table and column list, e.g. {@code import_customers (ssn, email)}
+     */
+    public CopyWriter(String table) {
+        this.sql = "COPY " + table + " FROM STDIN";
+    }
+
+    public CopyWriter field(Object value) {
+        if (rowStarted) {
+            append((byte) '\t');
+        }
+        rowStarted = true;
+        if (value == null) {
+            append((byte) '\\');
+            append((byte) 'N');
+            return this;
+        }
+        byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+        ensure(bytes.length * 2);
+        for (byte b : bytes) {
+            switch (b) {
+                case '\\' -> escape((byte) '\\');
+                case '\t' -> escape((byte) 't');
+                case '\n' -> escape((byte) 'n');
+                case '\r' -> escape((byte) 'r');
+                default -> buffer[length++] = b;
+            }
+        }
+        return this;
+    }
+
+    public void endRow() {
+        append((byte) '\n');
+        rowStarted = false;
+        rows++;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Sends the buffered rows and empties the buffer; returns the number of rows copied.
+     */
+    public long flush(CopyManager copyManager) throws SQLException {
+        if (rows == 0) {
+            return 0;
+        }
+        CopyIn copyIn = copyManager.copyIn(sql);
+        try {
+            copyIn.writeToCopy(buffer, 0, length);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+            clear();
+        }
+    }
+
+    public void clear() {
+        length = 0;
+        rows = 0;
+        rowStarted = false;
+    }
+
+    byte[] bytes() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private void escape(byte b) {
+        buffer[length++] = '\\';
+        buffer[length++] = b;
+    }
+
+    private void append(byte b) {
+        ensure(1);
+        buffer[length++] = b;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.bank.creditcard.importer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * RFC 4180 CSV reader over a memory-mapped file. The file is mapped in windows of up to
+ * {@code windowSize} bytes, so files beyond 2 GB need no special handling; a record that crosses
+ * a window boundary is parsed again from a window starting at that record.
+ *
+ * <p>{@link #next()} only records where each field starts and ends in reusable arrays. Nothing is
+ * decoded until a field is asked for, so a row costs one string per field read and nothing else.
+ * Quoted fields may contain commas, doubled quotes and line breaks; both LF and CRLF end a record.
+ *
+ * <p>{@link #offset()} is the byte position just past the current record, and a reader opened at
+ * that position continues with the following record. Import checkpoints store it.
+ */
+public final class MappedCsvReader implements AutoCloseable {
+
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long recordStart;
+    private long recordEnd;
+
+    private int fieldCount;
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private boolean[] quoted = new boolean[32];
+    private byte[] scratch = new byte[256];
+
+    public MappedCsvReader(Path file, long startOffset) throws IOException {
+        this(file, startOffset, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedCsvReader(Path file, long startOffset, int windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        if (startOffset < 0 || startOffset > size) {
+            channel.close();
+            throw new IllegalArgumentException("Offset " + startOffset + " is outside " + file + " (" + size + " bytes)");
+        }
+        this.recordEnd = startOffset;
+        map(startOffset);
+    }
+
+    /**
+     * Parses the next record; false at the end of the file. Blank lines are skipped.
+     */
+    public boolean next() {
+        while (recordEnd < size) {
+            recordStart = recordEnd;
+            if (recordStart - windowStart >= window.limit()) {
+                map(recordStart);
+            }
+            int end = parse((int) (recordStart - windowStart));
+            if (end < 0) {
+                // Ran off the window before the record ended: map a window starting at the record
+                if (windowStart == recordStart) {
+                    throw new IllegalStateException("Record at byte " + recordStart + " is longer than the "
+                            + windowSize + "-byte window");
+                }
+                map(recordStart);
+                end = parse(0);
+                if (end < 0) {
+                    throw new IllegalStateException("Record at byte " + recordStart + " is longer than the "
+                            + windowSize + "-byte window");
+                }
+            }
+            recordEnd = windowStart + end;
+            if (fieldCount > 1 || ends[0] > starts[0] || quoted[0]) {
+                return true;
+            }
+        }
+        fieldCount = 0;
+        return false;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * The decoded field, or null if the record has fewer fields. Empty fields are empty strings.
+     */
+    public String field(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return null;
+        }
+        int start = starts[index];
+        int length = ends[index] - start;
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = scratch(length);
+        window.get(start, bytes, 0, length);
+        if (quoted[index]) {
+            length = collapseQuotes(bytes, length);
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The record as it appears in the file, without its line break.
+     */
+    public String raw() {
+        int start = (int) (recordStart - windowStart);
+        int end = (int) (recordEnd - windowStart);
+        while (end > start && (window.get(end - 1) == LF || window.get(end - 1) == CR)) {
+            end--;
+        }
+        byte[] bytes = scratch(end - start);
+        window.get(start, bytes, 0, end - start);
+        return new String(bytes, 0, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Byte position just past the current record.
+     */
+    public long offset() {
+        return recordEnd;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Records field boundaries from {@code pos} to the end of the record; returns the position
+     * after the record's line break, or -1 if the window ends first and the file does not.
+     */
+    private int parse(int pos) {
+        int limit = window.limit();
+        boolean lastWindow = windowStart + limit >= size;
+        fieldCount = 0;
+        while (true) {
+            if (pos >= limit && !lastWindow) {
+                return -1;
+            }
+            boolean isQuoted = pos < limit && window.get(pos) == QUOTE;
+            int start;
+            int end;
+            if (isQuoted) {
+                start = ++pos;
+                while (true) {
+                    if (pos >= limit) {
+                        if (!lastWindow) {
+                            return -1;
+                        }
+                        throw new IllegalStateException("Unterminated quoted field at byte " + (windowStart + start - 1));
+                    }
+                    if (window.get(pos) == QUOTE) {
+                        if (pos + 1 < limit && window.get(pos + 1) == QUOTE) {
+                            pos += 2;
+                            continue;
+                        }
+                        if (pos + 1 >= limit && !lastWindow) {
+                            return -1;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                end = pos++;
+            } else {
+                start = pos;
+                while (pos < limit) {
+                    byte b = window.get(pos);
+                    if (b == COMMA || b == LF || b == CR) {
+                        break;
+                    }
+                    pos++;
+                }
+                end = pos;
+            }
+            addField(start, end, isQuoted);
+            if (pos >= limit) {
+                return lastWindow ? pos : -1;
+            }
+            byte b = window.get(pos);
+            if (b == COMMA) {
+                pos++;
+                continue;
+            }
+            if (b == CR) {
+                if (pos + 1 >= limit && !lastWindow) {
+                    return -1;
+                }
+                pos++;
+                if (pos < limit && window.get(pos) == LF) {
+                    pos++;
+                }
+                return pos;
+            }
+            if (b == LF) {
+                return pos + 1;
+            }
+            throw new IllegalStateException("Unexpected character after quoted field at byte " + (windowStart + pos));
+        }
+    }
+
+    private void addField(int start, int end, boolean isQuoted) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            quoted = Arrays.copyOf(quoted, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        quoted[fieldCount] = isQuoted;
+        fieldCount++;
+    }
+
+    private void map(long position) {
+        try {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+
+    private static int collapseQuotes(byte[] bytes, int length) {
+        int out = 0;
+        for (int in = 0; in < length; in++) {
+            bytes[out++] = bytes[in];
+            if (bytes[in] == QUOTE && in + 1 < length && bytes[in + 1] == QUOTE) {
+                in++;
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bank.creditcard.job;
+
+import com.bank.creditcard.dto.ImportReport;
+import com.bank.creditcard.service.ApplicationImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * One-shot bulk import of a legacy CSV export, e.g.
+ * {@code java -jar app.jar --spring.main.web-application-type=none --import.applications.input=/data/legacy.csv
+ * --import.applications.rejects=/data/legacy-rejects.csv}.
+ * Running it again after a failure continues from the last committed batch;
+ * {@code import.applications.restart=true} starts the file over.
+ */
+@Component
+@ConditionalOnProperty(name = "import.applications.input")
+@RequiredArgsConstructor
+@Slf4j
+public class ApplicationImportJob implements ApplicationRunner {
+
+    private final ApplicationImportService importService;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${import.applications.input}")
+    private Path input;
+
+    @Value("${import.applications.rejects:}")
+    private String rejects;
+
+    @Value("${import.applications.restart:false}")
+    private boolean restart;
+
+    @Value("${import.applications.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ImportReport report = importService.importFile(input, rejects.isBlank() ? null : Path.of(rejects), restart);
+        log.info("Import result:\n{}", objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
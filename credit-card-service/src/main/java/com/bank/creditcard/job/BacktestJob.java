@@ -0,0 +1,61 @@
+package com.bank.creditcard.job;
+
+import com.bank.creditcard.dto.BacktestReport;
+import com.bank.creditcard.rules.CompiledDecisionRules;
+import com.bank.creditcard.rules.DecisionRulesRegistry;
+import com.bank.creditcard.service.BacktestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * One-shot backtest, e.g.
+ * {@code java -jar app.jar --spring.main.web-application-type=none --backtest.rules=file:/policy/2024.2.json
+ * --backtest.from=2023-01-01T00:00 --backtest.to=2024-01-01T00:00}.
+ * Without {@code backtest.rules} the active rules are replayed.
+ */
+@Component
+@ConditionalOnProperty(name = "backtest.from")
+@RequiredArgsConstructor
+@Slf4j
+public class BacktestJob implements ApplicationRunner {
+
+    private final BacktestService backtestService;
+    private final DecisionRulesRegistry decisionRulesRegistry;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${backtest.from}")
+    private LocalDateTime from;
+
+    @Value("${backtest.to}")
+    private LocalDateTime to;
+
+    @Value("${backtest.rules:}")
+    private String rulesLocation;
+
+    @Value("${backtest.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        CompiledDecisionRules rules = rulesLocation.isBlank()
+                ? decisionRulesRegistry.current()
+                : decisionRulesRegistry.load(rulesLocation);
+        log.info("Backtesting rules {} against decisions between {} and {}", rules.getVersion(), from, to);
+        BacktestReport report = backtestService.run(from, to, rules);
+        log.info("Backtest result:\n{}", objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.creditcard.job;
+
+import com.bank.creditcard.service.DecisionExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * One-shot export to a file, e.g.
+ * {@code java -jar app.jar --spring.main.web-application-type=none --export.decisions.output=/data/q1.ndjson.gz
+ * --export.decisions.from=2024-01-01T00:00 --export.decisions.to=2024-04-01T00:00}.
+ * The format follows the file extension.
+ */
+@Component
+@ConditionalOnProperty(name = "export.decisions.output")
+@RequiredArgsConstructor
+@Slf4j
+public class DecisionExportJob implements ApplicationRunner {
+
+    private final DecisionExportService exportService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${export.decisions.output}")
+    private Path output;
+
+    @Value("${export.decisions.from}")
+    private LocalDateTime from;
+
+    @Value("${export.decisions.to}")
+    private LocalDateTime to;
+
+    @Value("${export.decisions.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        DecisionExportService.Format format = DecisionExportService.Format.fromFileName(output.toString());
+        log.info("Exporting decisions between {} and {} to {}", from, to, output);
+        long rows;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 256 * 1024)) {
+            rows = exportService.export(from, to, format, out);
+        }
+        log.info("Export finished: {} rows written to {}", rows, output);
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
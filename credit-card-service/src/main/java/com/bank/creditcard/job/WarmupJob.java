@@ -0,0 +1,240 @@
+package com.bank.creditcard.job;
+
+import com.bank.creditcard.dto.CreditBureauReport;
+import com.bank.creditcard.dto.CreditCardApplicationRequest;
+import com.bank.creditcard.mapper.ApplicationMapper;
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.security.BearerTokenService;
+import com.bank.creditcard.service.RiskAssessmentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs the request path on synthetic applications so that it is compiled before the first real one
+ * arrives. Spring Boot reports readiness only once every ApplicationRunner has returned, so nothing
+ * is routed here until the warm-up is over.
+ *
+ * <p>In process, each iteration reads a submission with Jackson, validates it, maps it, scores it
+ * against the active rules and writes the response. Over HTTP, submissions that fail validation
+ * go through the security filter chain and back out as problem details. Nothing is written to
+ * the database and the bureau is never called. The warm-up stops at its iteration budget or at
+ * {@code warmup.max-duration}, whichever comes first, and never fails startup.
+ */
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class WarmupJob implements ApplicationRunner {
+
+    static final String SUBMIT_PATH = "/api/v1/credit-card-applications";
+    // Latency before and after is the median of this many iterations at either end
+    static final int SAMPLE = 50;
+
+    private static final String[] CARD_TYPES = {"CLASSIC", "GOLD", "PLATINUM", "INFINITE"};
+    private static final CreditBureauReport.CreditInquiry INQUIRY = CreditBureauReport.CreditInquiry.builder()
+            .inquirerName("Warm-up Bank")
+            .inquiryType("HARD")
+            .build();
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationMapper applicationMapper;
+    private final RiskAssessmentService riskAssessmentService;
+    private final BearerTokenService tokenService;
+    private final Environment environment;
+
+    @Value("${warmup.iterations:10000}")
+    private int iterations;
+
+    @Value("${warmup.http-iterations:1000}")
+    private int httpIterations;
+
+    @Value("${warmup.max-duration:PT30S}")
+    private Duration maxDuration;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        try {
+            report("in-process", warmUp(iterations, deadline, this::decide));
+            Integer port = environment.getProperty("local.server.port", Integer.class);
+            if (port != null && httpIterations > 0) {
+                report("HTTP", warmUpHttp(port, deadline));
+            }
+        } catch (Exception e) {
+            log.warn("Warm-up stopped early; accepting traffic anyway", e);
+        }
+    }
+
+    Latencies warmUp(int budget, long deadline, Step step) throws Exception {
+        Latencies latencies = new Latencies();
+        for (int i = 0; i < budget && System.nanoTime() < deadline; i++) {
+            long start = System.nanoTime();
+            step.run(i);
+            latencies.add(System.nanoTime() - start);
+        }
+        return latencies;
+    }
+
+    /**
+     * One submission through everything but the database and the bureau.
+     */
+    void decide(int i) throws Exception {
+        CreditCardApplicationRequest request = objectMapper.readValue(requestJson(i, limit(i)),
+                CreditCardApplicationRequest.class);
+        Set<ConstraintViolation<CreditCardApplicationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("Synthetic application is invalid: " + violations);
+        }
+        CreditCardApplication application = applicationMapper.toEntity(request);
+        application.setCustomer(applicationMapper.toCustomer(request));
+        application.setApplicationNumber("WARMUP-" + i);
+        BigDecimal riskScore = riskAssessmentService.calculateRiskScore(application, bureauReport(i));
+        application.setRiskScore(riskScore);
+        application.setApprovedLimit(riskAssessmentService.determineApprovedLimit(application, riskScore));
+        application.setStatus(CreditCardApplication.ApplicationStatus.APPROVED);
+        objectMapper.writeValueAsString(applicationMapper.toResponse(application));
+    }
+
+    private Latencies warmUpHttp(int port, long deadline) throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + port + SUBMIT_PATH);
+        // Signed in-process, so no BCrypt check; the token never leaves this JVM
+        String authorization = "Bearer " + tokenService.issue(new UsernamePasswordAuthenticationToken(
+                "warmup", null, AuthorityUtils.createAuthorityList("ROLE_USER"))).getAccessToken();
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        return warmUp(httpIterations, deadline, i -> {
+            // Below the minimum requested limit: rejected by validation before the service is reached
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(5))
+                    .header(HttpHeaders.AUTHORIZATION, authorization)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofString(requestJson(i, 500)))
+                    .build();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != HttpStatus.BAD_REQUEST.value()) {
+                throw new IllegalStateException("Warm-up submission answered " + status + " instead of 400");
+            }
+        });
+    }
+
+    private void report(String path, Latencies latencies) {
+        log.info("Warm-up ({}): {} iterations; median {} µs over the first {}, {} µs over the last {}",
+                path, latencies.count(), latencies.firstMedian() / 1_000, SAMPLE, latencies.lastMedian() / 1_000,
+                SAMPLE);
+    }
+
+    // Varies every field the rules and validators branch on; SSNs in the 900 area are never issued
+    static String requestJson(int i, int requestedLimit) {
+        return """
+                {"firstName": "Warm", "lastName": "Up%1$d", "email": "warmup%1$d@example.com",
+                 "phoneNumber": "+1555%2$07d", "ssn": "900-%3$02d-%4$04d", "dateOfBirth": "%5$s",
+                 "address": {"streetAddress": "%1$d Main St", "city": "Springfield", "state": "IL",
+                             "zipCode": "62701", "country": "USA"},
+                 "annualIncome": %6$d, "employmentStatus": "FULL_TIME", "requestedLimit": %7$d,
+                 "cardType": "%8$s", "deviceId": "warmup-%9$d"}"""
+                .formatted(i, i % 10_000_000, i / 10_000 % 100, i % 10_000,
+                        LocalDate.of(1950, 1, 1).plusDays(i % 18_000), 20_000 + i % 200 * 1_000,
+                        requestedLimit, CARD_TYPES[i % CARD_TYPES.length], i % 64);
+    }
+
+    private static int limit(int i) {
+        return 1_000 + i % 100 * 500;
+    }
+
+    private static CreditBureauReport bureauReport(int i) {
+        BigDecimal cardLimit = BigDecimal.valueOf(i % 7 == 0 ? 0 : 1_000 + i % 40 * 500);
+        return CreditBureauReport.builder()
+                .ssn("900-00-0000")
+                .creditScore(300 + i % 551)
+                .monthlyDebtPayments(BigDecimal.valueOf(i % 60 * 100))
+                .numberOfDelinquentAccounts(i % 5)
+                .creditAccounts(List.of(
+                        CreditBureauReport.CreditAccount.builder()
+                                .accountType("Credit Card")
+                                .balance(cardLimit.multiply(BigDecimal.valueOf(i % 11)).movePointLeft(1))
+                                .creditLimit(cardLimit)
+                                .build(),
+                        CreditBureauReport.CreditAccount.builder()
+                                .accountType("Auto Loan")
+                                .balance(BigDecimal.valueOf(12_000))
+                                .creditLimit(BigDecimal.valueOf(20_000))
+                                .build()))
+                .recentInquiries(Collections.nCopies(i % 4, INQUIRY))
+                .build();
+    }
+
+    @FunctionalInterface
+    interface Step {
+        void run(int iteration) throws Exception;
+    }
+
+    /**
+     * Keeps the first and the last {@link #SAMPLE} latencies of a run.
+     */
+    static final class Latencies {
+
+        private final long[] first = new long[SAMPLE];
+        private final long[] last = new long[SAMPLE];
+        private int count;
+
+        void add(long nanos) {
+            if (count < SAMPLE) {
+                first[count] = nanos;
+            }
+            last[count % SAMPLE] = nanos;
+            count++;
+        }
+
+        int count() {
+            return count;
+        }
+
+        long firstMedian() {
+            return median(first, Math.min(count, SAMPLE));
+        }
+
+        long lastMedian() {
+            return median(last, Math.min(count, SAMPLE));
+        }
+
+        private static long median(long[] values, int n) {
+            if (n == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(values, n);
+            Arrays.sort(sorted);
+            return sorted[n / 2];
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.bank.creditcard.journal;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of application status transitions in memory-mapped segment files.
+ *
+ * <p>Every record is {@value #RECORD_SIZE} bytes, big-endian:
+ * <pre>
+ *  0 sequence (long)          32 from status (byte, ordinal + 1, 0 = none)
+ *  8 timestamp, epoch micros  33 to status (byte, ordinal + 1)
+ * 16 application id, msb      34 card type (byte, ordinal + 1, 0 = none)
+ * 24 application id, lsb      35 reason (byte, {@link TransitionReason} ordinal)
+ *                             36 credit score (short, -1 = none)
+ *                             38 risk score, hundredths (int, -1 = none)
+ *                             42 approved limit, cents (long, -1 = none)
+ *                             50 reserved
+ *                             60 CRC32C of bytes 0-59 (int)
+ * </pre>
+ * A segment is named after its first sequence number. Appends copy one record into the mapped
+ * segment under a short lock; flushing to disk happens on a schedule, never on the decision path.
+ * Replay stops at the first record whose CRC does not match, which is where a crash tore the tail.
+ *
+ * <p>Instances that share {@code journal.directory} each write their own subdirectory, named by
+ * {@code journal.instance}; a timeline reads them all, so it shows every transition of the
+ * application whichever instance made it. Records reach the other instances once flushed.
+ */
+@Component
+@Slf4j
+public class DecisionJournal {
+
+    static final int RECORD_SIZE = 64;
+    private static final int CRC_OFFSET = 60;
+    private static final String SEGMENT_PREFIX = "decisions-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final CreditCardApplication.ApplicationStatus[] STATUSES =
+            CreditCardApplication.ApplicationStatus.values();
+    private static final CreditCardApplication.CardType[] CARD_TYPES = CreditCardApplication.CardType.values();
+    private static final TransitionReason[] REASONS = TransitionReason.values();
+
+    private final Path root;
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentRecords;
+    private long nextSequence;
+
+    public DecisionJournal(@Value("${journal.directory:data/journal}") Path directory,
+                           @Value("${journal.instance:}") String instance,
+                           @Value("${journal.segment-size:64MB}") DataSize segmentSize) {
+        this.root = directory;
+        this.directory = instance.isBlank() ? directory : directory.resolve(instance);
+        this.recordsPerSegment = (int) Math.max(1, segmentSize.toBytes() / RECORD_SIZE);
+        try {
+            Files.createDirectories(this.directory);
+            List<Path> segments = segments(this.directory);
+            if (segments.isEmpty()) {
+                openSegment(1);
+            } else {
+                recover(segments.get(segments.size() - 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open decision journal in " + this.directory, e);
+        }
+        log.info("Decision journal at {} continuing from sequence {}", this.directory, nextSequence);
+    }
+
+    public long append(UUID applicationId, CreditCardApplication.ApplicationStatus fromStatus,
+                       CreditCardApplication.ApplicationStatus toStatus, CreditCardApplication.CardType cardType,
+                       Integer creditScore, BigDecimal riskScore, BigDecimal approvedLimit, TransitionReason reason) {
+        long micros = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        lock.lock();
+        try {
+            if (segmentRecords == recordsPerSegment) {
+                rollSegment();
+            }
+            long sequence = nextSequence++;
+            ByteBuffer buffer = segment;
+            int offset = segmentRecords * RECORD_SIZE;
+            buffer.putLong(offset, sequence);
+            buffer.putLong(offset + 8, micros);
+            buffer.putLong(offset + 16, applicationId.getMostSignificantBits());
+            buffer.putLong(offset + 24, applicationId.getLeastSignificantBits());
+            buffer.put(offset + 32, fromStatus == null ? 0 : (byte) (fromStatus.ordinal() + 1));
+            buffer.put(offset + 33, (byte) (toStatus.ordinal() + 1));
+            buffer.put(offset + 34, cardType == null ? 0 : (byte) (cardType.ordinal() + 1));
+            buffer.put(offset + 35, (byte) reason.ordinal());
+            buffer.putShort(offset + 36, creditScore == null ? -1 : creditScore.shortValue());
+            buffer.putInt(offset + 38, riskScore == null ? -1 : scaled(riskScore).intValueExact());
+            buffer.putLong(offset + 42, approvedLimit == null ? -1 : scaled(approvedLimit).longValueExact());
+            buffer.putInt(offset + CRC_OFFSET, crc(buffer, offset));
+            segmentRecords++;
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll decision journal segment", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads every intact record with a sequence of at least {@code fromSequence}, in order.
+     */
+    public void replay(long fromSequence, Consumer<JournalEntry> consumer) {
+        scan(directory, fromSequence, null, consumer);
+    }
+
+    /**
+     * Every transition of one application in every instance's journal, oldest first. Records of
+     * other applications are skipped on their raw id bytes without being decoded.
+     */
+    public List<JournalEntry> timeline(UUID applicationId) {
+        List<JournalEntry> entries = new ArrayList<>();
+        for (Path journal : journals()) {
+            scan(journal, 1, applicationId, entries::add);
+        }
+        // Sequences are per instance; the timestamps order transitions made on different instances
+        entries.sort(Comparator.comparing(JournalEntry::getTimestamp));
+        return entries;
+    }
+
+    private void scan(Path journal, long fromSequence, UUID applicationId, Consumer<JournalEntry> consumer) {
+        List<Path> segments;
+        try {
+            segments = segments(journal);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            boolean hasNext = i + 1 < segments.size();
+            if (hasNext && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            if (!scanSegment(segments.get(i), fromSequence, applicationId, consumer)) {
+                return;
+            }
+        }
+    }
+
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${journal.flush-interval:PT1S}")
+    public void flush() {
+        MappedByteBuffer current;
+        lock.lock();
+        try {
+            current = segment;
+        } finally {
+            lock.unlock();
+        }
+        // msync outside the lock so appends never wait for the disk
+        current.force();
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            segment.force();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The shared directory, and the directory of every instance that has written under it
+    private List<Path> journals() {
+        try (Stream<Path> files = Files.list(root)) {
+            return Stream.concat(Stream.of(root), files.filter(Files::isDirectory).sorted()).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean scanSegment(Path path, long fromSequence, UUID applicationId, Consumer<JournalEntry> consumer) {
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = reader.map(FileChannel.MapMode.READ_ONLY, 0, reader.size());
+            int records = (int) (reader.size() / RECORD_SIZE);
+            for (int record = 0; record < records; record++) {
+                int offset = record * RECORD_SIZE;
+                if (!isValid(buffer, offset)) {
+                    return false;
+                }
+                if (buffer.getLong(offset) < fromSequence) {
+                    continue;
+                }
+                if (applicationId == null
+                        || (buffer.getLong(offset + 16) == applicationId.getMostSignificantBits()
+                        && buffer.getLong(offset + 24) == applicationId.getLeastSignificantBits())) {
+                    consumer.accept(decode(buffer, offset));
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot replay decision journal segment " + path, e);
+        }
+    }
+
+    private void recover(Path last) throws IOException {
+        long start = firstSequence(last);
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        int records = 0;
+        while (records < recordsPerSegment && isValid(segment, records * RECORD_SIZE)
+                && segment.getLong(records * RECORD_SIZE) == start + records) {
+            records++;
+        }
+        // Anything after the last intact record is a torn write; clear it so replay ends cleanly
+        for (int offset = records * RECORD_SIZE; offset < (records + 1) * RECORD_SIZE
+                && offset < recordsPerSegment * RECORD_SIZE; offset++) {
+            segment.put(offset, (byte) 0);
+        }
+        segmentRecords = records;
+        nextSequence = start + records;
+    }
+
+    private void rollSegment() throws IOException {
+        segment.force();
+        channel.close();
+        openSegment(nextSequence);
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        segmentRecords = 0;
+        nextSequence = firstSequence;
+    }
+
+    private static List<Path> segments(Path journal) throws IOException {
+        try (Stream<Path> files = Files.list(journal)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static boolean isValid(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset) > 0 && buffer.getInt(offset + CRC_OFFSET) == crc(buffer, offset);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static JournalEntry decode(ByteBuffer buffer, int offset) {
+        long micros = buffer.getLong(offset + 8);
+        byte from = buffer.get(offset + 32);
+        byte cardType = buffer.get(offset + 34);
+        short creditScore = buffer.getShort(offset + 36);
+        int riskScore = buffer.getInt(offset + 38);
+        long approvedLimit = buffer.getLong(offset + 42);
+        return new JournalEntry(
+                buffer.getLong(offset),
+                Instant.EPOCH.plus(micros, ChronoUnit.MICROS),
+                new UUID(buffer.getLong(offset + 16), buffer.getLong(offset + 24)),
+                from == 0 ? null : STATUSES[from - 1],
+                STATUSES[buffer.get(offset + 33) - 1],
+                cardType == 0 ? null : CARD_TYPES[cardType - 1],
+                creditScore < 0 ? null : (int) creditScore,
+                riskScore < 0 ? null : BigDecimal.valueOf(riskScore, 2),
+                approvedLimit < 0 ? null : BigDecimal.valueOf(approvedLimit, 2),
+                REASONS[buffer.get(offset + 35)]);
+    }
+
+    private static BigInteger scaled(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue();
+    }
+}
@@ -0,0 +1,22 @@
+package com.bank.creditcard.journal;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Value
+public class JournalEntry {
+    long sequence;
+    Instant timestamp;
+    UUID applicationId;
+    CreditCardApplication.ApplicationStatus fromStatus;
+    CreditCardApplication.ApplicationStatus toStatus;
+    CreditCardApplication.CardType cardType;
+    Integer creditScore;
+    BigDecimal riskScore;
+    BigDecimal approvedLimit;
+    TransitionReason reason;
+}
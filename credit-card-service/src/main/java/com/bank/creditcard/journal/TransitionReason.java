@@ -0,0 +1,19 @@
+package com.bank.creditcard.journal;
+
+/**
+ * Coarse reason stored in a journal record. Codes are the ordinals, so new values go at the end.
+ */
+public enum TransitionReason {
+    NONE,
+    SUBMITTED,
+    REVIEW_STARTED,
+    APPROVED,
+    CREDIT_SCORE_TOO_LOW,
+    RISK_TOO_HIGH,
+    COMPLIANCE_FAILED,
+    SYSTEM_ERROR,
+    OTHER,
+    DEADLINE_EXCEEDED,
+    PIPELINE_SATURATED,
+    PIPELINE_STOPPED
+}
@@ -0,0 +1,181 @@
+package com.bank.creditcard.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, never-blocking log appender. Calling threads only capture the thread name and MDC and
+ * offer the event to a queue; one writer thread formats, masks and encodes events in batches and
+ * writes each batch to stdout with a single call.
+ *
+ * <p>Drop policy: once fewer than {@code discardingThreshold} slots are free, events below WARN are
+ * dropped; when the queue is full every event is dropped. Drops are counted, never waited on.
+ */
+public class AsyncStructuredAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    private static final long POLL_MILLIS = 100;
+
+    private Encoder<ILoggingEvent> encoder;
+    private int queueSize = 8192;
+    private int discardingThreshold = -1;
+    private int maxBatchSize = 256;
+    private int maxFlushTime = 1000;
+    private OutputStream outputStream;
+
+    private final LongAdder dropped = new LongAdder();
+    private BlockingQueue<ILoggingEvent> queue;
+    private volatile boolean running;
+    private Thread writer;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for appender named [" + name + "]");
+            return;
+        }
+        if (queueSize < 1) {
+            addError("Invalid queue size [" + queueSize + "]");
+            return;
+        }
+        if (discardingThreshold < 0) {
+            discardingThreshold = queueSize / 5;
+        }
+        if (outputStream == null) {
+            outputStream = System.out;
+        }
+        queue = new ArrayBlockingQueue<>(queueSize);
+        running = true;
+        writer = new Thread(this::drain, "log-writer-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        try {
+            writer.join(maxFlushTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            addWarn("Log writer did not flush " + queue.size() + " queued events within " + maxFlushTime + " ms");
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (queue.remainingCapacity() < discardingThreshold && event.getLevel().toInt() < Level.WARN_INT) {
+            dropped.increment();
+            return;
+        }
+        // Thread name, MDC and the formatted message are read lazily; capture them before the
+        // hand-off, while the caller's thread and arguments are still the ones being logged
+        event.prepareForDeferredProcessing();
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        List<ILoggingEvent> batch = new ArrayList<>(maxBatchSize);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        while (running || !queue.isEmpty()) {
+            try {
+                ILoggingEvent first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                for (ILoggingEvent event : batch) {
+                    encodeInto(buffer, event);
+                }
+                buffer.writeTo(outputStream);
+                outputStream.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                dropped.add(batch.size());
+                addError("Failed to write log batch", e);
+            } finally {
+                batch.clear();
+                buffer.reset();
+            }
+        }
+    }
+
+    private void encodeInto(ByteArrayOutputStream buffer, ILoggingEvent event) {
+        try {
+            buffer.writeBytes(encoder.encode(event));
+        } catch (RuntimeException e) {
+            dropped.increment();
+            addError("Failed to encode log event from " + event.getLoggerName(), e);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public Encoder<ILoggingEvent> getEncoder() {
+        return encoder;
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    void setOutputStream(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+}
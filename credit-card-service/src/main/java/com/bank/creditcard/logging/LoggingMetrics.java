@@ -0,0 +1,56 @@
+package com.bank.creditcard.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Queue depth and drop count of every {@link AsyncStructuredAppender} configured in Logback.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        for (AsyncStructuredAppender appender : appenders(context)) {
+            Gauge.builder("logging.async.queue.depth", appender, AsyncStructuredAppender::getQueueDepth)
+                    .tag("appender", appender.getName())
+                    .description("Log events waiting for the writer thread")
+                    .register(registry);
+            Gauge.builder("logging.async.queue.capacity", appender, AsyncStructuredAppender::getQueueSize)
+                    .tag("appender", appender.getName())
+                    .register(registry);
+            FunctionCounter.builder("logging.async.dropped", appender, AsyncStructuredAppender::getDroppedCount)
+                    .tag("appender", appender.getName())
+                    .description("Log events dropped because the queue was (nearly) full")
+                    .register(registry);
+        }
+    }
+
+    static Set<AsyncStructuredAppender> appenders(LoggerContext context) {
+        Set<AsyncStructuredAppender> found = new LinkedHashSet<>();
+        for (Logger logger : context.getLoggerList()) {
+            Iterator<Appender<ILoggingEvent>> it = logger.iteratorForAppenders();
+            while (it.hasNext()) {
+                if (it.next() instanceof AsyncStructuredAppender appender) {
+                    found.add(appender);
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,119 @@
+package com.bank.creditcard.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+/**
+ * One JSON object per line: {@code @timestamp}, {@code level}, {@code thread}, {@code logger},
+ * {@code message}, {@code mdc} and {@code stack_trace}. The message is formatted here, so {@link Pii}
+ * arguments are masked on the encoding thread, and the formatted text and stack trace are scanned
+ * with {@link PiiMasker#maskText}. Per-thread builders are reused across events.
+ */
+public class MaskingJsonEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final ThreadLocal<StringBuilder[]> buffers =
+            ThreadLocal.withInitial(() -> new StringBuilder[]{new StringBuilder(512), new StringBuilder(256)});
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        StringBuilder[] pair = buffers.get();
+        StringBuilder json = pair[0];
+        StringBuilder scratch = pair[1];
+        json.setLength(0);
+
+        json.append("{\"@timestamp\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(event.getTimeStamp()), json);
+        json.append("\",\"level\":\"").append(event.getLevel().levelStr);
+        json.append("\",\"thread\":");
+        appendString(json, event.getThreadName());
+        json.append(",\"logger\":");
+        appendString(json, event.getLoggerName());
+        json.append(",\"message\":");
+        appendMasked(json, scratch, event.getFormattedMessage());
+
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc != null && !mdc.isEmpty()) {
+            json.append(",\"mdc\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> entry : mdc.entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                appendString(json, entry.getKey());
+                json.append(':');
+                appendMasked(json, scratch, entry.getValue());
+            }
+            json.append('}');
+        }
+
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            json.append(",\"stack_trace\":");
+            appendMasked(json, scratch, ThrowableProxyUtil.asString(throwable));
+        }
+        json.append("}\n");
+
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        // Keep the builders from pinning the memory of one huge stack trace
+        if (json.capacity() > MAX_RETAINED_CAPACITY || scratch.capacity() > MAX_RETAINED_CAPACITY) {
+            buffers.remove();
+        }
+        return bytes;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private static void appendMasked(StringBuilder json, StringBuilder scratch, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        scratch.setLength(0);
+        PiiMasker.maskText(value, scratch);
+        appendString(json, scratch);
+    }
+
+    private static void appendString(StringBuilder json, CharSequence value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
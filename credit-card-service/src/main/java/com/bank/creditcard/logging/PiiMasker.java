@@ -0,0 +1,134 @@
+package com.bank.creditcard.logging;
+
+/**
+ * Masking rules for personal data, plus a single-pass scan that masks SSNs ({@code ddd-dd-dddd}),
+ * e-mail addresses and {@code +}-prefixed phone numbers found in already formatted text.
+ */
+public final class PiiMasker {
+
+    private static final int MIN_PHONE_DIGITS = 8;
+    private static final int MAX_PHONE_DIGITS = 15;
+
+    private PiiMasker() {
+    }
+
+    public static String maskSsn(String ssn) {
+        if (ssn == null || ssn.length() < 4) {
+            return "***-**-****";
+        }
+        return "***-**-" + ssn.substring(ssn.length() - 4);
+    }
+
+    public static String maskName(String name) {
+        if (name == null || name.isEmpty()) {
+            return "***";
+        }
+        return name.charAt(0) + "***";
+    }
+
+    public static String maskEmail(String email) {
+        int at = email != null ? email.indexOf('@') : -1;
+        if (at <= 0) {
+            return "***";
+        }
+        return email.charAt(0) + "***" + email.substring(at);
+    }
+
+    public static String maskPhone(String phone) {
+        if (phone == null || phone.length() < 4) {
+            return "***";
+        }
+        return "***" + phone.substring(phone.length() - 4);
+    }
+
+    /**
+     * Appends {@code text} to {@code out} with every recognised SSN, e-mail and phone number masked.
+     */
+    public static void maskText(CharSequence text, StringBuilder out) {
+        int length = text.length();
+        int copied = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            int end;
+            if (isDigit(c) && (i == 0 || !isDigit(text.charAt(i - 1))) && (end = ssnEnd(text, i)) > 0) {
+                out.append(text, copied, i).append("***-**-").append(text, end - 4, end);
+                copied = i = end;
+            } else if (c == '+' && (end = phoneEnd(text, i)) > 0) {
+                out.append(text, copied, i).append("***").append(text, end - 4, end);
+                copied = i = end;
+            } else if (c == '@' && (end = emailDomainEnd(text, i)) > 0) {
+                int start = i;
+                while (start > copied && isEmailLocalChar(text.charAt(start - 1))) {
+                    start--;
+                }
+                if (start < i) {
+                    out.append(text, copied, start).append(text.charAt(start)).append("***");
+                    out.append(text, i, end);
+                    copied = i = end;
+                } else {
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+        out.append(text, copied, length);
+    }
+
+    private static int ssnEnd(CharSequence text, int start) {
+        int end = start + 11;
+        if (end > text.length() || (end < text.length() && isDigit(text.charAt(end)))) {
+            return -1;
+        }
+        for (int i = 0; i < 11; i++) {
+            char c = text.charAt(start + i);
+            boolean dash = i == 3 || i == 6;
+            if (dash ? c != '-' : !isDigit(c)) {
+                return -1;
+            }
+        }
+        return end;
+    }
+
+    private static int phoneEnd(CharSequence text, int plus) {
+        int i = plus + 1;
+        while (i < text.length() && isDigit(text.charAt(i)) && i - plus <= MAX_PHONE_DIGITS) {
+            i++;
+        }
+        int digits = i - plus - 1;
+        if (digits < MIN_PHONE_DIGITS || digits > MAX_PHONE_DIGITS || (i < text.length() && isDigit(text.charAt(i)))) {
+            return -1;
+        }
+        return i;
+    }
+
+    private static int emailDomainEnd(CharSequence text, int at) {
+        int i = at + 1;
+        while (i < text.length() && isDomainChar(text.charAt(i))) {
+            i++;
+        }
+        // Trailing dots end the sentence, not the domain
+        while (i > at + 1 && text.charAt(i - 1) == '.') {
+            i--;
+        }
+        for (int j = at + 2; j < i; j++) {
+            if (text.charAt(j) == '.') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.' || c == '-';
+    }
+
+    private static boolean isEmailLocalChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+}
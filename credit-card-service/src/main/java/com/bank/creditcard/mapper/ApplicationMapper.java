@@ -6,6 +6,7 @@ import com.bank.creditcard.dto.CreditCardApplicationResponse;
 import com.bank.creditcard.model.Address;
 import com.bank.creditcard.model.CreditCardApplication;
 import com.bank.creditcard.model.Customer;
+import com.bank.creditcard.reactive.ApplicationView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -20,9 +21,13 @@ public interface ApplicationMapper {
     @Mapping(target = "creditScore", ignore = true)
     @Mapping(target = "riskScore", ignore = true)
     @Mapping(target = "decisionReason", ignore = true)
+    @Mapping(target = "rulesVersion", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "decidedAt", ignore = true)
+    @Mapping(target = "deferrals", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "channel", ignore = true)
     @Mapping(source = "cardType", target = "cardType")
     CreditCardApplication toEntity(CreditCardApplicationRequest request);
 
@@ -38,4 +43,7 @@ public interface ApplicationMapper {
     @Mapping(target = "customerName", expression = "java(application.getCustomer().getFirstName() + \" \" + application.getCustomer().getLastName())")
     @Mapping(source = "customer.email", target = "email")
     CreditCardApplicationResponse toResponse(CreditCardApplication application);
+
+    @Mapping(target = "customerName", expression = "java(view.getFirstName() + \" \" + view.getLastName())")
+    CreditCardApplicationResponse toResponse(ApplicationView view);
 }
@@ -0,0 +1,271 @@
+package com.bank.creditcard.mapper;
+
+import com.bank.creditcard.dto.CreditBureauReport;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary form of a {@link CreditBureauReport}: deflated varints, amounts as fixed-point longs
+ * ({@link #AMOUNT_SCALE} decimals) and dictionary codes for the bureau's small string vocabularies.
+ * The SSN is deliberately not encoded.
+ *
+ * <p>Payload: inflated length as a varint, then the deflated body. Body (version 1): header fields,
+ * account and inquiry counts, the byte length of the account section, accounts, inquiries. The length
+ * prefix lets {@link LazyBureauReport} reach the inquiries without decoding accounts.
+ */
+@Component
+public class BureauReportCodec {
+
+    public static final short CURRENT_VERSION = 1;
+    public static final int AMOUNT_SCALE = 4;
+
+    // Append-only: codes are positions in these arrays; reordering needs a new encoding version
+    static final String[] ACCOUNT_TYPES = {"Credit Card", "Auto Loan", "Mortgage", "Personal Loan", "Student Loan"};
+    static final String[] CREDITORS = {"Bank of America", "Chase", "Wells Fargo", "Capital One", "Discover"};
+    static final String[] STATUSES = {"Current", "30 Days Late", "60 Days Late", "90 Days Late", "Charged Off",
+            "Closed"};
+    static final String[] INQUIRERS = {"Target", "Best Buy", "Amazon Store Card", "Home Depot"};
+    static final String[] INQUIRY_TYPES = {"Hard Inquiry", "Soft Inquiry"};
+
+    private static final Map<String, Integer> ACCOUNT_TYPE_CODES = codes(ACCOUNT_TYPES);
+    private static final Map<String, Integer> CREDITOR_CODES = codes(CREDITORS);
+    private static final Map<String, Integer> STATUS_CODES = codes(STATUSES);
+    private static final Map<String, Integer> INQUIRER_CODES = codes(INQUIRERS);
+    private static final Map<String, Integer> INQUIRY_TYPE_CODES = codes(INQUIRY_TYPES);
+
+    public byte[] encode(CreditBureauReport report) {
+        Output accounts = new Output();
+        List<CreditBureauReport.CreditAccount> accountList = orEmpty(report.getCreditAccounts());
+        for (CreditBureauReport.CreditAccount account : accountList) {
+            accounts.writeCode(ACCOUNT_TYPE_CODES, account.getAccountType());
+            accounts.writeCode(CREDITOR_CODES, account.getCreditorName());
+            accounts.writeCode(STATUS_CODES, account.getStatus());
+            accounts.writeAmount(account.getBalance());
+            accounts.writeAmount(account.getCreditLimit());
+            accounts.writeAmount(account.getMonthlyPayment());
+            accounts.writeDate(account.getOpenDate());
+        }
+
+        List<CreditBureauReport.CreditInquiry> inquiryList = orEmpty(report.getRecentInquiries());
+        Output body = new Output();
+        body.writeNullableInt(report.getCreditScore());
+        body.writeAmount(report.getTotalDebt());
+        body.writeAmount(report.getMonthlyDebtPayments());
+        body.writeNullableInt(report.getNumberOfAccounts());
+        body.writeNullableInt(report.getNumberOfDelinquentAccounts());
+        body.writeDate(report.getReportDate());
+        body.writeVarLong(accountList.size());
+        body.writeVarLong(inquiryList.size());
+        body.writeVarLong(accounts.size());
+        body.write(accounts.toByteArray(), 0, accounts.size());
+        for (CreditBureauReport.CreditInquiry inquiry : inquiryList) {
+            body.writeCode(INQUIRER_CODES, inquiry.getInquirerName());
+            body.writeDate(inquiry.getInquiryDate());
+            body.writeCode(INQUIRY_TYPE_CODES, inquiry.getInquiryType());
+        }
+        return compress(body.toByteArray());
+    }
+
+    public LazyBureauReport decode(short version, byte[] payload) {
+        if (version != CURRENT_VERSION) {
+            throw new IllegalArgumentException("Unsupported bureau snapshot encoding version " + version);
+        }
+        return new LazyBureauReport(inflate(payload));
+    }
+
+    private static byte[] compress(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 16);
+            // Inflated size up front so decoding allocates once
+            Output.writeVarLong(out, body.length);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] payload) {
+        Input sizeReader = new Input(payload, 0);
+        int size = (int) sizeReader.readVarLong();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload, sizeReader.position(), payload.length - sizeReader.position());
+            byte[] body = new byte[size];
+            int read = 0;
+            while (read < size && !inflater.finished()) {
+                int n = inflater.inflate(body, read, size - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != size) {
+                throw new IllegalArgumentException("Truncated bureau snapshot");
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt bureau snapshot", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    private static Map<String, Integer> codes(String[] dictionary) {
+        Map<String, Integer> codes = new HashMap<>();
+        for (int i = 0; i < dictionary.length; i++) {
+            codes.put(dictionary[i], i);
+        }
+        return codes;
+    }
+
+    /**
+     * Varint writer. Nullable values are shifted by one so that zero means null.
+     */
+    static final class Output extends ByteArrayOutputStream {
+
+        // 0 = null, 1 = literal string follows, n >= 2 = dictionary entry n - 2
+        void writeCode(Map<String, Integer> codes, String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                writeVarLong(code + 2);
+                return;
+            }
+            writeVarLong(1);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeAmount(BigDecimal amount) {
+            if (amount == null) {
+                writeVarLong(0);
+                return;
+            }
+            long fixed = amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            writeVarLong(zigZag(fixed) + 1);
+        }
+
+        void writeNullableInt(Integer value) {
+            writeVarLong(value == null ? 0 : zigZag(value) + 1);
+        }
+
+        void writeDate(LocalDate date) {
+            writeVarLong(date == null ? 0 : zigZag(date.toEpochDay()) + 1);
+        }
+
+        void writeVarLong(long value) {
+            writeVarLong(this, value);
+        }
+
+        static void writeVarLong(ByteArrayOutputStream out, long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+
+        private static long zigZag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    static final class Input {
+
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int position() {
+            return position;
+        }
+
+        void skip(int length) {
+            position += length;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = bytes[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in bureau snapshot");
+        }
+
+        String readCode(String[] dictionary) {
+            int code = (int) readVarLong();
+            if (code == 0) {
+                return null;
+            }
+            if (code >= 2) {
+                return dictionary[code - 2];
+            }
+            int length = (int) readVarLong();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        /**
+         * Fixed-point amount in units of 10^-{@link #AMOUNT_SCALE}, or {@link Long#MIN_VALUE} for null.
+         */
+        long readFixedAmount() {
+            long raw = readVarLong();
+            return raw == 0 ? Long.MIN_VALUE : unZigZag(raw - 1);
+        }
+
+        BigDecimal readAmount() {
+            long fixed = readFixedAmount();
+            return fixed == Long.MIN_VALUE ? null : BigDecimal.valueOf(fixed, AMOUNT_SCALE);
+        }
+
+        Integer readNullableInt() {
+            long raw = readVarLong();
+            return raw == 0 ? null : (int) unZigZag(raw - 1);
+        }
+
+        LocalDate readDate() {
+            long raw = readVarLong();
+            return raw == 0 ? null : LocalDate.ofEpochDay(unZigZag(raw - 1));
+        }
+
+        private static long unZigZag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.bank.creditcard.mapper;
+
+import com.bank.creditcard.dto.CreditBureauReport;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decoded view of a bureau snapshot. Header fields are read up front; accounts and inquiries are decoded
+ * on first access, so jobs that only need scores, totals and counts never materialise the lists.
+ */
+public final class LazyBureauReport {
+
+    private final byte[] body;
+
+    private final Integer creditScore;
+    private final BigDecimal totalDebt;
+    private final BigDecimal monthlyDebtPayments;
+    private final Integer numberOfAccounts;
+    private final Integer numberOfDelinquentAccounts;
+    private final LocalDate reportDate;
+    private final int accountCount;
+    private final int inquiryCount;
+    private final int accountsOffset;
+    private final int inquiriesOffset;
+
+    private List<CreditBureauReport.CreditAccount> creditAccounts;
+    private List<CreditBureauReport.CreditInquiry> recentInquiries;
+
+    LazyBureauReport(byte[] body) {
+        this.body = body;
+        BureauReportCodec.Input in = new BureauReportCodec.Input(body, 0);
+        this.creditScore = in.readNullableInt();
+        this.totalDebt = in.readAmount();
+        this.monthlyDebtPayments = in.readAmount();
+        this.numberOfAccounts = in.readNullableInt();
+        this.numberOfDelinquentAccounts = in.readNullableInt();
+        this.reportDate = in.readDate();
+        this.accountCount = (int) in.readVarLong();
+        this.inquiryCount = (int) in.readVarLong();
+        int accountsLength = (int) in.readVarLong();
+        this.accountsOffset = in.position();
+        this.inquiriesOffset = accountsOffset + accountsLength;
+    }
+
+    public Integer getCreditScore() {
+        return creditScore;
+    }
+
+    public BigDecimal getTotalDebt() {
+        return totalDebt;
+    }
+
+    public BigDecimal getMonthlyDebtPayments() {
+        return monthlyDebtPayments;
+    }
+
+    public Integer getNumberOfAccounts() {
+        return numberOfAccounts;
+    }
+
+    public Integer getNumberOfDelinquentAccounts() {
+        return numberOfDelinquentAccounts;
+    }
+
+    public LocalDate getReportDate() {
+        return reportDate;
+    }
+
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    public int getInquiryCount() {
+        return inquiryCount;
+    }
+
+    /**
+     * Sums balance and limit of accounts of the given type without building account objects.
+     *
+     * @return {@code {balance, limit}}
+     */
+    public BigDecimal[] balanceAndLimit(String accountType) {
+        BureauReportCodec.Input in = new BureauReportCodec.Input(body, accountsOffset);
+        long balance = 0;
+        long limit = 0;
+        for (int i = 0; i < accountCount; i++) {
+            boolean matches = accountType.equals(in.readCode(BureauReportCodec.ACCOUNT_TYPES));
+            in.readCode(BureauReportCodec.CREDITORS);
+            in.readCode(BureauReportCodec.STATUSES);
+            long accountBalance = in.readFixedAmount();
+            long accountLimit = in.readFixedAmount();
+            in.readFixedAmount();
+            in.readDate();
+            if (matches) {
+                balance += accountBalance == Long.MIN_VALUE ? 0 : accountBalance;
+                limit += accountLimit == Long.MIN_VALUE ? 0 : accountLimit;
+            }
+        }
+        return new BigDecimal[]{
+                BigDecimal.valueOf(balance, BureauReportCodec.AMOUNT_SCALE),
+                BigDecimal.valueOf(limit, BureauReportCodec.AMOUNT_SCALE)
+        };
+    }
+
+    public List<CreditBureauReport.CreditAccount> getCreditAccounts() {
+        if (creditAccounts == null) {
+            BureauReportCodec.Input in = new BureauReportCodec.Input(body, accountsOffset);
+            List<CreditBureauReport.CreditAccount> accounts = new ArrayList<>(accountCount);
+            for (int i = 0; i < accountCount; i++) {
+                accounts.add(CreditBureauReport.CreditAccount.builder()
+                        .accountType(in.readCode(BureauReportCodec.ACCOUNT_TYPES))
+                        .creditorName(in.readCode(BureauReportCodec.CREDITORS))
+                        .status(in.readCode(BureauReportCodec.STATUSES))
+                        .balance(in.readAmount())
+                        .creditLimit(in.readAmount())
+                        .monthlyPayment(in.readAmount())
+                        .openDate(in.readDate())
+                        .build());
+            }
+            creditAccounts = Collections.unmodifiableList(accounts);
+        }
+        return creditAccounts;
+    }
+
+    public List<CreditBureauReport.CreditInquiry> getRecentInquiries() {
+        if (recentInquiries == null) {
+            BureauReportCodec.Input in = new BureauReportCodec.Input(body, inquiriesOffset);
+            List<CreditBureauReport.CreditInquiry> inquiries = new ArrayList<>(inquiryCount);
+            for (int i = 0; i < inquiryCount; i++) {
+                inquiries.add(CreditBureauReport.CreditInquiry.builder()
+                        .inquirerName(in.readCode(BureauReportCodec.INQUIRERS))
+                        .inquiryDate(in.readDate())
+                        .inquiryType(in.readCode(BureauReportCodec.INQUIRY_TYPES))
+                        .build());
+            }
+            recentInquiries = Collections.unmodifiableList(inquiries);
+        }
+        return recentInquiries;
+    }
+
+    /**
+     * Fully decoded report, e.g. for re-scoring with {@code RiskAssessmentService}. The SSN is not part of
+     * a snapshot and is left null.
+     */
+    public CreditBureauReport toReport() {
+        return CreditBureauReport.builder()
+                .creditScore(creditScore)
+                .totalDebt(totalDebt)
+                .monthlyDebtPayments(monthlyDebtPayments)
+                .numberOfAccounts(numberOfAccounts)
+                .numberOfDelinquentAccounts(numberOfDelinquentAccounts)
+                .creditAccounts(getCreditAccounts())
+                .recentInquiries(getRecentInquiries())
+                .reportDate(reportDate)
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.bank.creditcard.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Where the time went while deciding one application, in milliseconds. Queue wait runs from
+ * submission until the pipeline marked the application IN_REVIEW; each later stage from the end
+ * of the one before it until its own end, so its queueing counts towards it. Stages an
+ * application never reached are null. Written in batches by the StageTimingRecorder.
+ */
+@Entity
+@Table(name = "application_stage_timings")
+@Data
+@NoArgsConstructor
+public class ApplicationStageTiming {
+
+    @Id
+    @Column(name = "application_id")
+    private UUID applicationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CreditCardApplication.ApplicationStatus status;
+
+    @Column(name = "decided_at", nullable = false)
+    private LocalDateTime decidedAt;
+
+    @Column(name = "queue_wait_ms")
+    private Integer queueWaitMs;
+
+    @Column(name = "compliance_ms")
+    private Integer complianceMs;
+
+    @Column(name = "bureau_ms")
+    private Integer bureauMs;
+
+    @Column(name = "scoring_ms")
+    private Integer scoringMs;
+
+    @Column(name = "persist_ms")
+    private Integer persistMs;
+
+    @Column(name = "total_ms", nullable = false)
+    private Integer totalMs;
+}
@@ -0,0 +1,64 @@
+package com.bank.creditcard.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "credit_bureau_snapshots")
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(of = "applicationId")
+@ToString(exclude = {"payload"})
+public class CreditBureauSnapshot implements Persistable<UUID> {
+
+    @Id
+    @Column(name = "application_id")
+    private UUID applicationId;
+
+    @Column(name = "encoding_version", nullable = false)
+    private short encodingVersion;
+
+    @Column(nullable = false, length = 1 << 20)
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public CreditBureauSnapshot(UUID applicationId, short encodingVersion, byte[] payload) {
+        this.applicationId = applicationId;
+        this.encodingVersion = encodingVersion;
+        this.payload = payload;
+    }
+
+    // Snapshots are written once; skips the select a merge of an assigned id would cost
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public UUID getId() {
+        return applicationId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PostPersist
+    @PostLoad
+    protected void markPersisted() {
+        persisted = true;
+    }
+}
@@ -8,6 +8,7 @@ import org.hibernate.annotations.GenericGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -58,6 +59,16 @@ public class CreditCardApplication {
     @Column(name = "decision_reason")
     private String decisionReason;
 
+    @Column(name = "rules_version", length = 40)
+    private String rulesVersion;
+
+    @Column(name = "device_id", length = 128)
+    private String deviceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Channel channel;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -67,9 +78,20 @@ public class CreditCardApplication {
     @Column(name = "decided_at")
     private LocalDateTime decidedAt;
 
+    // Times the decision pipeline ran out of its time budget and parked this application
+    @Column(nullable = false)
+    private int deferrals;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        if (channel == null) {
+            channel = Channel.ONLINE;
+        }
         applicationNumber = generateApplicationNumber();
     }
 
@@ -87,7 +109,15 @@ public class CreditCardApplication {
         IN_REVIEW,
         APPROVED,
         REJECTED,
-        CANCELLED
+        CANCELLED,
+        // Parked when its decision ran out of time; retried later
+        DEFERRED;
+
+        /**
+         * Not decided yet. An applicant with an application in one of these has one pending and
+         * cannot submit another.
+         */
+        public static final Set<ApplicationStatus> UNDECIDED = Set.of(PENDING, IN_REVIEW, DEFERRED);
     }
 
     public enum CardType {
@@ -96,4 +126,10 @@ public class CreditCardApplication {
         PLATINUM,
         INFINITE
     }
+
+    public enum Channel {
+        BRANCH,
+        ONLINE,
+        PARTNER
+    }
 }
@@ -0,0 +1,57 @@
+package com.bank.creditcard.pipeline;
+
+import com.bank.creditcard.exception.DeadlineExceededException;
+
+import java.time.Duration;
+
+/**
+ * A time budget that ends at a fixed point on the {@link System#nanoTime()} clock. Work passes
+ * {@link #remaining()} on as the timeout of whatever it calls, so nothing waits past the end.
+ */
+public final class Deadline {
+
+    private final Duration budget;
+    private final long expiresAt;
+
+    private Deadline(Duration budget, long expiresAt) {
+        this.budget = budget;
+        this.expiresAt = expiresAt;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(budget, System.nanoTime() + budget.toNanos());
+    }
+
+    public Duration budget() {
+        return budget;
+    }
+
+    /**
+     * Time left, never negative.
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAt - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAt - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @throws DeadlineExceededException if the budget is spent
+     */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(stage, budget);
+        }
+    }
+
+    /**
+     * Remaining time in the whole seconds of a transaction timeout, rounded up, and at least {@code floor}.
+     */
+    public int timeoutSeconds(int floor) {
+        long nanos = Math.max(0, expiresAt - System.nanoTime());
+        long seconds = (nanos + 999_999_999L) / 1_000_000_000L;
+        return (int) Math.max(floor, Math.min(Integer.MAX_VALUE, seconds));
+    }
+}
@@ -0,0 +1,195 @@
+package com.bank.creditcard.pipeline;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * One stage of a staged pipeline: {@code lanes} worker threads, each draining its own bounded
+ * queue. Items are routed to a lane by key, so items with the same key are handled one at a time
+ * and in the order they were put, without locks. A full lane blocks {@link #put}, which pushes
+ * back on whatever feeds the stage. Each worker hands its handler everything queued in its lane,
+ * up to {@code maxBatch} items at a time.
+ *
+ * <p>{@link #close()} stops new items, lets every lane drain, and waits for the workers. Close a
+ * pipeline's stages from first to last so nothing is left in flight.
+ */
+@Slf4j
+public class Stage<T> implements MeterBinder, AutoCloseable {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final String name;
+    private final int queueCapacity;
+    private final int maxBatch;
+    private final ToLongFunction<T> key;
+    private final Consumer<List<T>> handler;
+    private final List<BlockingQueue<T>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger busy = new AtomicInteger();
+    private final LongAdder handled = new LongAdder();
+    private volatile Timer handleTimer;
+    private volatile DistributionSummary batchSizes;
+    private volatile boolean closed;
+
+    public Stage(String name, int lanes, int queueCapacity, int maxBatch, ToLongFunction<T> key,
+                 Consumer<List<T>> handler) {
+        if (lanes < 1 || queueCapacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("Stage " + name + " needs at least one lane, queue slot and batch item");
+        }
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.maxBatch = maxBatch;
+        this.key = key;
+        this.handler = handler;
+        for (int lane = 0; lane < lanes; lane++) {
+            BlockingQueue<T> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            Thread worker = new Thread(() -> drain(queue), "pipeline-" + name + "-" + lane);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * A stage whose handler takes one item at a time.
+     */
+    public static <T> Stage<T> of(String name, int lanes, int queueCapacity, ToLongFunction<T> key,
+                                  Consumer<T> handler) {
+        return new Stage<>(name, lanes, queueCapacity, 1, key, batch -> batch.forEach(handler));
+    }
+
+    public void start() {
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * Queues {@code item} on its lane, waiting while the lane is full.
+     */
+    public void put(T item) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Stage " + name + " is closed");
+        }
+        queues.get(lane(key.applyAsLong(item))).put(item);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int queued() {
+        int queued = 0;
+        for (BlockingQueue<T> queue : queues) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread worker : workers) {
+            if (worker.getState() == Thread.State.NEW) {
+                continue;
+            }
+            try {
+                worker.join(Duration.ofSeconds(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (worker.isAlive()) {
+                log.warn("Stage {} lane {} still busy after 30s; abandoning it", name, worker.getName());
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("pipeline.stage.queued", this, Stage::queued)
+                .tag("stage", name)
+                .description("Items waiting in the stage's lane queues")
+                .register(registry);
+        Gauge.builder("pipeline.stage.capacity", this, stage -> (double) stage.queues.size() * stage.queueCapacity)
+                .tag("stage", name)
+                .description("Items the stage's lane queues can hold before blocking the stage upstream")
+                .register(registry);
+        Gauge.builder("pipeline.stage.lanes", this, stage -> stage.workers.size())
+                .tag("stage", name)
+                .description("Worker threads of the stage")
+                .register(registry);
+        Gauge.builder("pipeline.stage.busy", busy, AtomicInteger::get)
+                .tag("stage", name)
+                .description("Lanes currently handling items")
+                .register(registry);
+        FunctionCounter.builder("pipeline.stage.items", handled, LongAdder::sum)
+                .tag("stage", name)
+                .description("Items the stage has handled")
+                .register(registry);
+        handleTimer = Timer.builder("pipeline.stage.duration")
+                .tag("stage", name)
+                .description("Time the stage's handler spent per batch")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        batchSizes = DistributionSummary.builder("pipeline.stage.batch.size")
+                .tag("stage", name)
+                .description("Items handed to the stage's handler at once")
+                .register(registry);
+    }
+
+    int lane(long itemKey) {
+        // Fibonacci hashing, so keys that differ only in their low bits still spread over the lanes
+        return (int) Math.floorMod((itemKey * 0x9E3779B97F4A7C15L) >>> 16, (long) queues.size());
+    }
+
+    private void drain(BlockingQueue<T> queue) {
+        List<T> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            T first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, maxBatch - 1);
+            busy.incrementAndGet();
+            long started = System.nanoTime();
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException e) {
+                log.error("Stage {} failed on a batch of {}", name, batch.size(), e);
+            } finally {
+                busy.decrementAndGet();
+                handled.add(batch.size());
+                Timer timer = handleTimer;
+                if (timer != null) {
+                    timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    batchSizes.record(batch.size());
+                }
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.bank.creditcard.reactive;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.model.Customer;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * R2DBC mapping of {@code credit_card_applications}. Shares the table and the optimistic-lock
+ * version with the JPA entity, so both stacks can update the same application safely.
+ */
+@Data
+@Table("credit_card_applications")
+public class ApplicationRow {
+
+    @Id
+    private UUID id;
+    private String applicationNumber;
+    private CreditCardApplication.ApplicationStatus status;
+    private UUID customerId;
+    private BigDecimal requestedLimit;
+    private BigDecimal approvedLimit;
+    private BigDecimal annualIncome;
+    private String employmentStatus;
+    private Integer creditScore;
+    private BigDecimal riskScore;
+    private CreditCardApplication.CardType cardType;
+    private String decisionReason;
+    private String rulesVersion;
+    private String deviceId;
+    private CreditCardApplication.Channel channel;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime decidedAt;
+    private int deferrals;
+    @Version
+    private Long version;
+
+    /**
+     * A new pending row, stamped the way the JPA entity's {@code @PrePersist} would stamp it.
+     */
+    static ApplicationRow pending(CreditCardApplication application, UUID customerId) {
+        ApplicationRow row = new ApplicationRow();
+        row.setId(UUID.randomUUID());
+        row.setApplicationNumber("APP-" + System.currentTimeMillis());
+        row.setStatus(CreditCardApplication.ApplicationStatus.PENDING);
+        row.setCustomerId(customerId);
+        row.setRequestedLimit(application.getRequestedLimit());
+        row.setAnnualIncome(application.getAnnualIncome());
+        row.setEmploymentStatus(application.getEmploymentStatus());
+        row.setCardType(application.getCardType());
+        row.setDeviceId(application.getDeviceId());
+        row.setChannel(application.getChannel() != null
+                ? application.getChannel() : CreditCardApplication.Channel.ONLINE);
+        row.setCreatedAt(LocalDateTime.now());
+        return row;
+    }
+
+    /**
+     * Detached entity for the shared risk, analytics and mapping code; never persisted through JPA.
+     */
+    CreditCardApplication toEntity(Customer customer) {
+        CreditCardApplication application = new CreditCardApplication();
+        application.setId(id);
+        application.setApplicationNumber(applicationNumber);
+        application.setStatus(status);
+        application.setCustomer(customer);
+        application.setRequestedLimit(requestedLimit);
+        application.setApprovedLimit(approvedLimit);
+        application.setAnnualIncome(annualIncome);
+        application.setEmploymentStatus(employmentStatus);
+        application.setCreditScore(creditScore);
+        application.setRiskScore(riskScore);
+        application.setCardType(cardType);
+        application.setDecisionReason(decisionReason);
+        application.setRulesVersion(rulesVersion);
+        application.setDeviceId(deviceId);
+        application.setChannel(channel);
+        application.setCreatedAt(createdAt);
+        application.setUpdatedAt(updatedAt);
+        application.setDecidedAt(decidedAt);
+        application.setDeferrals(deferrals);
+        application.setVersion(version);
+        return application;
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.creditcard.reactive;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans one database poll out to every status watcher. While anyone is watching, a single query per
+ * {@code pollInterval} reads the applications updated since the last one; watchers filter that shared
+ * stream for their own application. Ten thousand watchers cost one query a second, not ten thousand,
+ * and hold no connection between polls.
+ *
+ * <p>Each poll re-reads the last {@link #OVERLAP} so that a transaction committing late with an older
+ * {@code updated_at} is not skipped; watchers drop the repeats. A full batch means the poller is
+ * behind, so the next poll continues strictly after it instead.
+ */
+@Slf4j
+public class ApplicationStatusHub implements MeterBinder {
+
+    static final Duration OVERLAP = Duration.ofSeconds(5);
+
+    private final Flux<StatusChange> changes;
+    private final Duration maxWatch;
+    private final AtomicInteger watchers = new AtomicInteger();
+
+    public ApplicationStatusHub(ReactiveApplicationRepository repository, Duration pollInterval, int batchSize,
+                                Duration maxWatch) {
+        this.maxWatch = maxWatch;
+        this.changes = Flux.defer(() -> {
+                    Cursor cursor = new Cursor(LocalDateTime.now());
+                    return Flux.interval(pollInterval)
+                            .onBackpressureDrop()
+                            .concatMap(tick -> repository.findStatusChangesSince(cursor.from(), batchSize)
+                                    .collectList()
+                                    .doOnNext(batch -> cursor.advance(batch, batchSize))
+                                    .flatMapIterable(batch -> batch)
+                                    .onErrorResume(e -> {
+                                        log.warn("Status poll failed: {}", e.getMessage());
+                                        return Flux.empty();
+                                    }));
+                })
+                .share();
+    }
+
+    /**
+     * Starts from {@code current} and ends with the first final status, or after {@code maxWatch}.
+     */
+    public Flux<StatusChange> watch(StatusChange current) {
+        String applicationNumber = current.getApplicationNumber();
+        return Flux.concat(Flux.just(current),
+                        changes.filter(change -> applicationNumber.equals(change.getApplicationNumber()))
+                                // A slow client keeps only its newest status instead of holding back the poller
+                                .onBackpressureLatest())
+                .distinctUntilChanged(StatusChange::getStatus)
+                .takeUntil(change -> isFinal(change.getStatus()))
+                .take(maxWatch)
+                .doOnSubscribe(subscription -> watchers.incrementAndGet())
+                .doFinally(signal -> watchers.decrementAndGet());
+    }
+
+    public int getWatchers() {
+        return watchers.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("reactive.status.watchers", watchers, AtomicInteger::get)
+                .description("Open application status streams")
+                .register(registry);
+    }
+
+    static boolean isFinal(CreditCardApplication.ApplicationStatus status) {
+        return status == CreditCardApplication.ApplicationStatus.APPROVED
+                || status == CreditCardApplication.ApplicationStatus.REJECTED
+                || status == CreditCardApplication.ApplicationStatus.CANCELLED;
+    }
+
+    /**
+     * Poll position; only touched from the poll chain, one poll at a time.
+     */
+    private static final class Cursor {
+
+        private LocalDateTime newest;
+        private boolean behind;
+
+        Cursor(LocalDateTime start) {
+            this.newest = start;
+        }
+
+        LocalDateTime from() {
+            return behind ? newest : newest.minus(OVERLAP);
+        }
+
+        void advance(List<StatusChange> batch, int batchSize) {
+            for (StatusChange change : batch) {
+                if (change.getUpdatedAt().isAfter(newest)) {
+                    newest = change.getUpdatedAt();
+                }
+            }
+            behind = batch.size() >= batchSize;
+        }
+    }
+}
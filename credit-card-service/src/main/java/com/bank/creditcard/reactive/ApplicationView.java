@@ -0,0 +1,31 @@
+package com.bank.creditcard.reactive;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An application joined with the customer fields its response needs, read in one query.
+ */
+@Value
+public class ApplicationView {
+    UUID id;
+    String applicationNumber;
+    CreditCardApplication.ApplicationStatus status;
+    BigDecimal requestedLimit;
+    BigDecimal approvedLimit;
+    CreditCardApplication.CardType cardType;
+    Integer creditScore;
+    BigDecimal riskScore;
+    String decisionReason;
+    String rulesVersion;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    LocalDateTime decidedAt;
+    String firstName;
+    String lastName;
+    String email;
+}
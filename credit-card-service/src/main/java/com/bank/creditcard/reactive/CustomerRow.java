@@ -0,0 +1,82 @@
+package com.bank.creditcard.reactive;
+
+import com.bank.creditcard.model.Address;
+import com.bank.creditcard.model.Customer;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * R2DBC mapping of {@code customers}, with the embedded address flattened into its columns.
+ */
+@Data
+@Table("customers")
+public class CustomerRow {
+
+    @Id
+    private UUID id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phoneNumber;
+    private String ssn;
+    private LocalDate dateOfBirth;
+    private String streetAddress;
+    private String city;
+    private String state;
+    private String zipCode;
+    private String country;
+    private boolean identityVerified;
+    private Customer.KycStatus kycStatus;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /**
+     * A new verified customer, stamped the way the JPA entity's {@code @PrePersist} would stamp it.
+     */
+    static CustomerRow verified(Customer customer) {
+        CustomerRow row = new CustomerRow();
+        row.setId(UUID.randomUUID());
+        row.setFirstName(customer.getFirstName());
+        row.setLastName(customer.getLastName());
+        row.setEmail(customer.getEmail());
+        row.setPhoneNumber(customer.getPhoneNumber());
+        row.setSsn(customer.getSsn());
+        row.setDateOfBirth(customer.getDateOfBirth());
+        Address address = customer.getAddress();
+        if (address != null) {
+            row.setStreetAddress(address.getStreetAddress());
+            row.setCity(address.getCity());
+            row.setState(address.getState());
+            row.setZipCode(address.getZipCode());
+            row.setCountry(address.getCountry());
+        }
+        row.setIdentityVerified(true);
+        row.setKycStatus(Customer.KycStatus.PENDING);
+        row.setCreatedAt(LocalDateTime.now());
+        return row;
+    }
+
+    Customer toEntity() {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setFirstName(firstName);
+        customer.setLastName(lastName);
+        customer.setEmail(email);
+        customer.setPhoneNumber(phoneNumber);
+        customer.setSsn(ssn);
+        customer.setDateOfBirth(dateOfBirth);
+        if (streetAddress != null || city != null || state != null || zipCode != null || country != null) {
+            customer.setAddress(new Address(streetAddress, city, state, zipCode, country));
+        }
+        customer.setIdentityVerified(identityVerified);
+        customer.setKycStatus(kycStatus);
+        customer.setCreatedAt(createdAt);
+        customer.setUpdatedAt(updatedAt);
+        return customer;
+    }
+}
@@ -0,0 +1,96 @@
+package com.bank.creditcard.reactive;
+
+import com.bank.creditcard.dto.CreditCardApplicationRequest;
+import com.bank.creditcard.dto.CreditCardApplicationResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Functional endpoints of the reactive stack, mirroring {@code CreditCardApplicationController}.
+ * Lists stream as NDJSON when the client asks for it, one element per line as the cursor delivers
+ * it; otherwise they are written as a JSON array, still without collecting them first.
+ */
+@RequiredArgsConstructor
+public class ReactiveApplicationHandler {
+
+    private final ReactiveApplicationService applicationService;
+    private final Validator validator;
+
+    public Mono<ServerResponse> submitApplication(ServerRequest request) {
+        return request.bodyToMono(CreditCardApplicationRequest.class)
+                .flatMap(body -> {
+                    Set<ConstraintViolation<CreditCardApplicationRequest>> violations = validator.validate(body);
+                    if (!violations.isEmpty()) {
+                        return validationProblem(violations);
+                    }
+                    return applicationService.submitApplication(body)
+                            .flatMap(response -> ServerResponse.status(HttpStatus.CREATED)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .bodyValue(response));
+                });
+    }
+
+    public Mono<ServerResponse> getApplication(ServerRequest request) {
+        return applicationService.getApplication(request.pathVariable("applicationNumber"))
+                .flatMap(response -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(response));
+    }
+
+    public Mono<ServerResponse> getApplicationsByEmail(ServerRequest request) {
+        return list(request, applicationService.getApplicationsByEmail(request.pathVariable("email")));
+    }
+
+    public Mono<ServerResponse> getPendingApplications(ServerRequest request) {
+        return list(request, applicationService.getPendingApplications());
+    }
+
+    public Mono<ServerResponse> watchStatus(ServerRequest request) {
+        Flux<ServerSentEvent<StatusChange>> events = applicationService
+                .watchStatus(request.pathVariable("applicationNumber"))
+                .map(change -> ServerSentEvent.builder(change).event("status").build());
+        return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(events, new ParameterizedTypeReference<>() { });
+    }
+
+    static ProblemDetail problem(HttpStatus status, String title, String detail) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(status, detail);
+        problemDetail.setTitle(title);
+        problemDetail.setProperty("timestamp", LocalDateTime.now());
+        return problemDetail;
+    }
+
+    static Mono<ServerResponse> problemResponse(ProblemDetail problemDetail) {
+        return ServerResponse.status(problemDetail.getStatus())
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .bodyValue(problemDetail);
+    }
+
+    private static Mono<ServerResponse> list(ServerRequest request, Flux<CreditCardApplicationResponse> responses) {
+        MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType).body(responses, CreditCardApplicationResponse.class);
+    }
+
+    private static <T> Mono<ServerResponse> validationProblem(Set<ConstraintViolation<T>> violations) {
+        Map<String, String> errors = new TreeMap<>();
+        violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        ProblemDetail problemDetail = problem(HttpStatus.BAD_REQUEST, "Validation Error", "Validation failed");
+        problemDetail.setProperty("errors", errors);
+        return problemResponse(problemDetail);
+    }
+}
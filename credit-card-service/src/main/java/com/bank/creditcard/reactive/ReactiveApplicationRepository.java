@@ -0,0 +1,38 @@
+package com.bank.creditcard.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of {@link com.bank.creditcard.repository.CreditCardApplicationRepository}
+ * for the reactive profile. Reads return {@link ApplicationView}s so no response needs a second query.
+ */
+public interface ReactiveApplicationRepository extends R2dbcRepository<ApplicationRow, UUID> {
+
+    String VIEW = "SELECT a.id, a.application_number, a.status, a.requested_limit, a.approved_limit, a.card_type,"
+            + " a.credit_score, a.risk_score, a.decision_reason, a.rules_version, a.created_at, a.updated_at,"
+            + " a.decided_at, c.first_name, c.last_name, c.email"
+            + " FROM credit_card_applications a JOIN customers c ON c.id = a.customer_id";
+
+    @Query("SELECT EXISTS (SELECT 1 FROM credit_card_applications a JOIN customers c ON c.id = a.customer_id"
+            + " WHERE c.ssn = :ssn AND a.status IN ('PENDING', 'IN_REVIEW', 'DEFERRED'))")
+    Mono<Boolean> existsPendingBySsn(String ssn);
+
+    @Query(VIEW + " WHERE a.application_number = :applicationNumber")
+    Mono<ApplicationView> findViewByApplicationNumber(String applicationNumber);
+
+    @Query(VIEW + " WHERE c.email = :email ORDER BY a.created_at")
+    Flux<ApplicationView> findViewsByCustomerEmail(String email);
+
+    @Query(VIEW + " WHERE a.status = 'PENDING' ORDER BY a.created_at")
+    Flux<ApplicationView> findPendingViews();
+
+    @Query("SELECT application_number, status, updated_at FROM credit_card_applications"
+            + " WHERE updated_at > :since ORDER BY updated_at LIMIT :limit")
+    Flux<StatusChange> findStatusChangesSince(LocalDateTime since, int limit);
+}
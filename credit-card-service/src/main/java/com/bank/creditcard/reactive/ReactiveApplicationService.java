@@ -0,0 +1,400 @@
+package com.bank.creditcard.reactive;
+
+import com.bank.creditcard.client.CreditBureauClient;
+import com.bank.creditcard.concurrency.AdaptiveConcurrencyLimiter;
+import com.bank.creditcard.dto.CreditBureauReport;
+import com.bank.creditcard.dto.CreditCardApplicationRequest;
+import com.bank.creditcard.dto.CreditCardApplicationResponse;
+import com.bank.creditcard.exception.DeadlineExceededException;
+import com.bank.creditcard.exception.DuplicateApplicationException;
+import com.bank.creditcard.exception.ResourceNotFoundException;
+import com.bank.creditcard.journal.DecisionJournal;
+import com.bank.creditcard.journal.TransitionReason;
+import com.bank.creditcard.mapper.ApplicationMapper;
+import com.bank.creditcard.mapper.BureauReportCodec;
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.model.Customer;
+import com.bank.creditcard.pipeline.Deadline;
+import com.bank.creditcard.rules.CompiledDecisionRules;
+import com.bank.creditcard.rules.DecisionRulesRegistry;
+import com.bank.creditcard.security.ClientChannels;
+import com.bank.creditcard.service.ComplianceService;
+import com.bank.creditcard.service.DecisionAnalyticsService;
+import com.bank.creditcard.service.RiskAssessmentService;
+import com.bank.creditcard.service.SsnFilterService;
+import com.bank.creditcard.service.VelocityScreeningService;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Submission, decision and read paths of {@link com.bank.creditcard.service.CreditCardApplicationService}
+ * without a blocked thread anywhere: R2DBC for the database, timers for the simulated compliance and
+ * bureau latency. Decisions run on the same rules, risk scoring, analytics and journal as the servlet
+ * stack, bounded by their own concurrency limit instead of a thread pool.
+ *
+ * <p>Each decision has the servlet pipeline's time budget, {@code pipeline.deadline.budget}, from its
+ * start; the compliance check and the bureau call time out at what is left of it. An application out
+ * of budget is DEFERRED for the retry sweep, and rejected after {@code max-deferrals} deferrals.
+ */
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactiveApplicationService {
+
+    // Lists are pulled from the cursor in batches of this size, as fast as the client reads them
+    static final int FETCH_SIZE = 256;
+
+    private final ReactiveApplicationRepository applicationRepository;
+    private final ReactiveCustomerRepository customerRepository;
+    private final R2dbcEntityTemplate template;
+    private final TransactionalOperator transactionalOperator;
+    private final ApplicationMapper applicationMapper;
+    private final ComplianceService complianceService;
+    private final VelocityScreeningService velocityScreeningService;
+    private final SsnFilterService ssnFilterService;
+    private final CreditBureauClient creditBureauClient;
+    private final RiskAssessmentService riskAssessmentService;
+    private final DecisionRulesRegistry decisionRulesRegistry;
+    private final DecisionAnalyticsService decisionAnalyticsService;
+    private final DecisionJournal decisionJournal;
+    private final BureauReportCodec codec;
+    private final ApplicationStatusHub statusHub;
+    private final AdaptiveConcurrencyLimiter reactivePipelineConcurrencyLimiter;
+    private final ClientChannels clientChannels;
+
+    @Value("${pipeline.deadline.budget:PT2M}")
+    private Duration deadlineBudget = Duration.ofMinutes(2);
+
+    @Value("${pipeline.deadline.max-deferrals:3}")
+    private int maxDeferrals = 3;
+
+    public ReactiveApplicationService(ReactiveApplicationRepository applicationRepository,
+                                      ReactiveCustomerRepository customerRepository,
+                                      R2dbcEntityTemplate template, ConnectionFactory connectionFactory,
+                                      ApplicationMapper applicationMapper, ComplianceService complianceService,
+                                      VelocityScreeningService velocityScreeningService,
+                                      SsnFilterService ssnFilterService,
+                                      CreditBureauClient creditBureauClient,
+                                      RiskAssessmentService riskAssessmentService,
+                                      DecisionRulesRegistry decisionRulesRegistry,
+                                      DecisionAnalyticsService decisionAnalyticsService,
+                                      DecisionJournal decisionJournal, BureauReportCodec codec,
+                                      ApplicationStatusHub statusHub,
+                                      AdaptiveConcurrencyLimiter reactivePipelineConcurrencyLimiter,
+                                      ClientChannels clientChannels) {
+        this.applicationRepository = applicationRepository;
+        this.customerRepository = customerRepository;
+        this.template = template;
+        // Not a bean: a second TransactionManager in the context would make @Transactional ambiguous
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+        this.applicationMapper = applicationMapper;
+        this.complianceService = complianceService;
+        this.velocityScreeningService = velocityScreeningService;
+        this.ssnFilterService = ssnFilterService;
+        this.creditBureauClient = creditBureauClient;
+        this.riskAssessmentService = riskAssessmentService;
+        this.decisionRulesRegistry = decisionRulesRegistry;
+        this.decisionAnalyticsService = decisionAnalyticsService;
+        this.decisionJournal = decisionJournal;
+        this.codec = codec;
+        this.statusHub = statusHub;
+        this.reactivePipelineConcurrencyLimiter = reactivePipelineConcurrencyLimiter;
+        this.clientChannels = clientChannels;
+    }
+
+    /**
+     * A customer another instance inserted since the SSN filter last caught up fails this
+     * submission's insert on the unique SSN; the filter is told, and the submission tried once more.
+     */
+    public Mono<CreditCardApplicationResponse> submitApplication(CreditCardApplicationRequest request) {
+        return submit(request)
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    log.info("Customer inserted concurrently or not yet seen by the SSN filter; retrying submission");
+                    ssnFilterService.customerAdded(request.getSsn());
+                    return submit(request);
+                })
+                .doOnNext(application -> {
+                    journalTransition(application, null, TransitionReason.SUBMITTED);
+                    velocityScreeningService.record(application.getId(), application.getCustomer(),
+                            application.getDeviceId(), application.getCreatedAt());
+                    startDecision(application.getId());
+                })
+                .map(applicationMapper::toResponse);
+    }
+
+    private Mono<CreditCardApplication> submit(CreditCardApplicationRequest request) {
+        String ssn = request.getSsn();
+        return Mono.defer(() -> {
+                    boolean mightHavePending = ssnFilterService.mightHavePending(ssn);
+                    return (mightHavePending ? hasPendingApplication(ssn) : Mono.just(false))
+                            .flatMap(pending -> pending
+                                    ? Mono.<CustomerRow>error(duplicate())
+                                    : findCustomer(ssn, mightHavePending)
+                                            .switchIfEmpty(Mono.defer(() -> createCustomer(request))));
+                })
+                .flatMap(customer -> clientChannel()
+                        .flatMap(channel -> {
+                            CreditCardApplication application = applicationMapper.toEntity(request);
+                            application.setChannel(channel);
+                            return template.insert(ApplicationRow.pending(application, customer.getId()));
+                        })
+                        .doOnNext(row -> ssnFilterService.pendingAdded(customer.getSsn()))
+                        .map(row -> row.toEntity(customer.toEntity())))
+                .as(transactionalOperator::transactional);
+    }
+
+    private static DuplicateApplicationException duplicate() {
+        return new DuplicateApplicationException("A pending application already exists for this SSN");
+    }
+
+    public Mono<CreditCardApplicationResponse> getApplication(String applicationNumber) {
+        return applicationRepository.findViewByApplicationNumber(applicationNumber)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(
+                        "Application not found: " + applicationNumber)))
+                .map(applicationMapper::toResponse);
+    }
+
+    public Flux<CreditCardApplicationResponse> getApplicationsByEmail(String email) {
+        return applicationRepository.findViewsByCustomerEmail(email)
+                .limitRate(FETCH_SIZE)
+                .map(applicationMapper::toResponse);
+    }
+
+    public Flux<CreditCardApplicationResponse> getPendingApplications() {
+        return applicationRepository.findPendingViews()
+                .limitRate(FETCH_SIZE)
+                .map(applicationMapper::toResponse);
+    }
+
+    /**
+     * The current status, then every change until the application is decided.
+     */
+    public Flux<StatusChange> watchStatus(String applicationNumber) {
+        return applicationRepository.findViewByApplicationNumber(applicationNumber)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(
+                        "Application not found: " + applicationNumber)))
+                .flatMapMany(view -> statusHub.watch(new StatusChange(view.getApplicationNumber(), view.getStatus(),
+                        view.getUpdatedAt() != null ? view.getUpdatedAt() : view.getCreatedAt())));
+    }
+
+    private Mono<CreditCardApplication.Channel> clientChannel() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> clientChannels.of(context.getAuthentication()))
+                .defaultIfEmpty(CreditCardApplication.Channel.ONLINE);
+    }
+
+    private Mono<Boolean> hasPendingApplication(String ssn) {
+        return applicationRepository.existsPendingBySsn(ssn).doOnNext(ssnFilterService::pendingLookedUp);
+    }
+
+    // The filter may not have caught up with a submission another instance made moments ago. Only an
+    // existing customer can have one, so theirs is asked of the database whatever the filter said
+    private Mono<CustomerRow> findCustomer(String ssn, boolean pendingLookedUp) {
+        return Mono.defer(() -> ssnFilterService.mightBeCustomer(ssn)
+                        ? customerRepository.findBySsn(ssn)
+                                .doOnSuccess(customer -> ssnFilterService.customerLookedUp(customer != null))
+                        : Mono.<CustomerRow>empty())
+                .flatMap(customer -> pendingLookedUp
+                        ? Mono.just(customer)
+                        : applicationRepository.existsPendingBySsn(ssn)
+                                .flatMap(pending -> pending ? Mono.error(duplicate()) : Mono.just(customer)));
+    }
+
+    private Mono<CustomerRow> createCustomer(CreditCardApplicationRequest request) {
+        return template.insert(CustomerRow.verified(applicationMapper.toCustomer(request)))
+                .doOnNext(customer -> ssnFilterService.customerAdded(customer.getSsn()));
+    }
+
+    private void startDecision(UUID applicationId) {
+        AdaptiveConcurrencyLimiter.Permit permit = reactivePipelineConcurrencyLimiter.tryAcquire();
+        if (permit == null) {
+            park(applicationId).subscribe();
+            return;
+        }
+        decide(applicationId, permit)
+                .doFinally(signal -> permit.close())
+                .subscribe();
+    }
+
+    // DEFERRED without counting a deferral, so the servlet stack's retry sweep decides it later
+    Mono<Void> park(UUID applicationId) {
+        return applicationRepository.findById(applicationId)
+                .filter(row -> row.getStatus() == CreditCardApplication.ApplicationStatus.PENDING)
+                .zipWhen(row -> customerRepository.findById(row.getCustomerId()))
+                .flatMap(loaded -> transition(loaded.getT1(), loaded.getT2().toEntity(),
+                        CreditCardApplication.ApplicationStatus.DEFERRED, TransitionReason.PIPELINE_SATURATED))
+                .doOnNext(row -> log.warn("Reactive decision pipeline saturated; application {} deferred",
+                        row.getApplicationNumber()))
+                .onErrorResume(e -> {
+                    log.error("Could not defer application {}; it stays PENDING: {}", applicationId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    Mono<Void> decide(UUID applicationId, AdaptiveConcurrencyLimiter.Permit permit) {
+        return Mono.defer(() -> {
+                    Deadline deadline = Deadline.after(deadlineBudget);
+                    // One rules snapshot per application, even if a reload lands mid-decision
+                    CompiledDecisionRules rules = decisionRulesRegistry.current();
+                    return applicationRepository.findById(applicationId)
+                            .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Application not found")))
+                            .zipWhen(row -> customerRepository.findById(row.getCustomerId()))
+                            .flatMap(loaded -> {
+                                ApplicationRow row = loaded.getT1();
+                                Customer customer = loaded.getT2().toEntity();
+                                row.setRulesVersion(rules.getVersion());
+                                return transition(row, customer, CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                                        TransitionReason.REVIEW_STARTED)
+                                        .flatMap(saved -> assess(saved, customer, rules, deadline));
+                            });
+                })
+                .onErrorResume(DeadlineExceededException.class, e -> defer(applicationId, e))
+                .onErrorResume(e -> {
+                    if (AdaptiveConcurrencyLimiter.isOverload(e)) {
+                        permit.dropped();
+                    }
+                    log.error("Error processing application {}: {}", applicationId, e.getMessage());
+                    return applicationRepository.findById(applicationId)
+                            .zipWhen(row -> customerRepository.findById(row.getCustomerId()))
+                            .flatMap(loaded -> reject(loaded.getT1(), loaded.getT2().toEntity(),
+                                    "System error during processing", TransitionReason.SYSTEM_ERROR))
+                            .onErrorResume(again -> {
+                                log.error("Could not reject application {}: {}", applicationId, again.getMessage());
+                                return Mono.empty();
+                            });
+                })
+                .then();
+    }
+
+    // Counted as a deferral, unlike a park; past max-deferrals the application is rejected instead
+    private Mono<ApplicationRow> defer(UUID applicationId, DeadlineExceededException e) {
+        return applicationRepository.findById(applicationId)
+                .zipWhen(row -> customerRepository.findById(row.getCustomerId()))
+                .flatMap(loaded -> {
+                    ApplicationRow row = loaded.getT1();
+                    Customer customer = loaded.getT2().toEntity();
+                    if (row.getDeferrals() >= maxDeferrals) {
+                        return reject(row, customer, "Application could not be decided within the time budget",
+                                TransitionReason.DEADLINE_EXCEEDED);
+                    }
+                    row.setDeferrals(row.getDeferrals() + 1);
+                    return transition(row, customer, CreditCardApplication.ApplicationStatus.DEFERRED,
+                            TransitionReason.DEADLINE_EXCEEDED)
+                            .doOnNext(saved -> log.info("Application {} deferred: {}",
+                                    saved.getApplicationNumber(), e.getMessage()));
+                })
+                .onErrorResume(again -> {
+                    log.error("Could not defer application {}: {}", applicationId, again.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<ApplicationRow> assess(ApplicationRow row, Customer customer, CompiledDecisionRules rules,
+                                        Deadline deadline) {
+        Mono<ComplianceService.ComplianceCheckResult> complianceCheck =
+                within(deadline, "compliance", complianceService.checkCompliance(customer, row.getDeviceId()));
+        return complianceCheck.flatMap(compliance -> {
+            if (!compliance.isOverallPassed()) {
+                return reject(row, customer, compliance.getReason(), TransitionReason.COMPLIANCE_FAILED);
+            }
+            return within(deadline, "bureau", creditBureauClient.fetchCreditReport(customer.getSsn()))
+                    .flatMap(report -> storeSnapshot(row.getId(), report).thenReturn(report))
+                    .flatMap(report -> {
+                        row.setCreditScore(report.getCreditScore());
+                        CreditCardApplication application = row.toEntity(customer);
+                        BigDecimal riskScore = riskAssessmentService.calculateRiskScore(application, report, rules);
+                        row.setRiskScore(riskScore);
+
+                        if (rules.isBelowMinimumCreditScore(report.getCreditScore())) {
+                            return reject(row, customer,
+                                    "Credit score below minimum requirement (" + rules.getMinimumCreditScore() + ")",
+                                    TransitionReason.CREDIT_SCORE_TOO_LOW);
+                        }
+                        if (rules.isAboveMaximumRisk(riskScore)) {
+                            return reject(row, customer, "Risk assessment score too high (" + riskScore + "/100)",
+                                    TransitionReason.RISK_TOO_HIGH);
+                        }
+                        row.setApprovedLimit(
+                                riskAssessmentService.determineApprovedLimit(application, riskScore, rules));
+                        row.setDecisionReason("Application approved based on credit assessment");
+                        return decided(row, customer, CreditCardApplication.ApplicationStatus.APPROVED,
+                                TransitionReason.APPROVED);
+                    });
+        });
+    }
+
+    // What is left of the budget is read on subscription, when the call actually starts
+    private static <T> Mono<T> within(Deadline deadline, String stage, Mono<T> call) {
+        return Mono.defer(() -> call.timeout(deadline.remaining(),
+                Mono.error(() -> new DeadlineExceededException(stage, deadline.budget()))));
+    }
+
+    private Mono<Void> storeSnapshot(UUID applicationId, CreditBureauReport report) {
+        return template.getDatabaseClient()
+                .sql("INSERT INTO credit_bureau_snapshots (application_id, encoding_version, payload, created_at)"
+                        + " VALUES (:applicationId, :encodingVersion, :payload, :createdAt)")
+                .bind("applicationId", applicationId)
+                .bind("encodingVersion", BureauReportCodec.CURRENT_VERSION)
+                .bind("payload", codec.encode(report))
+                .bind("createdAt", LocalDateTime.now())
+                .then();
+    }
+
+    private Mono<ApplicationRow> reject(ApplicationRow row, Customer customer, String reason, TransitionReason code) {
+        row.setDecisionReason(reason);
+        return decided(row, customer, CreditCardApplication.ApplicationStatus.REJECTED, code);
+    }
+
+    private Mono<ApplicationRow> decided(ApplicationRow row, Customer customer,
+                                         CreditCardApplication.ApplicationStatus status, TransitionReason reason) {
+        row.setDecidedAt(LocalDateTime.now());
+        return transition(row, customer, status, reason).doOnNext(saved -> {
+            ssnFilterService.pendingRemoved(customer.getSsn());
+            // The decision is committed: analytics must not turn it into a system error
+            try {
+                decisionAnalyticsService.record(saved.toEntity(customer));
+            } catch (RuntimeException e) {
+                log.error("Could not record the decision of application {} in analytics", saved.getId(), e);
+            }
+            log.info("Application {} {}: {}", saved.getApplicationNumber(), status, saved.getDecisionReason());
+        });
+    }
+
+    private Mono<ApplicationRow> transition(ApplicationRow row, Customer customer,
+                                            CreditCardApplication.ApplicationStatus status, TransitionReason reason) {
+        CreditCardApplication.ApplicationStatus previous = row.getStatus();
+        row.setStatus(status);
+        row.setUpdatedAt(LocalDateTime.now());
+        return template.update(row)
+                .doOnNext(saved -> {
+                    journalTransition(saved.toEntity(customer), previous, reason);
+                });
+    }
+
+    private void journalTransition(CreditCardApplication application, CreditCardApplication.ApplicationStatus from,
+                                   TransitionReason reason) {
+        try {
+            decisionJournal.append(application.getId(), from, application.getStatus(), application.getCardType(),
+                    application.getCreditScore(), application.getRiskScore(), application.getApprovedLimit(), reason);
+        } catch (RuntimeException e) {
+            log.error("Could not journal transition of application {} to {}",
+                    application.getId(), application.getStatus(), e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.bank.creditcard.reactive;
+
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of {@link com.bank.creditcard.repository.CustomerRepository}.
+ */
+public interface ReactiveCustomerRepository extends R2dbcRepository<CustomerRow, UUID> {
+
+    Mono<CustomerRow> findBySsn(String ssn);
+}
@@ -0,0 +1,63 @@
+package com.bank.creditcard.reactive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+/**
+ * Serves the reactive stack on its own port next to the servlet stack. Its context is a child of the
+ * application context, so both stacks share services, rules, journal and metrics, while requests on
+ * this port never touch a servlet thread or a JDBC connection.
+ */
+@Slf4j
+public class ReactiveServer implements SmartLifecycle {
+
+    private final ApplicationContext parent;
+    private final int port;
+
+    private AnnotationConfigApplicationContext context;
+    private WebServer server;
+
+    public ReactiveServer(ApplicationContext parent, int port) {
+        this.parent = parent;
+        this.port = port;
+    }
+
+    static AnnotationConfigApplicationContext createContext(ApplicationContext parent) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setParent(parent);
+        context.setDisplayName("reactive");
+        context.register(ReactiveWebConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    @Override
+    public void start() {
+        context = createContext(parent);
+        server = new NettyReactiveWebServerFactory(port)
+                .getWebServer(WebHttpHandlerBuilder.applicationContext(context).build());
+        server.start();
+        log.info("Reactive stack listening on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        server.stop();
+        context.close();
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server != null ? server.getPort() : port;
+    }
+}
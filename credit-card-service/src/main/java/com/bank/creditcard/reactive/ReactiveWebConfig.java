@@ -0,0 +1,73 @@
+package com.bank.creditcard.reactive;
+
+import com.bank.creditcard.exception.DuplicateApplicationException;
+import com.bank.creditcard.exception.ResourceNotFoundException;
+import com.bank.creditcard.security.BearerTokenService;
+import com.bank.creditcard.security.BearerTokenWebFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static com.bank.creditcard.reactive.ReactiveApplicationHandler.problem;
+import static com.bank.creditcard.reactive.ReactiveApplicationHandler.problemResponse;
+
+/**
+ * The reactive server's own context, a child of the application context. Deliberately not a
+ * {@code @Configuration}: component scanning would hand it to the servlet context, where the routes
+ * would clash with the MVC controllers. {@link ReactiveServer} registers it explicitly.
+ */
+@EnableWebFlux
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    static final String BASE_PATH = "/api/v1/credit-card-applications";
+
+    private final ObjectMapper objectMapper;
+
+    public ReactiveWebConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        // Same JSON as the servlet stack
+        configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+        configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+    }
+
+    @Bean
+    public ReactiveApplicationHandler reactiveApplicationHandler(ReactiveApplicationService applicationService,
+                                                                 @Qualifier("defaultValidator") Validator validator) {
+        return new ReactiveApplicationHandler(applicationService, validator);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> applicationRoutes(ReactiveApplicationHandler handler) {
+        return RouterFunctions.route()
+                .path(BASE_PATH, routes -> routes
+                        .POST("", handler::submitApplication)
+                        .GET("/pending", handler::getPendingApplications)
+                        .GET("/customer/{email}", handler::getApplicationsByEmail)
+                        .GET("/{applicationNumber}/status", handler::watchStatus)
+                        .GET("/{applicationNumber}", handler::getApplication))
+                .onError(ResourceNotFoundException.class, (e, request) ->
+                        problemResponse(problem(HttpStatus.NOT_FOUND, "Resource Not Found", e.getMessage())))
+                .onError(DuplicateApplicationException.class, (e, request) ->
+                        problemResponse(problem(HttpStatus.CONFLICT, "Duplicate Application", e.getMessage())))
+                .build();
+    }
+
+    @Bean
+    public BearerTokenWebFilter bearerTokenWebFilter(BearerTokenService tokenService) {
+        return new BearerTokenWebFilter(tokenService, "/api/");
+    }
+}
@@ -0,0 +1,13 @@
+package com.bank.creditcard.reactive;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class StatusChange {
+    String applicationNumber;
+    CreditCardApplication.ApplicationStatus status;
+    LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package com.bank.creditcard.repository;
+
+import com.bank.creditcard.dto.ApplicationField;
+import com.bank.creditcard.model.CreditCardApplication;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lookups that select only the columns behind the requested {@link ApplicationField}s, joining
+ * customers only when a customer field is asked for. Each result maps field properties to values,
+ * in field order.
+ */
+public interface ApplicationFieldsRepository {
+
+    Optional<Map<String, Object>> findFieldsByApplicationNumber(String applicationNumber,
+                                                                Set<ApplicationField> fields);
+
+    List<Map<String, Object>> findFieldsByCustomerEmail(String email, Set<ApplicationField> fields);
+
+    List<Map<String, Object>> findFieldsByStatus(CreditCardApplication.ApplicationStatus status,
+                                                 Set<ApplicationField> fields);
+}
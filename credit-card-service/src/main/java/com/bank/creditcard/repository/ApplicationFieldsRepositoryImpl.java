@@ -0,0 +1,92 @@
+package com.bank.creditcard.repository;
+
+import com.bank.creditcard.dto.ApplicationField;
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.model.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+class ApplicationFieldsRepositoryImpl implements ApplicationFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsByApplicationNumber(String applicationNumber,
+                                                                       Set<ApplicationField> fields) {
+        return select(fields, false, (cb, from) -> cb.equal(from.application().get("applicationNumber"),
+                applicationNumber)).stream().findFirst();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByCustomerEmail(String email, Set<ApplicationField> fields) {
+        return select(fields, true, (cb, from) -> cb.equal(from.customer().get("email"), email));
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByStatus(CreditCardApplication.ApplicationStatus status,
+                                                        Set<ApplicationField> fields) {
+        return select(fields, false, (cb, from) -> cb.equal(from.application().get("status"), status));
+    }
+
+    private List<Map<String, Object>> select(Set<ApplicationField> fields, boolean filterOnCustomer,
+                                             BiFunction<CriteriaBuilder, Sources, Predicate> where) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("Select at least one field");
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<CreditCardApplication> application = query.from(CreditCardApplication.class);
+        Join<CreditCardApplication, Customer> customer =
+                filterOnCustomer || fields.stream().anyMatch(ApplicationField::fromCustomer)
+                        ? application.join("customer")
+                        : null;
+        Sources from = new Sources(application, customer);
+
+        List<Selection<?>> columns = new ArrayList<>();
+        for (ApplicationField field : fields) {
+            From<?, ?> source = field.fromCustomer() ? customer : application;
+            for (String attribute : field.attributes()) {
+                columns.add(source.get(attribute));
+            }
+        }
+        query.multiselect(columns).where(where.apply(cb, from));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object[] row : entityManager.createQuery(query).getResultList()) {
+            rows.add(toMap(fields, row));
+        }
+        return rows;
+    }
+
+    private static Map<String, Object> toMap(Set<ApplicationField> fields, Object[] row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        int column = 0;
+        for (ApplicationField field : fields) {
+            int width = field.attributes().length;
+            Object[] attributes = new Object[width];
+            System.arraycopy(row, column, attributes, 0, width);
+            values.put(field.property(), field.value(attributes));
+            column += width;
+        }
+        return values;
+    }
+
+    private record Sources(Root<CreditCardApplication> application, Join<CreditCardApplication, Customer> customer) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.bank.creditcard.repository;
+
+import com.bank.creditcard.model.ApplicationStageTiming;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ApplicationStageTimingRepository extends JpaRepository<ApplicationStageTiming, UUID> {
+
+    // One index range scan per stage; the day is text because drivers disagree on native DATE types
+    @Query(value = """
+            SELECT decided_on AS "day", stage AS "stage", count(*) AS "applications",
+                   percentile_cont(0.5) WITHIN GROUP (ORDER BY ms) AS "p50",
+                   percentile_cont(0.9) WITHIN GROUP (ORDER BY ms) AS "p90",
+                   percentile_cont(0.99) WITHIN GROUP (ORDER BY ms) AS "p99",
+                   max(ms) AS "maxMs"
+            FROM (
+                SELECT CAST(CAST(decided_at AS DATE) AS VARCHAR(10)) AS decided_on, 'queue_wait' AS stage, queue_wait_ms AS ms
+                FROM application_stage_timings WHERE decided_at >= :from AND decided_at < :to
+                UNION ALL
+                SELECT CAST(CAST(decided_at AS DATE) AS VARCHAR(10)), 'compliance', compliance_ms
+                FROM application_stage_timings WHERE decided_at >= :from AND decided_at < :to
+                UNION ALL
+                SELECT CAST(CAST(decided_at AS DATE) AS VARCHAR(10)), 'bureau', bureau_ms
+                FROM application_stage_timings WHERE decided_at >= :from AND decided_at < :to
+                UNION ALL
+                SELECT CAST(CAST(decided_at AS DATE) AS VARCHAR(10)), 'scoring', scoring_ms
+                FROM application_stage_timings WHERE decided_at >= :from AND decided_at < :to
+                UNION ALL
+                SELECT CAST(CAST(decided_at AS DATE) AS VARCHAR(10)), 'persist', persist_ms
+                FROM application_stage_timings WHERE decided_at >= :from AND decided_at < :to
+                UNION ALL
+                SELECT CAST(CAST(decided_at AS DATE) AS VARCHAR(10)), 'total', total_ms
+                FROM application_stage_timings WHERE decided_at >= :from AND decided_at < :to
+            ) timings
+            WHERE ms IS NOT NULL
+            GROUP BY decided_on, stage
+            ORDER BY decided_on, stage""", nativeQuery = true)
+    List<StagePercentiles> findStagePercentiles(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT t FROM ApplicationStageTiming t WHERE t.decidedAt >= :from AND t.decidedAt < :to " +
+            "ORDER BY t.totalMs DESC")
+    List<ApplicationStageTiming> findSlowest(LocalDateTime from, LocalDateTime to, Limit limit);
+
+    interface StagePercentiles {
+        String getDay();
+
+        String getStage();
+
+        long getApplications();
+
+        double getP50();
+
+        double getP90();
+
+        double getP99();
+
+        long getMaxMs();
+    }
+}
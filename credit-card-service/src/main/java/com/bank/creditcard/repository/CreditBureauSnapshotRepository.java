@@ -0,0 +1,27 @@
+package com.bank.creditcard.repository;
+
+import com.bank.creditcard.dto.BacktestInput;
+import com.bank.creditcard.model.CreditBureauSnapshot;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+@Repository
+public interface CreditBureauSnapshotRepository extends JpaRepository<CreditBureauSnapshot, UUID> {
+
+    @Query("SELECT new com.bank.creditcard.dto.BacktestInput(a.status, a.annualIncome, a.requestedLimit, " +
+            "a.approvedLimit, a.riskScore, s.encodingVersion, s.payload) " +
+            "FROM CreditBureauSnapshot s JOIN CreditCardApplication a ON a.id = s.applicationId " +
+            "WHERE a.decidedAt >= :from AND a.decidedAt < :to AND a.status IN (" +
+            "com.bank.creditcard.model.CreditCardApplication.ApplicationStatus.APPROVED, " +
+            "com.bank.creditcard.model.CreditCardApplication.ApplicationStatus.REJECTED)")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "2000"))
+    Stream<BacktestInput> streamBacktestInputs(LocalDateTime from, LocalDateTime to);
+}
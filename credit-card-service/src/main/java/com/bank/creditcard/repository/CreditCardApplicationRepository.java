@@ -1,16 +1,30 @@
 package com.bank.creditcard.repository;
 
+import com.bank.creditcard.dto.ApplicationListVersion;
+import com.bank.creditcard.dto.DecisionExportRow;
+import com.bank.creditcard.dto.DecisionRecord;
+import com.bank.creditcard.dto.DeferredApplication;
+import com.bank.creditcard.dto.VelocityRecord;
 import com.bank.creditcard.model.CreditCardApplication;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface CreditCardApplicationRepository extends JpaRepository<CreditCardApplication, UUID> {
+public interface CreditCardApplicationRepository extends JpaRepository<CreditCardApplication, UUID>,
+        ApplicationFieldsRepository {
 
     Optional<CreditCardApplication> findByApplicationNumber(String applicationNumber);
 
@@ -22,5 +36,66 @@ public interface CreditCardApplicationRepository extends JpaRepository<CreditCar
     @Query("SELECT a FROM CreditCardApplication a WHERE a.customer.ssn = :ssn")
     List<CreditCardApplication> findByCustomerSsn(String ssn);
 
-    boolean existsByCustomerSsnAndStatus(String ssn, CreditCardApplication.ApplicationStatus status);
+    // Conditional-GET lookups: answer "has it changed?" without loading entities or customers
+
+    @Query("SELECT a.version FROM CreditCardApplication a WHERE a.applicationNumber = :applicationNumber")
+    Optional<Long> findVersionByApplicationNumber(String applicationNumber);
+
+    @Query("SELECT new com.bank.creditcard.dto.ApplicationListVersion(COUNT(a), SUM(a.version), MAX(a.createdAt)) " +
+            "FROM CreditCardApplication a WHERE a.status = :status")
+    ApplicationListVersion findListVersionByStatus(CreditCardApplication.ApplicationStatus status);
+
+    @Query("SELECT new com.bank.creditcard.dto.ApplicationListVersion(COUNT(a), SUM(a.version), MAX(a.createdAt)) " +
+            "FROM CreditCardApplication a WHERE a.customer.email = :email")
+    ApplicationListVersion findListVersionByCustomerEmail(String email);
+
+    boolean existsByCustomerSsnAndStatusIn(String ssn, Collection<CreditCardApplication.ApplicationStatus> statuses);
+
+    long countByStatus(CreditCardApplication.ApplicationStatus status);
+
+    long countByStatusIn(Collection<CreditCardApplication.ApplicationStatus> statuses);
+
+    @Query("SELECT c.ssn FROM CreditCardApplication a JOIN a.customer c WHERE a.status IN :statuses")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamCustomerSsnsByStatusIn(Collection<CreditCardApplication.ApplicationStatus> statuses);
+
+    @Query("SELECT c.ssn FROM CreditCardApplication a JOIN a.customer c " +
+            "WHERE a.status IN :statuses AND a.createdAt >= :since")
+    List<String> findCustomerSsnsByStatusInCreatedSince(
+            Collection<CreditCardApplication.ApplicationStatus> statuses, LocalDateTime since);
+
+    @Query("SELECT new com.bank.creditcard.dto.DecisionRecord(a.id, a.status, a.cardType, a.creditScore, a.riskScore, " +
+            "a.decisionReason, a.decidedAt) FROM CreditCardApplication a WHERE a.decidedAt >= :since")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<DecisionRecord> streamDecisionsSince(LocalDateTime since);
+
+    @Query("SELECT new com.bank.creditcard.dto.DecisionExportRow(a.applicationNumber, a.status, a.cardType, " +
+            "c.firstName, c.lastName, c.email, c.ssn, a.annualIncome, a.requestedLimit, a.approvedLimit, " +
+            "a.creditScore, a.riskScore, a.decisionReason, a.createdAt, a.decidedAt) " +
+            "FROM CreditCardApplication a JOIN a.customer c " +
+            "WHERE a.decidedAt >= :from AND a.decidedAt < :to ORDER BY a.decidedAt")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<DecisionExportRow> streamDecisionsBetween(LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT new com.bank.creditcard.dto.VelocityRecord(a.id, c.ssn, c.phoneNumber, c.email, " +
+            "c.address.streetAddress, c.address.zipCode, a.deviceId, a.createdAt) " +
+            "FROM CreditCardApplication a JOIN a.customer c WHERE a.createdAt >= :since")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<VelocityRecord> streamVelocityRecordsSince(LocalDateTime since);
+
+    // Deferred decisions due for another attempt, oldest first; served by the partial index on updated_at
+
+    @Query("SELECT new com.bank.creditcard.dto.DeferredApplication(a.id, c.ssn, a.cardType, a.channel) " +
+            "FROM CreditCardApplication a JOIN a.customer c " +
+            "WHERE a.status = com.bank.creditcard.model.CreditCardApplication$ApplicationStatus.DEFERRED " +
+            "AND a.updatedAt < :before ORDER BY a.updatedAt")
+    List<DeferredApplication> findDeferredBefore(LocalDateTime before, Limit limit);
+
+    // Stamps the row so that no other instance picks it up again before its attempt; 0 if one already has
+    @Modifying
+    @Query("UPDATE CreditCardApplication a SET a.updatedAt = :now, a.version = a.version + 1 " +
+            "WHERE a.id = :id " +
+            "AND a.status = com.bank.creditcard.model.CreditCardApplication$ApplicationStatus.DEFERRED " +
+            "AND a.updatedAt < :before")
+    int claimDeferred(UUID id, LocalDateTime now, LocalDateTime before);
 }
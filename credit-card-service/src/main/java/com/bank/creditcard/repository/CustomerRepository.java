@@ -1,9 +1,13 @@
 package com.bank.creditcard.repository;
 
 import com.bank.creditcard.model.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,4 +21,12 @@ public interface CustomerRepository extends JpaRepository<Customer, UUID> {
     boolean existsBySsn(String ssn);
 
     boolean existsByEmail(String email);
+
+    // SSN filter build: keyset pages over the ssn index, then catch-up by creation time
+
+    @Query("SELECT c.ssn FROM Customer c WHERE c.ssn > :after ORDER BY c.ssn")
+    List<String> findSsnsAfter(String after, Limit limit);
+
+    @Query("SELECT c.ssn FROM Customer c WHERE c.createdAt >= :since")
+    List<String> findSsnsCreatedSince(LocalDateTime since);
 }
@@ -0,0 +1,72 @@
+package com.bank.creditcard.routing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Carries the time of a client's last write between its requests. A committed write is answered
+ * with a {@value #COOKIE} cookie that lives for the sticky window and an {@value #HEADER} header
+ * for clients that do not keep cookies; either one sent back keeps the client's reads on the primary.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "last-write";
+    public static final String HEADER = "X-Last-Write";
+
+    private final ReadYourWritesTracker tracker;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        tracker.bind(lastWriteAt(request), writtenAt -> remember(response, writtenAt));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            tracker.unbind();
+        }
+    }
+
+    private void remember(HttpServletResponse response, long writtenAt) {
+        if (response.isCommitted()) {
+            return;
+        }
+        String value = Long.toString(writtenAt);
+        response.setHeader(HEADER, value);
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, value)
+                .path("/")
+                .maxAge(tracker.getWindow())
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build()
+                .toString());
+    }
+
+    private static long lastWriteAt(HttpServletRequest request) {
+        String value = request.getHeader(HEADER);
+        if (value == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    value = cookie.getValue();
+                }
+            }
+        }
+        if (value == null) {
+            return ReadYourWritesTracker.NO_WRITE;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return ReadYourWritesTracker.NO_WRITE;
+        }
+    }
+}
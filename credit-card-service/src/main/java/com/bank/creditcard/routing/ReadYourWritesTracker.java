@@ -0,0 +1,94 @@
+package com.bank.creditcard.routing;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps a client's reads on the primary for {@code window} after its last committed write, so the
+ * replica has time to replay it. A client that submits an application and immediately polls for it
+ * never sees a 404 from a lagging replica.
+ *
+ * <p>The time of the last write travels with the client rather than being kept here: clients share
+ * principals, and any instance may serve the next request. {@link ReadYourWritesFilter} binds what
+ * the request carries and hands new write times back to the client.
+ */
+public class ReadYourWritesTracker {
+
+    static final long NO_WRITE = -1;
+
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final ThreadLocal<Client> current = new ThreadLocal<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this(window, System::currentTimeMillis);
+    }
+
+    ReadYourWritesTracker(Duration window, LongSupplier clock) {
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    public Duration getWindow() {
+        return Duration.ofMillis(windowMillis);
+    }
+
+    /**
+     * Binds the client served by this thread until {@link #unbind}.
+     *
+     * @param lastWriteAt epoch millis of the client's last write, or {@link #NO_WRITE}
+     * @param onWrite     told the epoch millis of each write the client commits from now on
+     */
+    public void bind(long lastWriteAt, LongConsumer onWrite) {
+        current.set(new Client(lastWriteAt, onWrite));
+    }
+
+    public void unbind() {
+        current.remove();
+    }
+
+    /**
+     * Records a write for the current client once the surrounding read-write transaction commits.
+     */
+    void recordOnCommit() {
+        Client client = current.get();
+        if (client == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                client.written(clock.getAsLong());
+            }
+        });
+    }
+
+    public boolean isPinnedToPrimary() {
+        Client client = current.get();
+        if (client == null || client.lastWriteAt == NO_WRITE) {
+            return false;
+        }
+        // Another instance's clock may run a little ahead of this one
+        return Math.abs(clock.getAsLong() - client.lastWriteAt) < windowMillis;
+    }
+
+    private static final class Client {
+
+        private final LongConsumer onWrite;
+        private long lastWriteAt;
+
+        private Client(long lastWriteAt, LongConsumer onWrite) {
+            this.lastWriteAt = lastWriteAt;
+            this.onWrite = onWrite;
+        }
+
+        private void written(long at) {
+            lastWriteAt = at;
+            onWrite.accept(at);
+        }
+    }
+}
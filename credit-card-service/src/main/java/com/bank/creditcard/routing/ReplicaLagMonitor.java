@@ -0,0 +1,104 @@
+package com.bank.creditcard.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Polls the replica for its replication lag. The replica is usable only while the last check
+ * succeeded, reported at most {@code maxLag}, and is recent; a failing or silent replica drops
+ * reads back to the primary without waiting for connection timeouts on the request path.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+    /**
+     * Zero while the replica has replayed everything it received, so an idle primary does not read as lag.
+     */
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()"
+            + " THEN 0 ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private static final Sample UNKNOWN = new Sample(-1, 0);
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long staleAfterNanos;
+    private final LongSupplier nanoClock;
+
+    private volatile Sample last = UNKNOWN;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, Duration checkInterval) {
+        this(replica, lagQuery, maxLag, checkInterval, System::nanoTime);
+    }
+
+    ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, Duration checkInterval,
+                      LongSupplier nanoClock) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLag.toMillis();
+        // Three missed checks in a row and the last answer is no longer trusted
+        this.staleAfterNanos = checkInterval.toNanos() * 3;
+        this.nanoClock = nanoClock;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval:PT1S}")
+    public void check() {
+        boolean wasUsable = isReplicaUsable();
+        try {
+            Number lag = replica.queryForObject(lagQuery, Number.class);
+            last = new Sample(lag == null ? 0 : Math.max(0, lag.longValue()), nanoClock.getAsLong());
+        } catch (DataAccessException e) {
+            last = UNKNOWN;
+            if (wasUsable) {
+                log.warn("Replica lag check failed, routing reads to the primary: {}", e.getMessage());
+            }
+            return;
+        }
+        boolean usable = isReplicaUsable();
+        if (wasUsable && !usable) {
+            log.warn("Replica is {} ms behind (max {} ms), routing reads to the primary", last.lagMillis, maxLagMillis);
+        } else if (!wasUsable && usable) {
+            log.info("Replica is {} ms behind, routing read-only transactions to it", last.lagMillis);
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        Sample sample = last;
+        return sample.lagMillis >= 0 && sample.lagMillis <= maxLagMillis
+                && nanoClock.getAsLong() - sample.checkedAt <= staleAfterNanos;
+    }
+
+    /**
+     * Lag reported by the last check, or -1 if it failed.
+     */
+    public long getLagMillis() {
+        return last.lagMillis;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replica.lag", this, monitor -> {
+                    long lag = monitor.getLagMillis();
+                    return lag < 0 ? Double.NaN : lag;
+                })
+                .baseUnit("milliseconds")
+                .description("Replication lag reported by the replica")
+                .register(registry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.isReplicaUsable() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(registry);
+    }
+
+    private record Sample(long lagMillis, long checkedAt) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.bank.creditcard.rules;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * {@link CompiledDecisionRules#riskScore} for a whole {@link RiskScoreBatch} at a time, with the same
+ * results. Band boundaries and weights are copied into primitive arrays, and the two ratios are never
+ * divided out: "debt-to-income, rounded to four decimals, is at most c" is tested as one multiplication
+ * and one comparison, which needs nothing but longs.
+ *
+ * <p>With {@code --add-modules jdk.incubator.vector} batches are scored with the Vector API, several
+ * applications per instruction; without it the same arithmetic runs one application at a time.
+ */
+@Slf4j
+public final class BatchRiskScorer {
+
+    // (ceiling + 1) * 2 * MAX_AMOUNT must fit in a long
+    static final long MAX_RATIO_CEILING = Long.MAX_VALUE / (2 * RiskScoreBatch.MAX_AMOUNT) - 1;
+    // Keeps weighted sums below 2^53, where the vector path rounds them exactly through doubles
+    static final long MAX_WEIGHT_SUM = (1L << 53) / 10_000 / 2;
+
+    private static final boolean VECTOR_AVAILABLE = vectorAvailable();
+
+    final long[] creditScoreFloors;
+    final long[] creditScoreRisks;
+    final long creditScoreOtherwise;
+
+    // Debt-to-income and utilization ceilings as c + 1, with c in hundredths of a percent rounded down
+    final long[] debtToIncomeBounds;
+    final long[] debtToIncomeRisks;
+    final long debtToIncomeOtherwise;
+    final long zeroIncomeRisk;
+
+    final long[] delinquencyCeilings;
+    final long[] delinquencyRisks;
+    final long delinquencyOtherwise;
+
+    final long[] inquiryCeilings;
+    final long[] inquiryRisks;
+    final long inquiryOtherwise;
+
+    final long[] utilizationBounds;
+    final long[] utilizationRisks;
+    final long utilizationOtherwise;
+    final long noCardHistoryRisk;
+
+    final long creditScoreWeight;
+    final long debtToIncomeWeight;
+    final long delinquencyWeight;
+    final long utilizationWeight;
+    final long inquiryWeight;
+
+    private BatchRiskScorer(CompiledDecisionRules rules) {
+        creditScoreFloors = longs(rules.creditScoreFloors);
+        creditScoreRisks = longs(rules.creditScoreRisks);
+        creditScoreOtherwise = rules.creditScoreOtherwise;
+        debtToIncomeBounds = ratioBounds(rules.debtToIncomeCeilings, "debtToIncome");
+        debtToIncomeRisks = longs(rules.debtToIncomeRisks);
+        debtToIncomeOtherwise = rules.debtToIncomeOtherwise;
+        zeroIncomeRisk = rules.zeroIncomeRisk;
+        delinquencyCeilings = longs(rules.delinquencyCeilings);
+        delinquencyRisks = longs(rules.delinquencyRisks);
+        delinquencyOtherwise = rules.delinquencyOtherwise;
+        inquiryCeilings = longs(rules.inquiryCeilings);
+        inquiryRisks = longs(rules.inquiryRisks);
+        inquiryOtherwise = rules.inquiryOtherwise;
+        utilizationBounds = ratioBounds(rules.utilizationCeilings, "utilization");
+        utilizationRisks = longs(rules.utilizationRisks);
+        utilizationOtherwise = rules.utilizationOtherwise;
+        noCardHistoryRisk = rules.noCardHistoryRisk;
+        creditScoreWeight = rules.creditScoreWeight;
+        debtToIncomeWeight = rules.debtToIncomeWeight;
+        delinquencyWeight = rules.delinquencyWeight;
+        utilizationWeight = rules.utilizationWeight;
+        inquiryWeight = rules.inquiryWeight;
+        if (creditScoreWeight + debtToIncomeWeight + delinquencyWeight + utilizationWeight + inquiryWeight
+                > MAX_WEIGHT_SUM) {
+            throw new IllegalArgumentException("Rules " + rules.getVersion() + " weigh too much for batch scoring");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the rules use ratio ceilings or weights too large for batch
+     *                                  arithmetic; score with the rules themselves then
+     */
+    public static BatchRiskScorer of(CompiledDecisionRules rules) {
+        return new BatchRiskScorer(rules);
+    }
+
+    public static boolean isVectorized() {
+        return VECTOR_AVAILABLE;
+    }
+
+    /**
+     * Writes each application's risk score, in hundredths, to {@code scores} at its batch index.
+     * {@code BigDecimal.valueOf(scores[i], 2)} equals {@link CompiledDecisionRules#riskScore} for it.
+     */
+    public void score(RiskScoreBatch batch, long[] scores) {
+        score(batch, scores, VECTOR_AVAILABLE);
+    }
+
+    void score(RiskScoreBatch batch, long[] scores, boolean vector) {
+        int from = vector ? VectorRiskKernel.score(this, batch, scores) : 0;
+        for (int i = from; i < batch.size(); i++) {
+            scores[i] = scoreOne(batch, i);
+        }
+    }
+
+    long scoreOne(RiskScoreBatch batch, int i) {
+        long income = batch.monthlyIncomes[i];
+        long limit = batch.cardLimits[i];
+        long weighted = floorBand(batch.creditScores[i]) * creditScoreWeight
+                + (income == 0 ? zeroIncomeRisk
+                        : ratioBand(batch.monthlyDebts[i], income, debtToIncomeBounds, debtToIncomeRisks,
+                        debtToIncomeOtherwise)) * debtToIncomeWeight
+                + ceilingBand(batch.delinquencies[i], delinquencyCeilings, delinquencyRisks, delinquencyOtherwise)
+                * delinquencyWeight
+                + (limit == 0 ? noCardHistoryRisk
+                        : ratioBand(batch.cardBalances[i], limit, utilizationBounds, utilizationRisks,
+                        utilizationOtherwise)) * utilizationWeight
+                + ceilingBand(batch.inquiries[i], inquiryCeilings, inquiryRisks, inquiryOtherwise) * inquiryWeight;
+        return CompiledDecisionRules.roundWeighted(weighted);
+    }
+
+    private long floorBand(long creditScore) {
+        for (int i = 0; i < creditScoreFloors.length; i++) {
+            if (creditScore >= creditScoreFloors[i]) {
+                return creditScoreRisks[i];
+            }
+        }
+        return creditScoreOtherwise;
+    }
+
+    private static long ceilingBand(long value, long[] ceilings, long[] risks, long otherwise) {
+        for (int i = 0; i < ceilings.length; i++) {
+            if (value <= ceilings[i]) {
+                return risks[i];
+            }
+        }
+        return otherwise;
+    }
+
+    /**
+     * Band of 100 * round_half_up(part / whole, 4). That value in hundredths of a percent is
+     * floor((20000 * part + whole) / (2 * whole)), and floor(n / d) <= c exactly when n < (c + 1) * d.
+     */
+    private static long ratioBand(long part, long whole, long[] bounds, long[] risks, long otherwise) {
+        long numerator = 20_000 * part + whole;
+        long denominator = 2 * whole;
+        for (int i = 0; i < bounds.length; i++) {
+            if (numerator < bounds[i] * denominator) {
+                return risks[i];
+            }
+        }
+        return otherwise;
+    }
+
+    private static long[] ratioBounds(BigDecimal[] ceilings, String name) {
+        long[] bounds = new long[ceilings.length];
+        for (int i = 0; i < ceilings.length; i++) {
+            BigDecimal hundredths = ceilings[i].movePointRight(2).setScale(0, RoundingMode.FLOOR);
+            if (hundredths.compareTo(BigDecimal.valueOf(MAX_RATIO_CEILING)) > 0) {
+                throw new IllegalArgumentException(name + " ceiling " + ceilings[i] + " is too large for batch scoring");
+            }
+            // Ratios are never negative, so a negative ceiling matches nothing, as with bound 0
+            bounds[i] = Math.max(0, hundredths.longValue() + 1);
+        }
+        return bounds;
+    }
+
+    private static long[] longs(int[] values) {
+        long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+    private static boolean vectorAvailable() {
+        try {
+            int lanes = VectorRiskKernel.lanes();
+            log.debug("Batch risk scoring uses {} lanes", lanes);
+            return lanes > 1;
+        } catch (LinkageError e) {
+            log.debug("jdk.incubator.vector is not available; batch risk scoring runs scalar");
+            return false;
+        }
+    }
+}
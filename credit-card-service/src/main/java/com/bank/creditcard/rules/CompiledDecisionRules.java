@@ -0,0 +1,273 @@
+package com.bank.creditcard.rules;
+
+import com.bank.creditcard.exception.InvalidDecisionRulesException;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Immutable, flat form of a {@link DecisionRulesDefinition}. Band boundaries live in sorted arrays, band risks
+ * in hundredths and weights in ten-thousandths, so a score is a few array scans and one exact long sum.
+ * Results are identical to the original BigDecimal arithmetic for weights with up to four decimals and
+ * risks with up to two.
+ */
+public final class CompiledDecisionRules {
+
+    static final int RISK_SCALE = 2;
+    static final int WEIGHT_SCALE = 4;
+
+    private static final BigDecimal TWELVE = BigDecimal.valueOf(12);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Getter
+    private final String version;
+    @Getter
+    private final int minimumCreditScore;
+    @Getter
+    private final BigDecimal maximumRiskScore;
+    @Getter
+    private final String utilizationAccountType;
+
+    // Descending: the first floor the score reaches wins
+    final int[] creditScoreFloors;
+    final int[] creditScoreRisks;
+    final int creditScoreOtherwise;
+
+    // Ascending: the first ceiling the value does not exceed wins
+    final BigDecimal[] debtToIncomeCeilings;
+    final int[] debtToIncomeRisks;
+    final int debtToIncomeOtherwise;
+    final int zeroIncomeRisk;
+
+    final int[] delinquencyCeilings;
+    final int[] delinquencyRisks;
+    final int delinquencyOtherwise;
+
+    final int[] inquiryCeilings;
+    final int[] inquiryRisks;
+    final int inquiryOtherwise;
+
+    final BigDecimal[] utilizationCeilings;
+    final int[] utilizationRisks;
+    final int utilizationOtherwise;
+    final int noCardHistoryRisk;
+
+    final long creditScoreWeight;
+    final long debtToIncomeWeight;
+    final long delinquencyWeight;
+    final long utilizationWeight;
+    final long inquiryWeight;
+
+    private final BigDecimal limitIncomeMultiplier;
+    private final BigDecimal limitRoundingIncrement;
+
+    private CompiledDecisionRules(DecisionRulesDefinition definition) {
+        this.version = require(definition.getVersion(), "version");
+        this.minimumCreditScore = require(definition.getMinimumCreditScore(), "minimumCreditScore");
+        this.maximumRiskScore = require(definition.getMaximumRiskScore(), "maximumRiskScore");
+        this.utilizationAccountType = require(definition.getUtilizationAccountType(), "utilizationAccountType");
+
+        DecisionRulesDefinition.Factor creditScore = require(definition.getCreditScore(), "creditScore");
+        List<DecisionRulesDefinition.Band> creditBands = require(creditScore.getBands(), "creditScore.bands");
+        this.creditScoreFloors = new int[creditBands.size()];
+        this.creditScoreRisks = new int[creditBands.size()];
+        for (int i = 0; i < creditBands.size(); i++) {
+            DecisionRulesDefinition.Band band = creditBands.get(i);
+            creditScoreFloors[i] = require(band.getAtLeast(), "creditScore.bands[" + i + "].atLeast").intValueExact();
+            creditScoreRisks[i] = risk(band.getRisk(), "creditScore.bands[" + i + "].risk");
+            if (i > 0 && creditScoreFloors[i] >= creditScoreFloors[i - 1]) {
+                throw new InvalidDecisionRulesException("creditScore bands must be ordered from highest to lowest");
+            }
+        }
+        this.creditScoreOtherwise = risk(creditScore.getOtherwise(), "creditScore.otherwise");
+
+        DecisionRulesDefinition.Factor debtToIncome = require(definition.getDebtToIncome(), "debtToIncome");
+        this.debtToIncomeCeilings = decimalCeilings(debtToIncome, "debtToIncome");
+        this.debtToIncomeRisks = risks(debtToIncome, "debtToIncome");
+        this.debtToIncomeOtherwise = risk(debtToIncome.getOtherwise(), "debtToIncome.otherwise");
+        this.zeroIncomeRisk = risk(definition.getZeroIncomeRisk(), "zeroIncomeRisk");
+
+        DecisionRulesDefinition.Factor delinquency = require(definition.getDelinquentAccounts(), "delinquentAccounts");
+        this.delinquencyCeilings = intCeilings(delinquency, "delinquentAccounts");
+        this.delinquencyRisks = risks(delinquency, "delinquentAccounts");
+        this.delinquencyOtherwise = risk(delinquency.getOtherwise(), "delinquentAccounts.otherwise");
+
+        DecisionRulesDefinition.Factor inquiries = require(definition.getRecentInquiries(), "recentInquiries");
+        this.inquiryCeilings = intCeilings(inquiries, "recentInquiries");
+        this.inquiryRisks = risks(inquiries, "recentInquiries");
+        this.inquiryOtherwise = risk(inquiries.getOtherwise(), "recentInquiries.otherwise");
+
+        DecisionRulesDefinition.Factor utilization = require(definition.getUtilization(), "utilization");
+        this.utilizationCeilings = decimalCeilings(utilization, "utilization");
+        this.utilizationRisks = risks(utilization, "utilization");
+        this.utilizationOtherwise = risk(utilization.getOtherwise(), "utilization.otherwise");
+        this.noCardHistoryRisk = risk(definition.getNoCardHistoryRisk(), "noCardHistoryRisk");
+
+        DecisionRulesDefinition.Weights weights = require(definition.getWeights(), "weights");
+        this.creditScoreWeight = weight(weights.getCreditScore(), "weights.creditScore");
+        this.debtToIncomeWeight = weight(weights.getDebtToIncome(), "weights.debtToIncome");
+        this.delinquencyWeight = weight(weights.getDelinquency(), "weights.delinquency");
+        this.utilizationWeight = weight(weights.getUtilization(), "weights.utilization");
+        this.inquiryWeight = weight(weights.getInquiries(), "weights.inquiries");
+
+        this.limitIncomeMultiplier = require(definition.getLimitIncomeMultiplier(), "limitIncomeMultiplier");
+        this.limitRoundingIncrement = require(definition.getLimitRoundingIncrement(), "limitRoundingIncrement");
+        if (limitRoundingIncrement.signum() <= 0) {
+            throw new InvalidDecisionRulesException("limitRoundingIncrement must be positive");
+        }
+    }
+
+    public static CompiledDecisionRules compile(DecisionRulesDefinition definition) {
+        try {
+            return new CompiledDecisionRules(definition);
+        } catch (ArithmeticException e) {
+            throw new InvalidDecisionRulesException("Rules " + definition.getVersion() + " are not representable: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Weighted risk score on a 0-100 scale (lower is better), rounded half-up to two decimals.
+     *
+     * @param cardBalance total balance of accounts of {@link #getUtilizationAccountType()}
+     * @param cardLimit   total credit limit of the same accounts
+     */
+    public BigDecimal riskScore(int creditScore, BigDecimal annualIncome, BigDecimal monthlyDebtPayments,
+                                int delinquentAccounts, int recentInquiries,
+                                BigDecimal cardBalance, BigDecimal cardLimit) {
+        long weighted = creditScoreRisk(creditScore) * creditScoreWeight
+                + debtToIncomeRisk(annualIncome, monthlyDebtPayments) * debtToIncomeWeight
+                + delinquencyRisk(delinquentAccounts) * delinquencyWeight
+                + utilizationRisk(cardBalance, cardLimit) * utilizationWeight
+                + inquiryRisk(recentInquiries) * inquiryWeight;
+        return BigDecimal.valueOf(roundWeighted(weighted), RISK_SCALE);
+    }
+
+    public BigDecimal approvedLimit(BigDecimal annualIncome, BigDecimal requestedLimit, BigDecimal riskScore) {
+        BigDecimal baseLimit = annualIncome.multiply(limitIncomeMultiplier);
+        BigDecimal riskMultiplier = HUNDRED.subtract(riskScore).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+        BigDecimal approvedLimit = baseLimit.multiply(riskMultiplier).min(requestedLimit);
+        return approvedLimit.divide(limitRoundingIncrement, 0, RoundingMode.HALF_UP).multiply(limitRoundingIncrement);
+    }
+
+    public boolean isBelowMinimumCreditScore(int creditScore) {
+        return creditScore < minimumCreditScore;
+    }
+
+    public boolean isAboveMaximumRisk(BigDecimal riskScore) {
+        return riskScore.compareTo(maximumRiskScore) > 0;
+    }
+
+    // Weighted sums carry RISK_SCALE + WEIGHT_SCALE decimals; drop WEIGHT_SCALE of them, rounding half-up
+    static long roundWeighted(long weighted) {
+        return (weighted + 5_000) / 10_000;
+    }
+
+    int creditScoreRisk(int creditScore) {
+        int[] floors = creditScoreFloors;
+        for (int i = 0; i < floors.length; i++) {
+            if (creditScore >= floors[i]) {
+                return creditScoreRisks[i];
+            }
+        }
+        return creditScoreOtherwise;
+    }
+
+    int debtToIncomeRisk(BigDecimal annualIncome, BigDecimal monthlyDebtPayments) {
+        BigDecimal monthlyIncome = annualIncome.divide(TWELVE, 2, RoundingMode.HALF_UP);
+        if (monthlyIncome.signum() == 0) {
+            return zeroIncomeRisk;
+        }
+        BigDecimal ratio = monthlyDebtPayments.divide(monthlyIncome, 4, RoundingMode.HALF_UP).multiply(HUNDRED);
+        return band(ratio, debtToIncomeCeilings, debtToIncomeRisks, debtToIncomeOtherwise);
+    }
+
+    int delinquencyRisk(int delinquentAccounts) {
+        return band(delinquentAccounts, delinquencyCeilings, delinquencyRisks, delinquencyOtherwise);
+    }
+
+    int inquiryRisk(int recentInquiries) {
+        return band(recentInquiries, inquiryCeilings, inquiryRisks, inquiryOtherwise);
+    }
+
+    int utilizationRisk(BigDecimal cardBalance, BigDecimal cardLimit) {
+        if (cardLimit.signum() == 0) {
+            return noCardHistoryRisk;
+        }
+        BigDecimal utilization = cardBalance.divide(cardLimit, 4, RoundingMode.HALF_UP).multiply(HUNDRED);
+        return band(utilization, utilizationCeilings, utilizationRisks, utilizationOtherwise);
+    }
+
+    private static int band(int value, int[] ceilings, int[] risks, int otherwise) {
+        for (int i = 0; i < ceilings.length; i++) {
+            if (value <= ceilings[i]) {
+                return risks[i];
+            }
+        }
+        return otherwise;
+    }
+
+    private static int band(BigDecimal value, BigDecimal[] ceilings, int[] risks, int otherwise) {
+        for (int i = 0; i < ceilings.length; i++) {
+            if (value.compareTo(ceilings[i]) <= 0) {
+                return risks[i];
+            }
+        }
+        return otherwise;
+    }
+
+    private static BigDecimal[] decimalCeilings(DecisionRulesDefinition.Factor factor, String name) {
+        List<DecisionRulesDefinition.Band> bands = require(factor.getBands(), name + ".bands");
+        BigDecimal[] ceilings = new BigDecimal[bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            ceilings[i] = require(bands.get(i).getAtMost(), name + ".bands[" + i + "].atMost");
+            if (i > 0 && ceilings[i].compareTo(ceilings[i - 1]) <= 0) {
+                throw new InvalidDecisionRulesException(name + " bands must be ordered from lowest to highest");
+            }
+        }
+        return ceilings;
+    }
+
+    private static int[] intCeilings(DecisionRulesDefinition.Factor factor, String name) {
+        BigDecimal[] ceilings = decimalCeilings(factor, name);
+        int[] result = new int[ceilings.length];
+        for (int i = 0; i < ceilings.length; i++) {
+            result[i] = ceilings[i].intValueExact();
+        }
+        return result;
+    }
+
+    private static int[] risks(DecisionRulesDefinition.Factor factor, String name) {
+        List<DecisionRulesDefinition.Band> bands = factor.getBands();
+        int[] risks = new int[bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            risks[i] = risk(bands.get(i).getRisk(), name + ".bands[" + i + "].risk");
+        }
+        return risks;
+    }
+
+    private static int risk(BigDecimal risk, String name) {
+        require(risk, name);
+        if (risk.signum() < 0 || risk.compareTo(HUNDRED) > 0) {
+            throw new InvalidDecisionRulesException(name + " must be between 0 and 100");
+        }
+        return risk.movePointRight(RISK_SCALE).intValueExact();
+    }
+
+    private static long weight(BigDecimal weight, String name) {
+        require(weight, name);
+        if (weight.signum() < 0) {
+            throw new InvalidDecisionRulesException(name + " must not be negative");
+        }
+        return weight.movePointRight(WEIGHT_SCALE).longValueExact();
+    }
+
+    private static <T> T require(T value, String name) {
+        if (value == null) {
+            throw new InvalidDecisionRulesException("Missing rule: " + name);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,53 @@
+package com.bank.creditcard.rules;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Rules file as written by risk policy owners. Never evaluated directly; see {@link CompiledDecisionRules}.
+ */
+@Data
+public class DecisionRulesDefinition {
+
+    private String version;
+    private Integer minimumCreditScore;
+    private BigDecimal maximumRiskScore;
+    private Weights weights;
+    private Factor creditScore;
+    private Factor debtToIncome;
+    private BigDecimal zeroIncomeRisk;
+    private Factor delinquentAccounts;
+    private Factor recentInquiries;
+    private Factor utilization;
+    private String utilizationAccountType;
+    private BigDecimal noCardHistoryRisk;
+    private BigDecimal limitIncomeMultiplier;
+    private BigDecimal limitRoundingIncrement;
+
+    @Data
+    public static class Weights {
+        private BigDecimal creditScore;
+        private BigDecimal debtToIncome;
+        private BigDecimal delinquency;
+        private BigDecimal utilization;
+        private BigDecimal inquiries;
+    }
+
+    @Data
+    public static class Factor {
+        private List<Band> bands;
+        private BigDecimal otherwise;
+    }
+
+    /**
+     * Credit score bands match on {@code atLeast} (highest first); all other factors on {@code atMost} (lowest first).
+     */
+    @Data
+    public static class Band {
+        private BigDecimal atLeast;
+        private BigDecimal atMost;
+        private BigDecimal risk;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bank.creditcard.rules;
+
+import com.bank.creditcard.exception.InvalidDecisionRulesException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the active {@link CompiledDecisionRules}. A file-system rules location is polled and swapped in
+ * atomically when it changes; a broken file is logged and the previous rules stay active.
+ */
+@Component
+@Slf4j
+public class DecisionRulesRegistry {
+
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final Resource resource;
+    private final AtomicReference<CompiledDecisionRules> current = new AtomicReference<>();
+    private volatile long lastModified;
+
+    public DecisionRulesRegistry(ObjectMapper objectMapper, ResourceLoader resourceLoader,
+                                 @Value("${decision-rules.location:classpath:decision-rules.json}") String location) {
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.resource = resourceLoader.getResource(location);
+        this.lastModified = lastModified();
+        this.current.set(load(resource));
+        log.info("Loaded decision rules {} from {}", current.get().getVersion(), location);
+    }
+
+    public CompiledDecisionRules current() {
+        return current.get();
+    }
+
+    @Scheduled(fixedDelayString = "${decision-rules.reload-interval:PT5S}")
+    public void reloadIfChanged() {
+        if (!resource.isFile()) {
+            return;
+        }
+        long modified = lastModified();
+        if (modified == lastModified) {
+            return;
+        }
+        lastModified = modified;
+        try {
+            CompiledDecisionRules rules = load(resource);
+            CompiledDecisionRules previous = current.getAndSet(rules);
+            log.info("Reloaded decision rules {} (was {})", rules.getVersion(), previous.getVersion());
+        } catch (InvalidDecisionRulesException e) {
+            log.error("Keeping decision rules {}: {}", current.get().getVersion(), e.getMessage());
+        }
+    }
+
+    public CompiledDecisionRules parse(InputStream in) {
+        try {
+            return CompiledDecisionRules.compile(objectMapper.readValue(in, DecisionRulesDefinition.class));
+        } catch (IOException e) {
+            throw new InvalidDecisionRulesException("Unreadable decision rules: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compiles rules from any location without activating them, e.g. a candidate policy for a backtest.
+     */
+    public CompiledDecisionRules load(String location) {
+        return load(resourceLoader.getResource(location));
+    }
+
+    private CompiledDecisionRules load(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return parse(in);
+        } catch (IOException e) {
+            throw new InvalidDecisionRulesException("Cannot read decision rules from " + resource, e);
+        }
+    }
+
+    private long lastModified() {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bank.creditcard.rules;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Scoring inputs for many applications, one primitive column per input, for {@link BatchRiskScorer}.
+ * Amounts are held in cents; monthly income is stored already divided by twelve and rounded the way
+ * {@link CompiledDecisionRules#riskScore} rounds it.
+ *
+ * <p>{@link #add} refuses inputs the integer arithmetic cannot reproduce exactly (fractions of a
+ * cent, negative amounts, amounts above {@link #MAX_AMOUNT}); score those through
+ * {@link CompiledDecisionRules#riskScore} instead.
+ */
+public final class RiskScoreBatch {
+
+    /**
+     * Largest amount, in cents, a batch accepts: keeps every intermediate product in a long.
+     */
+    public static final long MAX_AMOUNT = 1_000_000_000_000L;
+
+    final long[] creditScores;
+    final long[] monthlyIncomes;
+    final long[] monthlyDebts;
+    final long[] delinquencies;
+    final long[] inquiries;
+    final long[] cardBalances;
+    final long[] cardLimits;
+    private int size;
+
+    public RiskScoreBatch(int capacity) {
+        creditScores = new long[capacity];
+        monthlyIncomes = new long[capacity];
+        monthlyDebts = new long[capacity];
+        delinquencies = new long[capacity];
+        inquiries = new long[capacity];
+        cardBalances = new long[capacity];
+        cardLimits = new long[capacity];
+    }
+
+    /**
+     * Appends one application's inputs, with the arguments of {@link CompiledDecisionRules#riskScore};
+     * returns its index, or -1 if the inputs cannot be scored in a batch.
+     */
+    public int add(int creditScore, BigDecimal annualIncome, BigDecimal monthlyDebtPayments,
+                   int delinquentAccounts, int recentInquiries, BigDecimal cardBalance, BigDecimal cardLimit) {
+        if (size == creditScores.length) {
+            throw new IllegalStateException("Batch is full (" + size + ")");
+        }
+        long income = cents(annualIncome);
+        long debt = cents(monthlyDebtPayments);
+        long balance = cents(cardBalance);
+        long limit = cents(cardLimit);
+        if (income < 0 || debt < 0 || balance < 0 || limit < 0) {
+            return -1;
+        }
+        creditScores[size] = creditScore;
+        // annualIncome / 12 to two decimals, half-up
+        monthlyIncomes[size] = (income + 6) / 12;
+        monthlyDebts[size] = debt;
+        delinquencies[size] = delinquentAccounts;
+        inquiries[size] = recentInquiries;
+        cardBalances[size] = balance;
+        cardLimits[size] = limit;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return creditScores.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // -1 when not a whole number of cents in [0, MAX_AMOUNT]
+    private static long cents(BigDecimal amount) {
+        if (amount.signum() < 0 || amount.scale() > 2 && amount.stripTrailingZeros().scale() > 2) {
+            return -1;
+        }
+        BigDecimal cents = amount.setScale(2, RoundingMode.UNNECESSARY).movePointRight(2);
+        return cents.compareTo(BigDecimal.valueOf(MAX_AMOUNT)) > 0 ? -1 : cents.longValue();
+    }
+}
@@ -0,0 +1,87 @@
+package com.bank.creditcard.rules;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API form of {@link BatchRiskScorer#scoreOne}. Bands are chosen branch-free: each lane starts at
+ * the "otherwise" risk and the bands are blended in from the last to the first, so the first band that
+ * matches is the one left standing. Kept apart so that nothing else touches jdk.incubator.vector, and
+ * the scorer can fall back when the module is not in the boot layer.
+ */
+final class VectorRiskKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private VectorRiskKernel() {
+    }
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    /**
+     * Scores whole vectors from the start of the batch; returns the index of the first application
+     * left for the scalar path.
+     */
+    static int score(BatchRiskScorer s, RiskScoreBatch batch, long[] scores) {
+        int bound = SPECIES.loopBound(batch.size());
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            LongVector creditScore = LongVector.fromArray(SPECIES, batch.creditScores, i);
+            LongVector risk = LongVector.broadcast(SPECIES, s.creditScoreOtherwise);
+            for (int k = s.creditScoreFloors.length - 1; k >= 0; k--) {
+                risk = risk.blend(s.creditScoreRisks[k], creditScore.compare(VectorOperators.GE, s.creditScoreFloors[k]));
+            }
+            LongVector weighted = risk.mul(s.creditScoreWeight);
+
+            LongVector income = LongVector.fromArray(SPECIES, batch.monthlyIncomes, i);
+            LongVector debt = LongVector.fromArray(SPECIES, batch.monthlyDebts, i);
+            risk = ratioBand(debt, income, s.debtToIncomeBounds, s.debtToIncomeRisks, s.debtToIncomeOtherwise)
+                    .blend(s.zeroIncomeRisk, income.compare(VectorOperators.EQ, 0));
+            weighted = weighted.add(risk.mul(s.debtToIncomeWeight));
+
+            risk = ceilingBand(LongVector.fromArray(SPECIES, batch.delinquencies, i),
+                    s.delinquencyCeilings, s.delinquencyRisks, s.delinquencyOtherwise);
+            weighted = weighted.add(risk.mul(s.delinquencyWeight));
+
+            LongVector limit = LongVector.fromArray(SPECIES, batch.cardLimits, i);
+            LongVector balance = LongVector.fromArray(SPECIES, batch.cardBalances, i);
+            risk = ratioBand(balance, limit, s.utilizationBounds, s.utilizationRisks, s.utilizationOtherwise)
+                    .blend(s.noCardHistoryRisk, limit.compare(VectorOperators.EQ, 0));
+            weighted = weighted.add(risk.mul(s.utilizationWeight));
+
+            risk = ceilingBand(LongVector.fromArray(SPECIES, batch.inquiries, i),
+                    s.inquiryCeilings, s.inquiryRisks, s.inquiryOtherwise);
+            weighted = weighted.add(risk.mul(s.inquiryWeight));
+
+            // CompiledDecisionRules.roundWeighted; the sum is below 2^53, so the double quotient floors exactly
+            DoubleVector half = (DoubleVector) weighted.add(5_000).convert(VectorOperators.L2D, 0);
+            half.div(10_000.0).convert(VectorOperators.D2L, 0).reinterpretAsLongs().intoArray(scores, i);
+        }
+        return bound;
+    }
+
+    private static LongVector ceilingBand(LongVector value, long[] ceilings, long[] risks, long otherwise) {
+        LongVector risk = LongVector.broadcast(SPECIES, otherwise);
+        for (int k = ceilings.length - 1; k >= 0; k--) {
+            risk = risk.blend(risks[k], value.compare(VectorOperators.LE, ceilings[k]));
+        }
+        return risk;
+    }
+
+    // See BatchRiskScorer.ratioBand; lanes with a zero whole are overwritten by the caller
+    private static LongVector ratioBand(LongVector part, LongVector whole, long[] bounds, long[] risks,
+                                        long otherwise) {
+        LongVector numerator = part.mul(20_000).add(whole);
+        LongVector denominator = whole.add(whole);
+        LongVector risk = LongVector.broadcast(SPECIES, otherwise);
+        for (int k = bounds.length - 1; k >= 0; k--) {
+            VectorMask<Long> within = numerator.compare(VectorOperators.LT, denominator.mul(bounds[k]));
+            risk = risk.blend(risks[k], within);
+        }
+        return risk;
+    }
+}
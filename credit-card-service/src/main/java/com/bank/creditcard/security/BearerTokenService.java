@@ -0,0 +1,126 @@
+package com.bank.creditcard.security;
+
+import com.bank.creditcard.dto.TokenResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies short-lived bearer tokens signed with HMAC-SHA256, so that only the token
+ * exchange pays for a BCrypt check. Tokens are self-contained ({@code payload.signature}, both
+ * base64url); the payload is {@code username\nauthorities\nexpiresEpochSecond}. Nothing is stored
+ * server-side, so a token stays valid until it expires.
+ */
+@Component
+@Slf4j
+public class BearerTokenService {
+
+    static final String TOKEN_TYPE = "Bearer";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs;
+    private final Duration ttl;
+    private final Clock clock;
+
+    @Autowired
+    public BearerTokenService(@Value("${auth.token.secret:}") String secret,
+                              @Value("${auth.token.ttl:PT15M}") Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+
+    BearerTokenService(String secret, Duration ttl, Clock clock) {
+        SecretKeySpec key = new SecretKeySpec(keyBytes(secret), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public TokenResponse issue(Authentication authentication) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        String authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = ENCODER.encodeToString((authentication.getName() + "\n" + authorities + "\n"
+                + expiresAt.getEpochSecond()).getBytes(StandardCharsets.UTF_8));
+        return TokenResponse.builder()
+                .accessToken(payload + "." + ENCODER.encodeToString(sign(payload)))
+                .tokenType(TOKEN_TYPE)
+                .expiresIn(ttl.toSeconds())
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    /**
+     * The authenticated principal carried by {@code token}, or {@code null} if it is malformed,
+     * forged or expired.
+     */
+    public Authentication verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        String payload = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(sign(payload), DECODER.decode(token.substring(dot + 1)))) {
+                return null;
+            }
+            String[] fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\n", -1);
+            if (fields.length != 3 || clock.instant().getEpochSecond() >= Long.parseLong(fields[2])) {
+                return null;
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(fields[0], null,
+                    AuthorityUtils.commaSeparatedStringToAuthorityList(fields[1]));
+        } catch (IllegalArgumentException e) {
+            // Bad base64 or expiry; NumberFormatException is an IllegalArgumentException
+            return null;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static byte[] keyBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            log.warn("auth.token.secret is not set; using a random key, so tokens are only valid on this instance "
+                    + "until it restarts");
+            byte[] key = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(key);
+            return key;
+        }
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("auth.token.secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        return key;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.creditcard.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link BearerTokenAuthenticationFilter}. The reactive stack accepts bearer
+ * tokens only: tokens are issued by the servlet stack, so no BCrypt check ever runs on an event loop.
+ */
+@RequiredArgsConstructor
+public class BearerTokenWebFilter implements WebFilter {
+
+    private static final String PREFIX = BearerTokenService.TOKEN_TYPE + " ";
+
+    private final BearerTokenService tokenService;
+    private final String protectedPathPrefix;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().pathWithinApplication().value().startsWith(protectedPathPrefix)) {
+            return chain.filter(exchange);
+        }
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            return unauthorized(exchange, "Bearer");
+        }
+        Authentication authentication = tokenService.verify(header.substring(PREFIX.length()).trim());
+        if (authentication == null) {
+            return unauthorized(exchange, "Bearer error=\"invalid_token\"");
+        }
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange, String challenge) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        return exchange.getResponse().setComplete();
+    }
+}
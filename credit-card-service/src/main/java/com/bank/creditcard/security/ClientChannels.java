@@ -0,0 +1,53 @@
+package com.bank.creditcard.security;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The channel each API client submits through, registered as {@code principal=CHANNEL} pairs in
+ * {@code auth.clients.channels}; other clients are ONLINE. The channel raises or lowers a
+ * decision's scheduling priority, so it comes from who is calling, never from the request body.
+ */
+@Component
+public class ClientChannels {
+
+    private final Map<String, CreditCardApplication.Channel> byPrincipal;
+
+    public ClientChannels(@Value("${auth.clients.channels:}") List<String> channels) {
+        Map<String, CreditCardApplication.Channel> registered = new HashMap<>();
+        for (String entry : channels) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] pair = entry.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected principal=channel, got '" + entry + "'");
+            }
+            registered.put(pair[0].trim(),
+                    CreditCardApplication.Channel.valueOf(pair[1].trim().toUpperCase(Locale.ROOT)));
+        }
+        this.byPrincipal = Map.copyOf(registered);
+    }
+
+    public CreditCardApplication.Channel of(Authentication authentication) {
+        if (authentication == null) {
+            return CreditCardApplication.Channel.ONLINE;
+        }
+        return byPrincipal.getOrDefault(authentication.getName(), CreditCardApplication.Channel.ONLINE);
+    }
+
+    /**
+     * The channel of the principal authenticated on this thread.
+     */
+    public CreditCardApplication.Channel current() {
+        return of(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
@@ -0,0 +1,402 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.dto.CreditCardApplicationRequest;
+import com.bank.creditcard.dto.ImportReport;
+import com.bank.creditcard.importer.ApplicationCsvMapper;
+import com.bank.creditcard.importer.ApplicationCsvMapper.ImportedApplication;
+import com.bank.creditcard.importer.CopyWriter;
+import com.bank.creditcard.importer.MappedCsvReader;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads a legacy export of applications straight into PostgreSQL, bypassing JPA. Each batch of
+ * valid rows is streamed with {@code COPY} into two temporary staging tables, moved into
+ * {@code customers} and {@code credit_card_applications} with set-based inserts that skip rows the
+ * database already has, and committed together with the checkpoint recording how far into the
+ * file the batch reached. A failed or interrupted import therefore resumes at the first row that
+ * was not committed, and a re-run of a finished file does nothing.
+ *
+ * <p>Customers are deduplicated by SSN in memory (one bit per possible SSN) so that a file where
+ * one applicant appears many times stages each applicant once. Rows that fail validation, and rows
+ * whose applicant could not be added because another customer has their email, go to the rejects
+ * file with the reason appended, and never stop the import.
+ *
+ * <p>Applications the legacy system had not decided are imported DEFERRED, so that the deferred
+ * retry sweep puts them through the decision pipeline like any other.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ApplicationImportService {
+
+    private static final String STAGE_CUSTOMERS = """
+            CREATE TEMP TABLE IF NOT EXISTS import_customers (
+                ssn VARCHAR(11), first_name VARCHAR(100), last_name VARCHAR(100), email VARCHAR(255),
+                phone_number VARCHAR(20), date_of_birth DATE, street_address VARCHAR(255), city VARCHAR(100),
+                state VARCHAR(2), zip_code VARCHAR(10), country VARCHAR(50)
+            ) ON COMMIT DELETE ROWS""";
+
+    private static final String STAGE_APPLICATIONS = """
+            CREATE TEMP TABLE IF NOT EXISTS import_applications (
+                application_number VARCHAR(50), status VARCHAR(20), ssn VARCHAR(11), requested_limit DECIMAL(10,2),
+                approved_limit DECIMAL(10,2), annual_income DECIMAL(12,2), employment_status VARCHAR(50),
+                credit_score INTEGER, risk_score DECIMAL(5,2), card_type VARCHAR(20), decision_reason TEXT,
+                device_id VARCHAR(128), channel VARCHAR(16), created_at TIMESTAMP, decided_at TIMESTAMP
+            ) ON COMMIT DELETE ROWS""";
+
+    // Imported customers went through identity checks in the legacy system, as new ones do in ours
+    private static final String INSERT_CUSTOMERS = """
+            INSERT INTO customers (id, first_name, last_name, email, phone_number, ssn, date_of_birth,
+                                   street_address, city, state, zip_code, country,
+                                   identity_verified, kyc_status, created_at)
+            SELECT gen_random_uuid(), first_name, last_name, email, phone_number, ssn, date_of_birth,
+                   street_address, city, state, zip_code, country, TRUE, 'COMPLETED', now()
+            FROM import_customers
+            ON CONFLICT DO NOTHING""";
+
+    private static final String INSERT_APPLICATIONS = """
+            INSERT INTO credit_card_applications (id, application_number, status, customer_id, requested_limit,
+                                                  approved_limit, annual_income, employment_status, credit_score,
+                                                  risk_score, card_type, decision_reason, device_id, channel,
+                                                  created_at, updated_at, decided_at, version)
+            SELECT gen_random_uuid(), a.application_number,
+                   CASE WHEN a.status IN ('PENDING', 'IN_REVIEW') THEN 'DEFERRED' ELSE a.status END,
+                   c.id, a.requested_limit,
+                   a.approved_limit, a.annual_income, a.employment_status, a.credit_score,
+                   a.risk_score, a.card_type, a.decision_reason, a.device_id, a.channel,
+                   a.created_at, now(), a.decided_at, 0
+            FROM import_applications a
+            JOIN customers c ON c.ssn = a.ssn
+            ON CONFLICT DO NOTHING
+            RETURNING status""";
+
+    // The customer insert skips a row on any conflict; an applicant still missing lost theirs on the email
+    private static final String FIND_WITHOUT_CUSTOMER = """
+            SELECT a.application_number FROM import_applications a
+            WHERE NOT EXISTS (SELECT 1 FROM customers c WHERE c.ssn = a.ssn)""";
+
+    static final String EMAIL_TAKEN = "Email already belongs to a customer with another SSN";
+
+    private static final String READ_CHECKPOINT = """
+            SELECT file_size, byte_offset, rows_read, rows_rejected, applications_imported, customers_imported, completed
+            FROM import_checkpoints WHERE source = ?""";
+
+    private static final String SAVE_CHECKPOINT = """
+            INSERT INTO import_checkpoints (source, file_size, byte_offset, rows_read, rows_rejected,
+                                            applications_imported, customers_imported, completed, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (source) DO UPDATE SET
+                file_size = EXCLUDED.file_size, byte_offset = EXCLUDED.byte_offset, rows_read = EXCLUDED.rows_read,
+                rows_rejected = EXCLUDED.rows_rejected, applications_imported = EXCLUDED.applications_imported,
+                customers_imported = EXCLUDED.customers_imported, completed = EXCLUDED.completed,
+                updated_at = EXCLUDED.updated_at""";
+
+    private final DataSource dataSource;
+    private final Validator validator;
+
+    @Value("${import.applications.batch-size:50000}")
+    private int batchSize = 50_000;
+
+    @Value("${import.applications.progress-interval:PT10S}")
+    private Duration progressInterval = Duration.ofSeconds(10);
+
+    /**
+     * Imports {@code input}, continuing from its checkpoint unless {@code restart} is set.
+     * Rejected rows are appended to {@code rejects} when given.
+     */
+    public ImportReport importFile(Path input, Path rejects, boolean restart) throws IOException, SQLException {
+        String source = input.toAbsolutePath().normalize().toString();
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(STAGE_CUSTOMERS);
+                statement.execute(STAGE_APPLICATIONS);
+                if (restart) {
+                    try (PreparedStatement delete = connection.prepareStatement(
+                            "DELETE FROM import_checkpoints WHERE source = ?")) {
+                        delete.setString(1, source);
+                        delete.executeUpdate();
+                    }
+                }
+            }
+            connection.commit();
+
+            Progress progress = readCheckpoint(connection, source, Files.size(input));
+            if (progress.completed) {
+                log.info("{} was already imported; pass import.applications.restart=true to import it again", source);
+                return progress.toReport(source, started);
+            }
+
+            try (MappedCsvReader reader = new MappedCsvReader(input, 0)) {
+                if (!reader.next()) {
+                    throw new IllegalArgumentException(input + " is empty");
+                }
+                ApplicationCsvMapper mapper = new ApplicationCsvMapper(reader, validator);
+                String header = reader.raw();
+                long headerEnd = reader.offset();
+                try (MappedCsvReader rows = new MappedCsvReader(input, Math.max(progress.offset, headerEnd));
+                     BufferedWriter rejected = openRejects(rejects, header, progress.offset == 0)) {
+                    log.info("Importing {} ({} bytes) from byte {}", source, rows.size(), rows.offset());
+                    run(connection, copyManager, source, mapper, rows, rejected, progress);
+                }
+            }
+            return progress.toReport(source, started);
+        }
+    }
+
+    private void run(Connection connection, CopyManager copyManager, String source, ApplicationCsvMapper mapper,
+                     MappedCsvReader rows, BufferedWriter rejected, Progress progress) throws IOException, SQLException {
+        CopyWriter customers = new CopyWriter("import_customers (ssn, first_name, last_name, email, phone_number, "
+                + "date_of_birth, street_address, city, state, zip_code, country)");
+        CopyWriter applications = new CopyWriter("import_applications (application_number, status, ssn, "
+                + "requested_limit, approved_limit, annual_income, employment_status, credit_score, risk_score, "
+                + "card_type, decision_reason, device_id, channel, created_at, decided_at)");
+        BitSet stagedSsns = new BitSet();
+        Map<String, String> batchRows = new HashMap<>();
+        List<String> batchRejects = new ArrayList<>();
+        long startedAt = System.nanoTime();
+        long startOffset = rows.offset();
+        long startRows = progress.rowsRead;
+        long nextReport = startedAt + progressInterval.toNanos();
+
+        while (rows.next()) {
+            progress.rowsRead++;
+            try {
+                ImportedApplication application = mapper.map(rows);
+                CreditCardApplicationRequest applicant = application.getApplicant();
+                int ssn = ssnKey(applicant.getSsn());
+                if (!stagedSsns.get(ssn)) {
+                    stagedSsns.set(ssn);
+                    customers.field(applicant.getSsn())
+                            .field(applicant.getFirstName())
+                            .field(applicant.getLastName())
+                            .field(applicant.getEmail())
+                            .field(applicant.getPhoneNumber())
+                            .field(applicant.getDateOfBirth())
+                            .field(applicant.getAddress().getStreetAddress())
+                            .field(applicant.getAddress().getCity())
+                            .field(applicant.getAddress().getState())
+                            .field(applicant.getAddress().getZipCode())
+                            .field(applicant.getAddress().getCountry())
+                            .endRow();
+                }
+                applications.field(application.getApplicationNumber())
+                        .field(application.getStatus())
+                        .field(applicant.getSsn())
+                        .field(applicant.getRequestedLimit())
+                        .field(application.getApprovedLimit())
+                        .field(applicant.getAnnualIncome())
+                        .field(applicant.getEmploymentStatus())
+                        .field(application.getCreditScore())
+                        .field(application.getRiskScore())
+                        .field(application.getCardType())
+                        .field(application.getDecisionReason())
+                        .field(applicant.getDeviceId())
+                        .field(application.getChannel())
+                        .field(application.getCreatedAt())
+                        .field(application.getDecidedAt())
+                        .endRow();
+                batchRows.put(application.getApplicationNumber(), rows.raw());
+            } catch (IllegalArgumentException e) {
+                progress.rowsRejected++;
+                batchRejects.add(rows.raw() + "," + quote(e.getMessage()));
+            }
+
+            if (applications.rows() + batchRejects.size() >= batchSize) {
+                progress.offset = rows.offset();
+                commitBatch(connection, copyManager, source, customers, applications, rows.size(), progress,
+                        batchRows, batchRejects);
+                writeRejects(rejected, batchRejects);
+            }
+            if (System.nanoTime() >= nextReport) {
+                reportProgress(source, rows, progress, startedAt, startOffset, startRows);
+                nextReport = System.nanoTime() + progressInterval.toNanos();
+            }
+        }
+        progress.offset = rows.offset();
+        progress.completed = true;
+        commitBatch(connection, copyManager, source, customers, applications, rows.size(), progress,
+                batchRows, batchRejects);
+        writeRejects(rejected, batchRejects);
+        reportProgress(source, rows, progress, startedAt, startOffset, startRows);
+        if (progress.deferredImported > 0) {
+            log.info("{} imported applications were undecided; the deferred retry sweep decides them",
+                    progress.deferredImported);
+        }
+    }
+
+    private static void reportProgress(String source, MappedCsvReader rows, Progress progress,
+                                       long startedAt, long startOffset, long startRows) {
+        double seconds = Math.max(1e-3, (System.nanoTime() - startedAt) / 1e9);
+        double bytesPerSecond = (rows.offset() - startOffset) / seconds;
+        long etaSeconds = bytesPerSecond > 0 ? (long) ((rows.size() - rows.offset()) / bytesPerSecond) : -1;
+        double percent = rows.size() == 0 ? 100 : 100.0 * rows.offset() / rows.size();
+        log.info("Import {}: {}% of bytes, {} rows read, {} rejected, {} applications imported, {} rows/s, ETA {}s",
+                source, String.format("%.1f", percent), progress.rowsRead, progress.rowsRejected,
+                progress.applicationsImported, (long) ((progress.rowsRead - startRows) / seconds), etaSeconds);
+    }
+
+    private void commitBatch(Connection connection, CopyManager copyManager, String source, CopyWriter customers,
+                             CopyWriter applications, long fileSize, Progress progress,
+                             Map<String, String> batchRows, List<String> batchRejects) throws SQLException {
+        try {
+            customers.flush(copyManager);
+            long staged = applications.flush(copyManager);
+            long withoutCustomer = 0;
+            try (Statement statement = connection.createStatement()) {
+                progress.customersImported += statement.executeUpdate(INSERT_CUSTOMERS);
+                try (ResultSet orphans = statement.executeQuery(FIND_WITHOUT_CUSTOMER)) {
+                    while (orphans.next()) {
+                        batchRejects.add(batchRows.get(orphans.getString(1)) + "," + quote(EMAIL_TAKEN));
+                        withoutCustomer++;
+                    }
+                }
+                try (ResultSet inserted = statement.executeQuery("WITH inserted AS (" + INSERT_APPLICATIONS + ") "
+                        + "SELECT count(*), count(*) FILTER (WHERE status = 'DEFERRED') FROM inserted")) {
+                    inserted.next();
+                    progress.applicationsImported += inserted.getLong(1);
+                    progress.duplicatesSkipped += staged - withoutCustomer - inserted.getLong(1);
+                    progress.deferredImported += inserted.getLong(2);
+                }
+            }
+            progress.rowsRejected += withoutCustomer;
+            try (PreparedStatement checkpoint = connection.prepareStatement(SAVE_CHECKPOINT)) {
+                checkpoint.setString(1, source);
+                checkpoint.setLong(2, fileSize);
+                checkpoint.setLong(3, progress.offset);
+                checkpoint.setLong(4, progress.rowsRead);
+                checkpoint.setLong(5, progress.rowsRejected);
+                checkpoint.setLong(6, progress.applicationsImported);
+                checkpoint.setLong(7, progress.customersImported);
+                checkpoint.setBoolean(8, progress.completed);
+                checkpoint.executeUpdate();
+            }
+            connection.commit();
+            batchRows.clear();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private Progress readCheckpoint(Connection connection, String source, long fileSize) throws SQLException {
+        Progress progress = new Progress();
+        try (PreparedStatement statement = connection.prepareStatement(READ_CHECKPOINT)) {
+            statement.setString(1, source);
+            try (ResultSet checkpoint = statement.executeQuery()) {
+                if (checkpoint.next()) {
+                    if (checkpoint.getLong("file_size") != fileSize) {
+                        throw new IllegalStateException(source + " changed size since its checkpoint ("
+                                + checkpoint.getLong("file_size") + " -> " + fileSize
+                                + " bytes); pass import.applications.restart=true to import it from the start");
+                    }
+                    progress.resumedFrom = progress.offset = checkpoint.getLong("byte_offset");
+                    progress.rowsRead = checkpoint.getLong("rows_read");
+                    progress.rowsRejected = checkpoint.getLong("rows_rejected");
+                    progress.applicationsImported = checkpoint.getLong("applications_imported");
+                    progress.customersImported = checkpoint.getLong("customers_imported");
+                    progress.completed = checkpoint.getBoolean("completed");
+                    log.info("Resuming {} at byte {} after {} rows", source, progress.offset, progress.rowsRead);
+                }
+            }
+        }
+        connection.commit();
+        return progress;
+    }
+
+    private static BufferedWriter openRejects(Path rejects, String header, boolean fresh) throws IOException {
+        if (rejects == null) {
+            return null;
+        }
+        boolean writeHeader = fresh || !Files.exists(rejects);
+        BufferedWriter writer = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                fresh ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        if (writeHeader) {
+            writer.write(header + ",rejection_reason");
+            writer.newLine();
+        }
+        return writer;
+    }
+
+    // Written only once the batch is committed, so a resumed import does not list a row twice
+    private static void writeRejects(BufferedWriter rejected, List<String> batchRejects) throws IOException {
+        if (rejected != null) {
+            for (String line : batchRejects) {
+                rejected.write(line);
+                rejected.newLine();
+            }
+            rejected.flush();
+        }
+        batchRejects.clear();
+    }
+
+    static int ssnKey(String ssn) {
+        int key = 0;
+        for (int i = 0; i < ssn.length(); i++) {
+            char c = ssn.charAt(i);
+            if (c >= '0' && c <= '9') {
+                key = key * 10 + (c - '0');
+            }
+        }
+        return key;
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class Progress {
+        long resumedFrom;
+        long offset;
+        long rowsRead;
+        long rowsRejected;
+        long applicationsImported;
+        long customersImported;
+        long duplicatesSkipped;
+        long deferredImported;
+        boolean completed;
+
+        ImportReport toReport(String source, long started) {
+            long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            return ImportReport.builder()
+                    .source(source)
+                    .resumedFromOffset(resumedFrom)
+                    .rowsRead(rowsRead)
+                    .rowsRejected(rowsRejected)
+                    .applicationsImported(applicationsImported)
+                    .customersImported(customersImported)
+                    .duplicatesSkipped(duplicatesSkipped)
+                    .deferredImported(deferredImported)
+                    .elapsedMillis(elapsedMillis)
+                    .rowsPerSecond(rowsRead * 1000 / elapsedMillis)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.repository.CreditCardApplicationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Counts the applications waiting for a decision ({@link CreditCardApplication.ApplicationStatus#UNDECIDED}),
+ * for the scaling policies. The counts cover
+ * every instance, so each one reports the same backlog; they are refreshed on a schedule rather
+ * than per scrape, and read as unknown (NaN, not published) until the first count succeeds.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BacklogMonitor implements MeterBinder {
+
+    private final CreditCardApplicationRepository applicationRepository;
+
+    private volatile long pending = -1;
+    private volatile long inReview = -1;
+    private volatile long deferred = -1;
+
+    @Scheduled(fixedDelayString = "${metrics.backlog.refresh-interval:PT15S}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        try {
+            pending = applicationRepository.countByStatus(CreditCardApplication.ApplicationStatus.PENDING);
+            inReview = applicationRepository.countByStatus(CreditCardApplication.ApplicationStatus.IN_REVIEW);
+            deferred = applicationRepository.countByStatus(CreditCardApplication.ApplicationStatus.DEFERRED);
+        } catch (DataAccessException e) {
+            pending = -1;
+            inReview = -1;
+            deferred = -1;
+            log.warn("Could not count the application backlog: {}", e.getMessage());
+        }
+    }
+
+    public long getPending() {
+        return pending;
+    }
+
+    public long getInReview() {
+        return inReview;
+    }
+
+    public long getDeferred() {
+        return deferred;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("applications.backlog", this, monitor -> known(monitor.getPending()))
+                .tag("status", "pending")
+                .description("Applications submitted but not yet picked up by the decision pipeline")
+                .register(registry);
+        Gauge.builder("applications.backlog", this, monitor -> known(monitor.getInReview()))
+                .tag("status", "in_review")
+                .description("Applications in the decision pipeline")
+                .register(registry);
+        Gauge.builder("applications.backlog", this, monitor -> known(monitor.getDeferred()))
+                .tag("status", "deferred")
+                .description("Applications parked for the retry sweep to decide")
+                .register(registry);
+    }
+
+    private static double known(long count) {
+        return count < 0 ? Double.NaN : count;
+    }
+}
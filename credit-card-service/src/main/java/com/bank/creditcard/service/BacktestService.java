@@ -0,0 +1,242 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.dto.BacktestInput;
+import com.bank.creditcard.dto.BacktestReport;
+import com.bank.creditcard.mapper.BureauReportCodec;
+import com.bank.creditcard.mapper.LazyBureauReport;
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.repository.CreditBureauSnapshotRepository;
+import com.bank.creditcard.rules.BatchRiskScorer;
+import com.bank.creditcard.rules.CompiledDecisionRules;
+import com.bank.creditcard.rules.RiskScoreBatch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Re-decides historical applications under candidate rules using their stored bureau snapshots.
+ * The calling thread drains one database cursor into fixed-size chunks; a dedicated fork-join pool
+ * scores chunks into per-chunk tallies that are merged at the end, so workers share no mutable state.
+ * A semaphore caps chunks in flight to keep memory flat while the cursor outpaces the workers.
+ * Each chunk is scored as one columnar batch by {@link BatchRiskScorer}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BacktestService {
+
+    static final int CHUNK_SIZE = 2048;
+
+    private final CreditBureauSnapshotRepository snapshotRepository;
+    private final BureauReportCodec codec;
+
+    @Value("${backtest.parallelism:0}")
+    private int parallelism;
+
+    @Transactional(readOnly = true)
+    public BacktestReport run(LocalDateTime from, LocalDateTime to, CompiledDecisionRules rules) {
+        long started = System.nanoTime();
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        Semaphore inFlight = new Semaphore(workers * 2);
+        List<CompletableFuture<Tally>> partials = new ArrayList<>();
+
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try (Stream<BacktestInput> inputs = snapshotRepository.streamBacktestInputs(from, to)) {
+            List<BacktestInput> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (BacktestInput input : (Iterable<BacktestInput>) inputs::iterator) {
+                chunk.add(input);
+                if (chunk.size() == CHUNK_SIZE) {
+                    partials.add(submit(pool, inFlight, chunk, rules));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                partials.add(submit(pool, inFlight, chunk, rules));
+            }
+
+            Tally total = new Tally();
+            for (CompletableFuture<Tally> partial : partials) {
+                total.merge(partial.join());
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            log.info("Backtested {} applications against rules {} in {} ms using {} workers",
+                    total.applications, rules.getVersion(), elapsedMillis, workers);
+            return total.toReport(from, to, rules.getVersion(), elapsedMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Backtest interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<Tally> submit(ForkJoinPool pool, Semaphore inFlight, List<BacktestInput> chunk,
+                                            CompiledDecisionRules rules) throws InterruptedException {
+        inFlight.acquire();
+        return CompletableFuture.supplyAsync(() -> score(chunk, rules), pool)
+                .whenComplete((tally, error) -> inFlight.release());
+    }
+
+    Tally score(List<BacktestInput> chunk, CompiledDecisionRules rules) {
+        Tally tally = new Tally();
+        BatchRiskScorer scorer = batchScorer(rules);
+        RiskScoreBatch batch = new RiskScoreBatch(chunk.size());
+        LazyBureauReport[] reports = new LazyBureauReport[chunk.size()];
+        BigDecimal[] unbatched = new BigDecimal[chunk.size()];
+        int[] positions = new int[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            BacktestInput input = chunk.get(i);
+            LazyBureauReport report = codec.decode(input.getEncodingVersion(), input.getPayload());
+            if (report.getCreditScore() == null || report.getMonthlyDebtPayments() == null
+                    || input.getRiskScore() == null) {
+                continue;
+            }
+            reports[i] = report;
+            BigDecimal[] cards = report.balanceAndLimit(rules.getUtilizationAccountType());
+            Integer delinquent = report.getNumberOfDelinquentAccounts();
+            int delinquentAccounts = delinquent != null ? delinquent : 0;
+            positions[i] = scorer == null ? -1 : batch.add(report.getCreditScore(), input.getAnnualIncome(),
+                    report.getMonthlyDebtPayments(), delinquentAccounts, report.getInquiryCount(), cards[0], cards[1]);
+            if (positions[i] < 0) {
+                unbatched[i] = rules.riskScore(report.getCreditScore(), input.getAnnualIncome(),
+                        report.getMonthlyDebtPayments(), delinquentAccounts, report.getInquiryCount(),
+                        cards[0], cards[1]);
+            }
+        }
+        long[] scores = new long[batch.size()];
+        if (scorer != null) {
+            scorer.score(batch, scores);
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            BacktestInput input = chunk.get(i);
+            LazyBureauReport report = reports[i];
+            if (report == null) {
+                tally.skipped++;
+                continue;
+            }
+            BigDecimal riskScore = positions[i] >= 0 ? BigDecimal.valueOf(scores[positions[i]], 2) : unbatched[i];
+            boolean approved = !rules.isBelowMinimumCreditScore(report.getCreditScore())
+                    && !rules.isAboveMaximumRisk(riskScore);
+            BigDecimal limit = approved
+                    ? rules.approvedLimit(input.getAnnualIncome(), input.getRequestedLimit(), riskScore)
+                    : null;
+            tally.add(input, approved, limit, riskScore);
+        }
+        return tally;
+    }
+
+    // Rules with ratio ceilings or weights beyond the batch arithmetic are scored one by one
+    private BatchRiskScorer batchScorer(CompiledDecisionRules rules) {
+        try {
+            return BatchRiskScorer.of(rules);
+        } catch (IllegalArgumentException e) {
+            log.debug("Scoring rules {} one application at a time: {}", rules.getVersion(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Counters for one chunk. Amounts are summed as longs in hundredths.
+     */
+    static final class Tally {
+        long applications;
+        long skipped;
+        long recordedApproved;
+        long candidateApproved;
+        long newlyApproved;
+        long newlyRejected;
+        long recordedLimitSum;
+        long candidateLimitSum;
+        long recordedRiskSum;
+        long candidateRiskSum;
+
+        void add(BacktestInput input, boolean approved, BigDecimal limit, BigDecimal riskScore) {
+            boolean wasApproved = input.getStatus() == CreditCardApplication.ApplicationStatus.APPROVED;
+            applications++;
+            recordedRiskSum += hundredths(input.getRiskScore());
+            candidateRiskSum += hundredths(riskScore);
+            if (wasApproved) {
+                recordedApproved++;
+                recordedLimitSum += hundredths(input.getApprovedLimit());
+            }
+            if (approved) {
+                candidateApproved++;
+                candidateLimitSum += hundredths(limit);
+            }
+            if (approved && !wasApproved) {
+                newlyApproved++;
+            } else if (!approved && wasApproved) {
+                newlyRejected++;
+            }
+        }
+
+        void merge(Tally other) {
+            applications += other.applications;
+            skipped += other.skipped;
+            recordedApproved += other.recordedApproved;
+            candidateApproved += other.candidateApproved;
+            newlyApproved += other.newlyApproved;
+            newlyRejected += other.newlyRejected;
+            recordedLimitSum += other.recordedLimitSum;
+            candidateLimitSum += other.candidateLimitSum;
+            recordedRiskSum += other.recordedRiskSum;
+            candidateRiskSum += other.candidateRiskSum;
+        }
+
+        BacktestReport toReport(LocalDateTime from, LocalDateTime to, String rulesVersion, long elapsedMillis) {
+            BacktestReport.Side recorded = side(recordedApproved, recordedLimitSum, recordedRiskSum);
+            BacktestReport.Side candidate = side(candidateApproved, candidateLimitSum, candidateRiskSum);
+            return BacktestReport.builder()
+                    .from(from)
+                    .to(to)
+                    .candidateRulesVersion(rulesVersion)
+                    .applications(applications)
+                    .skipped(skipped)
+                    .recorded(recorded)
+                    .candidate(candidate)
+                    .approvalRateDelta(candidate.getApprovalRate() - recorded.getApprovalRate())
+                    .averageLimitDelta(candidate.getAverageApprovedLimit()
+                            .subtract(recorded.getAverageApprovedLimit()))
+                    .averageRiskScoreDelta(candidate.getAverageRiskScore().subtract(recorded.getAverageRiskScore()))
+                    .newlyApproved(newlyApproved)
+                    .newlyRejected(newlyRejected)
+                    .elapsedMillis(elapsedMillis)
+                    .applicationsPerSecond(applications * 1000 / elapsedMillis)
+                    .build();
+        }
+
+        private BacktestReport.Side side(long approved, long limitSum, long riskSum) {
+            return BacktestReport.Side.builder()
+                    .approved(approved)
+                    .rejected(applications - approved)
+                    .approvalRate(applications == 0 ? 0.0 : (double) approved / applications)
+                    .averageApprovedLimit(average(limitSum, approved))
+                    .averageRiskScore(average(riskSum, applications))
+                    .build();
+        }
+
+        private static BigDecimal average(long hundredthsSum, long count) {
+            if (count == 0) {
+                return BigDecimal.ZERO.setScale(2);
+            }
+            return BigDecimal.valueOf(hundredthsSum, 2).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+        }
+
+        private static long hundredths(BigDecimal amount) {
+            return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+    }
+}
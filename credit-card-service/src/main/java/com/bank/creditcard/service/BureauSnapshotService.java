@@ -0,0 +1,39 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.dto.CreditBureauReport;
+import com.bank.creditcard.mapper.BureauReportCodec;
+import com.bank.creditcard.mapper.LazyBureauReport;
+import com.bank.creditcard.model.CreditBureauSnapshot;
+import com.bank.creditcard.repository.CreditBureauSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BureauSnapshotService {
+
+    private final CreditBureauSnapshotRepository snapshotRepository;
+    private final BureauReportCodec codec;
+
+    @Transactional
+    public void store(UUID applicationId, CreditBureauReport report) {
+        byte[] payload = codec.encode(report);
+        snapshotRepository.save(new CreditBureauSnapshot(applicationId, BureauReportCodec.CURRENT_VERSION, payload));
+        log.debug("Stored {} byte bureau snapshot for application {}", payload.length, applicationId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LazyBureauReport> find(UUID applicationId) {
+        return snapshotRepository.findById(applicationId).map(this::decode);
+    }
+
+    public LazyBureauReport decode(CreditBureauSnapshot snapshot) {
+        return codec.decode(snapshot.getEncodingVersion(), snapshot.getPayload());
+    }
+}
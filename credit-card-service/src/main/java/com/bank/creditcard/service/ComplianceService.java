@@ -1,17 +1,27 @@
 package com.bank.creditcard.service;
 
+import com.bank.creditcard.exception.DeadlineExceededException;
+import com.bank.creditcard.logging.Pii;
 import com.bank.creditcard.model.Customer;
+import com.bank.creditcard.velocity.VelocityDimension;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.Collectors;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class ComplianceService {
 
+    private final VelocityScreeningService velocityScreeningService;
+
     private final Random random = new Random();
     
     // Mock lists for demonstration
@@ -27,24 +37,55 @@ public class ComplianceService {
             "PUBLIC SERVANT THREE"
     );
 
-    public ComplianceCheckResult performComplianceCheck(Customer customer) {
-        log.info("Performing compliance check for customer: {} {}", 
-                customer.getFirstName(), customer.getLastName());
+    public ComplianceCheckResult performComplianceCheck(Customer customer, String deviceId) {
+        return performComplianceCheck(customer, deviceId, null);
+    }
+
+    /**
+     * Gives up after {@code timeout} (none when null).
+     *
+     * @throws DeadlineExceededException if the provider has not answered in time
+     */
+    public ComplianceCheckResult performComplianceCheck(Customer customer, String deviceId, Duration timeout) {
+        log.info("Performing compliance check for customer: {} {}",
+                Pii.name(customer.getFirstName()), Pii.name(customer.getLastName()));
 
         // Simulate API call delay
+        long delay = random.nextInt(300) + 200;
+        boolean timedOut = timeout != null && delay > timeout.toMillis();
         try {
-            Thread.sleep(random.nextInt(300) + 200);
+            Thread.sleep(timedOut ? timeout.toMillis() : delay);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
+        if (timedOut) {
+            throw new DeadlineExceededException("compliance", timeout);
+        }
+
+        return evaluate(customer, deviceId);
+    }
+
+    /**
+     * Same check without parking a thread for the simulated provider latency.
+     */
+    public Mono<ComplianceCheckResult> checkCompliance(Customer customer, String deviceId) {
+        return Mono.defer(() -> {
+                    log.info("Performing compliance check for customer: {} {}",
+                            Pii.name(customer.getFirstName()), Pii.name(customer.getLastName()));
+                    return Mono.delay(Duration.ofMillis(random.nextInt(300) + 200));
+                })
+                .map(tick -> evaluate(customer, deviceId));
+    }
 
+    private ComplianceCheckResult evaluate(Customer customer, String deviceId) {
         ComplianceCheckResult result = new ComplianceCheckResult();
         
         // KYC Check
         result.setKycPassed(performKycCheck(customer));
         
         // AML Check
-        result.setAmlPassed(performAmlCheck(customer));
+        result.setVelocityExceeded(velocityScreeningService.exceededLimits(customer, deviceId));
+        result.setAmlPassed(result.getVelocityExceeded().isEmpty());
         
         // Sanctions Check
         result.setSanctionCheckPassed(performSanctionsCheck(customer));
@@ -75,13 +116,6 @@ public class ComplianceService {
                customer.getAddress() != null;
     }
 
-    private boolean performAmlCheck(Customer customer) {
-        // Simulate AML check
-        // In real implementation, this would check transaction patterns, source of funds, etc.
-        // For demo, randomly pass 95% of checks
-        return random.nextDouble() > 0.05;
-    }
-
     private boolean performSanctionsCheck(Customer customer) {
         String fullName = (customer.getFirstName() + " " + customer.getLastName()).toUpperCase();
         return sanctionedNames.stream().noneMatch(fullName::contains);
@@ -99,7 +133,9 @@ public class ComplianceService {
             reason.append("KYC verification incomplete. ");
         }
         if (!result.isAmlPassed()) {
-            reason.append("AML check failed. ");
+            reason.append("AML velocity limit exceeded (")
+                    .append(result.getVelocityExceeded().stream().map(Enum::name).collect(Collectors.joining(", ")))
+                    .append("). ");
         }
         if (!result.isSanctionCheckPassed()) {
             reason.append("Sanctions list match found. ");
@@ -118,6 +154,7 @@ public class ComplianceService {
         private boolean sanctionCheckPassed;
         private boolean pepCheckPassed;
         private boolean overallPassed;
+        private List<VelocityDimension> velocityExceeded = List.of();
         private String reason;
     }
 }
@@ -1,26 +1,43 @@
 package com.bank.creditcard.service;
 
-import com.bank.creditcard.client.CreditBureauClient;
-import com.bank.creditcard.dto.CreditBureauReport;
+import com.bank.creditcard.concurrency.PipelinePriority;
+import com.bank.creditcard.concurrency.WeightedFairScheduler;
+import com.bank.creditcard.dto.ApplicationField;
+import com.bank.creditcard.dto.ApplicationListVersion;
 import com.bank.creditcard.dto.CreditCardApplicationRequest;
 import com.bank.creditcard.dto.CreditCardApplicationResponse;
 import com.bank.creditcard.exception.DuplicateApplicationException;
 import com.bank.creditcard.exception.ResourceNotFoundException;
+import com.bank.creditcard.journal.DecisionJournal;
+import com.bank.creditcard.journal.JournalEntry;
+import com.bank.creditcard.journal.TransitionReason;
+import com.bank.creditcard.logging.Pii;
 import com.bank.creditcard.mapper.ApplicationMapper;
 import com.bank.creditcard.model.CreditCardApplication;
 import com.bank.creditcard.model.Customer;
 import com.bank.creditcard.repository.CreditCardApplicationRepository;
 import com.bank.creditcard.repository.CustomerRepository;
+import com.bank.creditcard.security.ClientChannels;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,116 +47,170 @@ public class CreditCardApplicationService {
 
     private final CreditCardApplicationRepository applicationRepository;
     private final CustomerRepository customerRepository;
-    private final CreditBureauClient creditBureauClient;
-    private final RiskAssessmentService riskAssessmentService;
-    private final ComplianceService complianceService;
+    private final VelocityScreeningService velocityScreeningService;
+    private final SsnFilterService ssnFilterService;
     private final ApplicationMapper applicationMapper;
+    private final DecisionJournal decisionJournal;
+    private final WeightedFairScheduler pipelineScheduler;
+    private final DecisionPipeline decisionPipeline;
+    private final ClientChannels clientChannels;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
+    // Past this many queued decisions new work waits in the database, where another task can take it
+    @Value("${pipeline.scheduler.spill-above:2000}")
+    private int spillAbove = 2000;
+
+    /**
+     * The SSN filters let most submissions skip the customer and pending lookups, but they learn of
+     * other instances' inserts only on catching up. A customer inserted elsewhere since then fails
+     * this one's insert on the unique SSN; the filter is told, and the submission tried once more.
+     */
     public CreditCardApplicationResponse submitApplication(CreditCardApplicationRequest request) {
-        log.info("Processing credit card application for: {} {}", 
-                request.getFirstName(), request.getLastName());
+        try {
+            return transactionTemplate.execute(status -> submit(request));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Customer inserted concurrently or not yet seen by the SSN filter; retrying submission");
+            ssnFilterService.customerAdded(request.getSsn());
+            return transactionTemplate.execute(status -> submit(request));
+        }
+    }
+
+    private CreditCardApplicationResponse submit(CreditCardApplicationRequest request) {
+        log.info("Processing credit card application for: {} {}",
+                Pii.name(request.getFirstName()), Pii.name(request.getLastName()));
 
         // Check for duplicate pending applications
-        if (applicationRepository.existsByCustomerSsnAndStatus(
-                request.getSsn(), CreditCardApplication.ApplicationStatus.PENDING)) {
+        String ssn = request.getSsn();
+        boolean mightHavePending = ssnFilterService.mightHavePending(ssn);
+        if (mightHavePending && hasPendingApplication(ssn)) {
             throw new DuplicateApplicationException("A pending application already exists for this SSN");
         }
 
         // Create or update customer
-        Customer customer = findOrCreateCustomer(request);
+        Optional<Customer> existing = findCustomer(ssn);
+        // The filter may not have caught up with a submission another instance made moments ago. Only
+        // an existing customer can have one, so theirs is asked of the database whatever the filter said
+        if (existing.isPresent() && !mightHavePending && applicationRepository.existsByCustomerSsnAndStatusIn(
+                ssn, CreditCardApplication.ApplicationStatus.UNDECIDED)) {
+            throw new DuplicateApplicationException("A pending application already exists for this SSN");
+        }
+        Customer customer = existing.orElseGet(() -> createCustomer(request));
 
         // Create application
         CreditCardApplication application = applicationMapper.toEntity(request);
         application.setCustomer(customer);
+        application.setChannel(clientChannels.current());
         application.setStatus(CreditCardApplication.ApplicationStatus.PENDING);
         
         application = applicationRepository.save(application);
-        
-        // Process application asynchronously (in real implementation)
-        processApplicationAsync(application.getId());
+        ssnFilterService.pendingAdded(customer.getSsn());
+        journalTransition(application, null, TransitionReason.SUBMITTED);
+        recordVelocity(application);
+        schedulePipeline(application);
 
         return applicationMapper.toResponse(application);
     }
 
-    @Async("applicationProcessorExecutor")
-    @Transactional
-    public void processApplicationAsync(UUID applicationId) {
-        try {
-            CreditCardApplication application = applicationRepository.findById(applicationId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Application not found"));
-
-            application.setStatus(CreditCardApplication.ApplicationStatus.IN_REVIEW);
-            applicationRepository.save(application);
-
-            // Step 1: Compliance Check
-            ComplianceService.ComplianceCheckResult complianceResult = 
-                    complianceService.performComplianceCheck(application.getCustomer());
-            
-            if (!complianceResult.isOverallPassed()) {
-                rejectApplication(application, complianceResult.getReason());
-                return;
-            }
-
-            // Step 2: Credit Bureau Check
-            CreditBureauReport creditReport = creditBureauClient.getCreditReport(
-                    application.getCustomer().getSsn());
-            application.setCreditScore(creditReport.getCreditScore());
-
-            // Step 3: Risk Assessment
-            BigDecimal riskScore = riskAssessmentService.calculateRiskScore(application, creditReport);
-            application.setRiskScore(riskScore);
+    private boolean hasPendingApplication(String ssn) {
+        boolean pending = applicationRepository.existsByCustomerSsnAndStatusIn(
+                ssn, CreditCardApplication.ApplicationStatus.UNDECIDED);
+        ssnFilterService.pendingLookedUp(pending);
+        return pending;
+    }
 
-            // Step 4: Decision Making
-            if (creditReport.getCreditScore() < 580) {
-                rejectApplication(application, "Credit score below minimum requirement (580)");
+    // Queued only once the submission commits, so a worker never looks for a row it cannot see yet. A
+    // saturated or full queue parks the application for the retry sweep, as a pipeline without room
+    // for it does: work queued in this task only this task can run, so a task added for the backlog
+    // could not relieve it, while a parked application goes to whichever task's sweep claims it first
+    private void schedulePipeline(CreditCardApplication application) {
+        UUID id = application.getId();
+        String ssn = application.getCustomer().getSsn();
+        PipelinePriority priority = PipelinePriority.of(application.getCardType(), application.getChannel());
+        String source = currentPrincipal();
+        afterCommit(() -> {
+            if (pipelineScheduler.size() >= spillAbove) {
+                log.warn("Decision pipeline saturated; deferring application {} to the shared backlog", id);
+                decisionPipeline.park(id);
                 return;
             }
-            
-            if (riskScore.compareTo(BigDecimal.valueOf(75)) > 0) {
-                rejectApplication(application, "Risk assessment score too high (" + riskScore + "/100)");
-                return;
+            try {
+                pipelineScheduler.submit(source, priority, () -> decisionPipeline.submit(id, ssn));
+            } catch (RejectedExecutionException e) {
+                log.warn("Decision pipeline queue full; deferring application {}", id);
+                decisionPipeline.park(id);
             }
+        });
+    }
 
-            // Step 5: Approve Application
-            BigDecimal approvedLimit = riskAssessmentService.determineApprovedLimit(application, riskScore);
-            approveApplication(application, approvedLimit);
+    // Counted once committed, before the decision is queued, so that its own screening sees it
+    private void recordVelocity(CreditCardApplication application) {
+        UUID id = application.getId();
+        Customer customer = application.getCustomer();
+        String deviceId = application.getDeviceId();
+        LocalDateTime createdAt = application.getCreatedAt();
+        afterCommit(() -> velocityScreeningService.record(id, customer, deviceId, createdAt));
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing application {}: {}", applicationId, e.getMessage());
-            CreditCardApplication application = applicationRepository.findById(applicationId).orElse(null);
-            if (application != null) {
-                rejectApplication(application, "System error during processing");
-            }
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    // Most applicants are new; the filter answers for them without a query
+    private Optional<Customer> findCustomer(String ssn) {
+        if (!ssnFilterService.mightBeCustomer(ssn)) {
+            return Optional.empty();
         }
+        Optional<Customer> existing = customerRepository.findBySsn(ssn);
+        ssnFilterService.customerLookedUp(existing.isPresent());
+        return existing;
     }
 
-    private Customer findOrCreateCustomer(CreditCardApplicationRequest request) {
-        return customerRepository.findBySsn(request.getSsn())
-                .orElseGet(() -> {
-                    Customer newCustomer = applicationMapper.toCustomer(request);
-                    newCustomer.setIdentityVerified(true); // Mock verification
-                    newCustomer.setKycStatus(Customer.KycStatus.COMPLETED);
-                    return customerRepository.save(newCustomer);
-                });
+    private Customer createCustomer(CreditCardApplicationRequest request) {
+        Customer newCustomer = applicationMapper.toCustomer(request);
+        newCustomer.setIdentityVerified(true); // Mock verification
+        newCustomer.setKycStatus(Customer.KycStatus.COMPLETED);
+        Customer saved = customerRepository.save(newCustomer);
+        ssnFilterService.customerAdded(saved.getSsn());
+        return saved;
     }
 
-    private void rejectApplication(CreditCardApplication application, String reason) {
-        application.setStatus(CreditCardApplication.ApplicationStatus.REJECTED);
-        application.setDecisionReason(reason);
-        application.setDecidedAt(LocalDateTime.now());
-        applicationRepository.save(application);
-        log.info("Application {} rejected: {}", application.getApplicationNumber(), reason);
+    // Journaled only once the transition is committed, so the journal never shows a rolled-back state
+    private void journalTransition(CreditCardApplication application, CreditCardApplication.ApplicationStatus from,
+                                   TransitionReason reason) {
+        UUID id = application.getId();
+        CreditCardApplication.ApplicationStatus to = application.getStatus();
+        CreditCardApplication.CardType cardType = application.getCardType();
+        Integer creditScore = application.getCreditScore();
+        BigDecimal riskScore = application.getRiskScore();
+        BigDecimal approvedLimit = application.getApprovedLimit();
+        afterCommit(() -> {
+            try {
+                decisionJournal.append(id, from, to, cardType, creditScore, riskScore, approvedLimit, reason);
+            } catch (RuntimeException e) {
+                log.error("Could not journal transition of application {} to {}", id, to, e);
+            }
+        });
     }
 
-    private void approveApplication(CreditCardApplication application, BigDecimal approvedLimit) {
-        application.setStatus(CreditCardApplication.ApplicationStatus.APPROVED);
-        application.setApprovedLimit(approvedLimit);
-        application.setDecisionReason("Application approved based on credit assessment");
-        application.setDecidedAt(LocalDateTime.now());
-        applicationRepository.save(application);
-        log.info("Application {} approved with limit: ${}", 
-                application.getApplicationNumber(), approvedLimit);
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<JournalEntry> getTimeline(String applicationNumber) {
+        CreditCardApplication application = applicationRepository.findByApplicationNumber(applicationNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Application not found: " + applicationNumber));
+        return decisionJournal.timeline(application.getId());
     }
 
     @Transactional(readOnly = true)
@@ -149,6 +220,31 @@ public class CreditCardApplicationService {
         return applicationMapper.toResponse(application);
     }
 
+    /**
+     * Only the selected fields, read from their own columns without loading the entity.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getApplication(String applicationNumber, Set<ApplicationField> fields) {
+        return applicationRepository.findFieldsByApplicationNumber(applicationNumber, fields)
+                .orElseThrow(() -> new ResourceNotFoundException("Application not found: " + applicationNumber));
+    }
+
+    @Transactional(readOnly = true)
+    public long getApplicationVersion(String applicationNumber) {
+        return applicationRepository.findVersionByApplicationNumber(applicationNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Application not found: " + applicationNumber));
+    }
+
+    @Transactional(readOnly = true)
+    public ApplicationListVersion getApplicationsByEmailVersion(String email) {
+        return applicationRepository.findListVersionByCustomerEmail(email);
+    }
+
+    @Transactional(readOnly = true)
+    public ApplicationListVersion getPendingApplicationsVersion() {
+        return applicationRepository.findListVersionByStatus(CreditCardApplication.ApplicationStatus.PENDING);
+    }
+
     @Transactional(readOnly = true)
     public List<CreditCardApplicationResponse> getApplicationsByEmail(String email) {
         return applicationRepository.findByCustomerEmail(email).stream()
@@ -156,10 +252,20 @@ public class CreditCardApplicationService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getApplicationsByEmail(String email, Set<ApplicationField> fields) {
+        return applicationRepository.findFieldsByCustomerEmail(email, fields);
+    }
+
     @Transactional(readOnly = true)
     public List<CreditCardApplicationResponse> getPendingApplications() {
         return applicationRepository.findByStatus(CreditCardApplication.ApplicationStatus.PENDING).stream()
                 .map(applicationMapper::toResponse)
                 .collect(Collectors.toList());
     }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPendingApplications(Set<ApplicationField> fields) {
+        return applicationRepository.findFieldsByStatus(CreditCardApplication.ApplicationStatus.PENDING, fields);
+    }
 }
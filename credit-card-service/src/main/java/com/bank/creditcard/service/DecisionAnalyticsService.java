@@ -0,0 +1,334 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.dto.DecisionAnalyticsResponse;
+import com.bank.creditcard.dto.DecisionRecord;
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.repository.CreditCardApplicationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Decision aggregates kept in a ring of hourly buckets. Each decision increments a handful of
+ * counters, and a query sums at most {@link #RETENTION_HOURS} buckets, so reads never touch the database.
+ *
+ * <p>The buckets are built at startup from the decisions of the retention window. This process's
+ * decisions are then recorded as they commit, and a catch-up pass every {@code catch-up-interval}
+ * adds those other instances made. Decisions seen by both are counted once, by application id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DecisionAnalyticsService {
+
+    static final int RETENTION_HOURS = 24 * 7;
+    static final Duration CATCH_UP_OVERLAP = Duration.ofSeconds(5);
+
+    static final int CREDIT_SCORE_MIN = 300;
+    static final int CREDIT_SCORE_BIN_WIDTH = 50;
+    static final int CREDIT_SCORE_BINS = 11;
+    static final int RISK_SCORE_BIN_WIDTH = 10;
+    static final int RISK_SCORE_BINS = 10;
+
+    private static final int MAX_REASONS_PER_BUCKET = 64;
+    private static final String OTHER_REASON = "Other";
+
+    private static final CreditCardApplication.CardType[] CARD_TYPES = CreditCardApplication.CardType.values();
+    private static final CreditCardApplication.ApplicationStatus[] STATUSES =
+            CreditCardApplication.ApplicationStatus.values();
+    // The extra slot holds applications without a card type
+    private static final int CARD_SLOTS = CARD_TYPES.length + 1;
+
+    private final CreditCardApplicationRepository applicationRepository;
+
+    private final AtomicReferenceArray<HourBucket> buckets = new AtomicReferenceArray<>(RETENTION_HOURS);
+    // Decisions a catch-up pass may still see, so that none is counted twice; older ones are not kept
+    private final Map<UUID, LocalDateTime> counted = new ConcurrentHashMap<>();
+    private volatile LocalDateTime countedFrom = LocalDateTime.MIN;
+    private LocalDateTime caughtUpTo;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime from = LocalDateTime.now();
+        forgetBefore(from.minus(CATCH_UP_OVERLAP));
+        long count = countSince(from.minusHours(RETENTION_HOURS));
+        caughtUpTo = from;
+        log.info("Rebuilt decision analytics from {} decisions in {} ms",
+                count, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Adds the decisions committed since the last pass, by any instance.
+     */
+    @Scheduled(fixedDelayString = "${analytics.catch-up-interval:PT10S}")
+    @Transactional(readOnly = true)
+    public synchronized void catchUp() {
+        if (caughtUpTo == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // Decisions can commit a little after their decided_at
+        LocalDateTime since = caughtUpTo.minus(CATCH_UP_OVERLAP);
+        countSince(since);
+        caughtUpTo = now;
+        forgetBefore(since);
+    }
+
+    private long countSince(LocalDateTime since) {
+        LongAdder count = new LongAdder();
+        try (Stream<DecisionRecord> decisions = applicationRepository.streamDecisionsSince(since)) {
+            decisions.forEach(decision -> {
+                record(decision);
+                count.increment();
+            });
+        }
+        return count.sum();
+    }
+
+    // No later pass looks before its own overlap, so older decisions cannot come round again
+    private void forgetBefore(LocalDateTime since) {
+        countedFrom = since;
+        counted.values().removeIf(decidedAt -> decidedAt.isBefore(since));
+    }
+
+    /**
+     * Records a decision this process committed.
+     */
+    public void record(CreditCardApplication application) {
+        record(application.getId(), application.getStatus(), application.getCardType(), application.getCreditScore(),
+                application.getRiskScore(), application.getDecisionReason(), application.getDecidedAt());
+    }
+
+    void record(DecisionRecord decision) {
+        record(decision.getId(), decision.getStatus(), decision.getCardType(), decision.getCreditScore(),
+                decision.getRiskScore(), decision.getDecisionReason(), decision.getDecidedAt());
+    }
+
+    private void record(UUID id, CreditCardApplication.ApplicationStatus status,
+                        CreditCardApplication.CardType cardType, Integer creditScore, BigDecimal riskScore,
+                        String reason, LocalDateTime decidedAt) {
+        if (status == null || decidedAt == null) {
+            return;
+        }
+        if (id != null && !decidedAt.isBefore(countedFrom) && counted.putIfAbsent(id, decidedAt) != null) {
+            return;
+        }
+        HourBucket bucket = bucketFor(hourOf(decidedAt));
+        if (bucket == null) {
+            return;
+        }
+
+        int card = cardSlot(cardType);
+        bucket.statusCounts.incrementAndGet(card * STATUSES.length + status.ordinal());
+        if (creditScore != null) {
+            bucket.creditScores.incrementAndGet(card * CREDIT_SCORE_BINS + creditScoreBin(creditScore));
+        }
+        if (riskScore != null) {
+            bucket.riskScores.incrementAndGet(card * RISK_SCORE_BINS + riskScoreBin(riskScore));
+        }
+        if (status == CreditCardApplication.ApplicationStatus.REJECTED && reason != null) {
+            bucket.reasonCounts(normalizeReason(reason)).incrementAndGet(card);
+        }
+    }
+
+    public DecisionAnalyticsResponse snapshot(int windowHours, CreditCardApplication.CardType cardType) {
+        return snapshot(windowHours, cardType, LocalDateTime.now());
+    }
+
+    DecisionAnalyticsResponse snapshot(int windowHours, CreditCardApplication.CardType cardType,
+                                       LocalDateTime now) {
+        int hours = Math.max(1, Math.min(windowHours, RETENTION_HOURS));
+        long currentHour = hourOf(now);
+
+        long[] statusCounts = new long[CARD_SLOTS * STATUSES.length];
+        long[] creditScores = new long[CARD_SLOTS * CREDIT_SCORE_BINS];
+        long[] riskScores = new long[CARD_SLOTS * RISK_SCORE_BINS];
+        Map<String, Long> reasons = new TreeMap<>();
+
+        for (long hour = currentHour; hour > currentHour - hours; hour--) {
+            HourBucket bucket = buckets.get(slot(hour));
+            if (bucket == null || bucket.hour != hour) {
+                continue;
+            }
+            accumulate(statusCounts, bucket.statusCounts);
+            accumulate(creditScores, bucket.creditScores);
+            accumulate(riskScores, bucket.riskScores);
+            bucket.rejectionReasons.forEach((reason, counts) -> {
+                long total = 0;
+                for (int card = 0; card < CARD_SLOTS; card++) {
+                    if (includes(cardType, card)) {
+                        total += counts.get(card);
+                    }
+                }
+                if (total > 0) {
+                    reasons.merge(reason, total, Long::sum);
+                }
+            });
+        }
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (CreditCardApplication.ApplicationStatus status : STATUSES) {
+            long total = 0;
+            for (int card = 0; card < CARD_SLOTS; card++) {
+                if (includes(cardType, card)) {
+                    total += statusCounts[card * STATUSES.length + status.ordinal()];
+                }
+            }
+            byStatus.put(status.name(), total);
+        }
+
+        Map<String, DecisionAnalyticsResponse.CardTypeSummary> byCardType = new LinkedHashMap<>();
+        for (int card = 0; card < CARD_TYPES.length; card++) {
+            if (includes(cardType, card)) {
+                long approved = statusCounts[card * STATUSES.length + CreditCardApplication.ApplicationStatus.APPROVED.ordinal()];
+                long rejected = statusCounts[card * STATUSES.length + CreditCardApplication.ApplicationStatus.REJECTED.ordinal()];
+                byCardType.put(CARD_TYPES[card].name(), DecisionAnalyticsResponse.CardTypeSummary.builder()
+                        .decisions(approved + rejected)
+                        .approved(approved)
+                        .rejected(rejected)
+                        .approvalRate(rate(approved, approved + rejected))
+                        .build());
+            }
+        }
+
+        long approved = byStatus.get(CreditCardApplication.ApplicationStatus.APPROVED.name());
+        long rejected = byStatus.get(CreditCardApplication.ApplicationStatus.REJECTED.name());
+
+        return DecisionAnalyticsResponse.builder()
+                .windowHours(hours)
+                .cardType(cardType != null ? cardType.name() : null)
+                .windowStart(now.truncatedTo(ChronoUnit.HOURS).minusHours(hours - 1))
+                .decisions(approved + rejected)
+                .approved(approved)
+                .rejected(rejected)
+                .approvalRate(rate(approved, approved + rejected))
+                .statusCounts(byStatus)
+                .byCardType(byCardType)
+                .creditScoreHistogram(histogram(creditScores, cardType, CREDIT_SCORE_BINS,
+                        CREDIT_SCORE_MIN, CREDIT_SCORE_BIN_WIDTH))
+                .riskScoreHistogram(histogram(riskScores, cardType, RISK_SCORE_BINS, 0, RISK_SCORE_BIN_WIDTH))
+                .rejectionReasons(reasons)
+                .build();
+    }
+
+    private HourBucket bucketFor(long hour) {
+        int slot = slot(hour);
+        while (true) {
+            HourBucket current = buckets.get(slot);
+            if (current != null && current.hour == hour) {
+                return current;
+            }
+            if (current != null && current.hour > hour) {
+                return null; // older than the retention window
+            }
+            if (buckets.compareAndSet(slot, current, new HourBucket(hour))) {
+                return buckets.get(slot);
+            }
+        }
+    }
+
+    private static int slot(long hour) {
+        return (int) Math.floorMod(hour, RETENTION_HOURS);
+    }
+
+    private static long hourOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    private static int cardSlot(CreditCardApplication.CardType cardType) {
+        return cardType != null ? cardType.ordinal() : CARD_TYPES.length;
+    }
+
+    private static boolean includes(CreditCardApplication.CardType filter, int card) {
+        return filter == null || filter.ordinal() == card;
+    }
+
+    static int creditScoreBin(int creditScore) {
+        int bin = (creditScore - CREDIT_SCORE_MIN) / CREDIT_SCORE_BIN_WIDTH;
+        return Math.max(0, Math.min(bin, CREDIT_SCORE_BINS - 1));
+    }
+
+    static int riskScoreBin(BigDecimal riskScore) {
+        int bin = riskScore.intValue() / RISK_SCORE_BIN_WIDTH;
+        return Math.max(0, Math.min(bin, RISK_SCORE_BINS - 1));
+    }
+
+    // "Risk assessment score too high (82.50/100)" and similar carry per-application detail in parentheses
+    static String normalizeReason(String reason) {
+        int detail = reason.indexOf(" (");
+        return detail > 0 ? reason.substring(0, detail) : reason;
+    }
+
+    private static void accumulate(long[] target, AtomicLongArray source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source.get(i);
+        }
+    }
+
+    private static List<DecisionAnalyticsResponse.HistogramBin> histogram(
+            long[] counts, CreditCardApplication.CardType cardType, int bins, int min, int width) {
+        List<DecisionAnalyticsResponse.HistogramBin> histogram = new ArrayList<>(bins);
+        for (int bin = 0; bin < bins; bin++) {
+            long total = 0;
+            for (int card = 0; card < CARD_SLOTS; card++) {
+                if (includes(cardType, card)) {
+                    total += counts[card * bins + bin];
+                }
+            }
+            histogram.add(DecisionAnalyticsResponse.HistogramBin.builder()
+                    .lowerBound(min + bin * width)
+                    .upperBound(min + (bin + 1) * width)
+                    .count(total)
+                    .build());
+        }
+        return histogram;
+    }
+
+    private static double rate(long part, long total) {
+        return total == 0 ? 0.0 : (double) part / total;
+    }
+
+    private static final class HourBucket {
+        private final long hour;
+        private final AtomicLongArray statusCounts = new AtomicLongArray(CARD_SLOTS * STATUSES.length);
+        private final AtomicLongArray creditScores = new AtomicLongArray(CARD_SLOTS * CREDIT_SCORE_BINS);
+        private final AtomicLongArray riskScores = new AtomicLongArray(CARD_SLOTS * RISK_SCORE_BINS);
+        private final Map<String, AtomicLongArray> rejectionReasons = new ConcurrentHashMap<>();
+
+        private HourBucket(long hour) {
+            this.hour = hour;
+        }
+
+        private AtomicLongArray reasonCounts(String reason) {
+            AtomicLongArray counts = rejectionReasons.get(reason);
+            if (counts != null) {
+                return counts;
+            }
+            String key = rejectionReasons.size() < MAX_REASONS_PER_BUCKET ? reason : OTHER_REASON;
+            return rejectionReasons.computeIfAbsent(key, k -> new AtomicLongArray(CARD_SLOTS));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.client.CreditBureauClient;
+import com.bank.creditcard.dto.DecisionExportRow;
+import com.bank.creditcard.repository.CreditCardApplicationRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams decided applications straight from a server-side cursor into CSV or gzipped NDJSON.
+ * Rows are DTO projections, so the persistence context stays empty and heap use is flat
+ * regardless of the size of the range.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DecisionExportService {
+
+    static final int FLUSH_EVERY_ROWS = 1000;
+
+    private static final String[] COLUMNS = {
+            "applicationNumber", "status", "cardType", "customerName", "email", "ssn", "annualIncome",
+            "requestedLimit", "approvedLimit", "creditScore", "riskScore", "decisionReason", "createdAt", "decidedAt"
+    };
+
+    private final CreditCardApplicationRepository applicationRepository;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        CSV("text/csv", ".csv"),
+        NDJSON_GZIP("application/gzip", ".ndjson.gz");
+
+        private final String contentType;
+        private final String fileExtension;
+
+        public static Format fromFileName(String fileName) {
+            return fileName.endsWith(NDJSON_GZIP.fileExtension) ? NDJSON_GZIP : CSV;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        long rows;
+        try (Stream<DecisionExportRow> decisions = applicationRepository.streamDecisionsBetween(from, to)) {
+            rows = format == Format.NDJSON_GZIP ? writeNdjson(decisions, out) : writeCsv(decisions, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} decisions between {} and {} as {} in {} ms",
+                rows, from, to, format, (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+
+    private long writeCsv(Stream<DecisionExportRow> decisions, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(String.join(",", COLUMNS));
+        writer.write('\n');
+
+        AtomicLong rows = new AtomicLong();
+        decisions.forEach(row -> {
+            try {
+                writeCsvField(writer, row.getApplicationNumber()).write(',');
+                writeCsvField(writer, row.getStatus()).write(',');
+                writeCsvField(writer, row.getCardType()).write(',');
+                writeCsvField(writer, row.getFirstName() + " " + row.getLastName()).write(',');
+                writeCsvField(writer, row.getEmail()).write(',');
+                writeCsvField(writer, CreditBureauClient.maskSsn(row.getSsn())).write(',');
+                writeCsvField(writer, plain(row.getAnnualIncome())).write(',');
+                writeCsvField(writer, plain(row.getRequestedLimit())).write(',');
+                writeCsvField(writer, plain(row.getApprovedLimit())).write(',');
+                writeCsvField(writer, row.getCreditScore()).write(',');
+                writeCsvField(writer, plain(row.getRiskScore())).write(',');
+                writeCsvField(writer, row.getDecisionReason()).write(',');
+                writeCsvField(writer, row.getCreatedAt()).write(',');
+                writeCsvField(writer, row.getDecidedAt()).write('\n');
+                if (rows.incrementAndGet() % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        return rows.get();
+    }
+
+    private long writeNdjson(Stream<DecisionExportRow> decisions, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024, true);
+        JsonGenerator json = objectMapper.getFactory().createGenerator(gzip, JsonEncoding.UTF8);
+        json.setRootValueSeparator(null);
+
+        AtomicLong rows = new AtomicLong();
+        decisions.forEach(row -> {
+            try {
+                json.writeStartObject();
+                json.writeStringField("applicationNumber", row.getApplicationNumber());
+                writeStringField(json, "status", row.getStatus());
+                writeStringField(json, "cardType", row.getCardType());
+                json.writeStringField("customerName", row.getFirstName() + " " + row.getLastName());
+                json.writeStringField("email", row.getEmail());
+                json.writeStringField("ssn", CreditBureauClient.maskSsn(row.getSsn()));
+                writeNumberField(json, "annualIncome", row.getAnnualIncome());
+                writeNumberField(json, "requestedLimit", row.getRequestedLimit());
+                writeNumberField(json, "approvedLimit", row.getApprovedLimit());
+                if (row.getCreditScore() != null) {
+                    json.writeNumberField("creditScore", row.getCreditScore());
+                } else {
+                    json.writeNullField("creditScore");
+                }
+                writeNumberField(json, "riskScore", row.getRiskScore());
+                json.writeStringField("decisionReason", row.getDecisionReason());
+                writeStringField(json, "createdAt", row.getCreatedAt());
+                writeStringField(json, "decidedAt", row.getDecidedAt());
+                json.writeEndObject();
+                json.writeRaw('\n');
+                if (rows.incrementAndGet() % FLUSH_EVERY_ROWS == 0) {
+                    json.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        json.flush();
+        gzip.finish();
+        gzip.flush();
+        return rows.get();
+    }
+
+    private static Writer writeCsvField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return writer;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return writer;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+        return writer;
+    }
+
+    private static void writeStringField(JsonGenerator json, String name, Object value) throws IOException {
+        if (value != null) {
+            json.writeStringField(name, value.toString());
+        } else {
+            json.writeNullField(name);
+        }
+    }
+
+    private static void writeNumberField(JsonGenerator json, String name, BigDecimal value) throws IOException {
+        if (value != null) {
+            json.writeNumberField(name, value);
+        } else {
+            json.writeNullField(name);
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+}
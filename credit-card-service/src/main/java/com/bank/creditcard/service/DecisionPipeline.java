@@ -0,0 +1,715 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.client.CreditBureauClient;
+import com.bank.creditcard.concurrency.AdaptiveConcurrencyLimiter;
+import com.bank.creditcard.dto.CreditBureauReport;
+import com.bank.creditcard.exception.DeadlineExceededException;
+import com.bank.creditcard.exception.ResourceNotFoundException;
+import com.bank.creditcard.journal.DecisionJournal;
+import com.bank.creditcard.journal.TransitionReason;
+import com.bank.creditcard.model.ApplicationStageTiming;
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.pipeline.Deadline;
+import com.bank.creditcard.pipeline.Stage;
+import com.bank.creditcard.repository.CreditCardApplicationRepository;
+import com.bank.creditcard.rules.CompiledDecisionRules;
+import com.bank.creditcard.rules.DecisionRulesRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Decides submitted applications in five stages, each with its own lanes and bounded queues:
+ * load (marks the application IN_REVIEW), compliance, bureau, assessment (risk score and rules)
+ * and persist, which writes finished decisions in batches of up to {@code batch-size} per
+ * transaction. Only load and persist hold a database connection, so the slow remote calls no
+ * longer keep one open.
+ *
+ * <p>Every stage routes an application to a lane by its customer's SSN, so one customer's
+ * applications pass each stage in submission order without locking. {@link #submit} admits an
+ * application only while fewer than {@code max-in-flight} are in the stages, one per lane by
+ * default, and otherwise waits; the backlog therefore stays in the {@code WeightedFairScheduler}
+ * that calls it, in priority order, and never in the stage queues. The adaptive pipeline limit
+ * bounds only the load and persist transactions, the work that holds a connection, so compliance
+ * and bureau calls run as wide as their lanes. An application that is not admitted, or whose load
+ * gets no permit, within {@code max-wait} is DEFERRED without counting as a deferral, so that
+ * {@link DeferredDecisionRetrier} decides it later; a decision waiting to be written keeps waiting.
+ *
+ * <p>How long each application spent in each stage goes to {@link StageTimingRecorder} once its
+ * decision is written.
+ *
+ * <p>Each decision has a time budget of {@code pipeline.deadline.budget} from its admission. The
+ * compliance check, the bureau call and the database transactions get what is left of it as their
+ * timeout. An application whose budget runs out is not failed but DEFERRED, and
+ * {@link DeferredDecisionRetrier} submits it again later with a fresh budget; after
+ * {@code max-deferrals} deferrals it is rejected.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DecisionPipeline implements MeterBinder {
+
+    private static final List<String> DEADLINE_STAGES = List.of("queue_wait", "compliance", "bureau", "scoring",
+            "persist");
+
+    private final CreditCardApplicationRepository applicationRepository;
+    private final CreditBureauClient creditBureauClient;
+    private final RiskAssessmentService riskAssessmentService;
+    private final ComplianceService complianceService;
+    private final SsnFilterService ssnFilterService;
+    private final DecisionAnalyticsService decisionAnalyticsService;
+    private final DecisionRulesRegistry decisionRulesRegistry;
+    private final BureauSnapshotService bureauSnapshotService;
+    private final DecisionJournal decisionJournal;
+    private final AdaptiveConcurrencyLimiter pipelineConcurrencyLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final StageTimingRecorder stageTimingRecorder;
+
+    @Value("${concurrency.pipeline.max-wait:PT30S}")
+    private Duration pipelineMaxWait = Duration.ofSeconds(30);
+
+    // 0: one per lane of every stage
+    @Value("${pipeline.max-in-flight:0}")
+    private int maxInFlight = 0;
+
+    @Value("${pipeline.stages.load.lanes:2}")
+    private int loadLanes = 2;
+
+    @Value("${pipeline.stages.load.queue-capacity:256}")
+    private int loadCapacity = 256;
+
+    @Value("${pipeline.stages.compliance.lanes:8}")
+    private int complianceLanes = 8;
+
+    @Value("${pipeline.stages.compliance.queue-capacity:256}")
+    private int complianceCapacity = 256;
+
+    @Value("${pipeline.stages.bureau.lanes:16}")
+    private int bureauLanes = 16;
+
+    @Value("${pipeline.stages.bureau.queue-capacity:256}")
+    private int bureauCapacity = 256;
+
+    @Value("${pipeline.stages.assessment.lanes:4}")
+    private int assessmentLanes = 4;
+
+    @Value("${pipeline.stages.assessment.queue-capacity:256}")
+    private int assessmentCapacity = 256;
+
+    @Value("${pipeline.stages.persist.lanes:2}")
+    private int persistLanes = 2;
+
+    @Value("${pipeline.stages.persist.queue-capacity:1024}")
+    private int persistCapacity = 1024;
+
+    @Value("${pipeline.stages.persist.batch-size:50}")
+    private int persistBatchSize = 50;
+
+    @Value("${pipeline.deadline.budget:PT2M}")
+    private Duration deadlineBudget = Duration.ofMinutes(2);
+
+    @Value("${pipeline.deadline.max-deferrals:3}")
+    private int maxDeferrals = 3;
+
+    private Stage<Work> load;
+    private Stage<Work> compliance;
+    private Stage<Work> bureau;
+    private Stage<Work> assessment;
+    private Stage<Work> persist;
+    private int inFlightLimit;
+    private Semaphore room;
+    private volatile Timer decisionLatency;
+    private volatile Map<String, DistributionSummary> budgetUsed = Map.of();
+    private volatile Map<String, Counter> deadlineExceeded = Map.of();
+
+    @PostConstruct
+    public void start() {
+        load = Stage.of("load", loadLanes, loadCapacity, Work::lane, this::load);
+        compliance = Stage.of("compliance", complianceLanes, complianceCapacity, Work::lane, this::checkCompliance);
+        bureau = Stage.of("bureau", bureauLanes, bureauCapacity, Work::lane, this::fetchReport);
+        assessment = Stage.of("assessment", assessmentLanes, assessmentCapacity, Work::lane, this::assess);
+        persist = new Stage<>("persist", persistLanes, persistCapacity, persistBatchSize, Work::lane, this::persist);
+        inFlightLimit = maxInFlight > 0 ? maxInFlight
+                : loadLanes + complianceLanes + bureauLanes + assessmentLanes + persistLanes;
+        room = new Semaphore(inFlightLimit);
+        stages().forEach(Stage::start);
+    }
+
+    // First to last, so each stage drains into one that is still running
+    @PreDestroy
+    public void close() {
+        stages().forEach(Stage::close);
+    }
+
+    /**
+     * Admits a submitted application for its decision, waiting up to {@code max-wait} while the
+     * pipeline is full; an application not admitted by then is {@linkplain #park parked}.
+     */
+    public void submit(UUID applicationId, String ssn) {
+        submit(applicationId, ssn, false);
+    }
+
+    /**
+     * Queues another attempt at a DEFERRED application, with a fresh time budget. Does nothing if
+     * the application is no longer DEFERRED by the time it is loaded.
+     */
+    public void retry(UUID applicationId, String ssn) {
+        submit(applicationId, ssn, true);
+    }
+
+    private void submit(UUID applicationId, String ssn, boolean retry) {
+        boolean admitted;
+        boolean interrupted = false;
+        try {
+            admitted = room.tryAcquire(pipelineMaxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            admitted = false;
+            interrupted = true;
+        }
+        if (!admitted) {
+            saturated(applicationId, retry);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        // The budget starts here: time spent waiting for admission is the scheduler's to order
+        Work work = new Work(applicationId, ssn, Deadline.after(deadlineBudget), retry);
+        work.admitted = true;
+        forward(load, work);
+    }
+
+    private void saturated(UUID applicationId, boolean retry) {
+        if (retry) {
+            // Claimed by the sweep, so still DEFERRED: due again after another retry-delay
+            log.warn("Decision pipeline saturated for {}; deferred application {} waits for the next sweep",
+                    pipelineMaxWait, applicationId);
+        } else {
+            park(applicationId);
+        }
+    }
+
+    /**
+     * Makes a PENDING application that could not be queued DEFERRED, so that the retry sweep picks
+     * it up; the pipeline never saw it, so it does not count against {@code max-deferrals}. If this
+     * fails too, the application stays PENDING.
+     */
+    void park(UUID applicationId) {
+        park(applicationId, TransitionReason.PIPELINE_SATURATED);
+    }
+
+    // Also for an application the stages let go of undecided, which would otherwise stay IN_REVIEW for good
+    private void park(UUID applicationId, TransitionReason reason) {
+        // Its own transaction even when called after the submission commits, whose resources may still be bound
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager(),
+                transactionTemplate);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            CreditCardApplication.ApplicationStatus[] from = new CreditCardApplication.ApplicationStatus[1];
+            CreditCardApplication parked = requiresNew.execute(status -> {
+                CreditCardApplication application = applicationRepository.findById(applicationId).orElse(null);
+                if (application == null
+                        || application.getStatus() != CreditCardApplication.ApplicationStatus.PENDING
+                        && application.getStatus() != CreditCardApplication.ApplicationStatus.IN_REVIEW) {
+                    return null;
+                }
+                from[0] = application.getStatus();
+                application.setStatus(CreditCardApplication.ApplicationStatus.DEFERRED);
+                applicationRepository.save(application);
+                return application;
+            });
+            if (parked != null) {
+                journal(parked, from[0], reason);
+                log.warn("Application {} deferred: {}", parked.getApplicationNumber(),
+                        reason == TransitionReason.PIPELINE_SATURATED ? "decision pipeline saturated"
+                                : "decision pipeline stopped");
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not defer application {}; it stays undecided: {}", applicationId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        stages().forEach(stage -> stage.bindTo(registry));
+        Gauge.builder("pipeline.admitted", this, pipeline -> pipeline.inFlightLimit - pipeline.room.availablePermits())
+                .description("Applications admitted into the stages and not yet out of them")
+                .register(registry);
+        decisionLatency = Timer.builder("applications.decision.latency")
+                .description("Time from submission until the decision was written")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Map<String, DistributionSummary> used = new HashMap<>();
+        Map<String, Counter> exceeded = new HashMap<>();
+        for (String stage : DEADLINE_STAGES) {
+            used.put(stage, DistributionSummary.builder("pipeline.deadline.used")
+                    .tag("stage", stage)
+                    .description("Fraction of the decision's time budget spent in the stage")
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry));
+            exceeded.put(stage, Counter.builder("pipeline.deadline.exceeded")
+                    .tag("stage", stage)
+                    .description("Decisions deferred because their time budget ran out in the stage")
+                    .register(registry));
+        }
+        budgetUsed = Map.copyOf(used);
+        deadlineExceeded = Map.copyOf(exceeded);
+    }
+
+    private List<Stage<Work>> stages() {
+        return List.of(load, compliance, bureau, assessment, persist);
+    }
+
+    private void load(Work work) {
+        AdaptiveConcurrencyLimiter.Permit permit;
+        boolean interrupted = false;
+        try {
+            permit = pipelineConcurrencyLimiter.acquire(pipelineMaxWait);
+        } catch (InterruptedException e) {
+            permit = null;
+            interrupted = true;
+        }
+        if (permit == null) {
+            leave(work);
+            saturated(work.applicationId, work.retry);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        try {
+            // One rules snapshot per application, even if a reload lands mid-decision
+            work.rules = decisionRulesRegistry.current();
+            CreditCardApplication.ApplicationStatus previousStatus = withPermit(permit, () ->
+                    transaction(work.deadline).execute(status -> {
+                        CreditCardApplication application = applicationRepository.findById(work.applicationId)
+                                .orElseThrow(() -> new ResourceNotFoundException("Application not found"));
+                        CreditCardApplication.ApplicationStatus from = application.getStatus();
+                        if (work.retry && from != CreditCardApplication.ApplicationStatus.DEFERRED) {
+                            return from;
+                        }
+                        application.setRulesVersion(work.rules.getVersion());
+                        application.setStatus(CreditCardApplication.ApplicationStatus.IN_REVIEW);
+                        applicationRepository.save(application);
+                        work.application = application;
+                        return from;
+                    }));
+            if (work.application == null) {
+                // Already retried by another instance, or decided some other way
+                log.debug("Application {} is {}, not DEFERRED; retry skipped", work.applicationId, previousStatus);
+                leave(work);
+                return;
+            }
+            work.previousStatus = work.application.getStatus();
+            work.lap();
+            if (work.application.getCreatedAt() != null) {
+                work.queueWaitMs = millis(Duration.between(work.application.getCreatedAt(), LocalDateTime.now()));
+            }
+            recordBudgetUsed(work, "queue_wait", work.deadline.budget().minus(work.deadline.remaining()));
+            journal(work.application, previousStatus, TransitionReason.REVIEW_STARTED);
+            if (work.deadline.isExpired()) {
+                defer(work, "queue_wait");
+                return;
+            }
+            forward(compliance, work);
+        } catch (RuntimeException e) {
+            fail(work, "queue_wait", e);
+        }
+    }
+
+    private void checkCompliance(Work work) {
+        try {
+            work.deadline.check("compliance");
+            ComplianceService.ComplianceCheckResult result = complianceService.performComplianceCheck(
+                    work.application.getCustomer(), work.application.getDeviceId(), work.deadline.remaining());
+            work.complianceMs = work.lap();
+            recordBudgetUsed(work, "compliance", work.complianceMs);
+            if (!result.isOverallPassed()) {
+                work.reject(result.getReason(), TransitionReason.COMPLIANCE_FAILED);
+                forward(persist, work);
+                return;
+            }
+            forward(bureau, work);
+        } catch (RuntimeException e) {
+            fail(work, "compliance", e);
+        }
+    }
+
+    private void fetchReport(Work work) {
+        try {
+            work.deadline.check("bureau");
+            work.report = creditBureauClient.getCreditReport(work.application.getCustomer().getSsn(),
+                    work.deadline.remaining());
+            work.application.setCreditScore(work.report.getCreditScore());
+            work.bureauMs = work.lap();
+            recordBudgetUsed(work, "bureau", work.bureauMs);
+            forward(assessment, work);
+        } catch (RuntimeException e) {
+            fail(work, "bureau", e);
+        }
+    }
+
+    private void assess(Work work) {
+        try {
+            // Scoring is CPU-bound and short: checked on entry, and a decision once made is kept
+            work.deadline.check("scoring");
+            CreditCardApplication application = work.application;
+            CompiledDecisionRules rules = work.rules;
+            BigDecimal riskScore = riskAssessmentService.calculateRiskScore(application, work.report, rules);
+            application.setRiskScore(riskScore);
+
+            if (rules.isBelowMinimumCreditScore(work.report.getCreditScore())) {
+                work.reject("Credit score below minimum requirement (" + rules.getMinimumCreditScore() + ")",
+                        TransitionReason.CREDIT_SCORE_TOO_LOW);
+            } else if (rules.isAboveMaximumRisk(riskScore)) {
+                work.reject("Risk assessment score too high (" + riskScore + "/100)", TransitionReason.RISK_TOO_HIGH);
+            } else {
+                work.status = CreditCardApplication.ApplicationStatus.APPROVED;
+                work.approvedLimit = riskAssessmentService.determineApprovedLimit(application, riskScore, rules);
+                work.reason = "Application approved based on credit assessment";
+                work.code = TransitionReason.APPROVED;
+            }
+            work.scoringMs = work.lap();
+            recordBudgetUsed(work, "scoring", work.scoringMs);
+            forward(persist, work);
+        } catch (RuntimeException e) {
+            fail(work, "scoring", e);
+        }
+    }
+
+    private void persist(List<Work> batch) {
+        AdaptiveConcurrencyLimiter.Permit permit = awaitPermit(batch);
+        if (permit == null) {
+            batch.forEach(this::strand);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        List<Work> written;
+        try (permit) {
+            written = writeAll(batch, permit);
+        }
+        batch.forEach(work -> {
+            if (written.contains(work)) {
+                finish(work);
+            } else {
+                leave(work);
+            }
+        });
+    }
+
+    private AdaptiveConcurrencyLimiter.Permit awaitPermit(List<Work> batch) {
+        try {
+            // Decisions already made are written however long that takes; meanwhile the queue pushes back
+            AdaptiveConcurrencyLimiter.Permit permit;
+            while ((permit = pipelineConcurrencyLimiter.acquire(pipelineMaxWait)) == null) {
+                log.warn("Decision pipeline saturated for {}; {} decisions wait to be written", pipelineMaxWait,
+                        batch.size());
+            }
+            return permit;
+        } catch (InterruptedException e) {
+            log.warn("Interrupted; deferring {} decisions not written", batch.size());
+            return null;
+        }
+    }
+
+    private List<Work> writeAll(List<Work> batch, AdaptiveConcurrencyLimiter.Permit permit) {
+        // Decisions already made are written even when their budget is spent, so never under a second
+        int timeout = batch.stream().mapToInt(work -> work.deadline.timeoutSeconds(1)).max().orElse(1);
+        try {
+            transaction(timeout).executeWithoutResult(status -> batch.forEach(this::write));
+            return batch;
+        } catch (RuntimeException e) {
+            if (AdaptiveConcurrencyLimiter.isOverload(e)) {
+                permit.dropped();
+            }
+            // One bad row must not lose the others: write them one transaction at a time
+            log.warn("Batch of {} decisions failed ({}); writing them one by one", batch.size(), e.getMessage());
+        }
+        List<Work> written = new ArrayList<>(batch.size());
+        for (Work work : batch) {
+            try {
+                transaction(work.deadline).executeWithoutResult(status -> write(work));
+                written.add(work);
+            } catch (RuntimeException e) {
+                if (AdaptiveConcurrencyLimiter.isOverload(e)) {
+                    permit.dropped();
+                }
+                log.error("Could not write the decision of application {}: {}", work.applicationId, e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    private void write(Work work) {
+        if (work.failed || work.deferred) {
+            // The row is reloaded: an earlier stage may have failed before or while loading it
+            work.application = applicationRepository.findById(work.applicationId).orElse(null);
+            if (work.application == null) {
+                return;
+            }
+            work.previousStatus = work.application.getStatus();
+            if (work.failed) {
+                work.reject("System error during processing", TransitionReason.SYSTEM_ERROR);
+            } else if (work.application.getDeferrals() >= maxDeferrals) {
+                work.deferred = false;
+                work.reject("Application could not be decided within the time budget",
+                        TransitionReason.DEADLINE_EXCEEDED);
+            } else {
+                work.application.setDeferrals(work.application.getDeferrals() + 1);
+                work.application.setStatus(CreditCardApplication.ApplicationStatus.DEFERRED);
+                applicationRepository.save(work.application);
+                return;
+            }
+        }
+        CreditCardApplication application = work.application;
+        application.setStatus(work.status);
+        application.setDecisionReason(work.reason);
+        if (work.approvedLimit != null) {
+            application.setApprovedLimit(work.approvedLimit);
+        }
+        application.setDecidedAt(LocalDateTime.now());
+        applicationRepository.save(application);
+        // Only a decision ends the pending application; IN_REVIEW and DEFERRED still hold the SSN
+        ssnFilterService.pendingRemoved(work.ssn);
+        if (work.report != null) {
+            bureauSnapshotService.store(application.getId(), work.report);
+        }
+    }
+
+    private void finish(Work work) {
+        try {
+            report(work);
+        } finally {
+            leave(work);
+        }
+    }
+
+    private void report(Work work) {
+        CreditCardApplication application = work.application;
+        if (application == null) {
+            return;
+        }
+        if (work.deferred) {
+            journal(application, work.previousStatus, TransitionReason.DEADLINE_EXCEEDED);
+            log.info("Application {} deferred: time budget of {} ran out in {}",
+                    application.getApplicationNumber(), work.deadline.budget(), work.deferredIn);
+            return;
+        }
+        try {
+            decisionAnalyticsService.record(application);
+        } catch (RuntimeException e) {
+            log.error("Could not record the decision of application {} in analytics", work.applicationId, e);
+        }
+        journal(application, work.previousStatus, work.code);
+        if (application.getCreatedAt() != null && application.getDecidedAt() != null) {
+            Duration total = Duration.between(application.getCreatedAt(), application.getDecidedAt());
+            Timer latency = decisionLatency;
+            if (latency != null) {
+                latency.record(total);
+            }
+            work.persistMs = work.lap();
+            recordBudgetUsed(work, "persist", work.persistMs);
+            stageTimingRecorder.record(work.timing(total));
+        }
+        if (work.status == CreditCardApplication.ApplicationStatus.APPROVED) {
+            log.info("Application {} approved with limit: ${}",
+                    application.getApplicationNumber(), work.approvedLimit);
+        } else {
+            log.info("Application {} rejected: {}", application.getApplicationNumber(), work.reason);
+        }
+    }
+
+    private void fail(Work work, String stage, RuntimeException e) {
+        if (e instanceof DeadlineExceededException || work.deadline.isExpired()) {
+            defer(work, stage);
+            return;
+        }
+        log.error("Error processing application {}: {}", work.applicationId, e.getMessage());
+        work.failed = true;
+        forward(persist, work);
+    }
+
+    private void defer(Work work, String stage) {
+        Counter exceeded = deadlineExceeded.get(stage);
+        if (exceeded != null) {
+            exceeded.increment();
+        }
+        work.deferred = true;
+        work.deferredIn = stage;
+        forward(persist, work);
+    }
+
+    private void recordBudgetUsed(Work work, String stage, Duration spent) {
+        DistributionSummary used = budgetUsed.get(stage);
+        if (used != null) {
+            used.record((double) spent.toNanos() / Math.max(1, work.deadline.budget().toNanos()));
+        }
+    }
+
+    private void recordBudgetUsed(Work work, String stage, int spentMs) {
+        recordBudgetUsed(work, stage, Duration.ofMillis(spentMs));
+    }
+
+    // A database transaction under a pipeline permit; overload failures shrink the limit
+    private static <T> T withPermit(AdaptiveConcurrencyLimiter.Permit permit, Supplier<T> transaction) {
+        try (permit) {
+            try {
+                return transaction.get();
+            } catch (RuntimeException e) {
+                if (AdaptiveConcurrencyLimiter.isOverload(e)) {
+                    permit.dropped();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private TransactionTemplate transaction(Deadline deadline) {
+        return transaction(deadline.timeoutSeconds(1));
+    }
+
+    private TransactionTemplate transaction(int timeoutSeconds) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager(),
+                transactionTemplate);
+        template.setTimeout(timeoutSeconds);
+        return template;
+    }
+
+    private void forward(Stage<Work> next, Work work) {
+        try {
+            next.put(work);
+        } catch (InterruptedException e) {
+            log.warn("Interrupted before stage {}; deferring application {}", next.getName(), work.applicationId);
+            strand(work);
+            // Only now: the pool would not hand an interrupted thread a connection to defer with
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException e) {
+            log.warn("Stage {} is closed; deferring application {}", next.getName(), work.applicationId);
+            strand(work);
+        }
+    }
+
+    // Undecided and out of the stages, say on shutdown: DEFERRED, so that some instance's sweep decides it
+    private void strand(Work work) {
+        leave(work);
+        park(work.applicationId, TransitionReason.PIPELINE_STOPPED);
+    }
+
+    // Makes room for the next application; every way out of the pipeline passes here once
+    private void leave(Work work) {
+        if (work.admitted) {
+            work.admitted = false;
+            room.release();
+        }
+    }
+
+    private static int millis(Duration duration) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, duration.toMillis()));
+    }
+
+    // Called once the transition is committed, so the journal never shows a rolled-back state
+    private void journal(CreditCardApplication application, CreditCardApplication.ApplicationStatus from,
+                         TransitionReason reason) {
+        try {
+            decisionJournal.append(application.getId(), from, application.getStatus(), application.getCardType(),
+                    application.getCreditScore(), application.getRiskScore(), application.getApprovedLimit(), reason);
+        } catch (RuntimeException e) {
+            log.error("Could not journal transition of application {} to {}", application.getId(),
+                    application.getStatus(), e);
+        }
+    }
+
+    /**
+     * One application on its way through the stages. Each stage fills in its part; a lane hands
+     * it to the next stage through a blocking queue, which publishes the writes.
+     */
+    private static final class Work {
+
+        private final UUID applicationId;
+        private final String ssn;
+        private final boolean retry;
+        private boolean admitted;
+        private CompiledDecisionRules rules;
+        private CreditCardApplication application;
+        private CreditBureauReport report;
+        private CreditCardApplication.ApplicationStatus previousStatus;
+        private CreditCardApplication.ApplicationStatus status;
+        private String reason;
+        private TransitionReason code;
+        private BigDecimal approvedLimit;
+        private boolean failed;
+        private Deadline deadline;
+        private boolean deferred;
+        private String deferredIn;
+        // End of the last stage this application finished, System.nanoTime()
+        private long lapStart = System.nanoTime();
+        private Integer queueWaitMs;
+        private Integer complianceMs;
+        private Integer bureauMs;
+        private Integer scoringMs;
+        private Integer persistMs;
+
+        private Work(UUID applicationId, String ssn, Deadline deadline, boolean retry) {
+            this.applicationId = applicationId;
+            this.ssn = ssn;
+            this.deadline = deadline;
+            this.retry = retry;
+        }
+
+        // Time since the previous stage ended, queueing included
+        private int lap() {
+            long now = System.nanoTime();
+            int elapsed = millis(Duration.ofNanos(now - lapStart));
+            lapStart = now;
+            return elapsed;
+        }
+
+        private ApplicationStageTiming timing(Duration total) {
+            ApplicationStageTiming timing = new ApplicationStageTiming();
+            timing.setApplicationId(application.getId());
+            timing.setStatus(application.getStatus());
+            timing.setDecidedAt(application.getDecidedAt());
+            timing.setQueueWaitMs(queueWaitMs);
+            timing.setComplianceMs(complianceMs);
+            timing.setBureauMs(bureauMs);
+            timing.setScoringMs(scoringMs);
+            timing.setPersistMs(persistMs);
+            timing.setTotalMs(millis(total));
+            return timing;
+        }
+
+        private long lane() {
+            return ssn != null ? ssn.hashCode() : applicationId.hashCode();
+        }
+
+        private void reject(String reason, TransitionReason code) {
+            this.status = CreditCardApplication.ApplicationStatus.REJECTED;
+            this.reason = reason;
+            this.code = code;
+            this.approvedLimit = null;
+        }
+    }
+}
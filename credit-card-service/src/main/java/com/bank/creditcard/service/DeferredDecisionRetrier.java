@@ -0,0 +1,86 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.concurrency.PipelinePriority;
+import com.bank.creditcard.concurrency.WeightedFairScheduler;
+import com.bank.creditcard.dto.DeferredApplication;
+import com.bank.creditcard.repository.CreditCardApplicationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Submits DEFERRED applications to the decision pipeline again once they have waited
+ * {@code pipeline.deadline.retry-delay}. Each one is claimed in its own transaction first, so
+ * with several instances sweeping only one of them retries it. An instance whose pipeline queue
+ * holds {@code pipeline.scheduler.spill-above} jobs claims none, leaving them to the others.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeferredDecisionRetrier {
+
+    static final String SOURCE = "deferred-retry";
+
+    private final CreditCardApplicationRepository applicationRepository;
+    private final DecisionPipeline decisionPipeline;
+    private final WeightedFairScheduler pipelineScheduler;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${pipeline.deadline.retry-delay:PT1M}")
+    private Duration retryDelay = Duration.ofMinutes(1);
+
+    @Value("${pipeline.deadline.retry-batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${pipeline.scheduler.spill-above:2000}")
+    private int spillAbove = 2000;
+
+    @Scheduled(fixedDelayString = "${pipeline.deadline.retry-interval:PT30S}")
+    public void retryDeferred() {
+        LocalDateTime before = LocalDateTime.now().minus(retryDelay);
+        List<DeferredApplication> due;
+        try {
+            due = applicationRepository.findDeferredBefore(before, Limit.of(batchSize));
+        } catch (DataAccessException e) {
+            log.warn("Could not look up deferred applications: {}", e.getMessage());
+            return;
+        }
+        int retried = 0;
+        for (DeferredApplication application : due) {
+            if (pipelineScheduler.size() >= spillAbove) {
+                log.info("Decision pipeline saturated; {} deferred applications left to other instances",
+                        due.size() - retried);
+                break;
+            }
+            Integer claimed = transactionTemplate.execute(status ->
+                    applicationRepository.claimDeferred(application.getId(), LocalDateTime.now(), before));
+            if (claimed == null || claimed == 0) {
+                continue;
+            }
+            try {
+                pipelineScheduler.submit(SOURCE, PipelinePriority.of(application.getCardType(),
+                        application.getChannel()), () -> decisionPipeline.retry(application.getId(),
+                        application.getSsn()));
+                retried++;
+            } catch (RejectedExecutionException e) {
+                // Claimed but not queued: due again after another retry-delay
+                log.warn("Decision pipeline queue full; {} deferred applications wait for the next sweep",
+                        due.size() - retried);
+                break;
+            }
+        }
+        if (retried > 0) {
+            log.info("Retrying {} deferred applications", retried);
+        }
+    }
+}
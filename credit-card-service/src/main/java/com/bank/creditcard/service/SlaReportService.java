@@ -0,0 +1,59 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.dto.SlaReport;
+import com.bank.creditcard.model.ApplicationStageTiming;
+import com.bank.creditcard.repository.ApplicationStageTimingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Decision time percentiles by stage and day, from the timings the pipeline records, along with
+ * the slowest decisions of the period.
+ */
+@Service
+@RequiredArgsConstructor
+public class SlaReportService {
+
+    private final ApplicationStageTimingRepository timingRepository;
+
+    @Transactional(readOnly = true)
+    public SlaReport report(LocalDateTime from, LocalDateTime to, int slowest) {
+        return SlaReport.builder()
+                .from(from)
+                .to(to)
+                .stages(timingRepository.findStagePercentiles(from, to).stream()
+                        .map(row -> SlaReport.StageDay.builder()
+                                .day(LocalDate.parse(row.getDay()))
+                                .stage(row.getStage())
+                                .applications(row.getApplications())
+                                .p50Ms(row.getP50())
+                                .p90Ms(row.getP90())
+                                .p99Ms(row.getP99())
+                                .maxMs(row.getMaxMs())
+                                .build())
+                        .toList())
+                .slowest(timingRepository.findSlowest(from, to, Limit.of(slowest)).stream()
+                        .map(SlaReportService::slowApplication)
+                        .toList())
+                .build();
+    }
+
+    private static SlaReport.SlowApplication slowApplication(ApplicationStageTiming timing) {
+        return SlaReport.SlowApplication.builder()
+                .applicationId(timing.getApplicationId())
+                .status(timing.getStatus())
+                .decidedAt(timing.getDecidedAt())
+                .totalMs(timing.getTotalMs())
+                .queueWaitMs(timing.getQueueWaitMs())
+                .complianceMs(timing.getComplianceMs())
+                .bureauMs(timing.getBureauMs())
+                .scoringMs(timing.getScoringMs())
+                .persistMs(timing.getPersistMs())
+                .build();
+    }
+}
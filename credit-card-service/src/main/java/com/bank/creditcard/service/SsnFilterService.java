@@ -0,0 +1,294 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.bloom.BloomFilter;
+import com.bank.creditcard.bloom.CountingBloomFilter;
+import com.bank.creditcard.model.CreditCardApplication;
+import com.bank.creditcard.repository.CreditCardApplicationRepository;
+import com.bank.creditcard.repository.CustomerRepository;
+import com.bank.creditcard.velocity.KeyedHash;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters over the SSNs of known customers and of applicants with a pending application,
+ * that is one not decided yet ({@link CreditCardApplication.ApplicationStatus#UNDECIDED}).
+ * Most applicants are new, so most submissions learn from memory that neither database lookup
+ * can find anything; only a "maybe" goes to the database. SSNs are held as keyed hashes only.
+ *
+ * <p>The filters are built at startup in one streaming pass, before which every check answers
+ * "maybe". This process's inserts and decisions then update them directly, and a catch-up pass
+ * adds what other instances inserted. A periodic rebuild resizes the filters for growth and sheds
+ * pending SSNs that were decided elsewhere. Every race between these paths leaves an extra value
+ * in a filter rather than losing one, so a "no" stays definite.
+ */
+@Service
+@Slf4j
+public class SsnFilterService implements MeterBinder {
+
+    static final Duration CATCH_UP_OVERLAP = Duration.ofSeconds(5);
+    static final int PAGE_SIZE = 10_000;
+
+    private final CreditCardApplicationRepository applicationRepository;
+    private final CustomerRepository customerRepository;
+    private final double fpp;
+    private final long minCustomers;
+    private final long minPending;
+    private final KeyedHash keyedHash = KeyedHash.random();
+
+    private final Outcomes customerOutcomes = new Outcomes();
+    private final Outcomes pendingOutcomes = new Outcomes();
+
+    private volatile Filters live;
+    // Receives this process's inserts while a rebuild streams, so none fall between old and new filters
+    private volatile Filters building;
+    private LocalDateTime caughtUpTo;
+
+    public SsnFilterService(CreditCardApplicationRepository applicationRepository,
+                            CustomerRepository customerRepository,
+                            @Value("${ssn-filter.fpp:0.01}") double fpp,
+                            @Value("${ssn-filter.customers.min-expected:1000000}") long minCustomers,
+                            @Value("${ssn-filter.pending.min-expected:100000}") long minPending) {
+        this.applicationRepository = applicationRepository;
+        this.customerRepository = customerRepository;
+        this.fpp = fpp;
+        this.minCustomers = minCustomers;
+        this.minPending = minPending;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${ssn-filter.rebuild-interval:PT1H}",
+            initialDelayString = "${ssn-filter.rebuild-interval:PT1H}")
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime from = LocalDateTime.now();
+        // Twice the current size, so the filters stay near their target rate until the next rebuild
+        Filters next = new Filters(
+                new BloomFilter(Math.max(minCustomers, 2 * customerRepository.count()), fpp),
+                new CountingBloomFilter(Math.max(minPending,
+                        2 * applicationRepository.countByStatusIn(CreditCardApplication.ApplicationStatus.UNDECIDED)), fpp));
+        building = next;
+        try {
+            long customers = 0;
+            List<String> page;
+            String after = "";
+            do {
+                page = customerRepository.findSsnsAfter(after, Limit.of(PAGE_SIZE));
+                for (String ssn : page) {
+                    next.customers.add(hash(ssn));
+                }
+                customers += page.size();
+                after = page.isEmpty() ? after : page.get(page.size() - 1);
+            } while (page.size() == PAGE_SIZE);
+
+            LongAdder pending = new LongAdder();
+            try (Stream<String> ssns = applicationRepository.streamCustomerSsnsByStatusIn(
+                    CreditCardApplication.ApplicationStatus.UNDECIDED)) {
+                ssns.forEach(ssn -> {
+                    next.pending.add(hash(ssn));
+                    pending.increment();
+                });
+            }
+
+            live = next;
+            caughtUpTo = from;
+            log.info("Built SSN filters from {} customers and {} pending applications in {} ms",
+                    customers, pending.sum(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Adds the customers and pending applications inserted since the last pass, by any instance.
+     */
+    @Scheduled(fixedDelayString = "${ssn-filter.catch-up-interval:PT10S}")
+    @Transactional(readOnly = true)
+    public synchronized void catchUp() {
+        Filters filters = live;
+        if (filters == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // Rows can commit a little after their created_at
+        LocalDateTime since = caughtUpTo.minus(CATCH_UP_OVERLAP);
+        for (String ssn : customerRepository.findSsnsCreatedSince(since)) {
+            filters.customers.add(hash(ssn));
+        }
+        for (String ssn : applicationRepository.findCustomerSsnsByStatusInCreatedSince(
+                CreditCardApplication.ApplicationStatus.UNDECIDED, since)) {
+            filters.pending.add(hash(ssn));
+        }
+        caughtUpTo = now;
+    }
+
+    /**
+     * {@code false} if no customer has this SSN; {@code true} means the database has to tell.
+     */
+    public boolean mightBeCustomer(String ssn) {
+        Filters filters = live;
+        if (filters == null) {
+            return true;
+        }
+        boolean maybe = filters.customers.mightContain(hash(ssn));
+        customerOutcomes.checked(maybe);
+        return maybe;
+    }
+
+    /**
+     * Reports what the database said after {@link #mightBeCustomer} answered "maybe".
+     */
+    public void customerLookedUp(boolean found) {
+        if (live != null) {
+            customerOutcomes.lookedUp(found);
+        }
+    }
+
+    /**
+     * {@code false} if this SSN has no pending application; {@code true} means the database has to tell.
+     */
+    public boolean mightHavePending(String ssn) {
+        Filters filters = live;
+        if (filters == null) {
+            return true;
+        }
+        boolean maybe = filters.pending.mightContain(hash(ssn));
+        pendingOutcomes.checked(maybe);
+        return maybe;
+    }
+
+    public void pendingLookedUp(boolean found) {
+        if (live != null) {
+            pendingOutcomes.lookedUp(found);
+        }
+    }
+
+    public void customerAdded(String ssn) {
+        long hash = hash(ssn);
+        forEachFilters(filters -> filters.customers.add(hash));
+    }
+
+    // Added at once, even if the transaction later rolls back: an extra value is only a false positive
+    public void pendingAdded(String ssn) {
+        long hash = hash(ssn);
+        forEachFilters(filters -> filters.pending.add(hash));
+    }
+
+    /**
+     * Removes the SSN from the pending filter once the application's decision commits; removed
+     * earlier, a rollback would leave a pending application the filter says is not there.
+     */
+    public void pendingRemoved(String ssn) {
+        long hash = hash(ssn);
+        Runnable remove = () -> {
+            Filters filters = live;
+            if (filters != null) {
+                filters.pending.remove(hash);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove.run();
+                }
+            });
+        } else {
+            remove.run();
+        }
+    }
+
+    public boolean isReady() {
+        return live != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "customers", customerOutcomes, filters -> filters.customers.expectedFpp());
+        bind(registry, "pending", pendingOutcomes, filters -> filters.pending.expectedFpp());
+    }
+
+    private void bind(MeterRegistry registry, String filter, Outcomes outcomes,
+                      ToDoubleFunction<Filters> expectedFpp) {
+        FunctionCounter.builder("ssn.filter.queries.skipped", outcomes.negatives, LongAdder::sum)
+                .tag("filter", filter)
+                .description("Database lookups skipped because the filter ruled the SSN out")
+                .register(registry);
+        FunctionCounter.builder("ssn.filter.false.positives", outcomes.falsePositives, LongAdder::sum)
+                .tag("filter", filter)
+                .description("Lookups the filter let through that found nothing")
+                .register(registry);
+        Gauge.builder("ssn.filter.false.positive.rate", outcomes, Outcomes::falsePositiveRate)
+                .tag("filter", filter)
+                .description("Observed share of absent SSNs the filter did not rule out")
+                .register(registry);
+        Gauge.builder("ssn.filter.expected.fpp", this, service -> {
+                    Filters filters = service.live;
+                    return filters != null ? expectedFpp.applyAsDouble(filters) : Double.NaN;
+                })
+                .tag("filter", filter)
+                .description("False-positive rate predicted from the filter's fill")
+                .register(registry);
+    }
+
+    private void forEachFilters(Consumer<Filters> update) {
+        Filters filters = live;
+        if (filters != null) {
+            update.accept(filters);
+        }
+        Filters next = building;
+        if (next != null && next != filters) {
+            update.accept(next);
+        }
+    }
+
+    private long hash(String ssn) {
+        return keyedHash.hash(ssn);
+    }
+
+    private record Filters(BloomFilter customers, CountingBloomFilter pending) {
+    }
+
+    private static final class Outcomes {
+
+        private final LongAdder negatives = new LongAdder();
+        private final LongAdder positives = new LongAdder();
+        private final LongAdder falsePositives = new LongAdder();
+
+        private void checked(boolean maybe) {
+            (maybe ? positives : negatives).increment();
+        }
+
+        private void lookedUp(boolean found) {
+            if (!found) {
+                falsePositives.increment();
+            }
+        }
+
+        private double falsePositiveRate() {
+            double falsePositive = falsePositives.sum();
+            double absent = falsePositive + negatives.sum();
+            return absent == 0 ? 0.0 : falsePositive / absent;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.model.ApplicationStageTiming;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects stage timings from the decision pipeline and writes them in JDBC batches on a schedule.
+ * Recording only offers to a bounded queue, so a slow or unavailable database costs the pipeline
+ * nothing: when the queue is full, or a batch cannot be written, the timings are dropped and counted.
+ */
+@Service
+@Slf4j
+public class StageTimingRecorder implements MeterBinder {
+
+    private static final String INSERT = """
+            INSERT INTO application_stage_timings (application_id, status, decided_at, queue_wait_ms,
+                                                   compliance_ms, bureau_ms, scoring_ms, persist_ms, total_ms)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<ApplicationStageTiming> queue;
+    private final int batchSize;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public StageTimingRecorder(JdbcTemplate jdbcTemplate,
+                               @Value("${pipeline.timings.queue-capacity:10000}") int queueCapacity,
+                               @Value("${pipeline.timings.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    public void record(ApplicationStageTiming timing) {
+        if (!queue.offer(timing)) {
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pipeline.timings.flush-interval:PT1S}")
+    @PreDestroy
+    public void flush() {
+        List<ApplicationStageTiming> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, timing) -> {
+                    statement.setObject(1, timing.getApplicationId());
+                    statement.setString(2, timing.getStatus().name());
+                    statement.setTimestamp(3, Timestamp.valueOf(timing.getDecidedAt()));
+                    statement.setObject(4, timing.getQueueWaitMs(), Types.INTEGER);
+                    statement.setObject(5, timing.getComplianceMs(), Types.INTEGER);
+                    statement.setObject(6, timing.getBureauMs(), Types.INTEGER);
+                    statement.setObject(7, timing.getScoringMs(), Types.INTEGER);
+                    statement.setObject(8, timing.getPersistMs(), Types.INTEGER);
+                    statement.setInt(9, timing.getTotalMs());
+                });
+                written.add(batch.size());
+            } catch (DataAccessException e) {
+                dropped.add(batch.size());
+                log.warn("Could not write {} stage timings: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pipeline.timings.written", written, LongAdder::sum)
+                .description("Stage timings written to application_stage_timings")
+                .register(registry);
+        FunctionCounter.builder("pipeline.timings.dropped", dropped, LongAdder::sum)
+                .description("Stage timings dropped because the queue was full or the write failed")
+                .register(registry);
+    }
+}
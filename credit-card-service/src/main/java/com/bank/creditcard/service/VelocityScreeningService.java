@@ -0,0 +1,183 @@
+package com.bank.creditcard.service;
+
+import com.bank.creditcard.dto.VelocityRecord;
+import com.bank.creditcard.model.Customer;
+import com.bank.creditcard.repository.CreditCardApplicationRepository;
+import com.bank.creditcard.velocity.KeyedHash;
+import com.bank.creditcard.velocity.VelocityCounters;
+import com.bank.creditcard.velocity.VelocityDimension;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Counts applications per SSN, phone, email, address and device over a sliding window, in memory.
+ * Every committed application is counted once; the AML check then compares the counts for the
+ * applicant's identifiers against per-dimension limits. Identifiers are only held as keyed hashes,
+ * under a key that never leaves the process.
+ *
+ * <p>The counts mirror the database rather than this instance: they are rebuilt from recent
+ * applications at startup, and a catch-up pass every {@code catch-up-interval} adds what any
+ * instance has committed since, so spreading submissions over instances does not raise the limits.
+ * This process's own submissions are counted as soon as they commit. Each application is counted
+ * by id, so the overlapping catch-up never counts one twice.
+ */
+@Service
+@Slf4j
+public class VelocityScreeningService {
+
+    static final Duration CATCH_UP_OVERLAP = Duration.ofSeconds(5);
+
+    private static final VelocityDimension[] DIMENSIONS = VelocityDimension.values();
+
+    private final CreditCardApplicationRepository applicationRepository;
+    private final VelocityCounters velocityCounters;
+    private final Duration window;
+    private final Map<VelocityDimension, Integer> limits = new EnumMap<>(VelocityDimension.class);
+    private final KeyedHash keyedHash = KeyedHash.random();
+    // Applications counted that a catch-up pass may return again, with their createdAt
+    private final Map<UUID, LocalDateTime> counted = new ConcurrentHashMap<>();
+    private LocalDateTime caughtUpTo;
+
+    public VelocityScreeningService(CreditCardApplicationRepository applicationRepository,
+                                    VelocityCounters velocityCounters,
+                                    @Value("${velocity.window:PT24H}") Duration window,
+                                    @Value("${velocity.limits.ssn:3}") int ssnLimit,
+                                    @Value("${velocity.limits.phone:3}") int phoneLimit,
+                                    @Value("${velocity.limits.email:3}") int emailLimit,
+                                    @Value("${velocity.limits.address:5}") int addressLimit,
+                                    @Value("${velocity.limits.device:5}") int deviceLimit) {
+        this.applicationRepository = applicationRepository;
+        this.velocityCounters = velocityCounters;
+        this.window = window;
+        limits.put(VelocityDimension.SSN, ssnLimit);
+        limits.put(VelocityDimension.PHONE, phoneLimit);
+        limits.put(VelocityDimension.EMAIL, emailLimit);
+        limits.put(VelocityDimension.ADDRESS, addressLimit);
+        limits.put(VelocityDimension.DEVICE, deviceLimit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime from = LocalDateTime.now();
+        long count = countSince(from.minus(window));
+        caughtUpTo = from;
+        log.info("Rebuilt velocity counters from {} applications in {} ms",
+                count, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Counts the applications any instance committed since the last pass.
+     */
+    @Scheduled(fixedDelayString = "${velocity.catch-up-interval:PT1S}")
+    @Transactional(readOnly = true)
+    public synchronized void catchUp() {
+        if (caughtUpTo == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // Rows can commit a little after their created_at
+        LocalDateTime since = caughtUpTo.minus(CATCH_UP_OVERLAP);
+        countSince(since);
+        caughtUpTo = now;
+        // Older ones are before every later pass's overlap
+        counted.values().removeIf(createdAt -> createdAt.isBefore(since));
+    }
+
+    /**
+     * Counts a committed application against each of the applicant's identifiers, once however
+     * often it is recorded.
+     */
+    public void record(UUID applicationId, Customer customer, String deviceId, LocalDateTime submittedAt) {
+        record(applicationId, identifiers(customer, deviceId), submittedAt);
+    }
+
+    /**
+     * The dimensions on which the applicant is over the limit, empty if none. Applications recorded
+     * so far count, including the one being screened.
+     */
+    public List<VelocityDimension> exceededLimits(Customer customer, String deviceId) {
+        String[] identifiers = identifiers(customer, deviceId);
+        List<VelocityDimension> exceeded = new ArrayList<>(0);
+        for (VelocityDimension dimension : DIMENSIONS) {
+            String identifier = identifiers[dimension.ordinal()];
+            if (identifier != null && velocityCounters.count(key(dimension, identifier)) > limits.get(dimension)) {
+                exceeded.add(dimension);
+            }
+        }
+        return exceeded;
+    }
+
+    @Scheduled(fixedDelayString = "${velocity.sweep-interval:PT5M}")
+    public void evictExpired() {
+        int removed = velocityCounters.evictExpired();
+        log.debug("Evicted {} expired velocity keys, {} remain", removed, velocityCounters.size());
+    }
+
+    private long countSince(LocalDateTime since) {
+        LongAdder count = new LongAdder();
+        try (Stream<VelocityRecord> records = applicationRepository.streamVelocityRecordsSince(since)) {
+            records.forEach(record -> {
+                record(record.getId(), identifiers(record.getSsn(), record.getPhoneNumber(), record.getEmail(),
+                        record.getStreetAddress(), record.getZipCode(), record.getDeviceId()), record.getCreatedAt());
+                count.increment();
+            });
+        }
+        return count.sum();
+    }
+
+    private void record(UUID applicationId, String[] identifiers, LocalDateTime at) {
+        if (counted.putIfAbsent(applicationId, at) != null) {
+            return;
+        }
+        long epochMillis = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (VelocityDimension dimension : DIMENSIONS) {
+            String identifier = identifiers[dimension.ordinal()];
+            if (identifier != null) {
+                velocityCounters.increment(key(dimension, identifier), epochMillis);
+            }
+        }
+    }
+
+    private long key(VelocityDimension dimension, String identifier) {
+        // The dimension is part of the hashed value, so equal strings in two dimensions stay apart
+        return keyedHash.hash(dimension.ordinal() + ":" + identifier);
+    }
+
+    private static String[] identifiers(Customer customer, String deviceId) {
+        return identifiers(customer.getSsn(), customer.getPhoneNumber(), customer.getEmail(),
+                customer.getAddress() != null ? customer.getAddress().getStreetAddress() : null,
+                customer.getAddress() != null ? customer.getAddress().getZipCode() : null, deviceId);
+    }
+
+    private static String[] identifiers(String ssn, String phoneNumber, String email, String streetAddress,
+                                        String zipCode, String deviceId) {
+        String[] identifiers = new String[DIMENSIONS.length];
+        identifiers[VelocityDimension.SSN.ordinal()] = VelocityDimension.SSN.normalize(ssn);
+        identifiers[VelocityDimension.PHONE.ordinal()] = VelocityDimension.PHONE.normalize(phoneNumber);
+        identifiers[VelocityDimension.EMAIL.ordinal()] = VelocityDimension.EMAIL.normalize(email);
+        identifiers[VelocityDimension.ADDRESS.ordinal()] = streetAddress != null && zipCode != null
+                ? VelocityDimension.ADDRESS.normalize(streetAddress + " " + zipCode)
+                : null;
+        identifiers[VelocityDimension.DEVICE.ordinal()] = VelocityDimension.DEVICE.normalize(deviceId);
+        return identifiers;
+    }
+}
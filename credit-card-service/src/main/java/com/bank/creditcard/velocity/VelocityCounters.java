@@ -0,0 +1,195 @@
+package com.bank.creditcard.velocity;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window event counts per 64-bit key. Each key holds a ring of {@code buckets} counters
+ * covering {@code window}; a count sums the buckets still inside the window, so both an increment
+ * and a count are a hash lookup plus a few dozen additions.
+ *
+ * <p>Keys are spread over lock stripes so concurrent submissions rarely wait on each other. Each
+ * stripe holds at most {@code maxKeys / stripes} keys and drops its least recently used one when
+ * full; {@link #evictExpired()} removes keys whose whole window has passed.
+ */
+public class VelocityCounters implements MeterBinder {
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final Stripe[] stripes;
+    private final LongSupplier clock;
+    private final LongAdder evictions = new LongAdder();
+
+    public VelocityCounters(Duration window, int buckets, int stripes, int maxKeys) {
+        this(window, buckets, stripes, maxKeys, System::currentTimeMillis);
+    }
+
+    VelocityCounters(Duration window, int buckets, int stripes, int maxKeys, LongSupplier clock) {
+        if (buckets < 1 || window.toMillis() % buckets != 0) {
+            throw new IllegalArgumentException("Window " + window + " does not split into " + buckets + " buckets");
+        }
+        if (Integer.bitCount(stripes) != 1 || maxKeys < stripes) {
+            throw new IllegalArgumentException("Stripes must be a power of two no larger than maxKeys, got "
+                    + stripes + " for " + maxKeys);
+        }
+        this.bucketMillis = window.toMillis() / buckets;
+        this.buckets = buckets;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(maxKeys / stripes);
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Counts one event for {@code key} at {@code epochMillis}; events already outside the window are ignored.
+     */
+    public void increment(long key, long epochMillis) {
+        long bucket = Math.floorDiv(epochMillis, bucketMillis);
+        if (bucket <= currentBucket() - buckets) {
+            return;
+        }
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Counts counts = stripe.keys.get(key);
+            if (counts == null) {
+                counts = new Counts(bucket, buckets);
+                stripe.keys.put(key, counts);
+            }
+            counts.add(bucket);
+        }
+    }
+
+    /**
+     * Events for {@code key} within the window ending now.
+     */
+    public int count(long key) {
+        long now = currentBucket();
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Counts counts = stripe.keys.get(key);
+            return counts != null ? counts.sum(now) : 0;
+        }
+    }
+
+    /**
+     * Drops every key with no events left in the window; returns how many were dropped.
+     */
+    public int evictExpired() {
+        long now = currentBucket();
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<Counts> iterator = stripe.keys.values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().newest <= now - buckets) {
+                        iterator.remove();
+                        removed++;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.keys.size();
+            }
+        }
+        return size;
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("velocity.keys", this, VelocityCounters::size)
+                .description("Identifiers with a velocity window in memory")
+                .register(registry);
+        FunctionCounter.builder("velocity.evictions", evictions, LongAdder::sum)
+                .description("Identifiers dropped before their window expired because the table was full")
+                .register(registry);
+    }
+
+    private long currentBucket() {
+        return Math.floorDiv(clock.getAsLong(), bucketMillis);
+    }
+
+    private Stripe stripe(long key) {
+        // Keys are hash outputs already; fold the high bits in so either half picks the stripe
+        return stripes[(int) (key ^ (key >>> 32)) & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+
+        private final LinkedHashMap<Long, Counts> keys;
+
+        private Stripe(int capacity) {
+            this.keys = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Counts> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    /**
+     * Ring of per-bucket counts; slot {@code b % length} holds bucket {@code b} for the last
+     * {@code length} buckets up to {@code newest}.
+     */
+    private static final class Counts {
+
+        private final int[] slots;
+        private long newest;
+
+        private Counts(long bucket, int length) {
+            this.slots = new int[length];
+            this.newest = bucket;
+        }
+
+        private void add(long bucket) {
+            if (bucket > newest) {
+                long cleared = Math.min(bucket - newest, slots.length);
+                for (long b = bucket - cleared + 1; b <= bucket; b++) {
+                    slots[slot(b)] = 0;
+                }
+                newest = bucket;
+            } else if (bucket <= newest - slots.length) {
+                return;
+            }
+            slots[slot(bucket)]++;
+        }
+
+        private int sum(long now) {
+            // Buckets after now only exist if the clock stepped back; count them rather than lose them
+            int sum = 0;
+            for (long b = Math.max(now, newest) - slots.length + 1; b <= newest; b++) {
+                sum += slots[slot(b)];
+            }
+            return sum;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) slots.length);
+        }
+    }
+}
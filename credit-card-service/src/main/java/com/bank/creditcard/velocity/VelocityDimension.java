@@ -0,0 +1,37 @@
+package com.bank.creditcard.velocity;
+
+import java.util.Locale;
+
+/**
+ * An identifier that applications are counted by. Values are normalized first, so that
+ * "+1 (555) 010-0100" and "555.010.0100" count as the same phone.
+ */
+public enum VelocityDimension {
+    SSN,
+    PHONE,
+    EMAIL,
+    ADDRESS,
+    DEVICE;
+
+    /**
+     * The canonical form of {@code value}, or {@code null} if there is nothing to count.
+     */
+    public String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = switch (this) {
+            case SSN -> value.replaceAll("\\D", "");
+            case PHONE -> nationalNumber(value.replaceAll("\\D", ""));
+            case EMAIL -> value.trim().toLowerCase(Locale.ROOT);
+            case ADDRESS -> value.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ");
+            case DEVICE -> value.trim();
+        };
+        return normalized.isBlank() ? null : normalized;
+    }
+
+    // The +1 country code is optional in US numbers
+    private static String nationalNumber(String digits) {
+        return digits.length() == 11 && digits.charAt(0) == '1' ? digits.substring(1) : digits;
+    }
+}
@@ -0,0 +1,4 @@
+-- V10__add_application_channel.sql
+
+-- Where the application came from; the pipeline scheduler ranks branch applications first
+ALTER TABLE credit_card_applications ADD COLUMN channel VARCHAR(16) NOT NULL DEFAULT 'ONLINE';
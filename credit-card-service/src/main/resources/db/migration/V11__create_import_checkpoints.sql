@@ -0,0 +1,15 @@
+-- V11__create_import_checkpoints.sql
+
+-- Progress of bulk CSV imports; written in the same transaction as each imported batch,
+-- so a restarted import continues from the first row that was not committed
+CREATE TABLE import_checkpoints (
+    source VARCHAR(500) PRIMARY KEY,
+    file_size BIGINT NOT NULL,
+    byte_offset BIGINT NOT NULL,
+    rows_read BIGINT NOT NULL DEFAULT 0,
+    rows_rejected BIGINT NOT NULL DEFAULT 0,
+    applications_imported BIGINT NOT NULL DEFAULT 0,
+    customers_imported BIGINT NOT NULL DEFAULT 0,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,17 @@
+-- V12__create_application_stage_timings.sql
+
+-- Per-stage durations of each decision, in milliseconds; null for stages the application skipped
+CREATE TABLE application_stage_timings (
+    application_id UUID PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    decided_at TIMESTAMP NOT NULL,
+    queue_wait_ms INTEGER,
+    compliance_ms INTEGER,
+    bureau_ms INTEGER,
+    scoring_ms INTEGER,
+    persist_ms INTEGER,
+    total_ms INTEGER NOT NULL,
+    FOREIGN KEY (application_id) REFERENCES credit_card_applications(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_stage_timings_decided_at ON application_stage_timings(decided_at);
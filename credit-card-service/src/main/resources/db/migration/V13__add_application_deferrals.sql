@@ -0,0 +1,8 @@
+-- V13__add_application_deferrals.sql
+
+-- Times the decision pipeline ran out of budget and parked the application as DEFERRED
+ALTER TABLE credit_card_applications ADD COLUMN deferrals INTEGER NOT NULL DEFAULT 0;
+
+-- The retry sweep reads deferred applications oldest first
+CREATE INDEX idx_applications_deferred ON credit_card_applications(updated_at)
+    WHERE status = 'DEFERRED';
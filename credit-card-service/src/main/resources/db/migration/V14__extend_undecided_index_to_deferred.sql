@@ -0,0 +1,7 @@
+-- V14__extend_undecided_index_to_deferred.sql
+
+-- DEFERRED applications are undecided too; the duplicate-pending check, the SSN filters and the
+-- backlog all ask for PENDING, IN_REVIEW and DEFERRED together, which the V2 predicate did not cover
+DROP INDEX IF EXISTS idx_applications_undecided;
+CREATE INDEX idx_applications_undecided ON credit_card_applications(status, created_at)
+    WHERE status IN ('PENDING', 'IN_REVIEW', 'DEFERRED');
@@ -0,0 +1,16 @@
+-- V2__add_query_indexes.sql
+
+-- Duplicate-pending check (existsByCustomerSsnAndStatus) and per-customer lookups
+-- resolve the customer first, then probe applications by (customer_id, status)
+CREATE INDEX idx_applications_customer_status ON credit_card_applications(customer_id, status);
+
+-- Only a small fraction of rows is ever undecided; keep the work queue index small
+CREATE INDEX idx_applications_undecided ON credit_card_applications(status, created_at)
+    WHERE status IN ('PENDING', 'IN_REVIEW');
+
+-- Superseded by idx_applications_customer_status
+DROP INDEX IF EXISTS idx_applications_customer;
+
+-- Duplicates of the indexes backing the UNIQUE constraints on ssn and email
+DROP INDEX IF EXISTS idx_customers_ssn;
+DROP INDEX IF EXISTS idx_customers_email;
@@ -0,0 +1,5 @@
+-- V3__add_decided_at_index.sql
+
+-- Range scans over decisions (analytics rebuild, exports)
+CREATE INDEX idx_applications_decided_at ON credit_card_applications(decided_at)
+    WHERE decided_at IS NOT NULL;
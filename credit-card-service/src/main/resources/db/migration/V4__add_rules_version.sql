@@ -0,0 +1,4 @@
+-- V4__add_rules_version.sql
+-- Version of the decision rules an application was scored with
+
+ALTER TABLE credit_card_applications ADD COLUMN rules_version VARCHAR(40);
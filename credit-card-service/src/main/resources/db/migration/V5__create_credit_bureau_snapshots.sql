@@ -0,0 +1,10 @@
+-- V5__create_credit_bureau_snapshots.sql
+
+-- Bureau report as received at decision time, encoded by BureauReportCodec
+CREATE TABLE credit_bureau_snapshots (
+    application_id UUID PRIMARY KEY,
+    encoding_version SMALLINT NOT NULL,
+    payload BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (application_id) REFERENCES credit_card_applications(id) ON DELETE CASCADE
+);
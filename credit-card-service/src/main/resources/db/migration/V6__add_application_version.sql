@@ -0,0 +1,4 @@
+-- V6__add_application_version.sql
+-- Optimistic-lock version; bumped on every update and used as the application's ETag
+
+ALTER TABLE credit_card_applications ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
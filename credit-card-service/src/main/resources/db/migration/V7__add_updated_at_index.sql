@@ -0,0 +1,5 @@
+-- V7__add_updated_at_index.sql
+
+-- Status watchers poll for applications changed since their last look (reactive profile)
+CREATE INDEX idx_applications_updated_at ON credit_card_applications(updated_at)
+    WHERE updated_at IS NOT NULL;
@@ -0,0 +1,7 @@
+-- V8__add_application_device_id.sql
+
+-- Device fingerprint sent by the client, counted in velocity screening
+ALTER TABLE credit_card_applications ADD COLUMN device_id VARCHAR(128);
+
+-- Velocity rebuild at startup reads the last day of submissions
+CREATE INDEX idx_applications_created_at ON credit_card_applications(created_at);
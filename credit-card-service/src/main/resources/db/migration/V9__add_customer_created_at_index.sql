@@ -0,0 +1,4 @@
+-- V9__add_customer_created_at_index.sql
+
+-- SSN filter catch-up reads the customers created since its last pass
+CREATE INDEX idx_customers_created_at ON customers(created_at);
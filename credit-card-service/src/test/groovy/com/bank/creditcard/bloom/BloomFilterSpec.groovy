@@ -0,0 +1,52 @@
+package com.bank.creditcard.bloom
+
+import spock.lang.Specification
+
+class BloomFilterSpec extends Specification {
+
+    def "should size bits and hash count for the target rate"() {
+        when:
+        def filter = new BloomFilter(1_000_000, 0.01)
+
+        then: "about 9.6 bits and 7 probes per value at 1%"
+        filter.bitSize() == 9_585_059
+        filter.hashCount() == 7
+    }
+
+    def "should never report an added value as absent"() {
+        given:
+        def filter = new BloomFilter(10_000, 0.01)
+        def random = new SplittableRandom(7)
+        def added = (1..10_000).collect { random.nextLong() }
+
+        when:
+        added.each { filter.add(it) }
+
+        then:
+        added.every { filter.mightContain(it) }
+    }
+
+    def "should stay near the target false-positive rate when full"() {
+        given:
+        def filter = new BloomFilter(10_000, 0.01)
+        def random = new SplittableRandom(11)
+        10_000.times { filter.add(random.nextLong()) }
+
+        when: "probing values that were never added"
+        def falsePositives = (1..100_000).count { filter.mightContain(random.nextLong()) }
+
+        then:
+        falsePositives / 100_000 < 0.015
+        filter.expectedFpp() > 0.005
+        filter.expectedFpp() < 0.015
+    }
+
+    def "should report an empty filter as holding nothing"() {
+        given:
+        def filter = new BloomFilter(100, 0.01)
+
+        expect:
+        !filter.mightContain(42L)
+        filter.expectedFpp() == 0.0
+    }
+}
@@ -0,0 +1,62 @@
+package com.bank.creditcard.bloom
+
+import spock.lang.Specification
+
+class CountingBloomFilterSpec extends Specification {
+
+    def filter = new CountingBloomFilter(1_000, 0.01)
+
+    def "should forget a removed value and keep the others"() {
+        given:
+        def random = new SplittableRandom(3)
+        def values = (1..1_000).collect { random.nextLong() }
+        values.each { filter.add(it) }
+
+        when:
+        def removed = values.take(500)
+        removed.each { filter.remove(it) }
+
+        then: "every remaining value is still present"
+        values.drop(500).every { filter.mightContain(it) }
+
+        and: "almost every removed one is gone"
+        removed.count { filter.mightContain(it) } < 25
+    }
+
+    def "should keep a value added twice until it is removed twice"() {
+        when:
+        filter.add(42L)
+        filter.add(42L)
+        filter.remove(42L)
+
+        then:
+        filter.mightContain(42L)
+
+        when:
+        filter.remove(42L)
+
+        then:
+        !filter.mightContain(42L)
+        filter.expectedFpp() == 0.0
+    }
+
+    def "should ignore removal of a value that was never added"() {
+        given:
+        filter.add(42L)
+
+        expect:
+        !filter.remove(7L)
+        filter.mightContain(42L)
+    }
+
+    def "should keep a saturated counter rather than drop values that share it"() {
+        given: "one value added past the 4-bit counter limit"
+        20.times { filter.add(42L) }
+
+        when: "removed as often as it was added"
+        20.times { filter.remove(42L) }
+
+        then: "the saturated counters still hold it"
+        filter.mightContain(42L)
+    }
+}
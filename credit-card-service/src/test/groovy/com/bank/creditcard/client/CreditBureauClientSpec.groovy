@@ -1,9 +1,11 @@
 package com.bank.creditcard.client
 
 import com.bank.creditcard.dto.CreditBureauReport
+import com.bank.creditcard.exception.DeadlineExceededException
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.time.Duration
 import java.time.LocalDate
 
 class CreditBureauClientSpec extends Specification {
@@ -151,4 +153,34 @@ class CreditBureauClientSpec extends Specification {
         endTime - startTime >= 1000 // At least 1 second (2 calls with 500-1000ms delay each)
         endTime - startTime < 3000  // Less than 3 seconds
     }
+
+    def "should answer within a timeout it can meet"() {
+        when:
+        def report = client.getCreditReport("123-45-6789", Duration.ofSeconds(5))
+
+        then:
+        report.ssn == "123-45-6789"
+    }
+
+    def "should give up once the timeout has passed"() {
+        when: "the bureau always takes at least 500ms"
+        def start = System.nanoTime()
+        client.getCreditReport("123-45-6789", Duration.ofMillis(50))
+
+        then:
+        def e = thrown(DeadlineExceededException)
+        e.stage == "bureau"
+        Duration.ofNanos(System.nanoTime() - start) < Duration.ofMillis(500)
+    }
+
+    def "should mask all but the last four SSN digits"() {
+        expect:
+        CreditBureauClient.maskSsn(ssn) == masked
+
+        where:
+        ssn           | masked
+        "123-45-6789" | "***-**-6789"
+        "123"         | "***-**-****"
+        null          | "***-**-****"
+    }
 }
@@ -0,0 +1,146 @@
+package com.bank.creditcard.concurrency
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.dao.QueryTimeoutException
+import org.springframework.transaction.CannotCreateTransactionException
+import spock.lang.Specification
+
+import java.sql.SQLTransientConnectionException
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+class AdaptiveConcurrencyLimiterSpec extends Specification {
+
+    long now = 0
+    def limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 8, Duration.ofMillis(100), { now })
+
+    def "should turn calls away once the limit is in flight"() {
+        when:
+        def permits = (1..4).collect { limiter.tryAcquire() }
+
+        then:
+        permits.every { it != null }
+        limiter.tryAcquire() == null
+        limiter.rejectedCount == 1
+        limiter.inFlight == 4
+
+        when:
+        permits[0].close()
+
+        then:
+        limiter.tryAcquire() != null
+    }
+
+    def "should back off multiplicatively on slow calls and down to the minimum"() {
+        when: "a call exceeds the latency bound"
+        def permit = limiter.tryAcquire()
+        now += TimeUnit.MILLISECONDS.toNanos(150)
+        permit.close()
+
+        then:
+        limiter.limit == 3  // 4 * 0.9
+
+        when: "the downstream stays slow"
+        20.times {
+            def p = limiter.tryAcquire()
+            now += TimeUnit.MILLISECONDS.toNanos(150)
+            p.close()
+        }
+
+        then:
+        limiter.limit == 1
+    }
+
+    def "should back off on dropped calls regardless of latency"() {
+        when:
+        def permit = limiter.tryAcquire()
+        permit.dropped()
+        permit.close()
+
+        then:
+        limiter.limit == 3
+    }
+
+    def "should grow additively while the limit is in use and never past the maximum"() {
+        when: "rounds of fast calls that fill the limit"
+        50.times {
+            def permits = (1..limiter.limit).collect { limiter.tryAcquire() }
+            now += TimeUnit.MILLISECONDS.toNanos(10)
+            permits*.close()
+        }
+
+        then:
+        limiter.limit == 8
+    }
+
+    def "should not grow while mostly idle"() {
+        when: "single fast calls against a limit of four"
+        100.times {
+            def permit = limiter.tryAcquire()
+            now += TimeUnit.MILLISECONDS.toNanos(10)
+            permit.close()
+        }
+
+        then:
+        limiter.limit == 4
+    }
+
+    def "should ignore a second close"() {
+        when:
+        def permit = limiter.tryAcquire()
+        permit.close()
+        permit.close()
+
+        then:
+        limiter.inFlight == 0
+    }
+
+    def "should wait for a released permit and time out when none comes"() {
+        given:
+        def held = (1..4).collect { limiter.tryAcquire() }
+
+        expect: "a bounded wait expires"
+        limiter.acquire(Duration.ofMillis(20)) == null
+
+        when: "a permit is released while another caller waits"
+        def waiter = CompletableFuture.supplyAsync { limiter.acquire(Duration.ofSeconds(5)) }
+        Thread.sleep(50)
+        held[0].close()
+
+        then:
+        waiter.get(5, TimeUnit.SECONDS) != null
+    }
+
+    def "should recognise overload failures"() {
+        expect:
+        AdaptiveConcurrencyLimiter.isOverload(failure) == overload
+
+        where:
+        failure                                                                       | overload
+        new SQLTransientConnectionException("Connection is not available")            | true
+        new CannotCreateTransactionException("no connection")                         | true
+        new RuntimeException(new QueryTimeoutException("slow"))                       | true
+        new IllegalArgumentException("bad input")                                     | false
+    }
+
+    def "should publish limit, in-flight and rejections"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        limiter.bindTo(registry)
+        limiter.tryAcquire()
+
+        expect:
+        registry.get("concurrency.limit").tag("limiter", "test").gauge().value() == 4
+        registry.get("concurrency.in.flight").tag("limiter", "test").gauge().value() == 1
+        registry.get("concurrency.rejected").tag("limiter", "test").functionCounter().count() == 0
+    }
+
+    def "should reject inconsistent limits"() {
+        when:
+        new AdaptiveConcurrencyLimiter("bad", 4, 0, 8, Duration.ofSeconds(1))
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,87 @@
+package com.bank.creditcard.concurrency
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import jakarta.servlet.FilterChain
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Duration
+
+class ConcurrencyLimitFilterSpec extends Specification {
+
+    def limiter = new AdaptiveConcurrencyLimiter("http", 2, 1, 4, Duration.ofSeconds(3))
+    def chain = Mock(FilterChain)
+    def response = new MockHttpServletResponse()
+
+    @Subject
+    def filter = new ConcurrencyLimitFilter(limiter, ["/api/v1/exports"],
+            new ObjectMapper().findAndRegisterModules())
+
+    def "should pass requests through while under the limit and release the permit"() {
+        when:
+        filter.doFilter(request("/api/v1/credit-card-applications/pending"), response, chain)
+
+        then:
+        1 * chain.doFilter(_, _) >> { assert limiter.inFlight == 1 }
+        limiter.inFlight == 0
+        response.status == 200
+    }
+
+    def "should answer 503 with Retry-After when the limit is full"() {
+        given:
+        def held = (1..2).collect { limiter.tryAcquire() }
+
+        when:
+        filter.doFilter(request("/api/v1/credit-card-applications/pending"), response, chain)
+
+        then:
+        0 * chain.doFilter(_, _)
+        response.status == 503
+        response.getHeader("Retry-After") == "1"
+        response.contentType == "application/problem+json"
+        response.contentAsString.contains('"title":"Service Overloaded"')
+
+        cleanup:
+        held*.close()
+    }
+
+    def "should count server errors and exceptions as overload"() {
+        when:
+        filter.doFilter(request("/api/v1/credit-card-applications"), response, chain)
+
+        then:
+        1 * chain.doFilter(_, _) >> { req, res -> res.status = 500 }
+        limiter.limit == 1
+
+        when:
+        filter.doFilter(request("/api/v1/credit-card-applications"), new MockHttpServletResponse(), chain)
+
+        then:
+        1 * chain.doFilter(_, _) >> { throw new IllegalStateException("boom") }
+        thrown(IllegalStateException)
+        limiter.inFlight == 0
+    }
+
+    def "should not gate excluded paths"() {
+        given:
+        def held = (1..2).collect { limiter.tryAcquire() }
+
+        when:
+        filter.doFilter(request("/api/v1/exports/decisions"), response, chain)
+
+        then:
+        1 * chain.doFilter(_, _)
+        limiter.rejectedCount == 0
+
+        cleanup:
+        held*.close()
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        def request = new MockHttpServletRequest("GET", path)
+        request.servletPath = path
+        request
+    }
+}
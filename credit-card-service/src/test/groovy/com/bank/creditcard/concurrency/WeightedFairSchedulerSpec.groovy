@@ -0,0 +1,151 @@
+package com.bank.creditcard.concurrency
+
+import com.bank.creditcard.model.CreditCardApplication
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+class WeightedFairSchedulerSpec extends Specification {
+
+    long now = 0
+    List<Runnable> workers = []
+    Executor executor = { Runnable worker -> workers << worker } as Executor
+    List<String> ran = []
+
+    def scheduler(Map<String, Double> weights = [:], int capacity = 1_000) {
+        new WeightedFairScheduler(executor, 1, capacity, Duration.ofSeconds(60), weights, { now })
+    }
+
+    def "should run the more urgent job first whatever the arrival order"() {
+        given:
+        def scheduler = scheduler()
+        scheduler.submit("partner", PipelinePriority.LOW, { ran << "low" })
+        scheduler.submit("branch", PipelinePriority.CRITICAL, { ran << "critical" })
+        scheduler.submit("web", PipelinePriority.NORMAL, { ran << "normal" })
+
+        when:
+        workers.each { it.run() }
+
+        then:
+        ran == ["critical", "normal", "low"]
+    }
+
+    def "should interleave sources of equal priority instead of draining the first batch"() {
+        given: "a partner batch queued ahead of two web applications"
+        def scheduler = scheduler()
+        5.times { i -> scheduler.submit("partner", PipelinePriority.NORMAL, { ran << "partner-$i".toString() }) }
+        2.times { i -> scheduler.submit("web", PipelinePriority.NORMAL, { ran << "web-$i".toString() }) }
+
+        when:
+        workers.each { it.run() }
+
+        then:
+        ran.take(4).count { it.startsWith("web") } == 2
+        ran.size() == 7
+    }
+
+    def "should share the workers in proportion to the source weights"() {
+        given:
+        def scheduler = scheduler(["branch": 3.0d])
+        30.times { scheduler.submit("partner", PipelinePriority.NORMAL, { ran << "partner" }) }
+        30.times { scheduler.submit("branch", PipelinePriority.NORMAL, { ran << "branch" }) }
+
+        when:
+        workers.each { it.run() }
+
+        then: "three branch jobs run for every partner job while both have work"
+        ran.take(20).count { it == "branch" } == 15
+    }
+
+    def "should promote a job one class for every aging interval it waited"() {
+        given: "a low job that has waited two minutes"
+        def scheduler = scheduler()
+        def registry = new SimpleMeterRegistry()
+        scheduler.bindTo(registry)
+        scheduler.submit("partner", PipelinePriority.LOW, { ran << "low" })
+        now += Duration.ofMinutes(2).toNanos()
+        scheduler.submit("web", PipelinePriority.NORMAL, { ran << "normal" })
+
+        when:
+        workers.each { it.run() }
+
+        then: "it now ranks HIGH and goes ahead of fresh NORMAL work"
+        ran == ["low", "normal"]
+        registry.get("pipeline.queue.promoted").functionCounter().count() == 1
+    }
+
+    def "should reject work beyond capacity"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        def scheduler = scheduler([:], 2)
+        scheduler.bindTo(registry)
+        2.times { scheduler.submit("partner", PipelinePriority.LOW, {}) }
+
+        when:
+        scheduler.submit("partner", PipelinePriority.LOW, {})
+
+        then:
+        thrown(RejectedExecutionException)
+        registry.get("pipeline.queue.rejected").functionCounter().count() == 1
+    }
+
+    def "should export depth, age and wait time per priority"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        def scheduler = scheduler()
+        scheduler.bindTo(registry)
+        scheduler.submit("partner", PipelinePriority.LOW, {})
+        scheduler.submit("partner", PipelinePriority.LOW, {})
+        now += Duration.ofSeconds(5).toNanos()
+
+        expect:
+        registry.get("pipeline.queue.depth").tag("priority", "low").gauge().value() == 2
+        registry.get("pipeline.queue.depth").tag("priority", "critical").gauge().value() == 0
+        registry.get("pipeline.queue.oldest").tag("priority", "low").gauge().value() == 5
+
+        when:
+        workers.each { it.run() }
+
+        then:
+        registry.get("pipeline.queue.depth").tag("priority", "low").gauge().value() == 0
+        with(registry.get("pipeline.queue.wait").tag("priority", "low").timer()) {
+            count() == 2
+            totalTime(java.util.concurrent.TimeUnit.SECONDS) == 10
+        }
+    }
+
+    def "should start one drain loop per worker and keep running after a failed job"() {
+        given:
+        def scheduler = scheduler()
+        scheduler.submit("web", PipelinePriority.NORMAL, { throw new IllegalStateException("boom") })
+        scheduler.submit("web", PipelinePriority.NORMAL, { ran << "next" })
+
+        expect: "the second job joins the loop started for the first"
+        workers.size() == 1
+
+        when:
+        workers.each { it.run() }
+
+        then:
+        ran == ["next"]
+        scheduler.size() == 0
+    }
+
+    def "should rank card types and channels"() {
+        expect:
+        PipelinePriority.of(cardType, channel) == expected
+
+        where:
+        cardType                                  | channel                                 | expected
+        CreditCardApplication.CardType.INFINITE  | CreditCardApplication.Channel.BRANCH    | PipelinePriority.CRITICAL
+        CreditCardApplication.CardType.PLATINUM  | CreditCardApplication.Channel.ONLINE    | PipelinePriority.HIGH
+        CreditCardApplication.CardType.CLASSIC   | CreditCardApplication.Channel.BRANCH    | PipelinePriority.HIGH
+        CreditCardApplication.CardType.GOLD      | CreditCardApplication.Channel.ONLINE    | PipelinePriority.NORMAL
+        CreditCardApplication.CardType.INFINITE  | CreditCardApplication.Channel.PARTNER   | PipelinePriority.NORMAL
+        CreditCardApplication.CardType.CLASSIC   | CreditCardApplication.Channel.PARTNER   | PipelinePriority.LOW
+        null                                      | null                                    | PipelinePriority.NORMAL
+    }
+}
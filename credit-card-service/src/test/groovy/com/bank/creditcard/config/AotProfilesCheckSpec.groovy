@@ -0,0 +1,57 @@
+package com.bank.creditcard.config
+
+import org.springframework.mock.env.MockEnvironment
+import spock.lang.Specification
+
+class AotProfilesCheckSpec extends Specification {
+
+    def record = new Properties(profiles: "aws,faststart")
+
+    def "should start with the profiles the AOT context was built for, in any order"() {
+        when:
+        AotProfilesCheck.check(new MockEnvironment().withProperty("spring.profiles.active", active), record)
+
+        then:
+        noExceptionThrown()
+
+        where:
+        active << ["aws,faststart", "faststart, aws"]
+    }
+
+    def "should start with the build profiles when none are requested"() {
+        when:
+        AotProfilesCheck.check(new MockEnvironment(), record)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "should refuse profiles the AOT context was not built for"() {
+        when:
+        AotProfilesCheck.check(new MockEnvironment().withProperty("spring.profiles.active", active), record)
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.contains("built for [aws, faststart]")
+
+        where:
+        active << ["faststart", "aws,faststart,reactive", "dev"]
+    }
+
+    def "should refuse a job switch, since jobs are not in the AOT context"() {
+        when:
+        AotProfilesCheck.check(new MockEnvironment().withProperty("backtest.from", "2024-01-01"), record)
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.startsWith("backtest.from is set")
+    }
+
+    def "should refuse a jar built without processAot"() {
+        when:
+        AotProfilesCheck.check(new MockEnvironment(), null)
+
+        then:
+        thrown(IllegalStateException)
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.creditcard.config
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory
+import org.springframework.beans.factory.support.RootBeanDefinition
+import org.springframework.mock.env.MockEnvironment
+import spock.lang.Specification
+
+class FastStartConfigSpec extends Specification {
+
+    def beanFactory = new DefaultListableBeanFactory()
+
+    def "should mark beans from configured packages lazy and leave the rest eager"() {
+        given:
+        beanFactory.registerBeanDefinition("docs", new RootBeanDefinition("org.springdoc.core.SomeBean"))
+        beanFactory.registerBeanDefinition("service", new RootBeanDefinition("com.bank.creditcard.service.SomeService"))
+        beanFactory.registerBeanDefinition("lookalike", new RootBeanDefinition("org.springdocx.Other"))
+
+        when:
+        def marked = FastStartConfig.markLazy(beanFactory, ["org.springdoc"])
+
+        then:
+        marked == 1
+        beanFactory.getBeanDefinition("docs").isLazyInit()
+        !beanFactory.getBeanDefinition("service").isLazyInit()
+        !beanFactory.getBeanDefinition("lookalike").isLazyInit()
+    }
+
+    def "should attribute factory-method beans to their configuration class"() {
+        given:
+        beanFactory.registerBeanDefinition("docsConfig", new RootBeanDefinition("org.springdoc.core.DocsConfiguration"))
+        def produced = new RootBeanDefinition()
+        produced.setFactoryBeanName("docsConfig")
+        produced.setFactoryMethodName("openApiResource")
+        beanFactory.registerBeanDefinition("openApiResource", produced)
+
+        when:
+        FastStartConfig.markLazy(beanFactory, ["org.springdoc"])
+
+        then:
+        beanFactory.getBeanDefinition("openApiResource").isLazyInit()
+    }
+
+    def "should read the package list from the environment"() {
+        given:
+        beanFactory.registerBeanDefinition("docs", new RootBeanDefinition("org.springdoc.core.SomeBean"))
+        beanFactory.registerBeanDefinition("export", new RootBeanDefinition("com.bank.creditcard.job.DecisionExportJob"))
+        def environment = new MockEnvironment().withProperty("faststart.lazy-packages[0]", "com.bank.creditcard.job")
+
+        when:
+        FastStartConfig.lazyNonCriticalBeans(environment).postProcessBeanFactory(beanFactory)
+
+        then:
+        beanFactory.getBeanDefinition("export").isLazyInit()
+        !beanFactory.getBeanDefinition("docs").isLazyInit()
+    }
+}
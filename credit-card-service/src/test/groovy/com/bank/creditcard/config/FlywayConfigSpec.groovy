@@ -0,0 +1,30 @@
+package com.bank.creditcard.config
+
+import org.flywaydb.core.Flyway
+import org.springframework.mock.env.MockEnvironment
+import spock.lang.Specification
+
+class FlywayConfigSpec extends Specification {
+
+    def flyway = Mock(Flyway)
+
+    def "should migrate unless spring.flyway.enabled is false"() {
+        given:
+        def environment = new MockEnvironment()
+        if (enabled != null) {
+            environment.setProperty("spring.flyway.enabled", enabled)
+        }
+
+        when:
+        new FlywayConfig().flywayMigrationStrategy(environment).migrate(flyway)
+
+        then:
+        migrations * flyway.migrate()
+
+        where:
+        enabled | migrations
+        null    | 1
+        "true"  | 1
+        "false" | 0
+    }
+}
@@ -0,0 +1,43 @@
+package com.bank.creditcard.config
+
+import com.bank.creditcard.routing.ReplicaLagMonitor
+import com.zaxxer.hikari.HikariDataSource
+import org.springframework.boot.autoconfigure.AutoConfigurations
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration
+import org.springframework.boot.convert.ApplicationConversionService
+import org.springframework.boot.test.context.runner.ApplicationContextRunner
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+import spock.lang.Specification
+
+import javax.sql.DataSource
+
+class ReplicaRoutingConfigSpec extends Specification {
+
+    def contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration))
+            .withUserConfiguration(ReplicaRoutingConfig)
+            // Durations in @Value, as in the application context
+            .withInitializer { it.beanFactory.conversionService = ApplicationConversionService.sharedInstance }
+            .withPropertyValues("spring.datasource.url=jdbc:h2:mem:primary")
+
+    def "should use the primary pool alone when no replica is configured"() {
+        expect:
+        contextRunner.run { context ->
+            assert context.getBean(DataSource).is(context.getBean("primaryDataSource"))
+            assert context.getBeanProvider(ReplicaLagMonitor).getIfAvailable() == null
+        }
+    }
+
+    def "should route between the pools once a replica URL is set at startup"() {
+        expect:
+        contextRunner.withPropertyValues("datasource.replica.url=jdbc:h2:mem:replica",
+                "datasource.replica.hikari.maximum-pool-size=3").run { context ->
+            assert context.getBean(DataSource) instanceof LazyConnectionDataSourceProxy
+            def replica = context.getBean("replicaDataSource", HikariDataSource)
+            assert replica.poolName == "replica"
+            assert replica.readOnly
+            assert replica.maximumPoolSize == 3
+            assert context.getBean(ReplicaLagMonitor) != null
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bank.creditcard.controller
+
+import com.bank.creditcard.security.BearerTokenService
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.authority.AuthorityUtils
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Duration
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
+
+class AuthControllerSpec extends Specification {
+
+    def tokenService = new BearerTokenService("0123456789abcdef0123456789abcdef", Duration.ofMinutes(15))
+
+    @Subject
+    def controller = new AuthController(tokenService)
+
+    MockMvc mockMvc
+
+    def setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build()
+    }
+
+    def "should issue an uncacheable bearer token for the authenticated caller"() {
+        given:
+        def principal = UsernamePasswordAuthenticationToken.authenticated("user", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"))
+
+        when:
+        def result = mockMvc.perform(post(AuthController.TOKEN_PATH).principal(principal))
+
+        then:
+        result.andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(jsonPath('$.tokenType').value("Bearer"))
+                .andExpect(jsonPath('$.expiresIn').value(900))
+
+        when:
+        def token = new ObjectMapper().readTree(result.andReturn().response.contentAsString).get("accessToken").asText()
+
+        then:
+        tokenService.verify(token).name == "user"
+    }
+}
@@ -0,0 +1,80 @@
+package com.bank.creditcard.controller
+
+import com.bank.creditcard.dto.BacktestReport
+import com.bank.creditcard.rules.DecisionRulesRegistry
+import com.bank.creditcard.service.BacktestService
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.springframework.core.io.DefaultResourceLoader
+import org.springframework.http.MediaType
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDateTime
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
+
+class BacktestControllerSpec extends Specification {
+
+    def backtestService = Mock(BacktestService)
+    def registry = new DecisionRulesRegistry(new ObjectMapper(), new DefaultResourceLoader(),
+            "classpath:decision-rules.json")
+
+    @Subject
+    def controller = new BacktestController(backtestService, registry)
+
+    MockMvc mockMvc
+
+    def setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build()
+    }
+
+    def "should backtest the active rules when no candidate is posted"() {
+        when:
+        def result = mockMvc.perform(post("/api/v1/backtests")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-02-01T00:00:00"))
+
+        then:
+        1 * backtestService.run(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0),
+                registry.current()) >> BacktestReport.builder().applications(42).candidateRulesVersion("2024.1").build()
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath('$.applications').value(42))
+                .andExpect(jsonPath('$.candidateRulesVersion').value("2024.1"))
+    }
+
+    def "should compile a posted candidate policy"() {
+        given:
+        def json = getClass().getResourceAsStream("/decision-rules.json").text
+                .replaceFirst('"version"\\s*:\\s*"[^"]*"', '"version": "candidate"')
+
+        when:
+        def result = mockMvc.perform(post("/api/v1/backtests")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-02-01T00:00:00")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+
+        then:
+        1 * backtestService.run(_, _, { it.version == "candidate" }) >> BacktestReport.builder().build()
+        result.andExpect(status().isOk())
+    }
+
+    def "should reject an invalid candidate policy"() {
+        when:
+        def result = mockMvc.perform(post("/api/v1/backtests")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-02-01T00:00:00")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"version": "broken"}'))
+
+        then:
+        0 * backtestService.run(*_)
+        result.andExpect(status().isBadRequest())
+                .andExpect(jsonPath('$.title').value("Invalid Decision Rules"))
+    }
+}
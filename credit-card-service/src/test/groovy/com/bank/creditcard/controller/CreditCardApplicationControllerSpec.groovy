@@ -1,10 +1,15 @@
 package com.bank.creditcard.controller
 
+import com.bank.creditcard.dto.ApplicationField
+import com.bank.creditcard.dto.ApplicationListVersion
 import com.bank.creditcard.dto.CreditCardApplicationRequest
 import com.bank.creditcard.dto.CreditCardApplicationResponse
 import com.bank.creditcard.dto.AddressDto
 import com.bank.creditcard.exception.DuplicateApplicationException
 import com.bank.creditcard.exception.ResourceNotFoundException
+import com.bank.creditcard.journal.JournalEntry
+import com.bank.creditcard.journal.TransitionReason
+import com.bank.creditcard.model.CreditCardApplication
 import com.bank.creditcard.service.CreditCardApplicationService
 import com.fasterxml.jackson.databind.ObjectMapper
 import org.springframework.http.MediaType
@@ -13,6 +18,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders
 import spock.lang.Specification
 import spock.lang.Subject
 
+import java.time.Instant
 import java.time.LocalDate
 import java.time.LocalDateTime
 
@@ -101,13 +107,51 @@ class CreditCardApplicationControllerSpec extends Specification {
         def result = mockMvc.perform(get("/api/v1/credit-card-applications/{applicationNumber}", applicationNumber))
         
         then: "service is called"
+        1 * applicationService.getApplicationVersion(applicationNumber) >> 2L
         1 * applicationService.getApplication(applicationNumber) >> response
         
         and: "application is returned"
         result.andExpect(status().isOk())
+                .andExpect(header().string("ETag", '"2"'))
                 .andExpect(jsonPath('$.applicationNumber').value(applicationNumber))
     }
 
+    def "should answer 304 when the application is unchanged"() {
+        given: "a poll carrying the current ETag"
+        def applicationNumber = "APP-123456"
+
+        when: "polling the application"
+        def result = mockMvc.perform(get("/api/v1/credit-card-applications/{applicationNumber}", applicationNumber)
+                .header("If-None-Match", '"2"'))
+
+        then: "only the version is looked up"
+        1 * applicationService.getApplicationVersion(applicationNumber) >> 2L
+        0 * applicationService.getApplication(_)
+
+        and: "no body is sent"
+        result.andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", '"2"'))
+                .andExpect(content().string(""))
+    }
+
+    def "should return the body again once the application changed"() {
+        given: "a poll carrying an older ETag"
+        def applicationNumber = "APP-123456"
+
+        when: "polling the application"
+        def result = mockMvc.perform(get("/api/v1/credit-card-applications/{applicationNumber}", applicationNumber)
+                .header("If-None-Match", '"1"'))
+
+        then: "the application is loaded"
+        1 * applicationService.getApplicationVersion(applicationNumber) >> 2L
+        1 * applicationService.getApplication(applicationNumber) >> createResponse("APPROVED")
+
+        and: "the new representation is returned"
+        result.andExpect(status().isOk())
+                .andExpect(header().string("ETag", '"2"'))
+                .andExpect(jsonPath('$.status').value("APPROVED"))
+    }
+
     def "should handle application not found"() {
         given: "a non-existent application number"
         def applicationNumber = "APP-INVALID"
@@ -116,13 +160,105 @@ class CreditCardApplicationControllerSpec extends Specification {
         def result = mockMvc.perform(get("/api/v1/credit-card-applications/{applicationNumber}", applicationNumber))
         
         then: "service throws exception"
-        1 * applicationService.getApplication(applicationNumber) >> { throw new ResourceNotFoundException("Application not found") }
+        1 * applicationService.getApplicationVersion(applicationNumber) >> { throw new ResourceNotFoundException("Application not found") }
+        0 * applicationService.getApplication(_)
         
         and: "not found status is returned"
         result.andExpect(status().isNotFound())
                 .andExpect(jsonPath('$.title').value("Resource Not Found"))
     }
 
+    def "should return only the requested fields"() {
+        given: "an application number"
+        def applicationNumber = "APP-123456"
+
+        when: "asking for two fields"
+        def result = mockMvc.perform(get("/api/v1/credit-card-applications/{applicationNumber}", applicationNumber)
+                .param("fields", "status,applicationNumber"))
+
+        then: "the full application is never built"
+        1 * applicationService.getApplicationVersion(applicationNumber) >> 2L
+        1 * applicationService.getApplication(applicationNumber,
+                EnumSet.of(ApplicationField.APPLICATION_NUMBER, ApplicationField.STATUS)) >>
+                [applicationNumber: applicationNumber, status: CreditCardApplication.ApplicationStatus.APPROVED]
+        0 * applicationService.getApplication(_)
+
+        and: "the subset has a tag of its own"
+        result.andExpect(status().isOk())
+                .andExpect(header().string("ETag", '"2-f6"'))
+                .andExpect(jsonPath('$.status').value("APPROVED"))
+                .andExpect(jsonPath('$.customerName').doesNotExist())
+    }
+
+    def "should answer 304 for an unchanged subset"() {
+        when:
+        def result = mockMvc.perform(get("/api/v1/credit-card-applications/{applicationNumber}", "APP-123456")
+                .param("fields", "status,applicationNumber")
+                .header("If-None-Match", '"2-f6"'))
+
+        then:
+        1 * applicationService.getApplicationVersion("APP-123456") >> 2L
+        0 * applicationService.getApplication(*_)
+        result.andExpect(status().isNotModified())
+    }
+
+    def "should serve summary views of the lists"() {
+        when:
+        def pending = mockMvc.perform(get("/api/v1/credit-card-applications/pending").param("view", "summary"))
+        def byEmail = mockMvc.perform(get("/api/v1/credit-card-applications/customer/{email}", "jane@example.com")
+                .param("view", "summary"))
+
+        then:
+        1 * applicationService.getPendingApplicationsVersion() >> listVersion(1)
+        1 * applicationService.getPendingApplications(ApplicationField.SUMMARY) >> [[applicationNumber: "APP-1"]]
+        1 * applicationService.getApplicationsByEmailVersion("jane@example.com") >> listVersion(1)
+        1 * applicationService.getApplicationsByEmail("jane@example.com", ApplicationField.SUMMARY) >> []
+        0 * applicationService.getPendingApplications()
+        0 * applicationService.getApplicationsByEmail(_)
+        pending.andExpect(status().isOk())
+                .andExpect(jsonPath('$[0].applicationNumber').value("APP-1"))
+        byEmail.andExpect(status().isOk())
+    }
+
+    def "should reject an unknown field"() {
+        when:
+        def result = mockMvc.perform(get("/api/v1/credit-card-applications/pending").param("fields", "status,ssn"))
+
+        then:
+        0 * applicationService._
+        result.andExpect(status().isBadRequest())
+                .andExpect(jsonPath('$.detail').value(org.hamcrest.Matchers.containsString("Unknown field 'ssn'")))
+    }
+
+    def "should get application timeline from the journal"() {
+        given: "an application with two journaled transitions"
+        def applicationNumber = "APP-123456"
+        def id = UUID.randomUUID()
+        def entries = [
+                new JournalEntry(1, Instant.parse("2024-01-01T10:00:00Z"), id, null,
+                        CreditCardApplication.ApplicationStatus.PENDING, CreditCardApplication.CardType.GOLD,
+                        null, null, null, TransitionReason.SUBMITTED),
+                new JournalEntry(7, Instant.parse("2024-01-01T10:00:02Z"), id,
+                        CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                        CreditCardApplication.ApplicationStatus.APPROVED, CreditCardApplication.CardType.GOLD,
+                        760, 21.5G, 8000G, TransitionReason.APPROVED)
+        ]
+
+        when: "retrieving the timeline"
+        def result = mockMvc.perform(get("/api/v1/credit-card-applications/{applicationNumber}/timeline",
+                applicationNumber))
+
+        then: "service is called"
+        1 * applicationService.getTimeline(applicationNumber) >> entries
+
+        and: "transitions are returned in order"
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath('$.length()').value(2))
+                .andExpect(jsonPath('$[0].toStatus').value("PENDING"))
+                .andExpect(jsonPath('$[1].reason').value("APPROVED"))
+                .andExpect(jsonPath('$[1].approvedLimit').value(8000))
+    }
+
     def "should get applications by email"() {
         given: "a customer email"
         def email = "john.doe@example.com"
@@ -132,6 +268,7 @@ class CreditCardApplicationControllerSpec extends Specification {
         def result = mockMvc.perform(get("/api/v1/credit-card-applications/customer/{email}", email))
         
         then: "service returns applications"
+        1 * applicationService.getApplicationsByEmailVersion(email) >> listVersion(2)
         1 * applicationService.getApplicationsByEmail(email) >> applications
         
         and: "applications are returned"
@@ -149,6 +286,7 @@ class CreditCardApplicationControllerSpec extends Specification {
         def result = mockMvc.perform(get("/api/v1/credit-card-applications/customer/{email}", email))
 
         then: "service returns applications"
+        1 * applicationService.getApplicationsByEmailVersion(email) >> listVersion(2)
         1 * applicationService.getApplicationsByEmail(email) >> applications
 
         and: "applications are returned"
@@ -165,14 +303,50 @@ class CreditCardApplicationControllerSpec extends Specification {
         def result = mockMvc.perform(get("/api/v1/credit-card-applications/pending"))
         
         then: "service returns pending applications"
+        1 * applicationService.getPendingApplicationsVersion() >> listVersion(2)
         1 * applicationService.getPendingApplications() >> applications
         
         and: "applications are returned"
         result.andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
                 .andExpect(jsonPath('$').isArray())
                 .andExpect(jsonPath('$.length()').value(2))
     }
 
+    def "should answer 304 when the pending list is unchanged"() {
+        given: "the ETag of the current pending list"
+        applicationService.getPendingApplicationsVersion() >> listVersion(2)
+        def etag = mockMvc.perform(get("/api/v1/credit-card-applications/pending"))
+                .andReturn().response.getHeader("ETag")
+
+        when: "polling with it"
+        def result = mockMvc.perform(get("/api/v1/credit-card-applications/pending").header("If-None-Match", etag))
+
+        then: "the list is not loaded again"
+        0 * applicationService.getPendingApplications()
+        result.andExpect(status().isNotModified())
+    }
+
+    def "should change the list ETag when membership or content changes"() {
+        given: "the pending list before and after one removal, one update and one addition"
+        def newest = LocalDateTime.of(2024, 1, 1, 10, 0)
+        applicationService.getPendingApplicationsVersion() >>> [
+                new ApplicationListVersion(2L, 3L, newest),
+                new ApplicationListVersion(1L, 3L, newest),
+                new ApplicationListVersion(2L, 4L, newest),
+                new ApplicationListVersion(2L, 3L, newest.plusMinutes(1))
+        ]
+
+        when: "polling four times"
+        def etags = (1..4).collect {
+            mockMvc.perform(get("/api/v1/credit-card-applications/pending")).andReturn().response.getHeader("ETag")
+        }
+
+        then: "every poll sees a different tag"
+        etags.unique(false).size() == 4
+    }
+
     def "should return empty list when no applications found"() {
         given: "no applications exist"
         def email = "nonexistent@example.com"
@@ -181,6 +355,7 @@ class CreditCardApplicationControllerSpec extends Specification {
         def result = mockMvc.perform(get("/api/v1/credit-card-applications/customer/{email}", email))
         
         then: "empty list is returned"
+        1 * applicationService.getApplicationsByEmailVersion(email) >> new ApplicationListVersion(0L, null, null)
         1 * applicationService.getApplicationsByEmail(email) >> []
         
         and: "empty array response"
@@ -190,6 +365,10 @@ class CreditCardApplicationControllerSpec extends Specification {
     }
 
     // Helper methods
+    private static ApplicationListVersion listVersion(long count) {
+        new ApplicationListVersion(count, count, LocalDateTime.of(2024, 1, 1, 10, 0))
+    }
+
     private CreditCardApplicationRequest createValidRequest() {
         new CreditCardApplicationRequest(
                 firstName: "John",
@@ -0,0 +1,56 @@
+package com.bank.creditcard.controller
+
+import com.bank.creditcard.dto.DecisionAnalyticsResponse
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.service.DecisionAnalyticsService
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import spock.lang.Specification
+import spock.lang.Subject
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+
+class DecisionAnalyticsControllerSpec extends Specification {
+
+    def analyticsService = Mock(DecisionAnalyticsService)
+
+    @Subject
+    def controller = new DecisionAnalyticsController(analyticsService)
+
+    MockMvc mockMvc
+
+    def setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build()
+    }
+
+    def "should return analytics for the default window"() {
+        when: "requesting analytics"
+        def result = mockMvc.perform(get("/api/v1/analytics/decisions"))
+
+        then: "the service is queried for 24 hours across all card types"
+        1 * analyticsService.snapshot(24, null) >> DecisionAnalyticsResponse.builder()
+                .windowHours(24).decisions(10).approved(7).rejected(3).approvalRate(0.7d).build()
+
+        and: "the snapshot is returned"
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath('$.decisions').value(10))
+                .andExpect(jsonPath('$.approvalRate').value(0.7d))
+    }
+
+    def "should pass window and card type filters"() {
+        when: "requesting a filtered window"
+        def result = mockMvc.perform(get("/api/v1/analytics/decisions")
+                .param("windowHours", "6")
+                .param("cardType", "GOLD"))
+
+        then: "filters reach the service"
+        1 * analyticsService.snapshot(6, CreditCardApplication.CardType.GOLD) >>
+                DecisionAnalyticsResponse.builder().windowHours(6).cardType("GOLD").build()
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath('$.cardType').value("GOLD"))
+    }
+}
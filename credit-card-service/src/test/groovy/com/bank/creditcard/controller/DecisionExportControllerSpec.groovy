@@ -0,0 +1,61 @@
+package com.bank.creditcard.controller
+
+import com.bank.creditcard.service.DecisionExportService
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDateTime
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
+
+class DecisionExportControllerSpec extends Specification {
+
+    def exportService = Mock(DecisionExportService)
+
+    @Subject
+    def controller = new DecisionExportController(exportService)
+
+    MockMvc mockMvc
+
+    def setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build()
+    }
+
+    def "should stream the export as an attachment"() {
+        when: "requesting a gzipped NDJSON export"
+        def result = mockMvc.perform(get("/api/v1/exports/decisions")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-04-01T00:00:00")
+                .param("format", "NDJSON_GZIP"))
+
+        then: "the service writes straight to the response"
+        1 * exportService.export(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 4, 1, 0, 0),
+                DecisionExportService.Format.NDJSON_GZIP, _ as OutputStream) >> { args ->
+            args[3].write("data".bytes)
+            1L
+        }
+
+        and: "headers describe the download"
+        result.andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andExpect(header().string("Content-Disposition",
+                        'attachment; filename="decisions-2024-01-01-2024-04-01.ndjson.gz"'))
+                .andExpect(content().string("data"))
+    }
+
+    def "should reject an empty range"() {
+        when: "requesting a range that ends before it starts"
+        def result = mockMvc.perform(get("/api/v1/exports/decisions")
+                .param("from", "2024-04-01T00:00:00")
+                .param("to", "2024-01-01T00:00:00"))
+
+        then: "nothing is exported"
+        0 * exportService.export(*_)
+        result.andExpect(status().isBadRequest())
+    }
+}
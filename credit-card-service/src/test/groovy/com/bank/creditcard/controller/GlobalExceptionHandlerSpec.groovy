@@ -1,6 +1,7 @@
 package com.bank.creditcard.controller
 
 import com.bank.creditcard.exception.DuplicateApplicationException
+import com.bank.creditcard.exception.InvalidExportRangeException
 import com.bank.creditcard.exception.ResourceNotFoundException
 import com.fasterxml.jackson.databind.ObjectMapper
 import org.springframework.http.MediaType
@@ -88,6 +89,25 @@ class GlobalExceptionHandlerSpec extends Specification {
                 .andExpect(jsonPath('$.title').value("Internal Server Error"))
     }
 
+    def "should handle InvalidExportRangeException"() {
+        when: "endpoint rejects the requested range"
+        def result = mockMvc.perform(get("/test/invalid-range"))
+
+        then: "400 status with the reason"
+        result.andExpect(status().isBadRequest())
+                .andExpect(jsonPath('$.title').value("Invalid Range"))
+                .andExpect(jsonPath('$.detail').value("'from' must be before 'to'"))
+    }
+
+    def "should not echo an internal IllegalArgumentException"() {
+        when: "endpoint fails on an illegal argument deep in the service"
+        def result = mockMvc.perform(get("/test/illegal-argument"))
+
+        then: "500 status without the internal message"
+        result.andExpect(status().isInternalServerError())
+                .andExpect(jsonPath('$.detail').value("An unexpected error occurred"))
+    }
+
     // Test controller for exception testing
     @org.springframework.web.bind.annotation.RestController
     @org.springframework.web.bind.annotation.RequestMapping("/test")
@@ -111,6 +131,16 @@ class GlobalExceptionHandlerSpec extends Specification {
             throw new MethodArgumentNotValidException(null, bindingResult)
         }
         
+        @org.springframework.web.bind.annotation.GetMapping("/invalid-range")
+        void invalidRange() {
+            throw new InvalidExportRangeException("'from' must be before 'to'")
+        }
+
+        @org.springframework.web.bind.annotation.GetMapping("/illegal-argument")
+        void illegalArgument() {
+            throw new IllegalArgumentException("Corrupt bureau snapshot")
+        }
+
         @org.springframework.web.bind.annotation.GetMapping("/generic-error")
         void genericError() {
             throw new Exception("Generic error")
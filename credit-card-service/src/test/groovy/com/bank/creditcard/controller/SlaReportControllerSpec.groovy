@@ -0,0 +1,77 @@
+package com.bank.creditcard.controller
+
+import com.bank.creditcard.dto.SlaReport
+import com.bank.creditcard.service.SlaReportService
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
+
+class SlaReportControllerSpec extends Specification {
+
+    def slaReportService = Mock(SlaReportService)
+
+    @Subject
+    def controller = new SlaReportController(slaReportService)
+
+    MockMvc mockMvc
+
+    def setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build()
+    }
+
+    def "should report the requested range"() {
+        given:
+        def report = SlaReport.builder()
+                .stages([SlaReport.StageDay.builder().day(LocalDate.of(2024, 1, 15)).stage("bureau")
+                                 .applications(10).p50Ms(120).p90Ms(480).p99Ms(900).maxMs(950).build()])
+                .slowest([])
+                .build()
+
+        when:
+        def result = mockMvc.perform(get("/api/v1/admin/sla")
+                .param("from", "2024-01-15T00:00:00")
+                .param("to", "2024-01-16T00:00:00")
+                .param("slowest", "5"))
+
+        then:
+        1 * slaReportService.report(LocalDateTime.of(2024, 1, 15, 0, 0), LocalDateTime.of(2024, 1, 16, 0, 0), 5) >> report
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath('$.stages[0].stage').value("bureau"))
+                .andExpect(jsonPath('$.stages[0].p90Ms').value(480d))
+    }
+
+    def "should default to the last seven days and twenty slowest"() {
+        when:
+        def result = mockMvc.perform(get("/api/v1/admin/sla"))
+
+        then:
+        1 * slaReportService.report({ it == LocalDate.now().minusDays(6).atStartOfDay() },
+                { it == LocalDate.now().plusDays(1).atStartOfDay() }, 20) >> SlaReport.builder().build()
+        result.andExpect(status().isOk())
+    }
+
+    def "should reject a range that is empty or too long"() {
+        when:
+        def result = mockMvc.perform(get("/api/v1/admin/sla")
+                .param("from", from)
+                .param("to", to))
+
+        then:
+        0 * slaReportService.report(*_)
+        result.andExpect(status().isBadRequest())
+
+        where:
+        from                  | to
+        "2024-01-16T00:00:00" | "2024-01-15T00:00:00"
+        "2024-01-01T00:00:00" | "2024-03-01T00:00:00"
+    }
+}
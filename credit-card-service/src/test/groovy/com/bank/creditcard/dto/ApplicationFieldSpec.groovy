@@ -0,0 +1,56 @@
+package com.bank.creditcard.dto
+
+import com.bank.creditcard.exception.InvalidFieldSelectionException
+import spock.lang.Specification
+
+class ApplicationFieldSpec extends Specification {
+
+    def "should parse a field list into response order"() {
+        expect:
+        ApplicationField.selection(" status, applicationNumber ,status", null).get() as List ==
+                [ApplicationField.APPLICATION_NUMBER, ApplicationField.STATUS]
+    }
+
+    def "should select the summary view"() {
+        expect:
+        ApplicationField.selection(null, "Summary").get() == ApplicationField.SUMMARY
+    }
+
+    def "should select everything when neither is given"() {
+        expect:
+        ApplicationField.selection(fields, view).isEmpty()
+
+        where:
+        fields | view
+        null   | null
+        ""     | " "
+    }
+
+    def "should reject unknown or conflicting selections"() {
+        when:
+        ApplicationField.selection(fields, view)
+
+        then:
+        def e = thrown(InvalidFieldSelectionException)
+        e.message.contains(message)
+
+        where:
+        fields           | view      | message
+        "status,ssn"     | null      | "Unknown field 'ssn'"
+        "status,"        | null      | "Unknown field ''"
+        null             | "full"    | "Unknown view 'full'"
+        "status"         | "summary" | "either"
+    }
+
+    def "should cover every property of the full response"() {
+        expect:
+        ApplicationField.values()*.property() ==
+                CreditCardApplicationResponse.declaredFields.findAll { !it.synthetic && !java.lang.reflect.Modifier.isStatic(it.modifiers) }*.name
+    }
+
+    def "should build the customer name as the mapper does"() {
+        expect:
+        ApplicationField.CUSTOMER_NAME.value(["Jane", "Doe"] as Object[]) == "Jane Doe"
+        ApplicationField.STATUS.value(["APPROVED"] as Object[]) == "APPROVED"
+    }
+}
@@ -0,0 +1,115 @@
+package com.bank.creditcard.importer
+
+import com.bank.creditcard.model.CreditCardApplication
+import jakarta.validation.Validation
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+class ApplicationCsvMapperSpec extends Specification {
+
+    static final String HEADER = "application_number,status,first_name,last_name,email,phone_number,ssn," +
+            "date_of_birth,street_address,city,state,zip_code,annual_income,employment_status,card_type," +
+            "requested_limit,credit_score,created_at,decided_at"
+    static final String VALID = 'LEG-1,approved,John,"Doe, Jr",john@example.com,+15551234567,123-45-6789,' +
+            '1985-03-04,1 Main St,Springfield,IL,62701,85000.00,EMPLOYED,gold,5000,712,' +
+            '2019-05-01T10:15:00,2019-05-01T10:16:30'
+
+    @Shared
+    def validator = Validation.buildDefaultValidatorFactory().validator
+
+    @TempDir
+    Path dir
+
+    def "should map a valid record through the request rules"() {
+        when:
+        def application = map(HEADER, VALID)
+
+        then:
+        application.applicationNumber == "LEG-1"
+        application.status == CreditCardApplication.ApplicationStatus.APPROVED
+        application.cardType == CreditCardApplication.CardType.GOLD
+        application.channel == CreditCardApplication.Channel.ONLINE
+        application.creditScore == 712
+        application.createdAt == LocalDateTime.of(2019, 5, 1, 10, 15)
+        application.decidedAt == LocalDateTime.of(2019, 5, 1, 10, 16, 30)
+        with(application.applicant) {
+            lastName == "Doe, Jr"
+            ssn == "123-45-6789"
+            dateOfBirth == LocalDate.of(1985, 3, 4)
+            annualIncome == 85000.00
+            requestedLimit == 5000
+            address.country == "USA"
+        }
+    }
+
+    def "should find columns by name in any order"() {
+        given:
+        def names = HEADER.split(",")
+        def values = VALID.replace('"Doe, Jr"', 'Doe').split(",")
+
+        when:
+        def application = map(names.reverse().join(",").toUpperCase(), values.reverse().join(","))
+
+        then:
+        application.applicationNumber == "LEG-1"
+        application.applicant.lastName == "Doe"
+    }
+
+    def "should reject a header without the required columns"() {
+        when:
+        map("application_number,status", "LEG-1,PENDING")
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("first_name")
+        e.message.contains("created_at")
+    }
+
+    def "should name every problem with an invalid record"() {
+        given:
+        def record = VALID.replace("123-45-6789", "123456789")
+                .replace("approved", "lost")
+                .replace("85000.00", "lots")
+                .replace(",IL,", ",Illinois,")
+
+        when:
+        map(HEADER, record)
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("SSN must be in format XXX-XX-XXXX")
+        e.message.contains("status 'lost' is not one of")
+        e.message.contains("annual_income 'lots' is not valid")
+        e.message.contains("state is longer than 2 characters")
+    }
+
+    def "should require the historical fields the request does not cover"() {
+        when:
+        map(HEADER, VALID.replace("LEG-1", "").replace("2019-05-01T10:15:00", " "))
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("application_number is required")
+        e.message.contains("created_at is required")
+    }
+
+    private ApplicationCsvMapper.ImportedApplication map(String header, String record) {
+        def file = dir.resolve("input-${System.nanoTime()}.csv")
+        Files.writeString(file, header + "\n" + record + "\n")
+        def reader = new MappedCsvReader(file, 0)
+        try {
+            reader.next()
+            def mapper = new ApplicationCsvMapper(reader, validator)
+            reader.next()
+            mapper.map(reader)
+        } finally {
+            reader.close()
+        }
+    }
+}
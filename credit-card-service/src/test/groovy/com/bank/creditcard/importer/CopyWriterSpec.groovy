@@ -0,0 +1,57 @@
+package com.bank.creditcard.importer
+
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.time.LocalDate
+
+class CopyWriterSpec extends Specification {
+
+    def writer = new CopyWriter("t (a, b, c)")
+
+    def "should write tab-separated rows with \\N for null"() {
+        when:
+        writer.field("x").field(null).field(LocalDate.of(1990, 1, 2)).endRow()
+        writer.field(42).field("").field(new BigDecimal("1.50")).endRow()
+
+        then:
+        text() == "x\t\\N\t1990-01-02\n42\t\t1.50\n"
+        writer.rows() == 2
+    }
+
+    def "should escape backslashes, tabs and line breaks"() {
+        when:
+        writer.field("a\\b\tc\nd\re").endRow()
+
+        then:
+        text() == "a\\\\b\\tc\\nd\\re\n"
+    }
+
+    def "should grow past its initial buffer"() {
+        given:
+        def big = "y" * (3 << 20)
+
+        when:
+        writer.field(big).endRow()
+
+        then:
+        text() == big + "\n"
+    }
+
+    def "should start over after clear"() {
+        given:
+        writer.field("x").endRow()
+
+        when:
+        writer.clear()
+        writer.field("y").endRow()
+
+        then:
+        text() == "y\n"
+        writer.rows() == 1
+    }
+
+    private String text() {
+        new String(writer.bytes(), StandardCharsets.UTF_8)
+    }
+}
@@ -0,0 +1,137 @@
+package com.bank.creditcard.importer
+
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class MappedCsvReaderSpec extends Specification {
+
+    @TempDir
+    Path dir
+
+    def "should split plain records on commas and line breaks"() {
+        given:
+        def reader = open("a,b,c\n1,,3\r\nx,y,z")
+
+        expect:
+        records(reader) == [["a", "b", "c"], ["1", "", "3"], ["x", "y", "z"]]
+    }
+
+    def "should decode quoted fields with commas, doubled quotes and line breaks"() {
+        given:
+        def reader = open('name,note\n"Doe, Jane","said ""hi""\nand left"\n"",plain\n')
+
+        expect:
+        records(reader) == [["name", "note"], ["Doe, Jane", 'said "hi"\nand left'], ["", "plain"]]
+    }
+
+    def "should skip blank lines"() {
+        given:
+        def reader = open("a\n\n\r\nb\n\n")
+
+        expect:
+        records(reader) == [["a"], ["b"]]
+    }
+
+    def "should decode UTF-8"() {
+        given:
+        def reader = open("José,Zoë\n")
+
+        expect:
+        records(reader) == [["José", "Zoë"]]
+    }
+
+    def "should return the record as written, without its line break"() {
+        given:
+        def reader = open('1,"a ""b""",c\r\n2,d,e\n')
+
+        when:
+        reader.next()
+
+        then:
+        reader.raw() == '1,"a ""b""",c'
+        reader.offset() == 15
+    }
+
+    def "should give null for fields beyond the end of the record"() {
+        given:
+        def reader = open("a,b\n")
+        reader.next()
+
+        expect:
+        reader.fieldCount() == 2
+        reader.field(2) == null
+    }
+
+    def "should parse records that cross window boundaries"() {
+        given:
+        def lines = (1..200).collect { "$it,\"name, $it\",${'x' * (it % 7)}" }
+        def file = write(lines.join("\n") + "\n")
+
+        when:
+        def reader = new MappedCsvReader(file, 0, 32)
+
+        then:
+        records(reader) == (1..200).collect { ["$it", "name, $it", 'x' * (it % 7)] }
+    }
+
+    def "should fail on a record longer than the window"() {
+        given:
+        def reader = new MappedCsvReader(write("short\n${'x' * 64}\nshort\n"), 0, 16)
+
+        when:
+        records(reader)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "should continue from a saved offset with the following record"() {
+        given:
+        def file = write("h1,h2\n1,a\n2,b\n3,c\n")
+        def first = new MappedCsvReader(file, 0)
+        first.next()
+        first.next()
+        long offset = first.offset()
+        first.close()
+
+        when:
+        def resumed = new MappedCsvReader(file, offset)
+
+        then:
+        records(resumed) == [["2", "b"], ["3", "c"]]
+        resumed.offset() == resumed.size()
+    }
+
+    def "should fail on an unterminated quoted field"() {
+        given:
+        def reader = open('a,"never closed\n')
+
+        when:
+        reader.next()
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    private MappedCsvReader open(String content) {
+        new MappedCsvReader(write(content), 0)
+    }
+
+    private Path write(String content) {
+        def file = dir.resolve("input-${System.nanoTime()}.csv")
+        Files.writeString(file, content)
+        file
+    }
+
+    private static List<List<String>> records(MappedCsvReader reader) {
+        def records = []
+        while (reader.next()) {
+            records << (0..<reader.fieldCount()).collect { reader.field(it) }
+        }
+        reader.close()
+        records
+    }
+}
@@ -0,0 +1,93 @@
+package com.bank.creditcard.job
+
+import com.bank.creditcard.mapper.ApplicationMapper
+import com.bank.creditcard.rules.DecisionRulesRegistry
+import com.bank.creditcard.security.BearerTokenService
+import com.bank.creditcard.service.RiskAssessmentService
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import jakarta.validation.Validation
+import org.mapstruct.factory.Mappers
+import org.springframework.core.io.DefaultResourceLoader
+import org.springframework.mock.env.MockEnvironment
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Duration
+
+class WarmupJobSpec extends Specification {
+
+    def objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+    def riskAssessmentService = Spy(new RiskAssessmentService(new DecisionRulesRegistry(new ObjectMapper(),
+            new DefaultResourceLoader(), "classpath:decision-rules.json")))
+    def tokenService = Mock(BearerTokenService)
+
+    @Subject
+    def job = new WarmupJob(objectMapper, Validation.buildDefaultValidatorFactory().validator,
+            Mappers.getMapper(ApplicationMapper), riskAssessmentService, tokenService, new MockEnvironment())
+
+    def setup() {
+        job.iterations = 2_000
+        job.httpIterations = 10
+        job.maxDuration = Duration.ofMinutes(1)
+    }
+
+    def "should score every synthetic application without touching the database or the bureau"() {
+        when:
+        job.run(null)
+
+        then: "each application is valid, so every iteration gets as far as scoring"
+        2_000 * riskAssessmentService.calculateRiskScore(_, _)
+        2_000 * riskAssessmentService.determineApprovedLimit(_, _)
+    }
+
+    def "should skip the HTTP warm-up when no server is listening"() {
+        when:
+        job.run(null)
+
+        then:
+        0 * tokenService.issue(_)
+    }
+
+    def "should stop at the deadline"() {
+        given:
+        int steps = 0
+
+        when:
+        def latencies = job.warmUp(1_000, System.nanoTime() + Duration.ofMillis(50).toNanos(), {
+            steps++
+            Thread.sleep(10)
+        })
+
+        then:
+        latencies.count() == steps
+        steps < 20
+    }
+
+    def "should let the application start when the warm-up fails"() {
+        when:
+        job.run(null)
+
+        then:
+        1 * riskAssessmentService.calculateRiskScore(_, _) >> { throw new IllegalStateException("boom") }
+        noExceptionThrown()
+    }
+
+    def "should compare the first and last iterations"() {
+        given:
+        def latencies = new WarmupJob.Latencies()
+
+        when: "latency falls from 10 ms to 1 ms"
+        (1..200).each { latencies.add(it <= WarmupJob.SAMPLE ? 10_000_000L : 1_000_000L) }
+
+        then:
+        latencies.count() == 200
+        latencies.firstMedian() == 10_000_000L
+        latencies.lastMedian() == 1_000_000L
+    }
+
+    def "should report no latency before any iteration"() {
+        expect:
+        new WarmupJob.Latencies().firstMedian() == 0
+    }
+}
@@ -0,0 +1,161 @@
+package com.bank.creditcard.journal
+
+import com.bank.creditcard.model.CreditCardApplication
+import org.springframework.util.unit.DataSize
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+import static com.bank.creditcard.model.CreditCardApplication.ApplicationStatus.*
+
+class DecisionJournalSpec extends Specification {
+
+    @TempDir
+    Path directory
+
+    def "should replay appended transitions in order"() {
+        given: "a journal with one application's lifecycle"
+        def journal = open(DataSize.ofKilobytes(64))
+        def id = UUID.randomUUID()
+        journal.append(id, null, PENDING, CreditCardApplication.CardType.GOLD, null, null, null,
+                TransitionReason.SUBMITTED)
+        journal.append(id, PENDING, IN_REVIEW, CreditCardApplication.CardType.GOLD, null, null, null,
+                TransitionReason.REVIEW_STARTED)
+        journal.append(id, IN_REVIEW, APPROVED, CreditCardApplication.CardType.GOLD, 742, 23.456G, 8500G,
+                TransitionReason.APPROVED)
+
+        when:
+        def entries = []
+        journal.replay(1) { entries << it }
+
+        then: "fields survive the fixed layout"
+        entries*.sequence == [1L, 2L, 3L]
+        entries*.toStatus == [PENDING, IN_REVIEW, APPROVED]
+        entries[0].fromStatus == null
+        entries[2].applicationId == id
+        entries[2].creditScore == 742
+        entries[2].riskScore == 23.46G
+        entries[2].approvedLimit == 8500.00G
+        entries[2].reason == TransitionReason.APPROVED
+        entries[0].creditScore == null
+        entries[0].timestamp <= entries[2].timestamp
+
+        cleanup:
+        journal?.close()
+    }
+
+    def "should roll segments and build a per-application timeline across them"() {
+        given: "a journal whose segments hold 16 records"
+        def journal = open(DataSize.ofBytes(16 * DecisionJournal.RECORD_SIZE))
+        def ids = (0..<5).collect { UUID.randomUUID() }
+
+        when: "appending 100 transitions"
+        100.times { i ->
+            journal.append(ids[i % 5], PENDING, IN_REVIEW, null, 600 + i, null, null, TransitionReason.OTHER)
+        }
+
+        then: "several segment files exist"
+        segments().size() == 7
+
+        and: "the timeline holds only that application's records"
+        def timeline = journal.timeline(ids[3])
+        timeline.size() == 20
+        timeline*.creditScore == (0..<20).collect { 603 + it * 5 }
+
+        and: "replay can start mid-journal"
+        def tail = []
+        journal.replay(95) { tail << it.sequence }
+        tail == [95L, 96L, 97L, 98L, 99L, 100L]
+
+        cleanup:
+        journal?.close()
+    }
+
+    def "should continue after reopening and stop replay at a torn record"() {
+        given: "a journal with three records"
+        def journal = open(DataSize.ofKilobytes(64))
+        3.times { journal.append(UUID.randomUUID(), PENDING, IN_REVIEW, null, null, null, null, TransitionReason.OTHER) }
+        journal.close()
+
+        and: "the last record is corrupted on disk"
+        def segment = segments().first()
+        FileChannel.open(segment, StandardOpenOption.WRITE).withCloseable {
+            it.write(ByteBuffer.wrap([0x7f] as byte[]), 2 * DecisionJournal.RECORD_SIZE + 40)
+        }
+
+        when: "reopening"
+        def reopened = open(DataSize.ofKilobytes(64))
+        def sequence = reopened.append(UUID.randomUUID(), IN_REVIEW, REJECTED, null, null, null, null,
+                TransitionReason.RISK_TOO_HIGH)
+        def sequences = []
+        reopened.replay(1) { sequences << it.sequence }
+
+        then: "the torn record is overwritten and numbering continues"
+        sequence == 3
+        sequences == [1L, 2L, 3L]
+        reopened.lastSequence() == 3
+
+        cleanup:
+        reopened?.close()
+    }
+
+    def "should append in microseconds"() {
+        given:
+        def journal = open(DataSize.ofMegabytes(8))
+        def id = UUID.randomUUID()
+        10_000.times { journal.append(id, PENDING, IN_REVIEW, null, 700, 30G, null, TransitionReason.OTHER) }
+
+        when:
+        def started = System.nanoTime()
+        50_000.times { journal.append(id, IN_REVIEW, APPROVED, null, 700, 30G, 5000G, TransitionReason.APPROVED) }
+        def averageMicros = (System.nanoTime() - started) / 50_000 / 1000
+
+        then:
+        averageMicros < 50
+
+        cleanup:
+        journal?.close()
+    }
+
+    def "should build a timeline from every instance's journal under a shared directory"() {
+        given: "two instances writing one application's transitions"
+        def first = new DecisionJournal(directory, "task-a", DataSize.ofKilobytes(64))
+        def second = new DecisionJournal(directory, "task-b", DataSize.ofKilobytes(64))
+        def id = UUID.randomUUID()
+        first.append(id, null, PENDING, null, null, null, null, TransitionReason.SUBMITTED)
+        sleep(2)
+        second.append(id, PENDING, DEFERRED, null, null, null, null, TransitionReason.PIPELINE_SATURATED)
+        first.append(UUID.randomUUID(), null, PENDING, null, null, null, null, TransitionReason.SUBMITTED)
+        sleep(2)
+        first.append(id, DEFERRED, APPROVED, null, 720, null, 5000G, TransitionReason.APPROVED)
+
+        when:
+        def timeline = second.timeline(id)
+
+        then: "either instance sees all of it, in the order it happened"
+        timeline*.toStatus == [PENDING, DEFERRED, APPROVED]
+        first.timeline(id) == timeline
+
+        and: "each instance numbers and replays only its own records"
+        def own = []
+        second.replay(1) { own << it.toStatus }
+        own == [DEFERRED]
+
+        cleanup:
+        first?.close()
+        second?.close()
+    }
+
+    private DecisionJournal open(DataSize segmentSize) {
+        new DecisionJournal(directory, "", segmentSize)
+    }
+
+    private List<Path> segments() {
+        Files.list(directory).filter { it.fileName.toString().endsWith(".journal") }.sorted().toList()
+    }
+}
@@ -0,0 +1,169 @@
+package com.bank.creditcard.logging
+
+import ch.qos.logback.classic.Level
+import ch.qos.logback.classic.LoggerContext
+import ch.qos.logback.classic.spi.ILoggingEvent
+import ch.qos.logback.classic.spi.LoggingEvent
+import ch.qos.logback.classic.util.LogbackMDCAdapter
+import ch.qos.logback.core.encoder.EncoderBase
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class AsyncStructuredAppenderSpec extends Specification {
+
+    def context = new LoggerContext().tap { it.MDCAdapter = new LogbackMDCAdapter() }
+    def logger = context.getLogger("test")
+    def out = new ByteArrayOutputStream()
+    def appender = new AsyncStructuredAppender()
+
+    def setup() {
+        appender.context = context
+        appender.name = "JSON"
+        appender.setOutputStream(out)
+    }
+
+    def cleanup() {
+        appender.stop()
+    }
+
+    def "should write events from the writer thread and flush them on stop"() {
+        given:
+        appender.encoder = new MaskingJsonEncoder()
+        appender.start()
+
+        when:
+        (1..50).each { appender.doAppend(event(Level.INFO, "event ${it} for 123-45-6789")) }
+        appender.stop()
+        def lines = out.toString("UTF-8").readLines()
+
+        then:
+        lines.size() == 50
+        lines.every { it.contains("***-**-6789") && !it.contains("123-45-6789") }
+        appender.droppedCount == 0
+    }
+
+    def "should drop low-priority events near capacity and everything when full, without blocking"() {
+        given: "a writer stuck on its first event"
+        def release = new CountDownLatch(1)
+        def blocked = new CountDownLatch(1)
+        appender.encoder = new BlockingEncoder(blocked, release)
+        appender.queueSize = 4
+        appender.discardingThreshold = 3
+        appender.start()
+        appender.doAppend(event(Level.INFO, "held by the writer"))
+        assert blocked.await(5, TimeUnit.SECONDS)
+
+        when: "the queue fills up"
+        appender.doAppend(event(Level.INFO, "queued 1"))
+        appender.doAppend(event(Level.INFO, "queued 2"))
+        appender.doAppend(event(Level.INFO, "dropped: below WARN near capacity"))
+        appender.doAppend(event(Level.ERROR, "queued 3"))
+        appender.doAppend(event(Level.ERROR, "queued 4"))
+        appender.doAppend(event(Level.ERROR, "dropped: full"))
+
+        then:
+        appender.queueDepth == 4
+        appender.droppedCount == 2
+
+        when: "the writer catches up"
+        release.countDown()
+        appender.stop()
+
+        then:
+        out.toString("UTF-8").readLines() == ["held by the writer", "queued 1", "queued 2", "queued 3", "queued 4"]
+    }
+
+    def "should drop only the event that fails to encode"() {
+        given:
+        appender.encoder = new FailingEncoder()
+        appender.start()
+
+        when:
+        (1..10).each { appender.doAppend(event(Level.INFO, it == 4 ? "poison" : "event ${it}")) }
+        appender.stop()
+        def lines = out.toString("UTF-8").readLines()
+
+        then:
+        lines.size() == 9
+        !lines.contains("poison")
+        appender.droppedCount == 1
+    }
+
+    def "should format arguments when the event is appended, not when it is written"() {
+        given: "a writer stuck until the argument has changed"
+        def blocked = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        appender.encoder = new BlockingEncoder(blocked, release)
+        appender.start()
+        appender.doAppend(event(Level.INFO, "first"))
+        blocked.await(5, TimeUnit.SECONDS)
+        def limit = [amount: 1000]
+
+        when:
+        appender.doAppend(new LoggingEvent("fqcn", logger, Level.INFO, "limit {}", null, [limit] as Object[]))
+        limit.amount = 2000
+        release.countDown()
+        appender.stop()
+
+        then:
+        out.toString("UTF-8").readLines() == ["first", "limit {amount=1000}"]
+    }
+
+    def "should expose queue depth and drops as meters"() {
+        given:
+        appender.encoder = new MaskingJsonEncoder()
+        appender.start()
+        context.getLogger("ROOT").addAppender(appender)
+        def registry = new SimpleMeterRegistry()
+
+        when:
+        LoggingMetrics.appenders(context).each { found ->
+            registry.gauge("logging.async.queue.depth", found, { it.queueDepth as double })
+        }
+
+        then:
+        LoggingMetrics.appenders(context) == [appender] as Set
+        registry.get("logging.async.queue.depth").gauge().value() == 0
+    }
+
+    private ILoggingEvent event(Level level, String message) {
+        new LoggingEvent("fqcn", logger, level, message, null, null)
+    }
+
+    static class BlockingEncoder extends EncoderBase<ILoggingEvent> {
+        final CountDownLatch blocked
+        final CountDownLatch release
+
+        BlockingEncoder(CountDownLatch blocked, CountDownLatch release) {
+            this.blocked = blocked
+            this.release = release
+        }
+
+        byte[] headerBytes() { null }
+
+        byte[] footerBytes() { null }
+
+        byte[] encode(ILoggingEvent event) {
+            blocked.countDown()
+            release.await(5, TimeUnit.SECONDS)
+            (event.formattedMessage + "\n").getBytes("UTF-8")
+        }
+    }
+
+    static class FailingEncoder extends EncoderBase<ILoggingEvent> {
+
+        byte[] headerBytes() { null }
+
+        byte[] footerBytes() { null }
+
+        byte[] encode(ILoggingEvent event) {
+            if (event.formattedMessage == "poison") {
+                throw new IllegalStateException("cannot encode")
+            }
+            (event.formattedMessage + "\n").getBytes("UTF-8")
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bank.creditcard.logging
+
+import ch.qos.logback.classic.Level
+import ch.qos.logback.classic.LoggerContext
+import ch.qos.logback.classic.spi.LoggingEvent
+import ch.qos.logback.classic.util.LogbackMDCAdapter
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Specification
+import spock.lang.Subject
+
+class MaskingJsonEncoderSpec extends Specification {
+
+    def context = new LoggerContext().tap { it.MDCAdapter = new LogbackMDCAdapter() }
+    def logger = context.getLogger("com.bank.creditcard.service.ComplianceService")
+    def objectMapper = new ObjectMapper()
+
+    @Subject
+    def encoder = new MaskingJsonEncoder()
+
+    def "should write one masked JSON object per line"() {
+        given:
+        def event = new LoggingEvent("fqcn", logger, Level.INFO,
+                "Check for {} {} with SSN {} and \"quotes\"", null,
+                [Pii.name("John"), Pii.name("Doe"), "123-45-6789"] as Object[])
+        event.setMDCPropertyMap([requestId: "r-1", contact: "jane@example.com"])
+
+        when:
+        def line = new String(encoder.encode(event), "UTF-8")
+        def json = objectMapper.readTree(line)
+
+        then:
+        line.endsWith("\n")
+        line.indexOf('\n') == line.length() - 1
+        json.get("level").asText() == "INFO"
+        json.get("logger").asText() == "com.bank.creditcard.service.ComplianceService"
+        json.get("message").asText() == 'Check for J*** D*** with SSN ***-**-6789 and "quotes"'
+        json.get("mdc").get("requestId").asText() == "r-1"
+        json.get("mdc").get("contact").asText() == "j***@example.com"
+        json.get("@timestamp").asText().endsWith("Z")
+        !json.has("stack_trace")
+    }
+
+    def "should mask personal data inside stack traces"() {
+        given:
+        def event = new LoggingEvent("fqcn", logger, Level.ERROR, "Failed", 
+                new IllegalStateException("Duplicate key (ssn)=(123-45-6789)\n\tsecond line"), null)
+
+        when:
+        def json = objectMapper.readTree(new String(encoder.encode(event), "UTF-8"))
+
+        then:
+        json.get("stack_trace").asText().contains("Duplicate key (ssn)=(***-**-6789)")
+        !json.get("stack_trace").asText().contains("123-45-6789")
+    }
+
+    def "should escape control characters"() {
+        given:
+        def event = new LoggingEvent("fqcn", logger, Level.WARN, "tab\there\u0001end\\", null, null)
+
+        expect:
+        objectMapper.readTree(new String(encoder.encode(event), "UTF-8")).get("message").asText() ==
+                "tab\there\u0001end\\"
+    }
+}
@@ -0,0 +1,42 @@
+package com.bank.creditcard.logging
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class PiiMaskerSpec extends Specification {
+
+    @Unroll
+    def "should mask '#text' as '#masked'"() {
+        given:
+        def out = new StringBuilder()
+
+        when:
+        PiiMasker.maskText(text, out)
+
+        then:
+        out.toString() == masked
+
+        where:
+        text                                              | masked
+        "binding parameter [1] as [VARCHAR] - [123-45-6789]" | "binding parameter [1] as [VARCHAR] - [***-**-6789]"
+        "ssn=123-45-6789, other=987-65-4321"              | "ssn=***-**-6789, other=***-**-4321"
+        "contact john.doe@example.com."                   | "contact j***@example.com."
+        "call +14155550123 now"                           | "call ***0123 now"
+        "APP-1712345678901 decided"                       | "APP-1712345678901 decided"
+        "id 0b4f9e2a-1234-4c5d-8e9f-123456789012"          | "id 0b4f9e2a-1234-4c5d-8e9f-123456789012"
+        "1123-45-6789 and 123-45-67890"                   | "1123-45-6789 and 123-45-67890"
+        "user@localhost and @handle"                      | "user@localhost and @handle"
+        "+1234 is too short"                              | "+1234 is too short"
+        ""                                                | ""
+    }
+
+    def "should mask wrapped values when they are formatted"() {
+        expect:
+        Pii.name("John").toString() == "J***"
+        Pii.ssn("123-45-6789").toString() == "***-**-6789"
+        Pii.email("john.doe@example.com").toString() == "j***@example.com"
+        Pii.phone("+14155550123").toString() == "***0123"
+        Pii.name(null).toString() == "***"
+        Pii.ssn("12").toString() == "***-**-****"
+    }
+}
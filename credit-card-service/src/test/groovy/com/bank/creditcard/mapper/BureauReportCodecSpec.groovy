@@ -0,0 +1,147 @@
+package com.bank.creditcard.mapper
+
+import com.bank.creditcard.client.CreditBureauClient
+import com.bank.creditcard.dto.CreditBureauReport
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.math.RoundingMode
+import java.time.LocalDate
+
+class BureauReportCodecSpec extends Specification {
+
+    @Subject
+    def codec = new BureauReportCodec()
+
+    def "should round-trip a report with fixed-point amounts"() {
+        given: "a report with long-scale amounts as produced by the bureau"
+        def report = createReport()
+
+        when:
+        def decoded = codec.decode(BureauReportCodec.CURRENT_VERSION, codec.encode(report))
+
+        then: "header fields survive"
+        decoded.creditScore == 712
+        decoded.totalDebt == 12345.6789G
+        decoded.monthlyDebtPayments == 246.9136G
+        decoded.numberOfAccounts == 2
+        decoded.numberOfDelinquentAccounts == 1
+        decoded.reportDate == LocalDate.of(2024, 3, 1)
+        decoded.accountCount == 2
+        decoded.inquiryCount == 2
+
+        and: "amounts are rounded to four decimals"
+        decoded.creditAccounts[0].balance == report.creditAccounts[0].balance.setScale(4, RoundingMode.HALF_UP)
+        decoded.creditAccounts[0].creditLimit.compareTo(5000G) == 0
+
+        and: "dictionary and literal strings both decode"
+        decoded.creditAccounts*.accountType == ["Credit Card", "Boat Loan"]
+        decoded.creditAccounts*.creditorName == ["Chase", "Local Credit Union"]
+        decoded.creditAccounts*.status == ["30 Days Late", "Current"]
+        decoded.creditAccounts[1].monthlyPayment == null
+        decoded.recentInquiries*.inquirerName == ["Target", "Car Dealer"]
+        decoded.recentInquiries*.inquiryType == ["Hard Inquiry", "Soft Inquiry"]
+        decoded.recentInquiries[1].inquiryDate == LocalDate.of(2024, 2, 10)
+    }
+
+    def "should not encode the SSN"() {
+        when:
+        def decoded = codec.decode(BureauReportCodec.CURRENT_VERSION, codec.encode(createReport()))
+
+        then:
+        decoded.toReport().ssn == null
+    }
+
+    def "should sum balances and limits by account type without materialising accounts"() {
+        when:
+        def decoded = codec.decode(BureauReportCodec.CURRENT_VERSION, codec.encode(createReport()))
+        def totals = decoded.balanceAndLimit("Credit Card")
+
+        then:
+        totals[0] == 1234.5679G
+        totals[1] == 5000.0000G
+        decoded.@creditAccounts == null
+    }
+
+    def "should be much smaller than the JSON form"() {
+        given: "a mock bureau report"
+        def report = new CreditBureauClient().generateMockCreditReport("123-45-6789")
+        def json = new ObjectMapper().findAndRegisterModules().writeValueAsBytes(report)
+
+        expect:
+        codec.encode(report).length * 4 < json.length
+    }
+
+    def "should handle empty and null sections"() {
+        given:
+        def report = CreditBureauReport.builder().creditScore(600).build()
+
+        when:
+        def decoded = codec.decode(BureauReportCodec.CURRENT_VERSION, codec.encode(report))
+
+        then:
+        decoded.creditScore == 600
+        decoded.totalDebt == null
+        decoded.reportDate == null
+        decoded.creditAccounts.isEmpty()
+        decoded.recentInquiries.isEmpty()
+    }
+
+    def "should reject unknown versions and corrupt payloads"() {
+        when:
+        codec.decode((short) 99, codec.encode(createReport()))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        when:
+        codec.decode(BureauReportCodec.CURRENT_VERSION, [10, 1, 2, 3] as byte[])
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static CreditBureauReport createReport() {
+        CreditBureauReport.builder()
+                .ssn("123-45-6789")
+                .creditScore(712)
+                .totalDebt(12345.6789G)
+                .monthlyDebtPayments(246.91357G)
+                .numberOfAccounts(2)
+                .numberOfDelinquentAccounts(1)
+                .reportDate(LocalDate.of(2024, 3, 1))
+                .creditAccounts([
+                        CreditBureauReport.CreditAccount.builder()
+                                .accountType("Credit Card")
+                                .creditorName("Chase")
+                                .balance(1234.567891234G)
+                                .creditLimit(5000G)
+                                .monthlyPayment(24.69135782468G)
+                                .status("30 Days Late")
+                                .openDate(LocalDate.of(2019, 6, 15))
+                                .build(),
+                        CreditBureauReport.CreditAccount.builder()
+                                .accountType("Boat Loan")
+                                .creditorName("Local Credit Union")
+                                .balance(11111.1G)
+                                .creditLimit(20000G)
+                                .status("Current")
+                                .openDate(LocalDate.of(2021, 1, 1))
+                                .build()
+                ])
+                .recentInquiries([
+                        CreditBureauReport.CreditInquiry.builder()
+                                .inquirerName("Target")
+                                .inquiryDate(LocalDate.of(2024, 1, 5))
+                                .inquiryType("Hard Inquiry")
+                                .build(),
+                        CreditBureauReport.CreditInquiry.builder()
+                                .inquirerName("Car Dealer")
+                                .inquiryDate(LocalDate.of(2024, 2, 10))
+                                .inquiryType("Soft Inquiry")
+                                .build()
+                ])
+                .build()
+    }
+}
@@ -89,8 +89,8 @@ class CreditCardApplicationSpec extends Specification {
         def statuses = CreditCardApplication.ApplicationStatus.values()
         
         then: "all statuses are available"
-        statuses.length == 5
-        statuses*.name() == ["PENDING", "IN_REVIEW", "APPROVED", "REJECTED", "CANCELLED"]
+        statuses.length == 6
+        statuses*.name() == ["PENDING", "IN_REVIEW", "APPROVED", "REJECTED", "CANCELLED", "DEFERRED"]
         
         when: "using CardType enum"
         def cardTypes = CreditCardApplication.CardType.values()
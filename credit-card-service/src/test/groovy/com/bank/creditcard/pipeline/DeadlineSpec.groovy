@@ -0,0 +1,54 @@
+package com.bank.creditcard.pipeline
+
+import com.bank.creditcard.exception.DeadlineExceededException
+import spock.lang.Specification
+
+import java.time.Duration
+
+class DeadlineSpec extends Specification {
+
+    def "should count down from its budget"() {
+        given:
+        def deadline = Deadline.after(Duration.ofMinutes(2))
+
+        expect:
+        !deadline.expired
+        deadline.remaining() > Duration.ofSeconds(110)
+        deadline.remaining() <= Duration.ofMinutes(2)
+        deadline.budget() == Duration.ofMinutes(2)
+    }
+
+    def "should never report negative time left"() {
+        given:
+        def deadline = Deadline.after(Duration.ofMinutes(-5))
+
+        expect:
+        deadline.expired
+        deadline.remaining() == Duration.ZERO
+    }
+
+    def "should throw naming the stage once expired"() {
+        given:
+        def deadline = Deadline.after(Duration.ZERO)
+
+        when:
+        deadline.check("bureau")
+
+        then:
+        def e = thrown(DeadlineExceededException)
+        e.stage == "bureau"
+        e.message.contains("PT0S")
+    }
+
+    def "should round the time left up to whole seconds for transaction timeouts"() {
+        expect:
+        Deadline.after(budget).timeoutSeconds(1) == seconds
+
+        where:
+        budget                  | seconds
+        Duration.ofMillis(1500) | 2
+        Duration.ofSeconds(30)  | 30
+        Duration.ZERO           | 1
+        Duration.ofDays(-1)     | 1
+    }
+}
@@ -0,0 +1,143 @@
+package com.bank.creditcard.pipeline
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class StageSpec extends Specification {
+
+    List<List<Integer>> batches = Collections.synchronizedList([])
+    List<Stage> stages = []
+
+    def cleanup() {
+        stages*.close()
+    }
+
+    def stage(int lanes, int capacity, int maxBatch, Closure handler = { batches << new ArrayList<>(it) }) {
+        def stage = new Stage<Integer>("test", lanes, capacity, maxBatch, { Integer item -> (long) (item % 10) }, handler)
+        stages << stage
+        stage
+    }
+
+    def "should hand items with the same key to one lane in order"() {
+        given:
+        def seen = Collections.synchronizedMap([:].withDefault { [] })
+        def stage = stage(4, 100, 1, { List<Integer> batch ->
+            batch.each { item -> seen[item % 10] << item }
+        })
+        stage.start()
+
+        when:
+        (0..<200).each { stage.put(it) }
+        stage.close()
+
+        then:
+        seen.size() == 10
+        seen.every { key, items -> items == items.sort(false) && items.size() == 20 }
+    }
+
+    def "should spread keys over the lanes"() {
+        given:
+        def stage = stage(4, 10, 1)
+
+        expect:
+        (0L..<1_000L).collect { stage.lane(it) }.toSet() == [0, 1, 2, 3] as Set
+    }
+
+    def "should batch whatever queued up behind the first item"() {
+        given: "a lane held busy while ten items queue"
+        def release = new CountDownLatch(1)
+        def stage = stage(1, 100, 4, { List<Integer> batch ->
+            release.await(5, TimeUnit.SECONDS)
+            batches << new ArrayList<>(batch)
+        })
+        stage.start()
+        stage.put(0)
+        Thread.sleep(200)
+        (1..10).each { stage.put(it) }
+
+        when:
+        release.countDown()
+        stage.close()
+
+        then:
+        batches == [[0], [1, 2, 3, 4], [5, 6, 7, 8], [9, 10]]
+    }
+
+    def "should block producers while a lane is full"() {
+        given:
+        def release = new CountDownLatch(1)
+        def stage = stage(1, 2, 1, { release.await(5, TimeUnit.SECONDS) })
+        stage.start()
+        stage.put(0)
+        Thread.sleep(200)
+        stage.put(1)
+        stage.put(2)
+
+        when:
+        def producer = Thread.start { stage.put(3) }
+        producer.join(300)
+
+        then: "the fourth item waits for room"
+        producer.alive
+        stage.queued() == 2
+
+        cleanup:
+        release.countDown()
+        producer.join()
+    }
+
+    def "should keep going after a failed batch and refuse items once closed"() {
+        given:
+        def stage = stage(1, 10, 1, { List<Integer> batch ->
+            if (batch[0] == 0) {
+                throw new IllegalStateException("boom")
+            }
+            batches << new ArrayList<>(batch)
+        })
+        stage.start()
+
+        when:
+        stage.put(0)
+        stage.put(1)
+        stage.close()
+
+        then:
+        batches == [[1]]
+
+        when:
+        stage.put(2)
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "should export queue depth, capacity, lanes and throughput"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        def stage = stage(2, 8, 1)
+        stage.bindTo(registry)
+        stage.start()
+
+        when:
+        (0..<5).each { stage.put(it) }
+        stage.close()
+
+        then:
+        registry.get("pipeline.stage.capacity").tag("stage", "test").gauge().value() == 16
+        registry.get("pipeline.stage.lanes").tag("stage", "test").gauge().value() == 2
+        registry.get("pipeline.stage.queued").tag("stage", "test").gauge().value() == 0
+        registry.get("pipeline.stage.items").tag("stage", "test").functionCounter().count() == 5
+        registry.get("pipeline.stage.duration").tag("stage", "test").timer().count() == 5
+    }
+
+    def "should refuse a stage without lanes"() {
+        when:
+        new Stage<Integer>("test", 0, 10, 1, { Integer item -> (long) item }, {})
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
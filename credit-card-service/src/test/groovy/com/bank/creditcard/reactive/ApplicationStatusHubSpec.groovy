@@ -0,0 +1,126 @@
+package com.bank.creditcard.reactive
+
+import com.bank.creditcard.model.CreditCardApplication.ApplicationStatus
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import reactor.core.publisher.Flux
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+import java.time.LocalDateTime
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ApplicationStatusHubSpec extends Specification {
+
+    def repository = Mock(ReactiveApplicationRepository)
+    def conditions = new PollingConditions(timeout: 2)
+    def start = LocalDateTime.now()
+
+    def "should emit the current status, then only changes for the watched application, until final"() {
+        given:
+        def polls = [
+                [change("APP-2", ApplicationStatus.IN_REVIEW, 1), change("APP-1", ApplicationStatus.IN_REVIEW, 1)],
+                // The overlap window returns the same change again
+                [change("APP-1", ApplicationStatus.IN_REVIEW, 1)],
+                [change("APP-1", ApplicationStatus.APPROVED, 2)]
+        ] as LinkedList
+        repository.findStatusChangesSince(_, _) >> { Flux.fromIterable(polls.poll() ?: []) }
+        def hub = new ApplicationStatusHub(repository, Duration.ofMillis(10), 100, Duration.ofSeconds(5))
+
+        when:
+        def statuses = hub.watch(change("APP-1", ApplicationStatus.PENDING, 0))
+                .map { it.status }
+                .collectList()
+                .block(Duration.ofSeconds(5))
+
+        then:
+        statuses == [ApplicationStatus.PENDING, ApplicationStatus.IN_REVIEW, ApplicationStatus.APPROVED]
+    }
+
+    def "should complete at once when the application is already decided"() {
+        given:
+        def hub = new ApplicationStatusHub(repository, Duration.ofMillis(10), 100, Duration.ofSeconds(5))
+
+        expect:
+        hub.watch(change("APP-1", ApplicationStatus.REJECTED, 0)).collectList().block(Duration.ofSeconds(1))*.status ==
+                [ApplicationStatus.REJECTED]
+    }
+
+    def "should share one poll between all watchers and stop polling when nobody watches"() {
+        given:
+        def polled = new CopyOnWriteArrayList<LocalDateTime>()
+        repository.findStatusChangesSince(_, _) >> { LocalDateTime since, int limit ->
+            polled << since
+            Flux.empty()
+        }
+        def hub = new ApplicationStatusHub(repository, Duration.ofMillis(50), 100, Duration.ofMillis(500))
+        def registry = new SimpleMeterRegistry()
+        hub.bindTo(registry)
+
+        when:
+        def watches = (1..100).collect { hub.watch(change("APP-$it", ApplicationStatus.PENDING, 0)).subscribe() }
+
+        then:
+        conditions.eventually {
+            assert registry.get("reactive.status.watchers").gauge().value() == 100
+            assert polled.size() >= 2
+        }
+        polled.size() < 30
+
+        when:
+        watches*.dispose()
+        def afterwards = polled.size()
+        Thread.sleep(200)
+
+        then:
+        hub.watchers == 0
+        polled.size() <= afterwards + 1
+    }
+
+    def "should re-read the overlap window unless the last batch was full"() {
+        given:
+        def polled = new CopyOnWriteArrayList<LocalDateTime>()
+        def newest = start.plusSeconds(30)
+        def batches = [
+                [change("APP-1", ApplicationStatus.IN_REVIEW, 30), change("APP-2", ApplicationStatus.IN_REVIEW, 20)],
+                [change("APP-3", ApplicationStatus.IN_REVIEW, 30)]
+        ] as LinkedList
+        repository.findStatusChangesSince(_, _) >> { LocalDateTime since, int limit ->
+            polled << since
+            Flux.fromIterable(batches.poll() ?: [])
+        }
+        def hub = new ApplicationStatusHub(repository, Duration.ofMillis(10), 2, Duration.ofSeconds(5))
+
+        when:
+        def watch = hub.watch(change("APP-9", ApplicationStatus.PENDING, 0)).subscribe()
+
+        then:
+        conditions.eventually {
+            assert polled.size() >= 3
+        }
+        polled[0] < start
+        polled[1] == newest
+        polled[2] == newest.minus(ApplicationStatusHub.OVERLAP)
+
+        cleanup:
+        watch?.dispose()
+    }
+
+    def "should keep watching after a failed poll"() {
+        given:
+        def calls = 0
+        repository.findStatusChangesSince(_, _) >> {
+            calls++ == 0 ? Flux.error(new IllegalStateException("connection reset"))
+                    : Flux.just(change("APP-1", ApplicationStatus.APPROVED, 1))
+        }
+        def hub = new ApplicationStatusHub(repository, Duration.ofMillis(10), 100, Duration.ofSeconds(5))
+
+        expect:
+        hub.watch(change("APP-1", ApplicationStatus.PENDING, 0)).collectList().block(Duration.ofSeconds(5))*.status ==
+                [ApplicationStatus.PENDING, ApplicationStatus.APPROVED]
+    }
+
+    private StatusChange change(String applicationNumber, ApplicationStatus status, int seconds) {
+        new StatusChange(applicationNumber, status, start.plusSeconds(seconds))
+    }
+}
@@ -0,0 +1,425 @@
+package com.bank.creditcard.reactive
+
+import com.bank.creditcard.client.CreditBureauClient
+import com.bank.creditcard.concurrency.AdaptiveConcurrencyLimiter
+import com.bank.creditcard.dto.AddressDto
+import com.bank.creditcard.dto.CreditBureauReport
+import com.bank.creditcard.dto.CreditCardApplicationRequest
+import com.bank.creditcard.exception.DuplicateApplicationException
+import com.bank.creditcard.exception.ResourceNotFoundException
+import com.bank.creditcard.journal.DecisionJournal
+import com.bank.creditcard.journal.TransitionReason
+import com.bank.creditcard.mapper.ApplicationMapperImpl
+import com.bank.creditcard.mapper.BureauReportCodec
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.rules.DecisionRulesRegistry
+import com.bank.creditcard.security.ClientChannels
+import com.bank.creditcard.service.ComplianceService
+import com.bank.creditcard.service.DecisionAnalyticsService
+import com.bank.creditcard.service.RiskAssessmentService
+import com.bank.creditcard.service.SsnFilterService
+import com.bank.creditcard.service.VelocityScreeningService
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.r2dbc.spi.ConnectionFactories
+import org.springframework.core.io.DefaultResourceLoader
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.context.ReactiveSecurityContextHolder
+import org.springframework.test.util.ReflectionTestUtils
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+import spock.lang.Subject
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+import java.time.LocalDate
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Runs against an in-memory H2 database over R2DBC. The pipeline limiter is kept full during
+ * submission so decisions run only when a feature calls {@code decide} itself.
+ */
+class ReactiveApplicationServiceSpec extends Specification {
+
+    static final String SCHEMA = """
+        CREATE TABLE customers (
+            id UUID PRIMARY KEY, first_name VARCHAR(100) NOT NULL, last_name VARCHAR(100) NOT NULL,
+            email VARCHAR(255) UNIQUE NOT NULL, phone_number VARCHAR(20) NOT NULL, ssn VARCHAR(11) UNIQUE NOT NULL,
+            date_of_birth DATE NOT NULL, street_address VARCHAR(255), city VARCHAR(100), state VARCHAR(2),
+            zip_code VARCHAR(10), country VARCHAR(50), identity_verified BOOLEAN DEFAULT FALSE,
+            kyc_status VARCHAR(20) DEFAULT 'PENDING', created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP);
+        CREATE TABLE credit_card_applications (
+            id UUID PRIMARY KEY, application_number VARCHAR(50) UNIQUE NOT NULL, status VARCHAR(20) NOT NULL,
+            customer_id UUID NOT NULL REFERENCES customers(id), requested_limit DECIMAL(10,2),
+            approved_limit DECIMAL(10,2), annual_income DECIMAL(12,2) NOT NULL, employment_status VARCHAR(50) NOT NULL,
+            credit_score INTEGER, risk_score DECIMAL(5,2), card_type VARCHAR(20), decision_reason TEXT,
+            rules_version VARCHAR(40), device_id VARCHAR(128), channel VARCHAR(16) NOT NULL,
+            created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP, decided_at TIMESTAMP,
+            deferrals INTEGER NOT NULL DEFAULT 0, version BIGINT NOT NULL DEFAULT 0);
+        CREATE TABLE credit_bureau_snapshots (
+            application_id UUID PRIMARY KEY REFERENCES credit_card_applications(id), encoding_version SMALLINT NOT NULL,
+            payload VARBINARY NOT NULL, created_at TIMESTAMP NOT NULL);
+        """
+
+    def connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///reactive-${UUID.randomUUID()};DB_CLOSE_DELAY=-1")
+    def template = new R2dbcEntityTemplate(connectionFactory)
+    def repositoryFactory = new R2dbcRepositoryFactory(template)
+    def applicationRepository = repositoryFactory.getRepository(ReactiveApplicationRepository)
+    def customerRepository = repositoryFactory.getRepository(ReactiveCustomerRepository)
+    def complianceService = Mock(ComplianceService)
+    def velocityScreeningService = Mock(VelocityScreeningService)
+    boolean customerFilterSaysMaybe = true
+    boolean pendingFilterSaysMaybe = true
+    def ssnFilterService = Mock(SsnFilterService) {
+        mightHavePending(_) >> { pendingFilterSaysMaybe }
+        mightBeCustomer(_) >> { customerFilterSaysMaybe }
+    }
+    def creditBureauClient = Mock(CreditBureauClient)
+    def decisionRulesRegistry = new DecisionRulesRegistry(
+            new ObjectMapper(), new DefaultResourceLoader(), "classpath:decision-rules.json")
+    def decisionAnalyticsService = Mock(DecisionAnalyticsService)
+    def decisionJournal = Mock(DecisionJournal)
+    def statusHub = new ApplicationStatusHub(applicationRepository, Duration.ofMillis(50), 100, Duration.ofSeconds(5))
+    def pipelineLimiter = new AdaptiveConcurrencyLimiter("reactive-pipeline", 1, 1, 1, Duration.ofSeconds(5))
+    AdaptiveConcurrencyLimiter.Permit held
+
+    // The only permit is held, so no submission starts its own decision; tests call decide() instead,
+    // and the application a full limiter would park stays PENDING unless a test says otherwise
+    @Subject
+    def service = Spy(ReactiveApplicationService, constructorArgs: [applicationRepository, customerRepository,
+            template, connectionFactory, new ApplicationMapperImpl(), complianceService, velocityScreeningService,
+            ssnFilterService, creditBureauClient, new RiskAssessmentService(decisionRulesRegistry),
+            decisionRulesRegistry, decisionAnalyticsService, decisionJournal, new BureauReportCodec(), statusHub,
+            pipelineLimiter, new ClientChannels(["branch-desk=BRANCH"])]) {
+        park(_) >> Mono.empty()
+    }
+
+    def setup() {
+        SCHEMA.split(";").findAll { it.trim() }.each { statement ->
+            template.databaseClient.sql(statement).then().block()
+        }
+        held = pipelineLimiter.tryAcquire()
+    }
+
+    def cleanup() {
+        held?.close()
+        template.databaseClient.sql("SHUTDOWN").then().onErrorResume { Mono.empty() }.block()
+    }
+
+    def "should submit a pending application for a new customer"() {
+        given:
+        def request = request("123-45-6789", "john@example.com")
+        request.deviceId = "device-1"
+
+        when:
+        def response = service.submitApplication(request).block()
+
+        then:
+        response.status == "PENDING"
+        response.customerName == "John Doe"
+        response.applicationNumber.startsWith("APP-")
+        1 * decisionJournal.append(_, null, CreditCardApplication.ApplicationStatus.PENDING,
+                CreditCardApplication.CardType.GOLD, null, null, null, TransitionReason.SUBMITTED)
+        1 * velocityScreeningService.record({ it != null }, { it.ssn == "123-45-6789" }, "device-1", { it != null })
+        1 * ssnFilterService.customerAdded("123-45-6789")
+        1 * ssnFilterService.pendingAdded("123-45-6789")
+
+        and: "both rows are in the database"
+        customerRepository.findBySsn("123-45-6789").block().identityVerified
+        with(applicationRepository.findById(response.id).block()) {
+            version == 0
+            deviceId == "device-1"
+        }
+    }
+
+    def "should take the channel from the authenticated client"() {
+        when:
+        def branch = service.submitApplication(request("111-11-1111", "a@example.com"))
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        UsernamePasswordAuthenticationToken.authenticated("branch-desk", null, [])))
+                .block()
+        def online = service.submitApplication(request("222-22-2222", "b@example.com")).block()
+
+        then:
+        applicationRepository.findById(branch.id).block().channel == CreditCardApplication.Channel.BRANCH
+        applicationRepository.findById(online.id).block().channel == CreditCardApplication.Channel.ONLINE
+    }
+
+    def "should reuse an existing customer and reject a second pending application"() {
+        given:
+        def first = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        applicationRepository.findById(first.id)
+                .flatMap { row -> row.status = CreditCardApplication.ApplicationStatus.REJECTED; template.update(row) }
+                .block()
+
+        when: "the customer applies again after a decision"
+        def second = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+
+        then:
+        customerRepository.count().block() == 1
+        second.id != first.id
+
+        when: "and once more while that one is pending"
+        service.submitApplication(request("123-45-6789", "john@example.com")).block()
+
+        then:
+        thrown(DuplicateApplicationException)
+        applicationRepository.count().block() == 2
+    }
+
+    def "should retry with the customer another instance inserted after the filter last caught up"() {
+        given: "a customer the filter has not seen, with a decided application"
+        def first = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        applicationRepository.findById(first.id)
+                .flatMap { row -> row.status = CreditCardApplication.ApplicationStatus.REJECTED; template.update(row) }
+                .block()
+        customerFilterSaysMaybe = false
+
+        when:
+        def second = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+
+        then: "the failed insert teaches the filter, and the second attempt reuses the customer"
+        1 * ssnFilterService.customerAdded("123-45-6789") >> { customerFilterSaysMaybe = true }
+        second.status == "PENDING"
+        customerRepository.count().block() == 1
+        applicationRepository.count().block() == 2
+    }
+
+    def "should ask the database about an existing customer's pending application whatever the filter said"() {
+        given: "a pending application submitted elsewhere before the filter caught up"
+        service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        pendingFilterSaysMaybe = false
+
+        when:
+        service.submitApplication(request("123-45-6789", "john@example.com")).block()
+
+        then:
+        thrown(DuplicateApplicationException)
+        applicationRepository.count().block() == 1
+    }
+
+    def "should approve through compliance, bureau and risk without blocking"() {
+        given:
+        def submitted = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        complianceService.checkCompliance(_, _) >> Mono.just(new ComplianceService.ComplianceCheckResult(overallPassed: true))
+        creditBureauClient.fetchCreditReport("123-45-6789") >> Mono.just(report(780))
+
+        when:
+        held.close()
+        def permit = pipelineLimiter.tryAcquire()
+        service.decide(submitted.id, permit).block()
+        held = permit
+
+        then:
+        def decided = service.getApplication(submitted.applicationNumber).block()
+        decided.status == "APPROVED"
+        decided.creditScore == 780
+        decided.approvedLimit > 0
+        decided.rulesVersion == decisionRulesRegistry.current().version
+        decided.decidedAt != null
+        1 * decisionJournal.append(submitted.id, CreditCardApplication.ApplicationStatus.PENDING,
+                CreditCardApplication.ApplicationStatus.IN_REVIEW, _, _, _, _, TransitionReason.REVIEW_STARTED)
+        1 * decisionJournal.append(submitted.id, CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                CreditCardApplication.ApplicationStatus.APPROVED, _, 780, _, _, TransitionReason.APPROVED)
+        1 * decisionAnalyticsService.record({ it.status == CreditCardApplication.ApplicationStatus.APPROVED })
+        1 * ssnFilterService.pendingRemoved("123-45-6789")
+
+        and: "the bureau report is kept as a snapshot"
+        template.databaseClient.sql("SELECT COUNT(*) FROM credit_bureau_snapshots").map { row -> row.get(0, Long) }
+                .one().block() == 1
+
+        and: "the row went through three versions"
+        applicationRepository.findById(submitted.id).block().version == 2
+    }
+
+    def "should reject on a failed compliance check without calling the bureau"() {
+        given:
+        def submitted = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        complianceService.checkCompliance(_, _) >> Mono.just(new ComplianceService.ComplianceCheckResult(
+                overallPassed: false, reason: "Compliance check failed: AML check failed."))
+
+        when:
+        service.decide(submitted.id, held).block()
+
+        then:
+        0 * creditBureauClient._
+        with(service.getApplication(submitted.applicationNumber).block()) {
+            status == "REJECTED"
+            decisionReason == "Compliance check failed: AML check failed."
+        }
+    }
+
+    def "should reject with a system error when a step fails"() {
+        given:
+        def submitted = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        complianceService.checkCompliance(_, _) >> Mono.just(new ComplianceService.ComplianceCheckResult(overallPassed: true))
+        creditBureauClient.fetchCreditReport(_) >> Mono.error(new IllegalStateException("bureau down"))
+
+        when:
+        service.decide(submitted.id, held).block()
+
+        then:
+        with(service.getApplication(submitted.applicationNumber).block()) {
+            status == "REJECTED"
+            decisionReason == "System error during processing"
+        }
+    }
+
+    def "should keep a committed decision when analytics fails"() {
+        given:
+        def submitted = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        complianceService.checkCompliance(_, _) >> Mono.just(new ComplianceService.ComplianceCheckResult(overallPassed: true))
+        creditBureauClient.fetchCreditReport("123-45-6789") >> Mono.just(report(780))
+        decisionAnalyticsService.record(_) >> { throw new IllegalStateException("analytics down") }
+
+        when:
+        service.decide(submitted.id, held).block()
+
+        then:
+        with(service.getApplication(submitted.applicationNumber).block()) {
+            status == "APPROVED"
+            decisionReason == "Application approved based on credit assessment"
+        }
+        0 * decisionJournal.append(_, _, _, _, _, _, _, TransitionReason.SYSTEM_ERROR)
+    }
+
+    def "should defer an application whose compliance check outlasts the time budget"() {
+        given:
+        def submitted = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        ReflectionTestUtils.setField(service, "deadlineBudget", Duration.ofMillis(100))
+        complianceService.checkCompliance(_, _) >> Mono.never()
+
+        when:
+        service.decide(submitted.id, held).block(Duration.ofSeconds(5))
+
+        then:
+        0 * creditBureauClient._
+        1 * decisionJournal.append(_, CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                CreditCardApplication.ApplicationStatus.DEFERRED, _, _, _, _, TransitionReason.DEADLINE_EXCEEDED)
+        0 * ssnFilterService.pendingRemoved(_)
+        with(applicationRepository.findById(submitted.id).block()) {
+            status == CreditCardApplication.ApplicationStatus.DEFERRED
+            deferrals == 1
+            decidedAt == null
+        }
+    }
+
+    def "should reject an application out of budget once it has used up its deferrals"() {
+        given:
+        def submitted = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        template.databaseClient.sql("UPDATE credit_card_applications SET deferrals = 3").then().block()
+        ReflectionTestUtils.setField(service, "deadlineBudget", Duration.ofMillis(100))
+        complianceService.checkCompliance(_, _) >> Mono.just(new ComplianceService.ComplianceCheckResult(overallPassed: true))
+        creditBureauClient.fetchCreditReport(_) >> Mono.never()
+
+        when:
+        service.decide(submitted.id, held).block(Duration.ofSeconds(5))
+
+        then:
+        with(service.getApplication(submitted.applicationNumber).block()) {
+            status == "REJECTED"
+            decisionReason == "Application could not be decided within the time budget"
+        }
+        1 * ssnFilterService.pendingRemoved("123-45-6789")
+    }
+
+    def "should defer a submission the limiter has no room for"() {
+        given:
+        def parked = new CountDownLatch(1)
+
+        when: "the park runs off the submitting thread; interactions are checked as soon as this block ends"
+        def submitted = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        parked.await(5, TimeUnit.SECONDS)
+
+        then: "it is parked for the retry sweep, without counting as a deferral"
+        1 * service.park(_) >> { callRealMethod() }
+        1 * decisionJournal.append(_, CreditCardApplication.ApplicationStatus.PENDING,
+                CreditCardApplication.ApplicationStatus.DEFERRED, _, _, _, _, TransitionReason.PIPELINE_SATURATED) >>
+                { parked.countDown() }
+        service.getApplication(submitted.applicationNumber).block().status == "DEFERRED"
+        0 * ssnFilterService.pendingRemoved(_)
+    }
+
+    def "should stream applications by email and pending applications"() {
+        given:
+        service.submitApplication(request("111-11-1111", "a@example.com")).block()
+        service.submitApplication(request("222-22-2222", "b@example.com")).block()
+
+        expect:
+        service.getApplicationsByEmail("a@example.com").collectList().block().size() == 1
+        service.getPendingApplications().collectList().block().size() == 2
+        service.getApplicationsByEmail("nobody@example.com").collectList().block().isEmpty()
+    }
+
+    def "should fail lookups of unknown applications"() {
+        when:
+        service.getApplication("APP-missing").block()
+
+        then:
+        thrown(ResourceNotFoundException)
+
+        when:
+        service.watchStatus("APP-missing").blockLast()
+
+        then:
+        thrown(ResourceNotFoundException)
+    }
+
+    def "should stream status changes until the decision"() {
+        given:
+        def submitted = service.submitApplication(request("123-45-6789", "john@example.com")).block()
+        def statuses = Collections.synchronizedList([])
+
+        when: "a watcher is open while the application is decided"
+        def watching = service.watchStatus(submitted.applicationNumber)
+                .doOnNext { statuses << it.status }
+                .then()
+                .toFuture()
+        Thread.sleep(100)
+        applicationRepository.findById(submitted.id).flatMap { row ->
+            row.status = CreditCardApplication.ApplicationStatus.APPROVED
+            row.updatedAt = java.time.LocalDateTime.now()
+            template.update(row)
+        }.block()
+        watching.get(5, java.util.concurrent.TimeUnit.SECONDS)
+
+        then:
+        statuses == [CreditCardApplication.ApplicationStatus.PENDING, CreditCardApplication.ApplicationStatus.APPROVED]
+        new PollingConditions(timeout: 1).eventually {
+            assert statusHub.watchers == 0
+        }
+    }
+
+    private static CreditCardApplicationRequest request(String ssn, String email) {
+        new CreditCardApplicationRequest(
+                firstName: "John",
+                lastName: "Doe",
+                email: email,
+                phoneNumber: "+1234567890",
+                ssn: ssn,
+                dateOfBirth: LocalDate.of(1990, 1, 1),
+                address: new AddressDto(streetAddress: "123 Main St", city: "New York", state: "NY",
+                        zipCode: "10001", country: "USA"),
+                annualIncome: new BigDecimal("75000"),
+                employmentStatus: "FULL_TIME",
+                requestedLimit: new BigDecimal("5000"),
+                cardType: "GOLD"
+        )
+    }
+
+    private static CreditBureauReport report(int creditScore) {
+        CreditBureauReport.builder()
+                .ssn("123-45-6789")
+                .creditScore(creditScore)
+                .totalDebt(new BigDecimal("5000"))
+                .monthlyDebtPayments(new BigDecimal("200"))
+                .numberOfAccounts(2)
+                .numberOfDelinquentAccounts(0)
+                .creditAccounts([])
+                .recentInquiries([])
+                .reportDate(LocalDate.now())
+                .build()
+    }
+}
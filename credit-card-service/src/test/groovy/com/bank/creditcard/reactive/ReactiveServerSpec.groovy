@@ -0,0 +1,201 @@
+package com.bank.creditcard.reactive
+
+import com.bank.creditcard.dto.CreditCardApplicationResponse
+import com.bank.creditcard.exception.DuplicateApplicationException
+import com.bank.creditcard.exception.ResourceNotFoundException
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.security.BearerTokenService
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.springframework.context.support.GenericApplicationContext
+import org.springframework.http.MediaType
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.authority.AuthorityUtils
+import org.springframework.test.web.reactive.server.WebTestClient
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+class ReactiveServerSpec extends Specification {
+
+    static final String BASE = ReactiveWebConfig.BASE_PATH
+
+    def applicationService = Mock(ReactiveApplicationService)
+    def tokenService = new BearerTokenService("0123456789abcdef0123456789abcdef", Duration.ofMinutes(15),
+            Clock.systemUTC())
+    def token = tokenService.issue(UsernamePasswordAuthenticationToken.authenticated("user", null,
+            AuthorityUtils.createAuthorityList("ROLE_USER"))).accessToken
+    def parent = new GenericApplicationContext()
+    def context
+    WebTestClient client
+
+    def setup() {
+        parent.registerBean(ReactiveApplicationService, { applicationService })
+        parent.registerBean(BearerTokenService, { tokenService })
+        parent.registerBean(ObjectMapper, { Jackson2ObjectMapperBuilder.json().build() })
+        parent.registerBean("defaultValidator", LocalValidatorFactoryBean, new Object[0])
+        parent.refresh()
+        context = ReactiveServer.createContext(parent)
+        client = WebTestClient.bindToApplicationContext(context).configureClient()
+                .defaultHeader("Authorization", "Bearer " + token)
+                .build()
+    }
+
+    def cleanup() {
+        context?.close()
+        parent.close()
+    }
+
+    def "should require a bearer token"() {
+        expect:
+        WebTestClient.bindToApplicationContext(context).build()
+                .get().uri(BASE + "/APP-1").exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals("WWW-Authenticate", "Bearer")
+
+        and:
+        WebTestClient.bindToApplicationContext(context).build()
+                .get().uri(BASE + "/APP-1").header("Authorization", "Bearer not-a-token").exchange()
+                .expectStatus().isUnauthorized()
+                .expectHeader().valueEquals("WWW-Authenticate", 'Bearer error="invalid_token"')
+    }
+
+    def "should submit a valid application"() {
+        when:
+        def result = client.post().uri(BASE).contentType(MediaType.APPLICATION_JSON).bodyValue(validRequest())
+                .exchange()
+
+        then:
+        1 * applicationService.submitApplication({ it.ssn == "123-45-6789" }) >> Mono.just(response("APP-1", "PENDING"))
+        result.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath('$.applicationNumber').isEqualTo("APP-1")
+                .jsonPath('$.status').isEqualTo("PENDING")
+    }
+
+    def "should answer an invalid application with a validation problem"() {
+        given:
+        def request = validRequest() + [ssn: "123456789", email: "not-an-email"]
+
+        when:
+        def result = client.post().uri(BASE).contentType(MediaType.APPLICATION_JSON).bodyValue(request).exchange()
+
+        then:
+        0 * applicationService.submitApplication(_)
+        result.expectStatus().isBadRequest()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .jsonPath('$.title').isEqualTo("Validation Error")
+                .jsonPath('$.errors.ssn').exists()
+                .jsonPath('$.errors.email').exists()
+                .jsonPath('$.timestamp').exists()
+    }
+
+    def "should map a duplicate to 409 and an unknown application to 404"() {
+        given:
+        applicationService.submitApplication(_) >> Mono.error(new DuplicateApplicationException("already pending"))
+        applicationService.getApplication("APP-missing") >>
+                Mono.error(new ResourceNotFoundException("Application not found: APP-missing"))
+
+        expect:
+        client.post().uri(BASE).contentType(MediaType.APPLICATION_JSON).bodyValue(validRequest()).exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath('$.title').isEqualTo("Duplicate Application")
+
+        and:
+        client.get().uri(BASE + "/APP-missing").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath('$.title').isEqualTo("Resource Not Found")
+                .jsonPath('$.detail').isEqualTo("Application not found: APP-missing")
+    }
+
+    def "should stream lists as NDJSON when asked and as a JSON array otherwise"() {
+        given:
+        applicationService.getPendingApplications() >> { Flux.just(response("APP-1", "PENDING"), response("APP-2", "PENDING")) }
+
+        expect:
+        client.get().uri(BASE + "/pending").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(CreditCardApplicationResponse).responseBody
+                .map { it.applicationNumber }
+                .collectList().block() == ["APP-1", "APP-2"]
+
+        and:
+        client.get().uri(BASE + "/pending").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath('$.length()').isEqualTo(2)
+                .jsonPath('$[1].applicationNumber').isEqualTo("APP-2")
+    }
+
+    def "should stream status changes as server-sent events"() {
+        given:
+        def now = LocalDateTime.now()
+        applicationService.watchStatus("APP-1") >> Flux.just(
+                new StatusChange("APP-1", CreditCardApplication.ApplicationStatus.PENDING, now),
+                new StatusChange("APP-1", CreditCardApplication.ApplicationStatus.APPROVED, now.plusSeconds(1)))
+
+        when:
+        def body = client.get().uri(BASE + "/APP-1/status").accept(MediaType.TEXT_EVENT_STREAM).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String).returnResult().responseBody
+
+        then:
+        body.count("event:status") == 2
+        body.contains('"status":"APPROVED"')
+    }
+
+    def "should serve the routes on its own port"() {
+        given:
+        def server = new ReactiveServer(parent, 0)
+        applicationService.getApplication("APP-1") >> Mono.just(response("APP-1", "APPROVED"))
+
+        when:
+        server.start()
+
+        then:
+        server.running
+        WebTestClient.bindToServer().baseUrl("http://localhost:${server.port}").build()
+                .get().uri(BASE + "/APP-1").header("Authorization", "Bearer " + token).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath('$.status').isEqualTo("APPROVED")
+
+        cleanup:
+        server.stop()
+    }
+
+    private static Map validRequest() {
+        [
+                firstName       : "John",
+                lastName        : "Doe",
+                email           : "john@example.com",
+                phoneNumber     : "+1234567890",
+                ssn             : "123-45-6789",
+                dateOfBirth     : LocalDate.of(1990, 1, 1).toString(),
+                address         : [streetAddress: "123 Main St", city: "New York", state: "NY", zipCode: "10001",
+                                   country      : "USA"],
+                annualIncome    : 75000,
+                employmentStatus: "FULL_TIME",
+                requestedLimit  : 5000,
+                cardType        : "GOLD"
+        ]
+    }
+
+    private static CreditCardApplicationResponse response(String applicationNumber, String status) {
+        CreditCardApplicationResponse.builder()
+                .applicationNumber(applicationNumber)
+                .status(status)
+                .customerName("John Doe")
+                .createdAt(LocalDateTime.now())
+                .build()
+    }
+}
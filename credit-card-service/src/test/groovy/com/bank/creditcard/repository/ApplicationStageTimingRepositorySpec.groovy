@@ -0,0 +1,78 @@
+package com.bank.creditcard.repository
+
+import com.bank.creditcard.model.ApplicationStageTiming
+import com.bank.creditcard.model.CreditCardApplication
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager
+import org.springframework.data.domain.Limit
+import org.springframework.test.context.ActiveProfiles
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ApplicationStageTimingRepositorySpec extends Specification {
+
+    static final LocalDateTime JAN_15 = LocalDateTime.of(2024, 1, 15, 12, 0)
+
+    @Autowired
+    TestEntityManager entityManager
+
+    @Autowired
+    ApplicationStageTimingRepository repository
+
+    def "should report stage percentiles by day"() {
+        given: "ten approvals on one day and a compliance rejection on the next"
+        (1..10).each { timing(JAN_15.plusMinutes(it), CreditCardApplication.ApplicationStatus.APPROVED, it * 100) }
+        timing(JAN_15.plusDays(1), CreditCardApplication.ApplicationStatus.REJECTED, 50).with {
+            bureauMs = null
+            scoringMs = null
+        }
+        entityManager.flush()
+
+        when:
+        def rows = repository.findStagePercentiles(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0))
+
+        then: "a row per day and stage reached"
+        rows.size() == 6 + 4
+        def total = rows.find { it.day == "2024-01-15" && it.stage == "total" }
+        total.applications == 10
+        total.p50 == 550d
+        total.p90 == 910d
+        total.maxMs == 1000
+
+        and: "stages an application skipped are left out"
+        rows.findAll { it.day == "2024-01-16" }*.stage.toSet() == ["queue_wait", "compliance", "persist", "total"] as Set
+    }
+
+    def "should list the slowest decisions in range first"() {
+        given:
+        (1..5).each { timing(JAN_15.plusMinutes(it), CreditCardApplication.ApplicationStatus.APPROVED, it * 100) }
+        timing(JAN_15.plusMonths(1), CreditCardApplication.ApplicationStatus.APPROVED, 9000)
+        entityManager.flush()
+
+        when:
+        def slowest = repository.findSlowest(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0),
+                Limit.of(3))
+
+        then:
+        slowest*.totalMs == [500, 400, 300]
+    }
+
+    private ApplicationStageTiming timing(LocalDateTime decidedAt, CreditCardApplication.ApplicationStatus status,
+                                          int totalMs) {
+        entityManager.persist(new ApplicationStageTiming(
+                applicationId: UUID.randomUUID(),
+                status: status,
+                decidedAt: decidedAt,
+                queueWaitMs: 10,
+                complianceMs: 5,
+                bureauMs: 20,
+                scoringMs: 1,
+                persistMs: 3,
+                totalMs: totalMs
+        ))
+    }
+}
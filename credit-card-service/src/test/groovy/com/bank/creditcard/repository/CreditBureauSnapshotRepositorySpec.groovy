@@ -0,0 +1,87 @@
+package com.bank.creditcard.repository
+
+import com.bank.creditcard.model.CreditBureauSnapshot
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.model.Customer
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager
+import org.springframework.test.context.ActiveProfiles
+import spock.lang.Specification
+
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+@DataJpaTest
+@ActiveProfiles("test")
+class CreditBureauSnapshotRepositorySpec extends Specification {
+
+    @Autowired
+    TestEntityManager entityManager
+
+    @Autowired
+    CreditBureauSnapshotRepository repository
+
+    def "should persist and reload a snapshot payload"() {
+        given: "a saved application"
+        def application = createApplication()
+        def payload = (0..<2048).collect { (byte) it } as byte[]
+
+        when: "storing its snapshot"
+        repository.save(new CreditBureauSnapshot(application.id, (short) 1, payload))
+        entityManager.flush()
+        entityManager.clear()
+
+        then: "the payload is read back byte for byte"
+        def found = repository.findById(application.id).get()
+        found.payload == payload
+        found.encodingVersion == (short) 1
+        found.createdAt != null
+        !found.isNew()
+    }
+
+    def "should stream backtest inputs for decided applications in range"() {
+        given: "a decided application with a snapshot"
+        def application = createApplication()
+        application.status = CreditCardApplication.ApplicationStatus.APPROVED
+        application.approvedLimit = 4000G
+        application.riskScore = 22.5G
+        application.decidedAt = LocalDateTime.of(2024, 1, 15, 12, 0)
+        repository.save(new CreditBureauSnapshot(application.id, (short) 1, [1, 2, 3] as byte[]))
+        entityManager.flush()
+        entityManager.clear()
+
+        when:
+        def inputs = repository.streamBacktestInputs(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 1, 0, 0)).withCloseable { it.toList() }
+
+        then:
+        inputs.size() == 1
+        inputs[0].status == CreditCardApplication.ApplicationStatus.APPROVED
+        inputs[0].approvedLimit == 4000G
+        inputs[0].payload == [1, 2, 3] as byte[]
+
+        and: "decisions outside the range are excluded"
+        repository.streamBacktestInputs(LocalDateTime.of(2024, 2, 1, 0, 0),
+                LocalDateTime.of(2024, 3, 1, 0, 0)).withCloseable { it.count() } == 0
+    }
+
+    private CreditCardApplication createApplication() {
+        def customer = entityManager.persist(new Customer(
+                firstName: "Jane",
+                lastName: "Doe",
+                email: "jane.snapshot@example.com",
+                phoneNumber: "+15550001111",
+                ssn: "987-65-4321",
+                dateOfBirth: LocalDate.of(1985, 5, 5)
+        ))
+        entityManager.persist(new CreditCardApplication(
+                status: CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                customer: customer,
+                requestedLimit: 5000G,
+                annualIncome: 60000G,
+                employmentStatus: "FULL_TIME",
+                cardType: CreditCardApplication.CardType.GOLD
+        ))
+    }
+}
@@ -1,15 +1,18 @@
 package com.bank.creditcard.repository
 
+import com.bank.creditcard.dto.ApplicationField
 import com.bank.creditcard.model.Address
 import com.bank.creditcard.model.CreditCardApplication
 import com.bank.creditcard.model.Customer
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager
+import org.springframework.data.domain.Limit
 import org.springframework.test.context.ActiveProfiles
 import spock.lang.Specification
 
 import java.time.LocalDate
+import java.time.LocalDateTime
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -204,14 +207,27 @@ class CreditCardApplicationRepositorySpec extends Specification {
         entityManager.flush()
         
         when: "checking existence"
-        def existsPending = repository.existsByCustomerSsnAndStatus(customer.ssn, CreditCardApplication.ApplicationStatus.PENDING)
-        def existsApproved = repository.existsByCustomerSsnAndStatus(customer.ssn, CreditCardApplication.ApplicationStatus.APPROVED)
+        def existsPending = repository.existsByCustomerSsnAndStatusIn(customer.ssn, [CreditCardApplication.ApplicationStatus.PENDING])
+        def existsApproved = repository.existsByCustomerSsnAndStatusIn(customer.ssn, [CreditCardApplication.ApplicationStatus.APPROVED])
         
         then: "correct existence results"
         existsPending == true
         existsApproved == false
     }
 
+    def "should count a deferred application as undecided"() {
+        given: "an application parked after its budget ran out"
+        def customer = createAndPersistCustomer()
+        repository.save(createApplication(customer, CreditCardApplication.ApplicationStatus.DEFERRED))
+        entityManager.flush()
+
+        expect:
+        repository.existsByCustomerSsnAndStatusIn(customer.ssn, CreditCardApplication.ApplicationStatus.UNDECIDED)
+        repository.countByStatusIn(CreditCardApplication.ApplicationStatus.UNDECIDED) == 1
+        repository.findCustomerSsnsByStatusInCreatedSince(CreditCardApplication.ApplicationStatus.UNDECIDED,
+                LocalDateTime.now().minusMinutes(1)) == [customer.ssn]
+    }
+
     def "should handle empty results correctly"() {
         when: "querying empty database"
         def byStatus = repository.findByStatus(CreditCardApplication.ApplicationStatus.PENDING)
@@ -246,6 +262,101 @@ class CreditCardApplicationRepositorySpec extends Specification {
         updated.approvedLimit == BigDecimal.valueOf(10000)
     }
 
+    def "should answer version lookups without loading applications"() {
+        given: "a pending application"
+        def customer = createAndPersistCustomer()
+        def saved = repository.save(createApplication(customer, CreditCardApplication.ApplicationStatus.PENDING))
+        entityManager.flush()
+        entityManager.clear()
+
+        when: "reading the versions"
+        def version = repository.findVersionByApplicationNumber(saved.applicationNumber)
+        def pending = repository.findListVersionByStatus(CreditCardApplication.ApplicationStatus.PENDING)
+        def byEmail = repository.findListVersionByCustomerEmail(customer.email)
+
+        then: "a new application starts at version 0"
+        version.get() == 0L
+        pending.count == 1L
+        pending.versionSum == 0L
+        pending.newestCreatedAt != null
+        byEmail == pending
+
+        when: "the application is updated"
+        def toUpdate = repository.findById(saved.id).get()
+        toUpdate.riskScore = BigDecimal.valueOf(42)
+        repository.save(toUpdate)
+        entityManager.flush()
+        entityManager.clear()
+
+        then: "its version and the list fingerprint move"
+        repository.findVersionByApplicationNumber(saved.applicationNumber).get() == 1L
+        repository.findListVersionByStatus(CreditCardApplication.ApplicationStatus.PENDING).versionSum == 1L
+
+        and: "unknown keys yield nothing"
+        repository.findVersionByApplicationNumber("APP-NONE").isEmpty()
+        repository.findListVersionByCustomerEmail("nobody@example.com").count == 0L
+    }
+
+    def "should read only the selected fields"() {
+        given: "a pending and an approved application"
+        def customer = createAndPersistCustomer()
+        def pending = repository.saveAndFlush(createApplication(customer, CreditCardApplication.ApplicationStatus.PENDING))
+        Thread.sleep(5) // application numbers are millisecond timestamps
+        repository.saveAndFlush(createApplication(customer, CreditCardApplication.ApplicationStatus.APPROVED))
+        entityManager.clear()
+
+        when:
+        def byNumber = repository.findFieldsByApplicationNumber(pending.applicationNumber,
+                EnumSet.of(ApplicationField.STATUS, ApplicationField.APPLICATION_NUMBER, ApplicationField.CUSTOMER_NAME))
+        def byStatus = repository.findFieldsByStatus(CreditCardApplication.ApplicationStatus.PENDING,
+                ApplicationField.SUMMARY)
+        def byEmail = repository.findFieldsByCustomerEmail(customer.email, EnumSet.of(ApplicationField.STATUS))
+
+        then: "fields come back in response order, customer fields included"
+        byNumber.get() == [applicationNumber: pending.applicationNumber,
+                           status           : CreditCardApplication.ApplicationStatus.PENDING,
+                           customerName     : "Test User"]
+        byNumber.get().keySet() as List == ["applicationNumber", "status", "customerName"]
+
+        and: "the summary view holds its fields only"
+        byStatus.size() == 1
+        byStatus[0].keySet() == ["applicationNumber", "status", "cardType", "createdAt", "decidedAt"] as Set
+        byStatus[0].cardType == CreditCardApplication.CardType.GOLD
+        byStatus[0].createdAt != null
+
+        and: "filtering on the customer works without selecting customer fields"
+        byEmail*.status as Set == [CreditCardApplication.ApplicationStatus.PENDING,
+                                   CreditCardApplication.ApplicationStatus.APPROVED] as Set
+
+        and: "unknown keys yield nothing"
+        repository.findFieldsByApplicationNumber("APP-NONE", ApplicationField.SUMMARY).isEmpty()
+    }
+
+    def "should find deferred applications due for a retry and claim each one once"() {
+        given: "an application deferred just now"
+        def customer = createAndPersistCustomer()
+        def application = repository.saveAndFlush(createApplication(customer))
+        application.status = CreditCardApplication.ApplicationStatus.DEFERRED
+        repository.saveAndFlush(application)
+        entityManager.clear()
+        def now = LocalDateTime.now()
+
+        expect: "it is due only once it has waited long enough"
+        repository.findDeferredBefore(now.minusMinutes(1), Limit.of(10)).isEmpty()
+        with(repository.findDeferredBefore(now.plusSeconds(1), Limit.of(10))) {
+            size() == 1
+            it[0].id == application.id
+            it[0].ssn == customer.ssn
+            it[0].cardType == CreditCardApplication.CardType.GOLD
+            it[0].channel == CreditCardApplication.Channel.ONLINE
+        }
+
+        and: "the first claim wins and pushes it back"
+        repository.claimDeferred(application.id, now.plusSeconds(2), now.plusSeconds(1)) == 1
+        repository.claimDeferred(application.id, now.plusSeconds(2), now.plusSeconds(1)) == 0
+        repository.findDeferredBefore(now.plusSeconds(1), Limit.of(10)).isEmpty()
+    }
+
     def "should delete application"() {
         given: "an application"
         def customer = createAndPersistCustomer("delete@example.com", "999-99-9999")
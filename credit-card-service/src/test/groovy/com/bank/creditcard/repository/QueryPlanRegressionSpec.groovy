@@ -0,0 +1,389 @@
+package com.bank.creditcard.repository
+
+import com.bank.creditcard.dto.ApplicationField
+import com.bank.creditcard.model.CreditCardApplication
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.flywaydb.core.Flyway
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.config.BeanPostProcessor
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.boot.test.context.TestConfiguration
+import org.springframework.context.annotation.Bean
+import org.springframework.data.domain.Limit
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.context.DynamicPropertyRegistry
+import org.springframework.test.context.DynamicPropertySource
+import org.testcontainers.DockerClientFactory
+import org.testcontainers.containers.PostgreSQLContainer
+import spock.lang.Requires
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import javax.sql.DataSource
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
+import java.lang.reflect.Proxy
+import java.sql.Connection
+import java.sql.DriverManager
+import java.sql.PreparedStatement
+import java.time.LocalDateTime
+
+/**
+ * Calls every custom repository method against a Flyway-migrated Postgres seeded with ~1M
+ * applications, and runs EXPLAIN ANALYZE on each statement it sent, as Hibernate generated it
+ * and with its parameters inlined. A sequential scan on either table, or a total plan cost
+ * above the recorded ceiling, fails the build.
+ */
+@Requires({ DockerClientFactory.instance().isDockerAvailable() })
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class QueryPlanRegressionSpec extends Specification {
+
+    static final int CUSTOMERS = 500_000
+    static final int APPLICATIONS = 1_000_000
+
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("creditcard_plans")
+            .withUsername("test")
+            .withPassword("test")
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        postgres.start()
+        registry.add("spring.datasource.url", postgres::getJdbcUrl)
+        registry.add("spring.datasource.username", postgres::getUsername)
+        registry.add("spring.datasource.password", postgres::getPassword)
+        registry.add("spring.datasource.driver-class-name", { "org.postgresql.Driver" })
+        registry.add("spring.jpa.properties.hibernate.dialect", { "org.hibernate.dialect.PostgreSQLDialect" })
+        // Migrated and seeded once in setupSpec
+        registry.add("spring.jpa.hibernate.ddl-auto", { "none" })
+    }
+
+    @Autowired
+    CreditCardApplicationRepository applications
+
+    @Autowired
+    CustomerRepository customers
+
+    @Autowired
+    CreditBureauSnapshotRepository snapshots
+
+    @Autowired
+    ApplicationStageTimingRepository timings
+
+    @Autowired
+    StatementRecorder recorder
+
+    // The database's clock, which the seeded timestamps follow
+    @Shared
+    LocalDateTime now
+
+    // Each custom query method, called as the services call it
+    Map<String, Closure> queries = [
+            'CreditCardApplicationRepository.findByApplicationNumber'    :
+                    { applications.findByApplicationNumber('APP-42') },
+            'CreditCardApplicationRepository.findByStatus'               :
+                    { applications.findByStatus(CreditCardApplication.ApplicationStatus.PENDING) },
+            'CreditCardApplicationRepository.findByCustomerEmail'        :
+                    { applications.findByCustomerEmail('customer42@example.com') },
+            'CreditCardApplicationRepository.findByCustomerSsn'          :
+                    { applications.findByCustomerSsn('000-00-0042') },
+            'CreditCardApplicationRepository.findVersionByApplicationNumber':
+                    { applications.findVersionByApplicationNumber('APP-42') },
+            'CreditCardApplicationRepository.findListVersionByStatus'   :
+                    { applications.findListVersionByStatus(CreditCardApplication.ApplicationStatus.PENDING) },
+            'CreditCardApplicationRepository.findListVersionByCustomerEmail':
+                    { applications.findListVersionByCustomerEmail('customer42@example.com') },
+            'CreditCardApplicationRepository.existsByCustomerSsnAndStatusIn':
+                    { applications.existsByCustomerSsnAndStatusIn('000-00-0042', CreditCardApplication.ApplicationStatus.UNDECIDED) },
+            'CreditCardApplicationRepository.countByStatus'               :
+                    { applications.countByStatus(CreditCardApplication.ApplicationStatus.PENDING) },
+            'CreditCardApplicationRepository.countByStatusIn'             :
+                    { applications.countByStatusIn(CreditCardApplication.ApplicationStatus.UNDECIDED) },
+            'CreditCardApplicationRepository.streamCustomerSsnsByStatusIn':
+                    { applications.streamCustomerSsnsByStatusIn(CreditCardApplication.ApplicationStatus.UNDECIDED).close() },
+            'CreditCardApplicationRepository.findCustomerSsnsByStatusInCreatedSince':
+                    { applications.findCustomerSsnsByStatusInCreatedSince(
+                            CreditCardApplication.ApplicationStatus.UNDECIDED, now.minusSeconds(15)) },
+            'CreditCardApplicationRepository.streamDecisionsSince'        :
+                    { applications.streamDecisionsSince(now.minusHours(168)).close() },
+            'CreditCardApplicationRepository.streamDecisionsBetween'      :
+                    { applications.streamDecisionsBetween(now.minusDays(2), now.minusDays(1)).close() },
+            'CreditCardApplicationRepository.streamVelocityRecordsSince'  :
+                    { applications.streamVelocityRecordsSince(now.minusHours(24)).close() },
+            'CreditCardApplicationRepository.findDeferredBefore'          :
+                    { applications.findDeferredBefore(now.minusMinutes(1), Limit.of(500)) },
+            // Matches nothing, so explaining it changes no row
+            'CreditCardApplicationRepository.claimDeferred'               :
+                    { applications.claimDeferred(new UUID(0, 0), now, now.minusMinutes(1)) },
+            'CreditBureauSnapshotRepository.streamBacktestInputs'        :
+                    { snapshots.streamBacktestInputs(now.minusDays(2), now.minusDays(1)).close() },
+            'ApplicationStageTimingRepository.findStagePercentiles'      :
+                    { timings.findStagePercentiles(now.minusDays(7), now) },
+            'ApplicationStageTimingRepository.findSlowest'               :
+                    { timings.findSlowest(now.minusDays(7), now, Limit.of(20)) },
+            // Shown with the summary view; customer columns are joined only when selected or filtered on
+            'ApplicationFieldsRepository.findFieldsByApplicationNumber'  :
+                    { applications.findFieldsByApplicationNumber('APP-42', ApplicationField.SUMMARY) },
+            'ApplicationFieldsRepository.findFieldsByCustomerEmail'      :
+                    { applications.findFieldsByCustomerEmail('customer42@example.com', ApplicationField.SUMMARY) },
+            'ApplicationFieldsRepository.findFieldsByStatus'             :
+                    { applications.findFieldsByStatus(CreditCardApplication.ApplicationStatus.PENDING,
+                            ApplicationField.SUMMARY) },
+            'CustomerRepository.findBySsn'                               :
+                    { customers.findBySsn('000-00-0042') },
+            'CustomerRepository.findByEmail'                             :
+                    { customers.findByEmail('customer42@example.com') },
+            'CustomerRepository.existsBySsn'                             :
+                    { customers.existsBySsn('000-00-0042') },
+            'CustomerRepository.existsByEmail'                           :
+                    { customers.existsByEmail('customer42@example.com') },
+            'CustomerRepository.findSsnsAfter'                           :
+                    { customers.findSsnsAfter('000-25-0000', Limit.of(10_000)) },
+            'CustomerRepository.findSsnsCreatedSince'                    :
+                    { customers.findSsnsCreatedSince(now.minusSeconds(15)) },
+    ]
+
+    @Shared
+    Connection connection
+
+    @Shared
+    ObjectMapper objectMapper = new ObjectMapper()
+
+    def setupSpec() {
+        postgres.start()
+        Flyway.configure()
+                .dataSource(postgres.jdbcUrl, postgres.username, postgres.password)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate()
+        connection = DriverManager.getConnection(postgres.jdbcUrl, postgres.username, postgres.password)
+        seed()
+        now = connection.createStatement().withCloseable { statement ->
+            def rs = statement.executeQuery("SELECT localtimestamp")
+            rs.next()
+            rs.getObject(1, LocalDateTime)
+        }
+    }
+
+    def cleanupSpec() {
+        connection?.close()
+        postgres.stop()
+    }
+
+    def "every custom repository query has a plan check"() {
+        given: "the query methods declared on the repositories"
+        def repositories = [CreditCardApplicationRepository, CustomerRepository, CreditBureauSnapshotRepository,
+                            ApplicationStageTimingRepository, ApplicationFieldsRepository]
+        def declared = repositories.collectMany { repo ->
+            repo.declaredMethods.collect { "${repo.simpleName}.${it.name}".toString() }
+        } as Set
+
+        expect: "each one is covered by the plan regression table"
+        queries.keySet().containsAll(declared)
+    }
+
+    @Unroll
+    def "#query avoids sequential scans and stays under cost #maxCost"() {
+        when: "calling the method and explaining every statement it sent"
+        def statements = recorder.record(queries[query])
+        def plans = statements.collect { explain(it) }
+
+        then: "it reached the database"
+        !statements.isEmpty()
+
+        and: "no table is read sequentially"
+        plans.collectMany { seqScans(it) }.isEmpty()
+
+        and: "plan cost has not regressed"
+        plans.every { it.get("Total Cost").asDouble() <= maxCost }
+
+        where:
+        query                                                          | maxCost
+        'CreditCardApplicationRepository.findByApplicationNumber'      | 20
+        'CreditCardApplicationRepository.findByStatus'                 | 5_000
+        'CreditCardApplicationRepository.findByCustomerEmail'          | 40
+        'CreditCardApplicationRepository.findByCustomerSsn'            | 40
+        'CreditCardApplicationRepository.existsByCustomerSsnAndStatusIn' | 40
+        'CreditCardApplicationRepository.countByStatus'                | 5_000
+        'CreditCardApplicationRepository.countByStatusIn'              | 10_000
+        'CreditCardApplicationRepository.streamCustomerSsnsByStatusIn' | 20_000
+        'CreditCardApplicationRepository.findCustomerSsnsByStatusInCreatedSince' | 60
+        'CreditCardApplicationRepository.findVersionByApplicationNumber' | 20
+        'CreditCardApplicationRepository.findListVersionByStatus'   | 5_000
+        'CreditCardApplicationRepository.findListVersionByCustomerEmail' | 40
+        'CreditCardApplicationRepository.streamDecisionsSince'         | 20_000
+        'CreditCardApplicationRepository.streamDecisionsBetween'       | 30_000
+        'CreditCardApplicationRepository.streamVelocityRecordsSince'   | 30_000
+        'CreditCardApplicationRepository.findDeferredBefore'           | 2_000
+        'CreditCardApplicationRepository.claimDeferred'                | 20
+        'CreditBureauSnapshotRepository.streamBacktestInputs'          | 40_000
+        'ApplicationStageTimingRepository.findStagePercentiles'        | 60_000
+        'ApplicationStageTimingRepository.findSlowest'                 | 5_000
+        'ApplicationFieldsRepository.findFieldsByApplicationNumber'    | 20
+        'ApplicationFieldsRepository.findFieldsByCustomerEmail'        | 40
+        'ApplicationFieldsRepository.findFieldsByStatus'               | 5_000
+        'CustomerRepository.findBySsn'                                 | 20
+        'CustomerRepository.findByEmail'                               | 20
+        'CustomerRepository.existsBySsn'                               | 20
+        'CustomerRepository.existsByEmail'                             | 20
+        'CustomerRepository.findSsnsAfter'                             | 1_000
+        'CustomerRepository.findSsnsCreatedSince'                      | 20
+    }
+
+    private JsonNode explain(String sql) {
+        connection.createStatement().withCloseable { statement ->
+            def rs = statement.executeQuery("EXPLAIN (ANALYZE, FORMAT JSON) " + sql)
+            rs.next()
+            objectMapper.readTree(rs.getString(1)).get(0).get("Plan")
+        }
+    }
+
+    private List<String> seqScans(JsonNode node) {
+        def found = []
+        if (node.get("Node Type").asText() == "Seq Scan") {
+            found << node.get("Relation Name").asText()
+        }
+        node.get("Plans")?.each { found.addAll(seqScans(it)) }
+        found
+    }
+
+    private void seed() {
+        connection.createStatement().withCloseable { statement ->
+            statement.execute("""
+                INSERT INTO customers (id, first_name, last_name, email, phone_number, ssn, date_of_birth,
+                                       identity_verified, kyc_status, created_at)
+                SELECT gen_random_uuid(), 'First' || i, 'Last' || i, 'customer' || i || '@example.com',
+                       '+1555' || lpad(i::text, 7, '0'),
+                       lpad((i / 1000000)::text, 3, '0') || '-' || lpad((i / 10000 % 100)::text, 2, '0')
+                           || '-' || lpad((i % 10000)::text, 4, '0'),
+                       DATE '1980-01-01' + (i % 10000), true, 'COMPLETED',
+                       now() - (${CUSTOMERS} - i) * interval '1 minute'
+                FROM generate_series(1, ${CUSTOMERS}) AS i
+            """)
+            // Rows arrive in chronological order, 30 seconds apart, as in production; only the
+            // most recent 2000 are still undecided
+            statement.execute("""
+                INSERT INTO credit_card_applications (id, application_number, status, customer_id, requested_limit,
+                                                      approved_limit, annual_income, employment_status, credit_score,
+                                                      risk_score, card_type, decision_reason, created_at, decided_at)
+                SELECT gen_random_uuid(), 'APP-' || i, s.status,
+                       c.id, 5000, NULL, 75000, 'FULL_TIME', 300 + i % 550, (i % 100)::numeric,
+                       (ARRAY['CLASSIC', 'GOLD', 'PLATINUM', 'INFINITE'])[1 + i % 4],
+                       CASE WHEN s.status = 'REJECTED' THEN 'Credit score below minimum requirement (580)' END,
+                       t.created_at,
+                       CASE WHEN s.status IN ('APPROVED', 'REJECTED') THEN t.created_at + interval '1 hour' END
+                FROM generate_series(1, ${APPLICATIONS}) AS i
+                CROSS JOIN LATERAL (SELECT now() - (${APPLICATIONS} - i) * interval '30 seconds' AS created_at) t
+                CROSS JOIN LATERAL (SELECT CASE
+                        WHEN i > ${APPLICATIONS} - 2000 THEN (ARRAY['PENDING', 'IN_REVIEW'])[1 + i % 2]
+                        WHEN i % 100 < 62 THEN 'APPROVED'
+                        ELSE 'REJECTED' END AS status) s
+                JOIN (SELECT id, row_number() OVER (ORDER BY email) AS rn FROM customers) c
+                  ON c.rn = 1 + i % ${CUSTOMERS}
+            """)
+            // A tenth of the undecided ran out of their time budget and wait for a retry
+            statement.execute('''
+                UPDATE credit_card_applications
+                SET status = 'DEFERRED', deferrals = 1, updated_at = created_at + interval '2 minutes'
+                WHERE status = 'IN_REVIEW' AND application_number LIKE '%5'
+            ''')
+            statement.execute('''
+                INSERT INTO credit_bureau_snapshots (application_id, encoding_version, payload, created_at)
+                SELECT id, 1, decode(repeat('ab', 120), 'hex'), created_at
+                FROM credit_card_applications WHERE decided_at IS NOT NULL
+            ''')
+            statement.execute('''
+                INSERT INTO application_stage_timings (application_id, status, decided_at, queue_wait_ms,
+                                                       compliance_ms, bureau_ms, scoring_ms, persist_ms, total_ms)
+                SELECT id, status, decided_at, 50 + i % 200, 5 + i % 20,
+                       CASE WHEN status = 'APPROVED' THEN 100 + i % 900 END,
+                       CASE WHEN status = 'APPROVED' THEN 1 + i % 5 END, 2 + i % 10, 200 + i % 1200
+                FROM (SELECT id, status, decided_at, row_number() OVER () AS i
+                      FROM credit_card_applications WHERE decided_at IS NOT NULL) decided
+            ''')
+            statement.execute("ANALYZE customers")
+            statement.execute("ANALYZE credit_card_applications")
+            statement.execute("ANALYZE credit_bureau_snapshots")
+            statement.execute("ANALYZE application_stage_timings")
+        }
+    }
+
+    @TestConfiguration
+    static class StatementRecording {
+
+        @Bean
+        StatementRecorder statementRecorder() {
+            new StatementRecorder()
+        }
+
+        @Bean
+        static BeanPostProcessor recordingDataSource(StatementRecorder statementRecorder) {
+            new BeanPostProcessor() {
+                @Override
+                Object postProcessAfterInitialization(Object bean, String beanName) {
+                    bean instanceof DataSource ? statementRecorder.wrap(bean as DataSource) : bean
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the first statement of each shape sent through the data source while recording, with the
+     * parameters the driver bound inlined; a lazily loaded association sends one shape many times.
+     */
+    static class StatementRecorder {
+
+        private final Map<String, String> statements = new LinkedHashMap<>()
+        private volatile boolean recording
+
+        List<String> record(Closure<?> work) {
+            statements.clear()
+            recording = true
+            try {
+                work()
+            } finally {
+                recording = false
+            }
+            new ArrayList<>(statements.values())
+        }
+
+        DataSource wrap(DataSource dataSource) {
+            proxy(DataSource, dataSource) { Method method, Object[] args, Object result ->
+                method.name == "getConnection" ? connection(result as Connection) : result
+            }
+        }
+
+        private Connection connection(Connection connection) {
+            proxy(Connection, connection) { Method method, Object[] args, Object result ->
+                method.name == "prepareStatement" ? statement(result as PreparedStatement, args[0] as String) : result
+            }
+        }
+
+        private PreparedStatement statement(PreparedStatement statement, String sql) {
+            proxy(PreparedStatement, statement) { Method method, Object[] args, Object result ->
+                if (recording && method.name.startsWith("execute") && !args) {
+                    // The driver's own statement prints its SQL with the bound parameters inlined
+                    statements.putIfAbsent(sql, statement.unwrap(PreparedStatement).toString())
+                }
+                result
+            }
+        }
+
+        private static <T> T proxy(Class<T> type, T target, Closure<?> after) {
+            type.cast(Proxy.newProxyInstance(StatementRecorder.classLoader, [type] as Class[],
+                    { Object self, Method method, Object[] args ->
+                        try {
+                            after(method, args, method.invoke(target, args))
+                        } catch (InvocationTargetException e) {
+                            throw e.cause
+                        }
+                    } as InvocationHandler))
+        }
+    }
+}
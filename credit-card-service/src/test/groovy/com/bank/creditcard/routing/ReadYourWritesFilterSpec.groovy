@@ -0,0 +1,85 @@
+package com.bank.creditcard.routing
+
+import jakarta.servlet.FilterChain
+import jakarta.servlet.http.Cookie
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.springframework.transaction.support.TransactionSynchronizationUtils
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Duration
+
+class ReadYourWritesFilterSpec extends Specification {
+
+    long now = 100_000
+    def tracker = new ReadYourWritesTracker(Duration.ofSeconds(5), { now })
+    def chain = Mock(FilterChain)
+    def request = new MockHttpServletRequest("GET", "/api/v1/credit-card-applications/123")
+    def response = new MockHttpServletResponse()
+
+    @Subject
+    def filter = new ReadYourWritesFilter(tracker)
+
+    def "should pin a client that sends back its last-write cookie"() {
+        given:
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, "99000"))
+
+        when:
+        filter.doFilter(request, response, chain)
+
+        then:
+        1 * chain.doFilter(_, _) >> { assert tracker.pinnedToPrimary }
+
+        and: "not past the request"
+        !tracker.pinnedToPrimary
+    }
+
+    def "should pin a client that sends back its last-write header"() {
+        given:
+        request.addHeader(ReadYourWritesFilter.HEADER, "99000")
+
+        when:
+        filter.doFilter(request, response, chain)
+
+        then:
+        1 * chain.doFilter(_, _) >> { assert tracker.pinnedToPrimary }
+    }
+
+    def "should not pin clients that share a principal but carry no write"() {
+        given:
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, value))
+
+        when:
+        filter.doFilter(request, response, chain)
+
+        then:
+        1 * chain.doFilter(_, _) >> { assert !tracker.pinnedToPrimary }
+
+        where:
+        value << ["90000", "garbage"]
+    }
+
+    def "should hand a committed write back as a cookie for the window and a header"() {
+        when:
+        filter.doFilter(request, response, chain)
+
+        then:
+        1 * chain.doFilter(_, _) >> { commitWrite() }
+        response.getHeader(ReadYourWritesFilter.HEADER) == "100000"
+        response.getCookie(ReadYourWritesFilter.COOKIE).value == "100000"
+        response.getCookie(ReadYourWritesFilter.COOKIE).maxAge == 5
+        response.getCookie(ReadYourWritesFilter.COOKIE).httpOnly
+    }
+
+    private void commitWrite() {
+        TransactionSynchronizationManager.initSynchronization()
+        try {
+            tracker.recordOnCommit()
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.synchronizations)
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.creditcard.routing
+
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.springframework.transaction.support.TransactionSynchronizationUtils
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Duration
+
+class ReadYourWritesTrackerSpec extends Specification {
+
+    long now = 100_000
+
+    @Subject
+    def tracker = new ReadYourWritesTracker(Duration.ofSeconds(5), { now })
+
+    def cleanup() {
+        tracker.unbind()
+        if (TransactionSynchronizationManager.synchronizationActive) {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+    }
+
+    def "should pin a client for the window after the write it carries"() {
+        given:
+        tracker.bind(now - 1_000, {})
+
+        expect:
+        tracker.pinnedToPrimary
+
+        when:
+        now += 4_000
+
+        then:
+        !tracker.pinnedToPrimary
+    }
+
+    def "should pin a client whose write was stamped by an instance whose clock runs ahead"() {
+        when:
+        tracker.bind(now + 1_000, {})
+
+        then:
+        tracker.pinnedToPrimary
+    }
+
+    def "should not pin a client that carries no write or is not bound"() {
+        expect:
+        !tracker.pinnedToPrimary
+
+        when:
+        tracker.bind(ReadYourWritesTracker.NO_WRITE, {})
+
+        then:
+        !tracker.pinnedToPrimary
+    }
+
+    def "should hand a committed write back to the client and pin it for the rest of the request"() {
+        given:
+        def handedBack = []
+        tracker.bind(ReadYourWritesTracker.NO_WRITE, { handedBack << it })
+        TransactionSynchronizationManager.initSynchronization()
+
+        when:
+        tracker.recordOnCommit()
+
+        then: "nothing before the commit"
+        handedBack.empty
+        !tracker.pinnedToPrimary
+
+        when:
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.synchronizations)
+
+        then:
+        handedBack == [now]
+        tracker.pinnedToPrimary
+    }
+
+    def "should keep clients on different threads apart"() {
+        given:
+        tracker.bind(now, {})
+
+        when:
+        def pinnedElsewhere = null
+        def thread = Thread.start { pinnedElsewhere = tracker.pinnedToPrimary }
+        thread.join()
+
+        then:
+        tracker.pinnedToPrimary
+        pinnedElsewhere == false
+    }
+}
@@ -0,0 +1,106 @@
+package com.bank.creditcard.routing
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+class ReplicaLagMonitorSpec extends Specification {
+
+    long now = 0
+    def replica = new DriverManagerDataSource("jdbc:h2:mem:lag-${UUID.randomUUID()};DB_CLOSE_DELAY=-1", "sa", "")
+    def jdbc = new JdbcTemplate(replica)
+    def monitor = new ReplicaLagMonitor(replica, "SELECT lag_millis FROM replication_status",
+            Duration.ofMillis(500), Duration.ofSeconds(1), { now })
+
+    def setup() {
+        jdbc.execute("CREATE TABLE replication_status (lag_millis BIGINT)")
+        jdbc.update("INSERT INTO replication_status VALUES (100)")
+    }
+
+    def cleanup() {
+        jdbc.execute("SHUTDOWN")
+    }
+
+    def "should not trust the replica before the first check"() {
+        expect:
+        !monitor.replicaUsable
+        monitor.lagMillis == -1
+    }
+
+    def "should judge the replica by the reported lag"() {
+        when:
+        jdbc.update("UPDATE replication_status SET lag_millis = ?", lag)
+        monitor.check()
+
+        then:
+        monitor.lagMillis == lag
+        monitor.replicaUsable == usable
+
+        where:
+        lag | usable
+        0   | true
+        500 | true
+        501 | false
+    }
+
+    def "should treat a null lag as caught up"() {
+        when:
+        jdbc.update("UPDATE replication_status SET lag_millis = NULL")
+        monitor.check()
+
+        then:
+        monitor.lagMillis == 0
+        monitor.replicaUsable
+    }
+
+    def "should stop trusting a sample after three missed checks"() {
+        given:
+        monitor.check()
+
+        when:
+        now += TimeUnit.SECONDS.toNanos(3)
+
+        then:
+        monitor.replicaUsable
+
+        when:
+        now += 1
+
+        then:
+        !monitor.replicaUsable
+    }
+
+    def "should mark the replica unusable when the check fails"() {
+        given:
+        monitor.check()
+
+        when:
+        jdbc.execute("DROP TABLE replication_status")
+        monitor.check()
+
+        then:
+        !monitor.replicaUsable
+        monitor.lagMillis == -1
+    }
+
+    def "should publish lag and usability"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        monitor.bindTo(registry)
+
+        expect:
+        registry.get("datasource.replica.lag").gauge().value().naN
+        registry.get("datasource.replica.usable").gauge().value() == 0
+
+        when:
+        monitor.check()
+
+        then:
+        registry.get("datasource.replica.lag").gauge().value() == 100
+        registry.get("datasource.replica.usable").gauge().value() == 1
+    }
+}
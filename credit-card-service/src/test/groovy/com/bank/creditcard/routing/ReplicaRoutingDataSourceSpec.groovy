@@ -0,0 +1,161 @@
+package com.bank.creditcard.routing
+
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.DataSourceTransactionManager
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.sql.Connection
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+
+/**
+ * Two separate in-memory databases stand in for the primary and the replica; each knows its own name,
+ * and the replica carries a lag table the monitor reads.
+ */
+class ReplicaRoutingDataSourceSpec extends Specification {
+
+    long now = 0
+    def primary = database("primary")
+    def replica = database("replica")
+    def lagMonitor = new ReplicaLagMonitor(replica, "SELECT lag_millis FROM replication_status",
+            Duration.ofSeconds(2), Duration.ofSeconds(1), { now })
+    long wallClock = 100_000
+    def readYourWrites = new ReadYourWritesTracker(Duration.ofSeconds(5), { wallClock })
+    Long lastWrite = null
+
+    JdbcTemplate jdbc
+    DataSourceTransactionManager transactionManager
+
+    def setup() {
+        new JdbcTemplate(replica).execute("CREATE TABLE replication_status (lag_millis BIGINT)")
+        new JdbcTemplate(replica).update("INSERT INTO replication_status VALUES (0)")
+        def proxy = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, lagMonitor, readYourWrites))
+        proxy.defaultAutoCommit = true
+        proxy.defaultTransactionIsolation = Connection.TRANSACTION_READ_COMMITTED
+        jdbc = new JdbcTemplate(proxy)
+        transactionManager = new DataSourceTransactionManager(proxy)
+        lagMonitor.check()
+    }
+
+    def cleanup() {
+        readYourWrites.unbind()
+        [primary, replica].each { new JdbcTemplate(it).execute("SHUTDOWN") }
+    }
+
+    def "should send read-only transactions to a caught-up replica"() {
+        expect:
+        readOnly() == "replica"
+    }
+
+    def "should keep read-write transactions and non-transactional work on the primary"() {
+        expect:
+        readWrite() == "primary"
+        jdbc.queryForObject("SELECT name FROM node", String) == "primary"
+    }
+
+    def "should fall back to the primary while the replica lags and return once it catches up"() {
+        when:
+        setLag(5_000)
+
+        then:
+        readOnly() == "primary"
+
+        when:
+        setLag(100)
+
+        then:
+        readOnly() == "replica"
+    }
+
+    def "should fall back to the primary when the replica cannot be checked"() {
+        when:
+        new JdbcTemplate(replica).execute("DROP TABLE replication_status")
+        lagMonitor.check()
+
+        then:
+        readOnly() == "primary"
+    }
+
+    def "should fall back to the primary when lag checks stop arriving"() {
+        when:
+        now += TimeUnit.SECONDS.toNanos(4)
+
+        then:
+        readOnly() == "primary"
+    }
+
+    def "should keep a client that just wrote on the primary for the sticky window"() {
+        given:
+        bindClient(null)
+
+        when: "the client commits a write"
+        readWrite()
+
+        then: "its reads stay on the primary"
+        lastWrite == wallClock
+        readOnly() == "primary"
+
+        and: "so do those of its next request, which carries the write back"
+        bindClient(lastWrite)
+        readOnly() == "primary"
+
+        and: "a client under the same principal that has not written still reads the replica"
+        bindClient(null)
+        readOnly() == "replica"
+
+        when: "the window passes"
+        bindClient(lastWrite)
+        wallClock += 5_000
+
+        then:
+        readOnly() == "replica"
+    }
+
+    def "should not pin a client whose write rolled back"() {
+        given:
+        bindClient(null)
+
+        when:
+        def template = new TransactionTemplate(transactionManager)
+        template.executeWithoutResult { status ->
+            jdbc.queryForObject("SELECT name FROM node", String)
+            status.setRollbackOnly()
+        }
+
+        then:
+        lastWrite == null
+        readOnly() == "replica"
+    }
+
+    private String readOnly() {
+        def template = new TransactionTemplate(transactionManager)
+        template.readOnly = true
+        template.execute { jdbc.queryForObject("SELECT name FROM node", String) }
+    }
+
+    private String readWrite() {
+        new TransactionTemplate(transactionManager).execute { jdbc.queryForObject("SELECT name FROM node", String) }
+    }
+
+    private void setLag(long millis) {
+        new JdbcTemplate(replica).update("UPDATE replication_status SET lag_millis = ?", millis)
+        lagMonitor.check()
+    }
+
+    private void bindClient(Long lastWriteAt) {
+        readYourWrites.bind(lastWriteAt ?: ReadYourWritesTracker.NO_WRITE, { lastWrite = it })
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        def dataSource = new DriverManagerDataSource("jdbc:h2:mem:${name}-${UUID.randomUUID()};DB_CLOSE_DELAY=-1",
+                "sa", "")
+        def jdbc = new JdbcTemplate(dataSource)
+        jdbc.execute("CREATE TABLE node (name VARCHAR(16))")
+        jdbc.update("INSERT INTO node VALUES (?)", name)
+        dataSource
+    }
+}
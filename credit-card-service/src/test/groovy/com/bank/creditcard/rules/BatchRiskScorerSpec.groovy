@@ -0,0 +1,127 @@
+package com.bank.creditcard.rules
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class BatchRiskScorerSpec extends Specification {
+
+    @Shared
+    CompiledDecisionRules rules = CompiledDecisionRules.compile(definition())
+
+    @Shared
+    BatchRiskScorer scorer = BatchRiskScorer.of(rules)
+
+    def "should run with the Vector API when the module is present"() {
+        expect: "the build adds jdk.incubator.vector to the test JVM"
+        BatchRiskScorer.isVectorized()
+    }
+
+    @Unroll
+    def "should score random batches exactly like the rules (vector: #vector)"() {
+        given:
+        def random = new Random(11)
+        def batch = new RiskScoreBatch(10_003)
+        def expected = []
+        while (batch.size() < batch.capacity()) {
+            int creditScore = 300 + random.nextInt(551)
+            def income = BigDecimal.valueOf(random.nextInt(5) == 0 ? random.nextInt(30) : random.nextInt(25_000_000), 2)
+            def debt = BigDecimal.valueOf(random.nextInt(800_000), random.nextInt(3))
+            int delinquent = random.nextInt(5)
+            int inquiries = random.nextInt(8)
+            def limit = BigDecimal.valueOf(random.nextInt(4) == 0 ? 0 : random.nextInt(5_000_000), 2)
+            def balance = BigDecimal.valueOf(random.nextInt(5_000_000), 2)
+            assert batch.add(creditScore, income, debt, delinquent, inquiries, balance, limit) >= 0
+            expected << rules.riskScore(creditScore, income, debt, delinquent, inquiries, balance, limit)
+        }
+        def scores = new long[batch.size()]
+
+        when:
+        scorer.score(batch, scores, vector)
+
+        then:
+        (0..<batch.size()).every { BigDecimal.valueOf(scores[it], 2) == expected[it] }
+
+        where:
+        vector << [true, false]
+    }
+
+    @Unroll
+    def "should match the rules on ratio boundaries: #debt of #income, #balance of #limit"() {
+        given:
+        def batch = new RiskScoreBatch(16)
+        16.times { batch.add(700, income, debt, 1, 2, balance, limit) }
+        def vectorScores = new long[16]
+        def scalarScores = new long[16]
+
+        when:
+        scorer.score(batch, vectorScores, true)
+        scorer.score(batch, scalarScores, false)
+
+        then:
+        def expected = rules.riskScore(700, income, debt, 1, 2, balance, limit)
+        vectorScores.every { BigDecimal.valueOf(it, 2) == expected }
+        scalarScores.every { BigDecimal.valueOf(it, 2) == expected }
+
+        where:
+        income     | debt       | balance     | limit
+        120_000    | 2_000      | 1_000       | 10_000
+        120_000    | 2_000.01   | 1_000.01    | 10_000
+        120_000    | 1_999.99   | 999.99      | 10_000
+        120_000    | 3_000      | 7_000       | 10_000
+        120_000    | 3_000.01   | 7_000.01    | 10_000
+        119_999.99 | 2_000      | 0.01        | 0.03
+        12         | 0.20       | 0.01        | 0.07
+        0          | 100        | 100         | 0
+        0.05       | 0          | 0           | 0.01
+        1_000_000  | 500_000    | 3_000.00    | 9_999.99
+    }
+
+    def "should refuse inputs the integer arithmetic cannot reproduce"() {
+        given:
+        def batch = new RiskScoreBatch(4)
+
+        expect:
+        batch.add(700, 100_000.001G, 100G, 0, 0, 0G, 0G) == -1
+        batch.add(700, 100_000G, -1G, 0, 0, 0G, 0G) == -1
+        batch.add(700, 100_000G, 100G, 0, 0, 0G, BigDecimal.valueOf(RiskScoreBatch.MAX_AMOUNT + 1, 2)) == -1
+        batch.add(700, 100_000.000G, 100G, 0, 0, 0G, 0G) == 0
+        batch.size() == 1
+    }
+
+    def "should refuse rules whose ratio ceilings are too large for long arithmetic"() {
+        given:
+        def definition = definition()
+        definition.debtToIncome.bands[3].atMost = 1_000_000G
+
+        when:
+        BatchRiskScorer.of(CompiledDecisionRules.compile(definition))
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("debtToIncome")
+    }
+
+    def "should treat a negative ratio ceiling as matching nothing"() {
+        given:
+        def definition = definition()
+        definition.utilization.bands[0].atMost = -1G
+        def negative = CompiledDecisionRules.compile(definition)
+        def batch = new RiskScoreBatch(8)
+        8.times { batch.add(700, 60_000G, 0G, 0, 0, 0G, 1_000G) }
+        def scores = new long[8]
+
+        when:
+        BatchRiskScorer.of(negative).score(batch, scores)
+
+        then:
+        scores.every { BigDecimal.valueOf(it, 2) == negative.riskScore(700, 60_000G, 0G, 0, 0, 0G, 1_000G) }
+    }
+
+    private DecisionRulesDefinition definition() {
+        getClass().getResourceAsStream("/decision-rules.json").withCloseable {
+            new ObjectMapper().readValue(it, DecisionRulesDefinition)
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.bank.creditcard.rules
+
+import com.bank.creditcard.exception.InvalidDecisionRulesException
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.math.RoundingMode
+
+class CompiledDecisionRulesSpec extends Specification {
+
+    @Shared
+    ObjectMapper objectMapper = new ObjectMapper()
+
+    @Shared
+    CompiledDecisionRules rules = CompiledDecisionRules.compile(definition())
+
+    def "should score exactly like the original hard-coded BigDecimal rules"() {
+        given: "random applicant inputs, including boundaries"
+        def random = new Random(7)
+
+        expect: "compiled and reference scores are identical"
+        (0..<20_000).every {
+            int creditScore = 300 + random.nextInt(551)
+            def income = BigDecimal.valueOf(random.nextInt(250_000))
+            def debt = BigDecimal.valueOf(random.nextInt(8_000), random.nextInt(3))
+            int delinquent = random.nextInt(5)
+            int inquiries = random.nextInt(8)
+            def limit = BigDecimal.valueOf(random.nextInt(4) == 0 ? 0 : random.nextInt(50_000))
+            def balance = BigDecimal.valueOf(random.nextInt(50_000))
+
+            def expected = referenceScore(creditScore, income, debt, delinquent, inquiries, balance, limit)
+            def actual = rules.riskScore(creditScore, income, debt, delinquent, inquiries, balance, limit)
+            assert actual == expected
+            true
+        }
+    }
+
+    @Unroll
+    def "should match reference at band boundary: DTI #debt of #income"() {
+        expect:
+        rules.riskScore(700, income, debt, 0, 0, 0G, 0G) ==
+                referenceScore(700, income, debt, 0, 0, 0G, 0G)
+
+        where:
+        income  | debt
+        120_000 | 2_000
+        120_000 | 2_000.01
+        120_000 | 3_000
+        120_000 | 5_000
+        0       | 100
+        5       | 0
+    }
+
+    def "should compute approved limit like the original rounding"() {
+        expect:
+        rules.approvedLimit(income, requested, risk) == expected
+
+        where:
+        income  | requested | risk   | expected
+        100_000 | 20_000    | 20     | 16_000
+        80_000  | 15_000    | 30     | 11_000
+        50_000  | 15_000    | 40     | 6_000
+        60_000  | 10_000    | 33.335 | 8_000
+    }
+
+    def "should expose thresholds and version from the definition"() {
+        expect:
+        rules.version == "2024.1"
+        rules.minimumCreditScore == 580
+        rules.isBelowMinimumCreditScore(579)
+        !rules.isBelowMinimumCreditScore(580)
+        rules.isAboveMaximumRisk(75.01G)
+        !rules.isAboveMaximumRisk(75G)
+    }
+
+    def "should reject weights finer than the compiled precision"() {
+        given:
+        def definition = definition()
+        definition.weights.creditScore = 0.35001G
+
+        when:
+        CompiledDecisionRules.compile(definition)
+
+        then:
+        thrown(InvalidDecisionRulesException)
+    }
+
+    def "should reject unordered bands"() {
+        given:
+        def definition = definition()
+        definition.utilization.bands[1].atMost = 5G
+
+        when:
+        CompiledDecisionRules.compile(definition)
+
+        then:
+        def e = thrown(InvalidDecisionRulesException)
+        e.message.contains("utilization")
+    }
+
+    def "should reject missing factors"() {
+        given:
+        def definition = definition()
+        definition.recentInquiries = null
+
+        when:
+        CompiledDecisionRules.compile(definition)
+
+        then:
+        def e = thrown(InvalidDecisionRulesException)
+        e.message.contains("recentInquiries")
+    }
+
+    private DecisionRulesDefinition definition() {
+        getClass().getResourceAsStream("/decision-rules.json").withCloseable {
+            objectMapper.readValue(it, DecisionRulesDefinition)
+        }
+    }
+
+    // The scoring rules as they were hard-coded before being externalised
+    private static BigDecimal referenceScore(int creditScore, BigDecimal income, BigDecimal debt, int delinquent,
+                                             int inquiries, BigDecimal balance, BigDecimal limit) {
+        def creditRisk = creditScore >= 800 ? 5 : creditScore >= 740 ? 15 : creditScore >= 670 ? 30 :
+                creditScore >= 580 ? 60 : 90
+        def monthlyIncome = income.divide(12G, 2, RoundingMode.HALF_UP)
+        def dtiRisk
+        if (monthlyIncome.compareTo(BigDecimal.ZERO) == 0) {
+            dtiRisk = 100
+        } else {
+            def ratio = debt.divide(monthlyIncome, 4, RoundingMode.HALF_UP).multiply(100G)
+            dtiRisk = ratio <= 20 ? 10 : ratio <= 30 ? 25 : ratio <= 40 ? 50 : ratio <= 50 ? 75 : 95
+        }
+        def delinquencyRisk = delinquent == 0 ? 5 : delinquent == 1 ? 40 : delinquent == 2 ? 70 : 95
+        def inquiryRisk = inquiries <= 1 ? 10 : inquiries <= 3 ? 30 : inquiries <= 5 ? 60 : 85
+        def utilizationRisk
+        if (limit.compareTo(BigDecimal.ZERO) == 0) {
+            utilizationRisk = 50
+        } else {
+            def utilization = balance.divide(limit, 4, RoundingMode.HALF_UP).multiply(100G)
+            utilizationRisk = utilization <= 10 ? 5 : utilization <= 30 ? 20 : utilization <= 50 ? 45 :
+                    utilization <= 70 ? 70 : 90
+        }
+        BigDecimal.valueOf(creditRisk).multiply(BigDecimal.valueOf(0.35))
+                .add(BigDecimal.valueOf(dtiRisk).multiply(BigDecimal.valueOf(0.25)))
+                .add(BigDecimal.valueOf(delinquencyRisk).multiply(BigDecimal.valueOf(0.20)))
+                .add(BigDecimal.valueOf(utilizationRisk).multiply(BigDecimal.valueOf(0.15)))
+                .add(BigDecimal.valueOf(inquiryRisk).multiply(BigDecimal.valueOf(0.05)))
+                .setScale(2, RoundingMode.HALF_UP)
+    }
+}
@@ -0,0 +1,100 @@
+package com.bank.creditcard.rules
+
+import com.bank.creditcard.exception.InvalidDecisionRulesException
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.springframework.core.io.DefaultResourceLoader
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+
+class DecisionRulesRegistrySpec extends Specification {
+
+    @TempDir
+    Path tempDir
+
+    def "should load bundled rules from the classpath"() {
+        when:
+        def registry = new DecisionRulesRegistry(new ObjectMapper(), new DefaultResourceLoader(),
+                "classpath:decision-rules.json")
+
+        then:
+        registry.current().version == "2024.1"
+    }
+
+    def "should swap in rules when the file changes"() {
+        given: "a rules file on disk"
+        def file = writeRules("2024.1", 580)
+        def registry = new DecisionRulesRegistry(new ObjectMapper(), new DefaultResourceLoader(), "file:" + file)
+
+        when: "the file is edited"
+        writeRules("2024.2", 600)
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000))
+        registry.reloadIfChanged()
+
+        then: "the new rules are active"
+        registry.current().version == "2024.2"
+        registry.current().minimumCreditScore == 600
+    }
+
+    def "should keep current rules when the new file is invalid"() {
+        given:
+        def file = writeRules("2024.1", 580)
+        def registry = new DecisionRulesRegistry(new ObjectMapper(), new DefaultResourceLoader(), "file:" + file)
+
+        when: "the file is broken"
+        Files.writeString(file, '{"version": "broken"')
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000))
+        registry.reloadIfChanged()
+
+        then:
+        registry.current().version == "2024.1"
+    }
+
+    def "should fail fast on invalid rules at startup"() {
+        given:
+        def file = tempDir.resolve("bad.json")
+        Files.writeString(file, '{"version": "x"}')
+
+        when:
+        new DecisionRulesRegistry(new ObjectMapper(), new DefaultResourceLoader(), "file:" + file)
+
+        then:
+        thrown(InvalidDecisionRulesException)
+    }
+
+    def "should keep current rules when the new file leaves out the minimum credit score"() {
+        given:
+        def file = writeRules("2024.1", 580)
+        def registry = new DecisionRulesRegistry(new ObjectMapper(), new DefaultResourceLoader(), "file:" + file)
+
+        when: "the floor is dropped from the file"
+        Files.writeString(file, Files.readString(file).replaceFirst('"minimumCreditScore"\\s*:\\s*\\d+\\s*,', '')
+                .replace('"version": "2024.1"', '"version": "2024.2"'))
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000))
+        registry.reloadIfChanged()
+
+        then: "the old rules, floor included, stay active"
+        !Files.readString(file).contains("minimumCreditScore")
+        registry.current().version == "2024.1"
+        registry.current().minimumCreditScore == 580
+
+        when: "a registry starts from that file"
+        new DecisionRulesRegistry(new ObjectMapper(), new DefaultResourceLoader(), "file:" + file)
+
+        then:
+        def e = thrown(InvalidDecisionRulesException)
+        e.message.contains("minimumCreditScore")
+    }
+
+    private Path writeRules(String version, int minimumCreditScore) {
+        def json = getClass().getResourceAsStream("/decision-rules.json").text
+                .replaceFirst('"version"\\s*:\\s*"[^"]*"', "\"version\": \"${version}\"")
+                .replaceFirst('"minimumCreditScore"\\s*:\\s*\\d+', "\"minimumCreditScore\": ${minimumCreditScore}")
+        def file = tempDir.resolve("decision-rules.json")
+        Files.writeString(file, json)
+        file
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.creditcard.security
+
+import jakarta.servlet.FilterChain
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.authority.AuthorityUtils
+import org.springframework.security.core.context.SecurityContextHolder
+import spock.lang.Specification
+import spock.lang.Subject
+
+class BearerTokenAuthenticationFilterSpec extends Specification {
+
+    def tokenService = Mock(BearerTokenService)
+    def chain = Mock(FilterChain)
+    def response = new MockHttpServletResponse()
+
+    @Subject
+    def filter = new BearerTokenAuthenticationFilter(tokenService, "/api/v1/auth/token")
+
+    def cleanup() {
+        SecurityContextHolder.clearContext()
+    }
+
+    def "should authenticate a request carrying a valid token"() {
+        given:
+        def request = request("/api/v1/credit-card-applications/CC1", "Bearer good-token")
+        def authentication = UsernamePasswordAuthenticationToken.authenticated("user", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"))
+        def seen = null
+
+        when:
+        filter.doFilter(request, response, chain)
+
+        then:
+        1 * tokenService.verify("good-token") >> authentication
+        1 * chain.doFilter(request, response) >> { seen = SecurityContextHolder.context.authentication }
+        seen == authentication
+    }
+
+    def "should answer 401 for an invalid token without calling the chain"() {
+        given:
+        def request = request("/api/v1/credit-card-applications/CC1", "bearer forged")
+
+        when:
+        filter.doFilter(request, response, chain)
+
+        then:
+        1 * tokenService.verify("forged") >> null
+        0 * chain.doFilter(_, _)
+        response.status == 401
+        response.getHeader("WWW-Authenticate") == 'Bearer error="invalid_token"'
+    }
+
+    def "should leave Basic and anonymous requests to the rest of the chain"() {
+        given:
+        def request = request("/api/v1/credit-card-applications/CC1", header)
+
+        when:
+        filter.doFilter(request, response, chain)
+
+        then:
+        0 * tokenService._
+        1 * chain.doFilter(request, response)
+        SecurityContextHolder.context.authentication == null
+
+        where:
+        header << [null, "Basic dXNlcjpwYXNzd29yZA=="]
+    }
+
+    def "should not accept a token on the token endpoint"() {
+        given:
+        def request = request("/api/v1/auth/token", "Bearer good-token")
+
+        when:
+        filter.doFilter(request, response, chain)
+
+        then:
+        0 * tokenService._
+        1 * chain.doFilter(request, response)
+    }
+
+    private static MockHttpServletRequest request(String path, String authorization) {
+        def request = new MockHttpServletRequest("GET", path)
+        request.servletPath = path
+        if (authorization) {
+            request.addHeader("Authorization", authorization)
+        }
+        request
+    }
+}
@@ -0,0 +1,95 @@
+package com.bank.creditcard.security
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.authority.AuthorityUtils
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+
+class BearerTokenServiceSpec extends Specification {
+
+    static final String SECRET = "0123456789abcdef0123456789abcdef"
+    static final Instant NOW = Instant.parse("2024-03-01T12:00:00Z")
+
+    @Subject
+    def service = new BearerTokenService(SECRET, Duration.ofMinutes(15), Clock.fixed(NOW, ZoneOffset.UTC))
+
+    def admin = UsernamePasswordAuthenticationToken.authenticated("admin", null,
+            AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"))
+
+    def "should issue a token that verifies back to the same principal and roles"() {
+        when:
+        def response = service.issue(admin)
+        def authentication = service.verify(response.accessToken)
+
+        then:
+        response.tokenType == "Bearer"
+        response.expiresIn == 900
+        response.expiresAt == NOW.plusSeconds(900)
+        authentication.authenticated
+        authentication.name == "admin"
+        authentication.authorities*.authority == ["ROLE_ADMIN", "ROLE_USER"]
+        authentication.credentials == null
+    }
+
+    def "should reject a token once it expires"() {
+        given:
+        def token = service.issue(admin).accessToken
+        def later = new BearerTokenService(SECRET, Duration.ofMinutes(15),
+                Clock.fixed(NOW.plus(Duration.ofMinutes(15)), ZoneOffset.UTC))
+
+        expect:
+        later.verify(token) == null
+    }
+
+    def "should reject a token signed with another key"() {
+        given:
+        def other = new BearerTokenService("fedcba9876543210fedcba9876543210", Duration.ofMinutes(15),
+                Clock.fixed(NOW, ZoneOffset.UTC))
+
+        expect:
+        service.verify(other.issue(admin).accessToken) == null
+    }
+
+    def "should reject a payload that was tampered with"() {
+        given:
+        def token = service.issue(UsernamePasswordAuthenticationToken.authenticated("user", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"))).accessToken
+        def forgedPayload = Base64.urlEncoder.withoutPadding()
+                .encodeToString("user\nROLE_ADMIN\n${NOW.epochSecond + 900}".getBytes("UTF-8"))
+
+        expect:
+        service.verify(forgedPayload + token.substring(token.indexOf('.'))) == null
+    }
+
+    def "should reject malformed tokens"() {
+        expect:
+        service.verify(token) == null
+
+        where:
+        token << ["", "abc", ".", "abc.", "a.b.c", "!!!.@@@", "dXNlcg.c2ln"]
+    }
+
+    def "should refuse a short secret"() {
+        when:
+        new BearerTokenService("too-short", Duration.ofMinutes(15))
+
+        then:
+        thrown(IllegalStateException)
+    }
+
+    def "should fall back to a random key when no secret is configured"() {
+        given:
+        def first = new BearerTokenService("", Duration.ofMinutes(15))
+        def second = new BearerTokenService("", Duration.ofMinutes(15))
+        def token = first.issue(admin).accessToken
+
+        expect:
+        first.verify(token).name == "admin"
+        second.verify(token) == null
+    }
+}
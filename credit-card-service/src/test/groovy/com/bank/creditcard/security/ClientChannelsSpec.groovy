@@ -0,0 +1,55 @@
+package com.bank.creditcard.security
+
+import com.bank.creditcard.model.CreditCardApplication
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.context.SecurityContextHolder
+import spock.lang.Specification
+
+class ClientChannelsSpec extends Specification {
+
+    def channels = new ClientChannels(["branch-desk=BRANCH", " partner-feed = partner ", ""])
+
+    def cleanup() {
+        SecurityContextHolder.clearContext()
+    }
+
+    def "should look up the channel registered for a client, ONLINE otherwise"() {
+        expect:
+        channels.of(client(principal)) == channel
+
+        where:
+        principal      | channel
+        "branch-desk"  | CreditCardApplication.Channel.BRANCH
+        "partner-feed" | CreditCardApplication.Channel.PARTNER
+        "user"         | CreditCardApplication.Channel.ONLINE
+    }
+
+    def "should treat an unauthenticated caller as ONLINE"() {
+        expect:
+        channels.of(null) == CreditCardApplication.Channel.ONLINE
+        channels.current() == CreditCardApplication.Channel.ONLINE
+    }
+
+    def "should read the client from the current security context"() {
+        given:
+        SecurityContextHolder.context.authentication = client("branch-desk")
+
+        expect:
+        channels.current() == CreditCardApplication.Channel.BRANCH
+    }
+
+    def "should refuse a malformed registration"() {
+        when:
+        new ClientChannels([entry])
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        entry << ["branch-desk", "branch-desk=KIOSK"]
+    }
+
+    private static client(String name) {
+        UsernamePasswordAuthenticationToken.authenticated(name, null, [])
+    }
+}
@@ -0,0 +1,216 @@
+package com.bank.creditcard.service
+
+import jakarta.validation.Validation
+import org.flywaydb.core.Flyway
+import org.postgresql.ds.PGSimpleDataSource
+import org.testcontainers.DockerClientFactory
+import org.testcontainers.containers.PostgreSQLContainer
+import spock.lang.Requires
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+@Requires({ DockerClientFactory.instance().isDockerAvailable() })
+class ApplicationImportServiceSpec extends Specification {
+
+    static final String HEADER = "application_number,status,first_name,last_name,email,phone_number,ssn," +
+            "date_of_birth,street_address,city,state,zip_code,annual_income,employment_status,card_type,created_at"
+
+    @Shared
+    PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("creditcard_import")
+            .withUsername("test")
+            .withPassword("test")
+
+    @Shared
+    PGSimpleDataSource dataSource = new PGSimpleDataSource()
+
+    @TempDir
+    Path dir
+
+    def service = new ApplicationImportService(dataSource, Validation.buildDefaultValidatorFactory().validator)
+
+    def setupSpec() {
+        postgres.start()
+        dataSource.setUrl(postgres.jdbcUrl)
+        dataSource.setUser(postgres.username)
+        dataSource.setPassword(postgres.password)
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate()
+    }
+
+    def cleanupSpec() {
+        postgres.stop()
+    }
+
+    def setup() {
+        service.batchSize = 2
+        sql("TRUNCATE import_checkpoints, credit_card_applications, customers CASCADE")
+    }
+
+    def "should import valid rows, share customers by SSN and write rejects with their reason"() {
+        given:
+        def input = csv([
+                row("LEG-1", "APPROVED", "111-11-1111", "a@example.com"),
+                row("LEG-2", "REJECTED", "111-11-1111", "a@example.com"),
+                row("LEG-3", "PENDING", "222-22-2222", "b@example.com"),
+                row("LEG-4", "APPROVED", "not-an-ssn", "c@example.com"),
+                row("LEG-5", "APPROVED", "333-33-3333", "d@example.com"),
+        ])
+        def rejects = dir.resolve("rejects.csv")
+
+        when:
+        def report = service.importFile(input, rejects, false)
+
+        then:
+        report.rowsRead == 5
+        report.rowsRejected == 1
+        report.applicationsImported == 4
+        report.customersImported == 3
+        report.deferredImported == 1
+        count("SELECT count(*) FROM credit_card_applications") == 4
+        count("SELECT count(DISTINCT customer_id) FROM credit_card_applications WHERE application_number IN ('LEG-1', 'LEG-2')") == 1
+
+        and:
+        def lines = Files.readAllLines(rejects)
+        lines[0] == HEADER + ",rejection_reason"
+        lines[1].startsWith("LEG-4,")
+        lines[1].endsWith('"SSN must be in format XXX-XX-XXXX"')
+        lines.size() == 2
+    }
+
+    def "should import undecided applications DEFERRED for the retry sweep to decide"() {
+        given:
+        def input = csv([row("LEG-1", "PENDING", "111-11-1111", "a@example.com"),
+                         row("LEG-2", "IN_REVIEW", "222-22-2222", "b@example.com"),
+                         row("LEG-3", "APPROVED", "333-33-3333", "c@example.com")])
+
+        when:
+        def report = service.importFile(input, null, false)
+
+        then:
+        report.deferredImported == 2
+        count("SELECT count(*) FROM credit_card_applications WHERE status = 'DEFERRED'") == 2
+        count("SELECT count(*) FROM credit_card_applications WHERE status IN ('PENDING', 'IN_REVIEW')") == 0
+        count("SELECT count(*) FROM credit_card_applications WHERE status = 'APPROVED'") == 1
+    }
+
+    def "should skip rows the database already has"() {
+        given:
+        service.importFile(csv([row("LEG-1", "APPROVED", "111-11-1111", "a@example.com")]), null, false)
+        def second = csv([row("LEG-1", "APPROVED", "111-11-1111", "a@example.com"),
+                          row("LEG-9", "APPROVED", "111-11-1111", "a@example.com")])
+
+        when:
+        def report = service.importFile(second, null, false)
+
+        then:
+        report.applicationsImported == 1
+        report.duplicatesSkipped == 1
+        report.customersImported == 0
+        count("SELECT count(*) FROM credit_card_applications") == 2
+    }
+
+    def "should reject rows whose email belongs to a customer with another SSN"() {
+        given: "an existing customer, and a file reusing their email for other applicants"
+        service.importFile(csv([row("LEG-1", "APPROVED", "111-11-1111", "a@example.com")]), null, false)
+        def input = csv([row("LEG-2", "APPROVED", "222-22-2222", "a@example.com"),
+                         row("LEG-3", "APPROVED", "333-33-3333", "c@example.com"),
+                         row("LEG-4", "REJECTED", "444-44-4444", "c@example.com")])
+        def rejects = dir.resolve("rejects.csv")
+
+        when:
+        def report = service.importFile(input, rejects, false)
+
+        then: "they are rejected with the reason, not counted as duplicates"
+        report.applicationsImported == 1
+        report.customersImported == 1
+        report.rowsRejected == 2
+        report.duplicatesSkipped == 0
+        count("SELECT count(*) FROM credit_card_applications") == 2
+
+        and:
+        def lines = Files.readAllLines(rejects)
+        lines.size() == 3
+        lines[1..2]*.substring(0, 5) as Set == ["LEG-2", "LEG-4"] as Set
+        lines[1..2].every { it.endsWith('"' + ApplicationImportService.EMAIL_TAKEN + '"') }
+    }
+
+    def "should not import a finished file twice unless restarted"() {
+        given:
+        def input = csv((1..5).collect { row("LEG-$it", "APPROVED", "111-11-111$it", "a$it@example.com") })
+        service.importFile(input, null, false)
+        sql("DELETE FROM credit_card_applications")
+
+        when:
+        def again = service.importFile(input, null, false)
+
+        then:
+        again.rowsRead == 5
+        count("SELECT count(*) FROM credit_card_applications") == 0
+
+        when:
+        def restarted = service.importFile(input, null, true)
+
+        then:
+        restarted.applicationsImported == 5
+        count("SELECT count(*) FROM credit_card_applications") == 5
+    }
+
+    def "should resume after the last committed batch"() {
+        given:
+        def input = csv((1..5).collect { row("LEG-$it", "APPROVED", "111-11-111$it", "a$it@example.com") })
+        def afterSecondRow = Files.readAllLines(input).take(3).sum { it.length() + 1 }
+        sql("""INSERT INTO import_checkpoints (source, file_size, byte_offset, rows_read, updated_at)
+               VALUES ('${input.toAbsolutePath().normalize()}', ${Files.size(input)}, $afterSecondRow, 2, now())""")
+
+        when:
+        def report = service.importFile(input, null, false)
+
+        then:
+        report.resumedFromOffset == afterSecondRow
+        report.rowsRead == 5
+        report.applicationsImported == 3
+        count("SELECT count(*) FROM credit_card_applications WHERE application_number IN ('LEG-1', 'LEG-2')") == 0
+        count("SELECT count(*) FROM import_checkpoints WHERE completed") == 1
+    }
+
+    def "should refuse to resume a file that changed"() {
+        given:
+        def input = csv([row("LEG-1", "APPROVED", "111-11-1111", "a@example.com")])
+        sql("""INSERT INTO import_checkpoints (source, file_size, byte_offset, updated_at)
+               VALUES ('${input.toAbsolutePath().normalize()}', 1, 1, now())""")
+
+        when:
+        service.importFile(input, null, false)
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.contains("import.applications.restart=true")
+    }
+
+    private Path csv(List<String> rows) {
+        def file = dir.resolve("legacy-${System.nanoTime()}.csv")
+        Files.writeString(file, ([HEADER] + rows).join("\n") + "\n")
+        file
+    }
+
+    private static String row(String number, String status, String ssn, String email) {
+        "$number,$status,Jane,Doe,$email,+15551234567,$ssn,1980-01-01,1 Main St,Springfield,IL,62701," +
+                "60000,EMPLOYED,CLASSIC,2018-06-01T09:00:00"
+    }
+
+    private void sql(String statement) {
+        dataSource.connection.withCloseable { it.createStatement().execute(statement) }
+    }
+
+    private long count(String query) {
+        dataSource.connection.withCloseable { connection ->
+            def result = connection.createStatement().executeQuery(query)
+            result.next()
+            result.getLong(1)
+        }
+    }
+}
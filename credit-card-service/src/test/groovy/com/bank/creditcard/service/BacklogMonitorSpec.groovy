@@ -0,0 +1,55 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.repository.CreditCardApplicationRepository
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.dao.QueryTimeoutException
+import spock.lang.Specification
+import spock.lang.Subject
+
+class BacklogMonitorSpec extends Specification {
+
+    def applicationRepository = Mock(CreditCardApplicationRepository)
+    def registry = new SimpleMeterRegistry()
+
+    @Subject
+    def monitor = new BacklogMonitor(applicationRepository)
+
+    def setup() {
+        monitor.bindTo(registry)
+    }
+
+    def "should report an unknown backlog until the first count"() {
+        expect:
+        registry.get("applications.backlog").tag("status", "pending").gauge().value().naN
+        registry.get("applications.backlog").tag("status", "in_review").gauge().value().naN
+        registry.get("applications.backlog").tag("status", "deferred").gauge().value().naN
+    }
+
+    def "should report the counts of the last refresh"() {
+        when:
+        monitor.refresh()
+
+        then:
+        1 * applicationRepository.countByStatus(CreditCardApplication.ApplicationStatus.PENDING) >> 120
+        1 * applicationRepository.countByStatus(CreditCardApplication.ApplicationStatus.IN_REVIEW) >> 7
+        1 * applicationRepository.countByStatus(CreditCardApplication.ApplicationStatus.DEFERRED) >> 30
+        registry.get("applications.backlog").tag("status", "pending").gauge().value() == 120
+        registry.get("applications.backlog").tag("status", "in_review").gauge().value() == 7
+        registry.get("applications.backlog").tag("status", "deferred").gauge().value() == 30
+    }
+
+    def "should go back to unknown when the count fails rather than report a stale backlog"() {
+        given:
+        applicationRepository.countByStatus(_) >> 5 >> 5 >> 5 >> { throw new QueryTimeoutException("timeout") }
+        monitor.refresh()
+
+        when:
+        monitor.refresh()
+
+        then:
+        monitor.pending == -1
+        monitor.deferred == -1
+        registry.get("applications.backlog").tag("status", "pending").gauge().value().naN
+    }
+}
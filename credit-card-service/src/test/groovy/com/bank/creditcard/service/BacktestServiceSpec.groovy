@@ -0,0 +1,123 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.dto.BacktestInput
+import com.bank.creditcard.dto.CreditBureauReport
+import com.bank.creditcard.mapper.BureauReportCodec
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.repository.CreditBureauSnapshotRepository
+import com.bank.creditcard.rules.CompiledDecisionRules
+import com.bank.creditcard.rules.DecisionRulesDefinition
+import com.bank.creditcard.rules.DecisionRulesRegistry
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.springframework.core.io.DefaultResourceLoader
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.util.stream.Stream
+
+class BacktestServiceSpec extends Specification {
+
+    static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0)
+    static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0)
+
+    @Shared
+    BureauReportCodec codec = new BureauReportCodec()
+
+    @Shared
+    CompiledDecisionRules rules = new DecisionRulesRegistry(
+            new ObjectMapper(), new DefaultResourceLoader(), "classpath:decision-rules.json").current()
+
+    def snapshotRepository = Mock(CreditBureauSnapshotRepository)
+
+    @Subject
+    def service = new BacktestService(snapshotRepository, codec)
+
+    def "should reproduce recorded decisions when replaying the same rules"() {
+        given: "decisions recorded with the active rules, spanning several chunks"
+        def inputs = (0..<(BacktestService.CHUNK_SIZE * 3 + 17)).collect { recordedInput(it, rules) }
+        snapshotRepository.streamBacktestInputs(FROM, TO) >> inputs.stream()
+        service.parallelism = 4
+
+        when:
+        def report = service.run(FROM, TO, rules)
+
+        then: "every application is scored and nothing changes"
+        report.applications == inputs.size()
+        report.skipped == 0
+        report.newlyApproved == 0
+        report.newlyRejected == 0
+        report.approvalRateDelta == 0.0d
+        report.averageLimitDelta == 0.00G
+        report.averageRiskScoreDelta == 0.00G
+        report.recorded.approved == inputs.count { it.status == CreditCardApplication.ApplicationStatus.APPROVED }
+        report.candidateRulesVersion == "2024.1"
+    }
+
+    def "should report deltas for a stricter candidate policy"() {
+        given: "recorded decisions"
+        def inputs = (0..<1000).collect { recordedInput(it, rules) }
+        snapshotRepository.streamBacktestInputs(FROM, TO) >> inputs.stream()
+
+        and: "a candidate that raises the credit score floor"
+        def definition = getClass().getResourceAsStream("/decision-rules.json").withCloseable {
+            new ObjectMapper().readValue(it, DecisionRulesDefinition)
+        }
+        definition.version = "strict"
+        definition.minimumCreditScore = 700
+        def candidate = CompiledDecisionRules.compile(definition)
+
+        when:
+        def report = service.run(FROM, TO, candidate)
+
+        then: "only rejections are added"
+        report.newlyApproved == 0
+        report.newlyRejected > 0
+        report.candidate.approved == report.recorded.approved - report.newlyRejected
+        report.approvalRateDelta < 0
+        report.averageRiskScoreDelta == 0.00G
+    }
+
+    def "should skip snapshots without a credit score"() {
+        given:
+        def payload = codec.encode(CreditBureauReport.builder().build())
+        snapshotRepository.streamBacktestInputs(FROM, TO) >> Stream.of(new BacktestInput(
+                CreditCardApplication.ApplicationStatus.REJECTED, 50_000G, 5_000G, null, 50.00G,
+                BureauReportCodec.CURRENT_VERSION, payload))
+
+        when:
+        def report = service.run(FROM, TO, rules)
+
+        then:
+        report.applications == 0
+        report.skipped == 1
+    }
+
+    private BacktestInput recordedInput(int i, CompiledDecisionRules rules) {
+        def random = new Random(i)
+        def balance = BigDecimal.valueOf(random.nextInt(10_000))
+        def report = CreditBureauReport.builder()
+                .creditScore(500 + random.nextInt(350))
+                .monthlyDebtPayments(BigDecimal.valueOf(random.nextInt(3_000)))
+                .numberOfDelinquentAccounts(random.nextInt(3))
+                .creditAccounts([CreditBureauReport.CreditAccount.builder()
+                        .accountType("Credit Card")
+                        .balance(balance)
+                        .creditLimit(10_000G)
+                        .openDate(LocalDate.of(2020, 1, 1))
+                        .build()])
+                .recentInquiries([])
+                .build()
+        def income = BigDecimal.valueOf(30_000 + random.nextInt(150_000))
+        def requested = BigDecimal.valueOf(5_000 + random.nextInt(20_000))
+        def risk = rules.riskScore(report.creditScore, income, report.monthlyDebtPayments,
+                report.numberOfDelinquentAccounts, 0, balance, 10_000G)
+        def approved = !rules.isBelowMinimumCreditScore(report.creditScore) && !rules.isAboveMaximumRisk(risk)
+        new BacktestInput(
+                approved ? CreditCardApplication.ApplicationStatus.APPROVED : CreditCardApplication.ApplicationStatus.REJECTED,
+                income, requested, approved ? rules.approvedLimit(income, requested, risk) : null, risk,
+                BureauReportCodec.CURRENT_VERSION, codec.encode(report))
+    }
+}
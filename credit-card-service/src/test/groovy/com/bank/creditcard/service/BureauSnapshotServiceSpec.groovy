@@ -0,0 +1,46 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.dto.CreditBureauReport
+import com.bank.creditcard.mapper.BureauReportCodec
+import com.bank.creditcard.model.CreditBureauSnapshot
+import com.bank.creditcard.repository.CreditBureauSnapshotRepository
+import spock.lang.Specification
+import spock.lang.Subject
+
+class BureauSnapshotServiceSpec extends Specification {
+
+    def snapshotRepository = Mock(CreditBureauSnapshotRepository)
+    def codec = new BureauReportCodec()
+
+    @Subject
+    def service = new BureauSnapshotService(snapshotRepository, codec)
+
+    def "should store an encoded snapshot keyed by application"() {
+        given:
+        def applicationId = UUID.randomUUID()
+        def report = CreditBureauReport.builder().creditScore(700).monthlyDebtPayments(150G).build()
+
+        when:
+        service.store(applicationId, report)
+
+        then:
+        1 * snapshotRepository.save({ CreditBureauSnapshot it ->
+            it.applicationId == applicationId &&
+                    it.encodingVersion == BureauReportCodec.CURRENT_VERSION &&
+                    codec.decode(it.encodingVersion, it.payload).creditScore == 700
+        })
+    }
+
+    def "should decode a stored snapshot lazily"() {
+        given:
+        def applicationId = UUID.randomUUID()
+        def payload = codec.encode(CreditBureauReport.builder().creditScore(640).build())
+        snapshotRepository.findById(applicationId) >>
+                Optional.of(new CreditBureauSnapshot(applicationId, BureauReportCodec.CURRENT_VERSION, payload))
+        snapshotRepository.findById(_) >> Optional.empty()
+
+        expect:
+        service.find(applicationId).get().creditScore == 640
+        service.find(UUID.randomUUID()).isEmpty()
+    }
+}
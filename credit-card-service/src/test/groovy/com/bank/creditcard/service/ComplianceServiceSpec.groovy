@@ -1,24 +1,30 @@
 package com.bank.creditcard.service
 
+import com.bank.creditcard.exception.DeadlineExceededException
 import com.bank.creditcard.model.Address
 import com.bank.creditcard.model.Customer
+import com.bank.creditcard.velocity.VelocityDimension
 import spock.lang.Specification
 import spock.lang.Subject
 import spock.lang.Unroll
 
+import java.time.Duration
 import java.time.LocalDate
 
 class ComplianceServiceSpec extends Specification {
 
+    // Within every limit unless a feature says otherwise
+    def velocityScreeningService = Stub(VelocityScreeningService)
+
     @Subject
-    def service = new ComplianceService()
+    def service = new ComplianceService(velocityScreeningService)
 
     def "should pass compliance check for valid customer"() {
         given: "a valid customer"
         def customer = createValidCustomer()
         
         when: "performing compliance check"
-        def result = service.performComplianceCheck(customer)
+        def result = service.performComplianceCheck(customer, null)
         
         then: "all checks pass"
         result.kycPassed
@@ -29,13 +35,24 @@ class ComplianceServiceSpec extends Specification {
         result.reason == null
     }
 
+    def "should give up on the compliance check once the timeout has passed"() {
+        when: "the provider always takes at least 200ms"
+        def start = System.nanoTime()
+        service.performComplianceCheck(createValidCustomer(), null, Duration.ofMillis(20))
+
+        then:
+        def e = thrown(DeadlineExceededException)
+        e.stage == "compliance"
+        Duration.ofNanos(System.nanoTime() - start) < Duration.ofMillis(200)
+    }
+
     def "should fail KYC check when identity not verified"() {
         given: "a customer without identity verification"
         def customer = createValidCustomer()
         customer.identityVerified = false
         
         when: "performing compliance check"
-        def result = service.performComplianceCheck(customer)
+        def result = service.performComplianceCheck(customer, null)
         
         then: "KYC check fails"
         !result.kycPassed
@@ -49,7 +66,7 @@ class ComplianceServiceSpec extends Specification {
         customer.ssn = null
         
         when: "performing compliance check"
-        def result = service.performComplianceCheck(customer)
+        def result = service.performComplianceCheck(customer, null)
         
         then: "KYC check fails"
         !result.kycPassed
@@ -63,7 +80,7 @@ class ComplianceServiceSpec extends Specification {
         customer.address = null
         
         when: "performing compliance check"
-        def result = service.performComplianceCheck(customer)
+        def result = service.performComplianceCheck(customer, null)
         
         then: "KYC check fails"
         !result.kycPassed
@@ -71,6 +88,36 @@ class ComplianceServiceSpec extends Specification {
         result.reason.contains("KYC verification incomplete")
     }
 
+    def "should fail AML check when an identifier is over its velocity limit"() {
+        given: "a customer whose phone and device were used too often"
+        def customer = createValidCustomer()
+        velocityScreeningService.exceededLimits(customer, "device-1") >>
+                [VelocityDimension.PHONE, VelocityDimension.DEVICE]
+
+        when: "performing compliance check"
+        def result = service.performComplianceCheck(customer, "device-1")
+
+        then: "AML check fails naming the dimensions"
+        !result.amlPassed
+        result.kycPassed
+        !result.overallPassed
+        result.velocityExceeded == [VelocityDimension.PHONE, VelocityDimension.DEVICE]
+        result.reason == "Compliance check failed: AML velocity limit exceeded (PHONE, DEVICE)."
+    }
+
+    def "should screen velocity without blocking in the reactive check"() {
+        given:
+        def customer = createValidCustomer()
+        velocityScreeningService.exceededLimits(customer, null) >> [VelocityDimension.SSN]
+
+        when:
+        def result = service.checkCompliance(customer, null).block()
+
+        then:
+        !result.amlPassed
+        result.reason.contains("AML velocity limit exceeded (SSN)")
+    }
+
     @Unroll
     def "should fail sanctions check for sanctioned name: #sanctionedName"() {
         given: "a customer with sanctioned name"
@@ -79,7 +126,7 @@ class ComplianceServiceSpec extends Specification {
         customer.lastName = sanctionedName.split(" ")[1]
         
         when: "performing compliance check"
-        def result = service.performComplianceCheck(customer)
+        def result = service.performComplianceCheck(customer, null)
         
         then: "sanctions check fails"
         !result.sanctionCheckPassed
@@ -98,7 +145,7 @@ class ComplianceServiceSpec extends Specification {
         customer.lastName = pepName.split(" ")[1]
         
         when: "performing compliance check"
-        def result = service.performComplianceCheck(customer)
+        def result = service.performComplianceCheck(customer, null)
         
         then: "PEP check fails"
         !result.pepCheckPassed
@@ -117,7 +164,7 @@ class ComplianceServiceSpec extends Specification {
         customer.lastName = "PERSON"
         
         when: "performing compliance check"
-        def result = service.performComplianceCheck(customer)
+        def result = service.performComplianceCheck(customer, null)
         
         then: "multiple failures are reported"
         !result.kycPassed
@@ -134,7 +181,7 @@ class ComplianceServiceSpec extends Specification {
         customer.lastName = "person"
         
         when: "performing compliance check"
-        def result = service.performComplianceCheck(customer)
+        def result = service.performComplianceCheck(customer, null)
         
         then: "sanctions check still fails"
         !result.sanctionCheckPassed
@@ -148,7 +195,7 @@ class ComplianceServiceSpec extends Specification {
         customer.lastName = "SANCTIONED PERSON ONE Smith"
         
         when: "performing compliance check"
-        def result = service.performComplianceCheck(customer)
+        def result = service.performComplianceCheck(customer, null)
         
         then: "sanctions check fails"
         !result.sanctionCheckPassed
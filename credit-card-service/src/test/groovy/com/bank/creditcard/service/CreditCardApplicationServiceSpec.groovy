@@ -1,15 +1,26 @@
 package com.bank.creditcard.service
 
-import com.bank.creditcard.client.CreditBureauClient
-import com.bank.creditcard.dto.CreditBureauReport
+import com.bank.creditcard.concurrency.PipelinePriority
+import com.bank.creditcard.concurrency.WeightedFairScheduler
+import com.bank.creditcard.dto.ApplicationField
 import com.bank.creditcard.dto.CreditCardApplicationRequest
 import com.bank.creditcard.dto.AddressDto
 import com.bank.creditcard.exception.DuplicateApplicationException
+import com.bank.creditcard.exception.ResourceNotFoundException
+import com.bank.creditcard.journal.DecisionJournal
 import com.bank.creditcard.mapper.ApplicationMapper
 import com.bank.creditcard.model.CreditCardApplication
 import com.bank.creditcard.model.Customer
 import com.bank.creditcard.repository.CreditCardApplicationRepository
 import com.bank.creditcard.repository.CustomerRepository
+import com.bank.creditcard.security.ClientChannels
+import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.context.SecurityContextHolder
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionSynchronizationUtils
+import org.springframework.transaction.support.TransactionTemplate
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -19,21 +30,37 @@ class CreditCardApplicationServiceSpec extends Specification {
 
     def applicationRepository = Mock(CreditCardApplicationRepository)
     def customerRepository = Mock(CustomerRepository)
-    def creditBureauClient = Mock(CreditBureauClient)
-    def riskAssessmentService = Mock(RiskAssessmentService)
-    def complianceService = Mock(ComplianceService)
+    def velocityScreeningService = Mock(VelocityScreeningService)
+    boolean ssnFiltersSayMaybe = true
+    boolean pendingFilterSaysMaybe = true
+    def ssnFilterService = Mock(SsnFilterService) {
+        mightHavePending(_) >> { ssnFiltersSayMaybe && pendingFilterSaysMaybe }
+        mightBeCustomer(_) >> { ssnFiltersSayMaybe }
+    }
     def applicationMapper = Mock(ApplicationMapper)
+    def decisionJournal = Mock(DecisionJournal)
+    def pipelineScheduler = Mock(WeightedFairScheduler)
+    def decisionPipeline = Mock(DecisionPipeline)
+    def clientChannels = new ClientChannels(["branch-desk=BRANCH"])
 
     @Subject
     def service = new CreditCardApplicationService(
             applicationRepository,
             customerRepository,
-            creditBureauClient,
-            riskAssessmentService,
-            complianceService,
-            applicationMapper
+            velocityScreeningService,
+            ssnFilterService,
+            applicationMapper,
+            decisionJournal,
+            pipelineScheduler,
+            decisionPipeline,
+            clientChannels,
+            new TransactionTemplate(Stub(PlatformTransactionManager))
     )
 
+    def cleanup() {
+        SecurityContextHolder.clearContext()
+    }
+
     def "should submit credit card application successfully"() {
         given: "a valid application request"
         def request = createValidApplicationRequest()
@@ -45,7 +72,7 @@ class CreditCardApplicationServiceSpec extends Specification {
         def response = service.submitApplication(request)
         
         then: "check for duplicate applications"
-        1 * applicationRepository.existsByCustomerSsnAndStatus(request.ssn, CreditCardApplication.ApplicationStatus.PENDING) >> false
+        1 * applicationRepository.existsByCustomerSsnAndStatusIn(request.ssn, CreditCardApplication.ApplicationStatus.UNDECIDED) >> false
         
         and: "find or create customer"
         1 * customerRepository.findBySsn(request.ssn) >> Optional.empty()
@@ -69,74 +96,240 @@ class CreditCardApplicationServiceSpec extends Specification {
         service.submitApplication(request)
         
         then: "duplicate check returns true"
-        1 * applicationRepository.existsByCustomerSsnAndStatus(request.ssn, CreditCardApplication.ApplicationStatus.PENDING) >> true
+        1 * applicationRepository.existsByCustomerSsnAndStatusIn(request.ssn, CreditCardApplication.ApplicationStatus.UNDECIDED) >> true
         
         and: "exception is thrown"
         thrown(DuplicateApplicationException)
     }
 
-    def "should process application with approval"() {
-        given: "an application to process"
-        def applicationId = UUID.randomUUID()
-        def application = createApplicationForProcessing()
-        def creditReport = createCreditReport(750)
-        def complianceResult = new ComplianceService.ComplianceCheckResult(
-                overallPassed: true,
-                kycPassed: true,
-                amlPassed: true,
-                sanctionCheckPassed: true,
-                pepCheckPassed: true
-        )
-        
-        when: "processing the application"
-        service.processApplicationAsync(applicationId)
-        
-        then: "application is retrieved and updated"
-        1 * applicationRepository.findById(applicationId) >> Optional.of(application)
-        1 * applicationRepository.save({ it.status == CreditCardApplication.ApplicationStatus.IN_REVIEW })
-        
-        and: "compliance check passes"
-        1 * complianceService.performComplianceCheck(application.customer) >> complianceResult
-        
-        and: "credit bureau report is fetched"
-        1 * creditBureauClient.getCreditReport(application.customer.ssn) >> creditReport
-        
-        and: "risk assessment is performed"
-        1 * riskAssessmentService.calculateRiskScore(application, creditReport) >> BigDecimal.valueOf(25)
-        1 * riskAssessmentService.determineApprovedLimit(application, BigDecimal.valueOf(25)) >> BigDecimal.valueOf(10000)
-        
-        and: "application is approved"
-        1 * applicationRepository.save({ 
-            it.status == CreditCardApplication.ApplicationStatus.APPROVED &&
-            it.approvedLimit == BigDecimal.valueOf(10000)
-        })
-    }
-
-    def "should reject application due to low credit score"() {
-        given: "an application with low credit score"
-        def applicationId = UUID.randomUUID()
-        def application = createApplicationForProcessing()
-        def creditReport = createCreditReport(550) // Low credit score
-        def complianceResult = new ComplianceService.ComplianceCheckResult(overallPassed: true)
-        
-        when: "processing the application"
-        service.processApplicationAsync(applicationId)
-        
-        then: "application process starts"
-        1 * applicationRepository.findById(applicationId) >> Optional.of(application)
-        1 * applicationRepository.save({ it.status == CreditCardApplication.ApplicationStatus.IN_REVIEW })
-        1 * complianceService.performComplianceCheck(application.customer) >> complianceResult
-        1 * creditBureauClient.getCreditReport(application.customer.ssn) >> creditReport
-        1 * riskAssessmentService.calculateRiskScore(application, creditReport) >> BigDecimal.valueOf(85)
-        
-        and: "application is rejected"
-        1 * applicationRepository.save({ 
-            it.status == CreditCardApplication.ApplicationStatus.REJECTED &&
-            it.decisionReason.contains("Credit score or risk assessment")
-        })
+    def "should skip both SSN lookups when the filters rule the applicant out"() {
+        given: "an applicant the filters have never seen"
+        ssnFiltersSayMaybe = false
+        def request = createValidApplicationRequest()
+        def customer = createCustomer()
+        def application = createApplication(customer)
+
+        when: "submitting the application"
+        service.submitApplication(request)
+
+        then: "neither lookup reaches the database"
+        0 * applicationRepository.existsByCustomerSsnAndStatusIn(*_)
+        0 * customerRepository.findBySsn(_)
+
+        and: "the new customer and pending application are added to the filters"
+        1 * applicationMapper.toCustomer(request) >> customer
+        1 * customerRepository.save(_ as Customer) >> customer
+        1 * ssnFilterService.customerAdded(customer.ssn)
+        1 * applicationMapper.toEntity(request) >> application
+        1 * applicationRepository.save(_ as CreditCardApplication) >> application
+        1 * ssnFilterService.pendingAdded(customer.ssn)
+    }
+
+    def "should report a pending check the filter let through"() {
+        given: "a request"
+        def request = createValidApplicationRequest()
+
+        when: "submitting it while an application is pending"
+        service.submitApplication(request)
+
+        then: "the lookup result is reported back to the filter"
+        1 * applicationRepository.existsByCustomerSsnAndStatusIn(request.ssn, CreditCardApplication.ApplicationStatus.UNDECIDED) >> true
+        1 * ssnFilterService.pendingLookedUp(true)
+        thrown(DuplicateApplicationException)
+    }
+
+    def "should retry with the customer another instance inserted after the filter last caught up"() {
+        given: "a customer the filter has not seen yet"
+        ssnFiltersSayMaybe = false
+        def request = createValidApplicationRequest()
+        def customer = createCustomer()
+        def application = createApplication(customer)
+        applicationMapper.toCustomer(request) >> customer
+        applicationMapper.toEntity(request) >> application
+
+        when: "submitting the application"
+        def response = service.submitApplication(request)
+
+        then: "the insert fails on the unique SSN and the filter learns it"
+        1 * customerRepository.save(_ as Customer) >> { throw new DataIntegrityViolationException("customers_ssn_key") }
+        1 * ssnFilterService.customerAdded(request.ssn) >> { ssnFiltersSayMaybe = true }
+
+        and: "the second attempt finds the customer instead of inserting it again"
+        1 * customerRepository.findBySsn(request.ssn) >> Optional.of(customer)
+        1 * applicationRepository.existsByCustomerSsnAndStatusIn(request.ssn, CreditCardApplication.ApplicationStatus.UNDECIDED) >> false
+        1 * applicationRepository.save(_ as CreditCardApplication) >> application
+        1 * applicationMapper.toResponse(application) >> _
+        response != null
+    }
+
+    def "should ask the database about an existing customer's pending application whatever the filter said"() {
+        given: "a customer whose application another instance submitted before the filter caught up"
+        def request = createValidApplicationRequest()
+        def customer = createCustomer()
+        pendingFilterSaysMaybe = false
+        customerRepository.findBySsn(request.ssn) >> Optional.of(customer)
+
+        when: "submitting again"
+        service.submitApplication(request)
+
+        then: "the pending application is found"
+        1 * applicationRepository.existsByCustomerSsnAndStatusIn(request.ssn, CreditCardApplication.ApplicationStatus.UNDECIDED) >> true
+        0 * ssnFilterService.pendingLookedUp(_)
+        0 * applicationRepository.save(_)
+        thrown(DuplicateApplicationException)
+    }
+
+    def "should queue the decision by card type and channel instead of running it inline"() {
+        given: "a premium card application from a branch client"
+        SecurityContextHolder.context.authentication = UsernamePasswordAuthenticationToken.authenticated(
+                "branch-desk", null, [])
+        def request = createValidApplicationRequest()
+        def customer = createCustomer()
+        def application = createApplication(customer)
+        application.cardType = CreditCardApplication.CardType.INFINITE
+        customerRepository.findBySsn(_) >> Optional.of(customer)
+        applicationMapper.toEntity(request) >> application
+        applicationRepository.save(_ as CreditCardApplication) >> application
+        Runnable job = null
+
+        when:
+        service.submitApplication(request)
+
+        then: "it is queued at the top priority and nothing is decided yet"
+        1 * pipelineScheduler.submit("branch-desk", PipelinePriority.CRITICAL, _) >> { args -> job = args[2] }
+        0 * applicationRepository.findById(_)
+        application.channel == CreditCardApplication.Channel.BRANCH
+
+        when: "a worker runs the job"
+        job.run()
+
+        then: "it hands the application to the decision pipeline"
+        1 * decisionPipeline.submit(application.id, "123-45-6789")
+    }
+
+    def "should take the channel from the client, not from what the application says"() {
+        given: "a client with no registered channel"
+        SecurityContextHolder.context.authentication = UsernamePasswordAuthenticationToken.authenticated(
+                "user", null, [])
+        def request = createValidApplicationRequest()
+        def customer = createCustomer()
+        def application = createApplication(customer)
+        application.cardType = CreditCardApplication.CardType.INFINITE
+        application.channel = CreditCardApplication.Channel.BRANCH
+        customerRepository.findBySsn(_) >> Optional.of(customer)
+        applicationMapper.toEntity(request) >> application
+        applicationRepository.save(_ as CreditCardApplication) >> application
+
+        when:
+        service.submitApplication(request)
+
+        then:
+        1 * pipelineScheduler.submit("user", PipelinePriority.HIGH, _)
+        application.channel == CreditCardApplication.Channel.ONLINE
+    }
+
+    def "should defer the application when the pipeline queue is full"() {
+        given:
+        def request = createValidApplicationRequest()
+        def customer = createCustomer()
+        def application = createApplication(customer)
+        customerRepository.findBySsn(_) >> Optional.of(customer)
+        applicationMapper.toEntity(request) >> application
+        applicationRepository.save(_ as CreditCardApplication) >> { args -> args[0] }
+        pipelineScheduler.submit(*_) >> { throw new java.util.concurrent.RejectedExecutionException("full") }
+
+        when:
+        service.submitApplication(request)
+
+        then: "the submission itself still succeeds, and the retry sweep will decide it"
+        noExceptionThrown()
+        1 * decisionPipeline.park(application.id)
+    }
+
+    def "should defer the application to the shared backlog when this task's queue is saturated"() {
+        given:
+        def request = createValidApplicationRequest()
+        def customer = createCustomer()
+        def application = createApplication(customer)
+        customerRepository.findBySsn(_) >> Optional.of(customer)
+        applicationMapper.toEntity(request) >> application
+        applicationRepository.save(_ as CreditCardApplication) >> { args -> args[0] }
+        pipelineScheduler.size() >> 2000
+
+        when:
+        service.submitApplication(request)
+
+        then: "another task's retry sweep can claim it"
+        0 * pipelineScheduler.submit(*_)
+        1 * decisionPipeline.park(application.id)
+    }
+
+    def "should count the application for velocity screening only once the submission commits"() {
+        given:
+        def request = createValidApplicationRequest()
+        def customer = createCustomer()
+        def application = createApplication(customer)
+        customerRepository.findBySsn(_) >> Optional.of(customer)
+        applicationMapper.toEntity(request) >> application
+        applicationRepository.save(_ as CreditCardApplication) >> { args -> args[0] }
+        TransactionSynchronizationManager.initSynchronization()
+
+        when:
+        service.submitApplication(request)
+
+        then: "a rollback would leave nothing counted"
+        0 * velocityScreeningService.record(*_)
+
+        when:
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.synchronizations)
+
+        then:
+        1 * velocityScreeningService.record(application.id, customer, application.deviceId, application.createdAt)
+
+        cleanup:
+        TransactionSynchronizationManager.clearSynchronization()
+    }
+
+    def "should answer the application version from the lightweight lookup"() {
+        when:
+        def version = service.getApplicationVersion("APP-1")
+
+        then:
+        1 * applicationRepository.findVersionByApplicationNumber("APP-1") >> Optional.of(3L)
+        0 * applicationRepository.findByApplicationNumber(_)
+        version == 3L
+    }
+
+    def "should report a missing application when looking up its version"() {
+        given:
+        applicationRepository.findVersionByApplicationNumber("APP-404") >> Optional.empty()
+
+        when:
+        service.getApplicationVersion("APP-404")
+
+        then:
+        thrown(ResourceNotFoundException)
+    }
+
+    def "should read a subset of fields without loading the application"() {
+        when:
+        def fields = service.getApplication("APP-1", ApplicationField.SUMMARY)
+
+        then:
+        1 * applicationRepository.findFieldsByApplicationNumber("APP-1", ApplicationField.SUMMARY) >>
+                Optional.of([applicationNumber: "APP-1"])
+        0 * applicationRepository.findByApplicationNumber(_)
+        0 * applicationMapper._
+        fields == [applicationNumber: "APP-1"]
+
+        when: "the application does not exist"
+        service.getApplication("APP-404", ApplicationField.SUMMARY)
+
+        then:
+        1 * applicationRepository.findFieldsByApplicationNumber("APP-404", _) >> Optional.empty()
+        thrown(ResourceNotFoundException)
     }
 
-    // Helper methods
     private CreditCardApplicationRequest createValidApplicationRequest() {
         new CreditCardApplicationRequest(
                 firstName: "John",
@@ -185,23 +378,4 @@ class CreditCardApplicationServiceSpec extends Specification {
                 cardType: CreditCardApplication.CardType.GOLD
         )
     }
-
-    private CreditCardApplication createApplicationForProcessing() {
-        def customer = createCustomer()
-        createApplication(customer)
-    }
-
-    private CreditBureauReport createCreditReport(int creditScore) {
-        CreditBureauReport.builder()
-                .ssn("123-45-6789")
-                .creditScore(creditScore)
-                .totalDebt(BigDecimal.valueOf(15000))
-                .monthlyDebtPayments(BigDecimal.valueOf(500))
-                .numberOfAccounts(5)
-                .numberOfDelinquentAccounts(0)
-                .creditAccounts([])
-                .recentInquiries([])
-                .reportDate(LocalDate.now())
-                .build()
-    }
 }
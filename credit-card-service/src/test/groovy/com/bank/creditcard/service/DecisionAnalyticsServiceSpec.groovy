@@ -0,0 +1,172 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.dto.DecisionRecord
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.repository.CreditCardApplicationRepository
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDateTime
+import java.util.stream.Stream
+
+import static com.bank.creditcard.model.CreditCardApplication.ApplicationStatus.APPROVED
+import static com.bank.creditcard.model.CreditCardApplication.ApplicationStatus.REJECTED
+import static com.bank.creditcard.model.CreditCardApplication.CardType.GOLD
+import static com.bank.creditcard.model.CreditCardApplication.CardType.PLATINUM
+
+class DecisionAnalyticsServiceSpec extends Specification {
+
+    def applicationRepository = Mock(CreditCardApplicationRepository)
+
+    @Subject
+    def service = new DecisionAnalyticsService(applicationRepository)
+
+    def now = LocalDateTime.of(2024, 6, 1, 12, 30)
+
+    def "should aggregate approvals and rejections per card type"() {
+        given: "decisions for two card types"
+        service.record(decision(APPROVED, GOLD, 720, 20.5, now.minusMinutes(10)))
+        service.record(decision(APPROVED, GOLD, 780, 12, now.minusMinutes(5)))
+        service.record(decision(REJECTED, GOLD, 560, 80, now.minusMinutes(1),
+                "Credit score below minimum requirement (580)"))
+        service.record(decision(REJECTED, PLATINUM, 650, 78.25, now.minusHours(2),
+                "Risk assessment score too high (78.25/100)"))
+
+        when: "taking a 24 hour snapshot"
+        def snapshot = service.snapshot(24, null, now)
+
+        then: "totals and rates are computed"
+        snapshot.decisions == 4
+        snapshot.approved == 2
+        snapshot.rejected == 2
+        snapshot.approvalRate == 0.5d
+        snapshot.byCardType["GOLD"].decisions == 3
+        snapshot.byCardType["GOLD"].approved == 2
+        snapshot.byCardType["PLATINUM"].rejected == 1
+
+        and: "rejection reasons are grouped without per-application detail"
+        snapshot.rejectionReasons == ["Credit score below minimum requirement": 1L,
+                                      "Risk assessment score too high"        : 1L]
+    }
+
+    def "should fill fixed-width score histograms"() {
+        given: "decisions across score ranges"
+        service.record(decision(APPROVED, GOLD, 300, 0, now))
+        service.record(decision(APPROVED, GOLD, 849, 9.99, now))
+        service.record(decision(APPROVED, GOLD, 850, 100, now))
+
+        when: "taking a snapshot"
+        def snapshot = service.snapshot(1, GOLD, now)
+
+        then: "scores land in their bins and the top score joins the last bin"
+        snapshot.creditScoreHistogram.size() == DecisionAnalyticsService.CREDIT_SCORE_BINS
+        snapshot.creditScoreHistogram.first().count == 1
+        snapshot.creditScoreHistogram.last().count == 2
+        snapshot.riskScoreHistogram.first().count == 2
+        snapshot.riskScoreHistogram.last().count == 1
+    }
+
+    def "should only include buckets inside the requested window"() {
+        given: "decisions one and five hours ago"
+        service.record(decision(APPROVED, GOLD, 700, 20, now.minusHours(1)))
+        service.record(decision(REJECTED, GOLD, 500, 90, now.minusHours(5), "Compliance check failed: AML check failed."))
+
+        expect: "the window decides what is counted"
+        service.snapshot(2, null, now).decisions == 1
+        service.snapshot(6, null, now).decisions == 2
+    }
+
+    def "should filter by card type"() {
+        given: "decisions for two card types"
+        service.record(decision(APPROVED, GOLD, 700, 20, now))
+        service.record(decision(REJECTED, PLATINUM, 500, 90, now, "Credit score below minimum requirement (580)"))
+
+        when: "filtering by platinum"
+        def snapshot = service.snapshot(24, PLATINUM, now)
+
+        then: "only platinum decisions are counted"
+        snapshot.cardType == "PLATINUM"
+        snapshot.decisions == 1
+        snapshot.byCardType.keySet() == ["PLATINUM"] as Set
+        snapshot.statusCounts["APPROVED"] == 0
+    }
+
+    def "should drop decisions older than the retention window"() {
+        given: "a current decision and one that falls in the same ring slot a week earlier"
+        service.record(decision(APPROVED, GOLD, 700, 20, now))
+        service.record(decision(APPROVED, GOLD, 700, 20, now.minusHours(DecisionAnalyticsService.RETENTION_HOURS)))
+
+        expect: "the stale decision does not overwrite the current bucket"
+        service.snapshot(1, null, now).decisions == 1
+    }
+
+    def "should rebuild aggregates from the repository stream"() {
+        given: "stored decisions"
+        def recent = LocalDateTime.now().minusMinutes(5)
+        def decisions = [
+                new DecisionRecord(UUID.randomUUID(), APPROVED, GOLD, 700, 20.0, "Application approved based on credit assessment", recent),
+                new DecisionRecord(UUID.randomUUID(), REJECTED, GOLD, 500, 85.0, "Credit score below minimum requirement (580)", recent)
+        ]
+
+        when: "rebuilding"
+        service.rebuild()
+
+        then: "the repository is streamed once"
+        1 * applicationRepository.streamDecisionsSince(_) >> decisions.stream()
+
+        and: "aggregates reflect the stored decisions"
+        service.snapshot(2, null).decisions == 2
+    }
+
+    def "should add decisions made elsewhere once caught up, and its own only once"() {
+        given: "analytics built from the database"
+        applicationRepository.streamDecisionsSince(_) >> { Stream.empty() }
+        service.rebuild()
+        def recent = LocalDateTime.now().minusSeconds(1)
+        def own = decision(APPROVED, GOLD, 700, 20, recent)
+        service.record(own)
+
+        when: "another instance decides an application and a catch-up runs"
+        service.catchUp()
+
+        then: "both decisions are read back, and the one recorded here is not counted again"
+        1 * applicationRepository.streamDecisionsSince({ it.isBefore(recent) }) >> Stream.of(
+                new DecisionRecord(own.id, APPROVED, GOLD, 700, 20.0, "Approved", recent),
+                new DecisionRecord(UUID.randomUUID(), REJECTED, PLATINUM, 500, 85.0,
+                        "Credit score below minimum requirement (580)", recent))
+        service.snapshot(1, null).decisions == 2
+        service.snapshot(1, null).byCardType["PLATINUM"].rejected == 1
+
+        when: "the next pass sees the same decisions again within its overlap"
+        service.catchUp()
+
+        then:
+        1 * applicationRepository.streamDecisionsSince(_) >> Stream.of(
+                new DecisionRecord(own.id, APPROVED, GOLD, 700, 20.0, "Approved", recent))
+        service.snapshot(1, null).decisions == 2
+    }
+
+    def "should not catch up before the aggregates are built"() {
+        when:
+        service.catchUp()
+
+        then:
+        0 * applicationRepository._
+    }
+
+    def "should ignore applications without a decision time"() {
+        when: "recording an undecided application"
+        service.record(new CreditCardApplication(status: APPROVED, cardType: GOLD))
+
+        then: "nothing is counted"
+        service.snapshot(24, null, now).decisions == 0
+    }
+
+    private static CreditCardApplication decision(CreditCardApplication.ApplicationStatus status,
+                                                  CreditCardApplication.CardType cardType,
+                                                  int creditScore, BigDecimal riskScore,
+                                                  LocalDateTime decidedAt, String reason = "Approved") {
+        new CreditCardApplication(id: UUID.randomUUID(), status: status, cardType: cardType, creditScore: creditScore,
+                riskScore: riskScore, decidedAt: decidedAt, decisionReason: reason)
+    }
+}
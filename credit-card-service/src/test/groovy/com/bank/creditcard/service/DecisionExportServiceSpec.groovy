@@ -0,0 +1,107 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.dto.DecisionExportRow
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.repository.CreditCardApplicationRepository
+import com.fasterxml.jackson.databind.ObjectMapper
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDateTime
+import java.util.zip.GZIPInputStream
+
+class DecisionExportServiceSpec extends Specification {
+
+    def applicationRepository = Mock(CreditCardApplicationRepository)
+    def objectMapper = new ObjectMapper()
+
+    @Subject
+    def service = new DecisionExportService(applicationRepository, objectMapper)
+
+    def from = LocalDateTime.of(2024, 1, 1, 0, 0)
+    def to = LocalDateTime.of(2024, 4, 1, 0, 0)
+
+    def "should write CSV with masked SSNs and escaped fields"() {
+        given: "an output stream"
+        def out = new ByteArrayOutputStream()
+
+        when: "exporting as CSV"
+        def rows = service.export(from, to, DecisionExportService.Format.CSV, out)
+
+        then: "rows are streamed from the repository"
+        1 * applicationRepository.streamDecisionsBetween(from, to) >> [approvedRow(), rejectedRow()].stream()
+
+        and: "every row is written with a header"
+        rows == 2
+        def lines = out.toString("UTF-8").readLines()
+        lines.size() == 3
+        lines[0].startsWith("applicationNumber,status,cardType,customerName")
+
+        and: "SSNs are masked and reasons with commas are quoted"
+        lines[1].contains("***-**-6789")
+        !lines[1].contains("123-45-6789")
+        lines[1].contains(",12000.00,")
+        lines[2].contains('"Compliance check failed: KYC verification incomplete, ""manual"" review"')
+    }
+
+    def "should write gzipped NDJSON with one object per line"() {
+        given: "an output stream"
+        def out = new ByteArrayOutputStream()
+
+        when: "exporting as NDJSON"
+        def rows = service.export(from, to, DecisionExportService.Format.NDJSON_GZIP, out)
+
+        then: "rows are streamed from the repository"
+        1 * applicationRepository.streamDecisionsBetween(from, to) >> [approvedRow(), rejectedRow()].stream()
+
+        and: "the output decompresses to one JSON document per decision"
+        rows == 2
+        def lines = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).text.readLines()
+        lines.size() == 2
+        def first = objectMapper.readTree(lines[0])
+        first.get("applicationNumber").asText() == "APP-1"
+        first.get("ssn").asText() == "***-**-6789"
+        first.get("approvedLimit").decimalValue() == new BigDecimal("12000.00")
+        objectMapper.readTree(lines[1]).get("approvedLimit").isNull()
+    }
+
+    def "should write only a header when the range is empty"() {
+        given: "an output stream"
+        def out = new ByteArrayOutputStream()
+
+        when: "exporting an empty range"
+        def rows = service.export(from, to, DecisionExportService.Format.CSV, out)
+
+        then: "no rows are found"
+        1 * applicationRepository.streamDecisionsBetween(from, to) >> [].stream()
+        rows == 0
+        out.toString("UTF-8").readLines().size() == 1
+    }
+
+    def "should choose the format from the file name"() {
+        expect:
+        DecisionExportService.Format.fromFileName(fileName) == format
+
+        where:
+        fileName                 | format
+        "/tmp/q1.ndjson.gz"      | DecisionExportService.Format.NDJSON_GZIP
+        "/tmp/q1.csv"            | DecisionExportService.Format.CSV
+        "/tmp/q1"                | DecisionExportService.Format.CSV
+    }
+
+    private static DecisionExportRow approvedRow() {
+        new DecisionExportRow("APP-1", CreditCardApplication.ApplicationStatus.APPROVED,
+                CreditCardApplication.CardType.GOLD, "John", "Doe", "john.doe@example.com", "123-45-6789",
+                new BigDecimal("75000.00"), new BigDecimal("15000.00"), new BigDecimal("12000.00"), 745,
+                new BigDecimal("21.50"), "Application approved based on credit assessment",
+                LocalDateTime.of(2024, 1, 2, 10, 0), LocalDateTime.of(2024, 1, 2, 10, 1))
+    }
+
+    private static DecisionExportRow rejectedRow() {
+        new DecisionExportRow("APP-2", CreditCardApplication.ApplicationStatus.REJECTED,
+                CreditCardApplication.CardType.CLASSIC, "Jane", "Roe", "jane.roe@example.com", "987-65-4321",
+                new BigDecimal("40000.00"), new BigDecimal("5000.00"), null, null, null,
+                'Compliance check failed: KYC verification incomplete, "manual" review',
+                LocalDateTime.of(2024, 2, 2, 10, 0), LocalDateTime.of(2024, 2, 2, 10, 1))
+    }
+}
@@ -0,0 +1,701 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.client.CreditBureauClient
+import com.bank.creditcard.concurrency.AdaptiveConcurrencyLimiter
+import com.bank.creditcard.concurrency.PipelinePriority
+import com.bank.creditcard.concurrency.WeightedFairScheduler
+import com.bank.creditcard.dto.CreditBureauReport
+import com.bank.creditcard.dto.DeferredApplication
+import com.bank.creditcard.exception.DeadlineExceededException
+import com.bank.creditcard.journal.DecisionJournal
+import com.bank.creditcard.journal.TransitionReason
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.model.Customer
+import com.bank.creditcard.repository.CreditCardApplicationRepository
+import com.bank.creditcard.rules.DecisionRulesRegistry
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.core.io.DefaultResourceLoader
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Duration
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class DecisionPipelineSpec extends Specification {
+
+    def applicationRepository = Mock(CreditCardApplicationRepository)
+    def creditBureauClient = Mock(CreditBureauClient)
+    def riskAssessmentService = Mock(RiskAssessmentService)
+    def complianceService = Mock(ComplianceService)
+    def ssnFilterService = Mock(SsnFilterService)
+    def decisionAnalyticsService = Mock(DecisionAnalyticsService)
+    def decisionRulesRegistry = new DecisionRulesRegistry(
+            new ObjectMapper(), new DefaultResourceLoader(), "classpath:decision-rules.json")
+    def bureauSnapshotService = Mock(BureauSnapshotService)
+    def decisionJournal = Mock(DecisionJournal)
+    def pipelineConcurrencyLimiter = new AdaptiveConcurrencyLimiter("pipeline", 5, 1, 5, Duration.ofSeconds(3))
+    def stageTimingRecorder = Mock(StageTimingRecorder)
+
+    @Subject
+    def pipeline = new DecisionPipeline(
+            applicationRepository,
+            creditBureauClient,
+            riskAssessmentService,
+            complianceService,
+            ssnFilterService,
+            decisionAnalyticsService,
+            decisionRulesRegistry,
+            bureauSnapshotService,
+            decisionJournal,
+            pipelineConcurrencyLimiter,
+            new TransactionTemplate(Stub(PlatformTransactionManager)),
+            stageTimingRecorder
+    )
+
+    def setup() {
+        pipeline.start()
+    }
+
+    def cleanup() {
+        pipeline.close()
+    }
+
+    def "should process application with approval"() {
+        given: "an application to process"
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        def creditReport = createCreditReport(750)
+        def complianceResult = new ComplianceService.ComplianceCheckResult(
+                overallPassed: true,
+                kycPassed: true,
+                amlPassed: true,
+                sanctionCheckPassed: true,
+                pepCheckPassed: true
+        )
+
+        when: "processing the application through every stage"
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then: "application is retrieved and updated"
+        1 * applicationRepository.findById(applicationId) >> Optional.of(application)
+        1 * applicationRepository.save({ it.status == CreditCardApplication.ApplicationStatus.IN_REVIEW })
+
+        and: "compliance check passes"
+        1 * complianceService.performComplianceCheck(application.customer, null, _) >> complianceResult
+
+        and: "credit bureau report is fetched"
+        1 * creditBureauClient.getCreditReport(application.customer.ssn, _) >> creditReport
+
+        and: "the report is kept as a snapshot"
+        1 * bureauSnapshotService.store(application.id, creditReport)
+
+        and: "risk assessment is performed"
+        1 * riskAssessmentService.calculateRiskScore(application, creditReport, _) >> BigDecimal.valueOf(25)
+        1 * riskAssessmentService.determineApprovedLimit(application, BigDecimal.valueOf(25), _) >> BigDecimal.valueOf(10000)
+
+        and: "application is approved"
+        1 * applicationRepository.save({
+            it.status == CreditCardApplication.ApplicationStatus.APPROVED &&
+            it.approvedLimit == BigDecimal.valueOf(10000) &&
+            it.rulesVersion == decisionRulesRegistry.current().version
+        })
+
+        and: "the SSN leaves the pending filter only with the decision"
+        1 * ssnFilterService.pendingRemoved(application.customer.ssn)
+
+        and: "decision is recorded in analytics"
+        1 * decisionAnalyticsService.record(application)
+
+        and: "both transitions are journaled"
+        1 * decisionJournal.append(application.id, CreditCardApplication.ApplicationStatus.PENDING,
+                CreditCardApplication.ApplicationStatus.IN_REVIEW, _, _, _, _, TransitionReason.REVIEW_STARTED)
+        1 * decisionJournal.append(application.id, CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                CreditCardApplication.ApplicationStatus.APPROVED, application.cardType, 750, 25, 10000,
+                TransitionReason.APPROVED)
+
+        and: "the permit is returned"
+        pipelineConcurrencyLimiter.inFlight == 0
+    }
+
+    def "should reject application due to low credit score"() {
+        given: "an application with low credit score"
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        def creditReport = createCreditReport(550) // Low credit score
+        def complianceResult = new ComplianceService.ComplianceCheckResult(overallPassed: true)
+
+        when: "processing the application"
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then: "application process starts"
+        1 * applicationRepository.findById(applicationId) >> Optional.of(application)
+        1 * applicationRepository.save({ it.status == CreditCardApplication.ApplicationStatus.IN_REVIEW })
+        1 * complianceService.performComplianceCheck(application.customer, null, _) >> complianceResult
+        1 * creditBureauClient.getCreditReport(application.customer.ssn, _) >> creditReport
+        1 * riskAssessmentService.calculateRiskScore(application, creditReport, _) >> BigDecimal.valueOf(85)
+
+        and: "application is rejected"
+        1 * applicationRepository.save({
+            it.status == CreditCardApplication.ApplicationStatus.REJECTED &&
+            it.decisionReason.contains("Credit score below minimum requirement")
+        })
+    }
+
+    def "should reject a compliance failure without calling the bureau"() {
+        given:
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >>
+                new ComplianceService.ComplianceCheckResult(overallPassed: false, reason: "Sanctions match")
+
+        when:
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then:
+        0 * creditBureauClient._
+        1 * decisionJournal.append(application.id, CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                CreditCardApplication.ApplicationStatus.REJECTED, _, _, _, _, TransitionReason.COMPLIANCE_FAILED)
+        application.status == CreditCardApplication.ApplicationStatus.REJECTED
+        application.decisionReason == "Sanctions match"
+    }
+
+    def "should reject with a system error when a stage fails"() {
+        given:
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >> new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        creditBureauClient.getCreditReport(*_) >> { throw new IllegalStateException("bureau down") }
+
+        when:
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then: "the persist stage writes the rejection"
+        1 * decisionJournal.append(application.id, CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                CreditCardApplication.ApplicationStatus.REJECTED, _, _, _, _, TransitionReason.SYSTEM_ERROR)
+        application.decisionReason == "System error during processing"
+        pipelineConcurrencyLimiter.inFlight == 0
+    }
+
+    def "should decide one customer's applications in submission order"() {
+        given: "three applications from the same customer, with several lanes in every stage"
+        def customer = createCustomer()
+        def applications = (1..3).collect { createApplication(customer) }
+        applications.each { app -> applicationRepository.findById(app.id) >> Optional.of(app) }
+        complianceService.performComplianceCheck(*_) >> new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        creditBureauClient.getCreditReport(*_) >> createCreditReport(750)
+        riskAssessmentService.calculateRiskScore(*_) >> BigDecimal.valueOf(25)
+        riskAssessmentService.determineApprovedLimit(*_) >> BigDecimal.valueOf(10000)
+        def decided = Collections.synchronizedList([])
+        decisionAnalyticsService.record(_) >> { CreditCardApplication app -> decided << app.id }
+
+        when:
+        applications.each { pipeline.submit(it.id, customer.ssn) }
+        pipeline.close()
+
+        then:
+        decided == applications*.id
+    }
+
+    def "should export the depth and capacity of every stage"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+
+        when:
+        pipeline.bindTo(registry)
+
+        then:
+        ["load", "compliance", "bureau", "assessment", "persist"].every { stage ->
+            registry.get("pipeline.stage.capacity").tag("stage", stage).gauge().value() > 0
+        }
+        registry.get("pipeline.stage.lanes").tag("stage", "bureau").gauge().value() == 16
+    }
+
+    def "should time each decision from submission"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        pipeline.bindTo(registry)
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        application.createdAt = LocalDateTime.now().minusSeconds(5)
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >>
+                new ComplianceService.ComplianceCheckResult(overallPassed: false, reason: "Sanctions match")
+
+        when:
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then:
+        with(registry.get("applications.decision.latency").timer()) {
+            count() == 1
+            totalTime(TimeUnit.SECONDS) >= 5
+        }
+    }
+
+    def "should record how long each stage took once the decision is written"() {
+        given:
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        application.createdAt = LocalDateTime.now().minusSeconds(5)
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >> new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        creditBureauClient.getCreditReport(*_) >> createCreditReport(750)
+        riskAssessmentService.calculateRiskScore(*_) >> BigDecimal.valueOf(25)
+        riskAssessmentService.determineApprovedLimit(*_) >> BigDecimal.valueOf(10000)
+
+        when:
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then:
+        1 * stageTimingRecorder.record({
+            it.applicationId == application.id &&
+            it.status == CreditCardApplication.ApplicationStatus.APPROVED &&
+            it.decidedAt == application.decidedAt &&
+            it.queueWaitMs >= 5000 &&
+            [it.complianceMs, it.bureauMs, it.scoringMs, it.persistMs].every { ms -> ms != null && ms >= 0 } &&
+            it.totalMs >= it.queueWaitMs
+        })
+    }
+
+    def "should leave the stages an application skipped empty in its timings"() {
+        given:
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        application.createdAt = LocalDateTime.now()
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >>
+                new ComplianceService.ComplianceCheckResult(overallPassed: false, reason: "Sanctions match")
+
+        when:
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then:
+        1 * stageTimingRecorder.record({
+            it.status == CreditCardApplication.ApplicationStatus.REJECTED &&
+            it.complianceMs != null && it.persistMs != null &&
+            it.bureauMs == null && it.scoringMs == null
+        })
+    }
+
+    def "should pass what is left of the time budget to the remote calls"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        pipeline.bindTo(registry)
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        application.createdAt = LocalDateTime.now().minusSeconds(30)
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        riskAssessmentService.calculateRiskScore(*_) >> BigDecimal.valueOf(25)
+        riskAssessmentService.determineApprovedLimit(*_) >> BigDecimal.valueOf(10000)
+
+        when:
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then: "the budget counts from admission, not from submission"
+        1 * complianceService.performComplianceCheck(application.customer, null,
+                { it > Duration.ofSeconds(90) && it <= Duration.ofMinutes(2) }) >>
+                new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        1 * creditBureauClient.getCreditReport(application.customer.ssn,
+                { it > Duration.ofSeconds(90) && it <= Duration.ofMinutes(2) }) >> createCreditReport(750)
+        application.status == CreditCardApplication.ApplicationStatus.APPROVED
+
+        and: "each stage reports its share of the budget"
+        ["queue_wait", "compliance", "bureau", "scoring", "persist"].every { stage ->
+            registry.get("pipeline.deadline.used").tag("stage", stage).summary().count() == 1
+        }
+    }
+
+    def "should defer an application whose time budget runs out in a stage"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        pipeline.bindTo(registry)
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        application.createdAt = LocalDateTime.now()
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >> new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        creditBureauClient.getCreditReport(*_) >> { throw new DeadlineExceededException("bureau", Duration.ofMinutes(2)) }
+
+        when:
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then: "it waits for a retry, undecided"
+        1 * decisionJournal.append(application.id, CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                CreditCardApplication.ApplicationStatus.DEFERRED, _, _, _, _, TransitionReason.DEADLINE_EXCEEDED)
+        application.status == CreditCardApplication.ApplicationStatus.DEFERRED
+        application.deferrals == 1
+        application.decidedAt == null
+        0 * decisionAnalyticsService._
+        0 * stageTimingRecorder._
+        registry.get("pipeline.deadline.exceeded").tag("stage", "bureau").counter().count() == 1
+        pipelineConcurrencyLimiter.inFlight == 0
+    }
+
+    def "should not count the wait for admission against the budget"() {
+        given: "an application that waited in the scheduler for longer than the budget"
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        application.createdAt = LocalDateTime.now().minusMinutes(5)
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >> new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        creditBureauClient.getCreditReport(*_) >> createCreditReport(750)
+        riskAssessmentService.calculateRiskScore(*_) >> BigDecimal.valueOf(25)
+        riskAssessmentService.determineApprovedLimit(*_) >> BigDecimal.valueOf(10000)
+
+        when:
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then: "it is decided, and the wait still shows in its timings"
+        application.status == CreditCardApplication.ApplicationStatus.APPROVED
+        application.deferrals == 0
+        1 * stageTimingRecorder.record({ it.queueWaitMs >= 5 * 60 * 1000 })
+    }
+
+    def "should reject an application once it has been deferred too often"() {
+        given:
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        application.deferrals = 3
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >> {
+            throw new DeadlineExceededException("compliance", Duration.ofMinutes(2))
+        }
+
+        when:
+        pipeline.submit(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then:
+        1 * decisionJournal.append(application.id, CreditCardApplication.ApplicationStatus.IN_REVIEW,
+                CreditCardApplication.ApplicationStatus.REJECTED, _, _, _, _, TransitionReason.DEADLINE_EXCEEDED)
+        application.decisionReason == "Application could not be decided within the time budget"
+        application.decidedAt != null
+        1 * decisionAnalyticsService.record(application)
+        1 * ssnFilterService.pendingRemoved(application.customer.ssn)
+    }
+
+    def "should retry a deferred application with a fresh budget"() {
+        given:
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        application.status = CreditCardApplication.ApplicationStatus.DEFERRED
+        application.createdAt = LocalDateTime.now().minusMinutes(10)
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >> new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        creditBureauClient.getCreditReport(*_) >> createCreditReport(750)
+        riskAssessmentService.calculateRiskScore(*_) >> BigDecimal.valueOf(25)
+        riskAssessmentService.determineApprovedLimit(*_) >> BigDecimal.valueOf(10000)
+
+        when:
+        pipeline.retry(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then:
+        1 * decisionJournal.append(application.id, CreditCardApplication.ApplicationStatus.DEFERRED,
+                CreditCardApplication.ApplicationStatus.IN_REVIEW, _, _, _, _, TransitionReason.REVIEW_STARTED)
+        1 * ssnFilterService.pendingRemoved(application.customer.ssn)
+        application.status == CreditCardApplication.ApplicationStatus.APPROVED
+    }
+
+    def "should skip a retry of an application that is no longer deferred"() {
+        given:
+        def applicationId = UUID.randomUUID()
+        def application = createApplicationForProcessing()
+        application.status = CreditCardApplication.ApplicationStatus.APPROVED
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+
+        when:
+        pipeline.retry(applicationId, application.customer.ssn)
+        pipeline.close()
+
+        then:
+        0 * applicationRepository.save(_)
+        0 * complianceService._
+        0 * decisionJournal._
+        application.status == CreditCardApplication.ApplicationStatus.APPROVED
+        pipelineConcurrencyLimiter.inFlight == 0
+    }
+
+    def "should defer a submission the pipeline limit has no room for until the retry sweep decides it"() {
+        given: "every pipeline permit is taken"
+        def held = (1..5).collect { pipelineConcurrencyLimiter.tryAcquire() }
+        pipeline.pipelineMaxWait = Duration.ofMillis(20)
+        def application = createApplicationForProcessing()
+        def applicationId = application.id
+        applicationRepository.findById(applicationId) >> Optional.of(application)
+        complianceService.performComplianceCheck(*_) >> new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        creditBureauClient.getCreditReport(*_) >> createCreditReport(750)
+        riskAssessmentService.calculateRiskScore(*_) >> BigDecimal.valueOf(25)
+        riskAssessmentService.determineApprovedLimit(*_) >> BigDecimal.valueOf(10000)
+
+        and: "the sweep, queueing straight into the pipeline"
+        def scheduler = Stub(WeightedFairScheduler) {
+            submit(*_) >> { args -> (args[2] as Runnable).run() }
+        }
+        def retrier = new DeferredDecisionRetrier(applicationRepository, pipeline, scheduler,
+                new TransactionTemplate(Stub(PlatformTransactionManager)))
+        def parked = new CountDownLatch(1)
+
+        when: "its load finds no permit"
+        pipeline.submit(applicationId, application.customer.ssn)
+        parked.await(5, TimeUnit.SECONDS)
+
+        then: "it is parked without counting as a deferral"
+        1 * decisionJournal.append(applicationId, CreditCardApplication.ApplicationStatus.PENDING,
+                CreditCardApplication.ApplicationStatus.DEFERRED, _, _, _, _, TransitionReason.PIPELINE_SATURATED) >> {
+            parked.countDown()
+        }
+        application.status == CreditCardApplication.ApplicationStatus.DEFERRED
+        application.deferrals == 0
+        pipelineConcurrencyLimiter.rejectedCount == 1
+
+        when: "the sweep runs once the pipeline has room again"
+        held*.close()
+        retrier.retryDeferred()
+        pipeline.close()
+
+        then: "it is decided"
+        1 * applicationRepository.findDeferredBefore(*_) >> [new DeferredApplication(applicationId,
+                application.customer.ssn, application.cardType, application.channel)]
+        1 * applicationRepository.claimDeferred(applicationId, _, _) >> 1
+        application.status == CreditCardApplication.ApplicationStatus.APPROVED
+        application.deferrals == 0
+        1 * ssnFilterService.pendingRemoved(application.customer.ssn)
+        pipelineConcurrencyLimiter.inFlight == 0
+    }
+
+    def "should run more applications through compliance and the bureau at once than the pipeline limit"() {
+        given: "more applications than the five pipeline permits, each from its own customer"
+        def applications = (1..64).collect { i ->
+            def customer = createCustomer()
+            customer.ssn = String.format("100-00-%04d", i)
+            createApplication(customer)
+        }
+        def byId = applications.collectEntries { [(it.id): it] }
+        applicationRepository.findById(_) >> { UUID id -> Optional.of(byId[id]) }
+        riskAssessmentService.calculateRiskScore(*_) >> BigDecimal.valueOf(25)
+        riskAssessmentService.determineApprovedLimit(*_) >> BigDecimal.valueOf(10000)
+
+        and: "remote calls that hold back until six of them are in progress together"
+        def sixInCompliance = new CountDownLatch(1)
+        def inCompliance = new AtomicInteger()
+        def sixInBureau = new CountDownLatch(1)
+        def inBureau = new AtomicInteger()
+        complianceService.performComplianceCheck(*_) >> {
+            holdUntil(6, inCompliance, sixInCompliance)
+            new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        }
+        creditBureauClient.getCreditReport(*_) >> {
+            holdUntil(6, inBureau, sixInBureau)
+            createCreditReport(750)
+        }
+
+        when:
+        applications.each { pipeline.submit(it.id, it.customer.ssn) }
+        pipeline.close()
+
+        then: "both stages had more in progress than there are permits"
+        sixInCompliance.count == 0
+        sixInBureau.count == 0
+
+        and: "every application is decided"
+        applications.every { it.status == CreditCardApplication.ApplicationStatus.APPROVED }
+        pipelineConcurrencyLimiter.inFlight == 0
+    }
+
+    def "should defer an application a closed stage turns away rather than leave it undecided"() {
+        given:
+        def registry = new SimpleMeterRegistry()
+        pipeline.bindTo(registry)
+        def application = createApplicationForProcessing()
+        applicationRepository.findById(application.id) >> Optional.of(application)
+        pipeline."$stage".close()
+        def parked = new CountDownLatch(1)
+
+        when:
+        pipeline.submit(application.id, application.customer.ssn)
+        parked.await(5, TimeUnit.SECONDS)
+
+        then: "the retry sweep will pick it up, without it counting as a deferral"
+        1 * decisionJournal.append(application.id, from, CreditCardApplication.ApplicationStatus.DEFERRED,
+                _, _, _, _, TransitionReason.PIPELINE_STOPPED) >> { parked.countDown() }
+        application.status == CreditCardApplication.ApplicationStatus.DEFERRED
+        application.deferrals == 0
+        registry.get("pipeline.admitted").gauge().value() == 0
+
+        where:
+        stage        | from
+        "load"       | CreditCardApplication.ApplicationStatus.PENDING
+        "compliance" | CreditCardApplication.ApplicationStatus.IN_REVIEW
+    }
+
+    def "should admit only max-in-flight applications and park one that finds no room in time"() {
+        given: "a pipeline with room for one application"
+        restartWith(1)
+        pipeline.pipelineMaxWait = Duration.ofMillis(50)
+        def first = createApplicationForProcessing()
+        def second = createApplicationForProcessing()
+        applicationRepository.findById(first.id) >> Optional.of(first)
+        applicationRepository.findById(second.id) >> Optional.of(second)
+        riskAssessmentService.calculateRiskScore(*_) >> BigDecimal.valueOf(25)
+        riskAssessmentService.determineApprovedLimit(*_) >> BigDecimal.valueOf(10000)
+        creditBureauClient.getCreditReport(*_) >> createCreditReport(750)
+
+        and: "the first application held in compliance"
+        def inCompliance = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        complianceService.performComplianceCheck(*_) >> {
+            inCompliance.countDown()
+            release.await(5, TimeUnit.SECONDS)
+            new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        }
+
+        when:
+        pipeline.submit(first.id, first.customer.ssn)
+        inCompliance.await(5, TimeUnit.SECONDS)
+        pipeline.submit(second.id, second.customer.ssn)
+        release.countDown()
+        pipeline.close()
+
+        then: "the second never reaches the stages"
+        0 * applicationRepository.save({ it.id == second.id && it.status == CreditCardApplication.ApplicationStatus.IN_REVIEW })
+        second.status == CreditCardApplication.ApplicationStatus.DEFERRED
+        second.deferrals == 0
+        first.status == CreditCardApplication.ApplicationStatus.APPROVED
+    }
+
+    def "should let a branch application overtake a queued partner backlog end to end"() {
+        given: "a pipeline with room for one application, fed by a scheduler with one worker"
+        restartWith(1)
+        def executor = Executors.newSingleThreadExecutor()
+        def scheduler = new WeightedFairScheduler(executor, 1, 100, Duration.ofMinutes(1), [:])
+
+        and: "a partner backlog behind one partner application held in compliance, and a branch application"
+        def partner = (1..11).collect { i ->
+            def customer = createCustomer()
+            customer.ssn = String.format("200-00-%04d", i)
+            createApplication(customer).tap { channel = CreditCardApplication.Channel.PARTNER }
+        }
+        def branch = createApplication(createCustomer().tap { ssn = "300-00-0001" }).tap {
+            cardType = CreditCardApplication.CardType.INFINITE
+            channel = CreditCardApplication.Channel.BRANCH
+        }
+        def byId = (partner + branch).collectEntries { [(it.id): it] }
+        applicationRepository.findById(_) >> { UUID id -> Optional.of(byId[id]) }
+        creditBureauClient.getCreditReport(*_) >> createCreditReport(750)
+        riskAssessmentService.calculateRiskScore(*_) >> BigDecimal.valueOf(25)
+        riskAssessmentService.determineApprovedLimit(*_) >> BigDecimal.valueOf(10000)
+
+        def order = new CopyOnWriteArrayList<String>()
+        def firstStarted = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def allChecked = new CountDownLatch(12)
+        complianceService.performComplianceCheck(*_) >> { args ->
+            order << args[0].ssn
+            firstStarted.countDown()
+            release.await(5, TimeUnit.SECONDS)
+            allChecked.countDown()
+            new ComplianceService.ComplianceCheckResult(overallPassed: true)
+        }
+
+        when:
+        def submit = { CreditCardApplication application ->
+            scheduler.submit(application.channel.name(), PipelinePriority.of(application.cardType, application.channel),
+                    { pipeline.submit(application.id, application.customer.ssn) })
+        }
+        submit(partner[0])
+        firstStarted.await(5, TimeUnit.SECONDS)
+        partner.drop(1).each(submit)
+        submit(branch)
+        release.countDown()
+        allChecked.await(10, TimeUnit.SECONDS)
+        pipeline.close()
+
+        then: "at most the partner job the worker already held runs before the branch application"
+        order.size() == 12
+        order.indexOf(branch.customer.ssn) <= 2
+        (partner + branch).every { it.status == CreditCardApplication.ApplicationStatus.APPROVED }
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    private void restartWith(int maxInFlight) {
+        pipeline.close()
+        pipeline.maxInFlight = maxInFlight
+        pipeline.start()
+    }
+
+    private static void holdUntil(int parties, AtomicInteger inProgress, CountDownLatch together) {
+        if (inProgress.incrementAndGet() >= parties) {
+            together.countDown()
+        }
+        together.await(5, TimeUnit.SECONDS)
+        inProgress.decrementAndGet()
+    }
+
+    private Customer createCustomer() {
+        new Customer(
+                id: UUID.randomUUID(),
+                firstName: "John",
+                lastName: "Doe",
+                email: "john.doe@example.com",
+                phoneNumber: "+1234567890",
+                ssn: "123-45-6789",
+                dateOfBirth: LocalDate.of(1990, 1, 1),
+                identityVerified: true,
+                kycStatus: Customer.KycStatus.COMPLETED
+        )
+    }
+
+    private CreditCardApplication createApplication(Customer customer) {
+        new CreditCardApplication(
+                id: UUID.randomUUID(),
+                applicationNumber: "APP-123456",
+                status: CreditCardApplication.ApplicationStatus.PENDING,
+                customer: customer,
+                requestedLimit: BigDecimal.valueOf(5000),
+                annualIncome: BigDecimal.valueOf(75000),
+                employmentStatus: "FULL_TIME",
+                cardType: CreditCardApplication.CardType.GOLD
+        )
+    }
+
+    private CreditCardApplication createApplicationForProcessing() {
+        createApplication(createCustomer())
+    }
+
+    private CreditBureauReport createCreditReport(int creditScore) {
+        CreditBureauReport.builder()
+                .ssn("123-45-6789")
+                .creditScore(creditScore)
+                .totalDebt(BigDecimal.valueOf(15000))
+                .monthlyDebtPayments(BigDecimal.valueOf(500))
+                .numberOfAccounts(5)
+                .numberOfDelinquentAccounts(0)
+                .creditAccounts([])
+                .recentInquiries([])
+                .reportDate(LocalDate.now())
+                .build()
+    }
+}
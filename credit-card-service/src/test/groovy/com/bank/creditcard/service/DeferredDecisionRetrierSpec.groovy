@@ -0,0 +1,90 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.concurrency.PipelinePriority
+import com.bank.creditcard.concurrency.WeightedFairScheduler
+import com.bank.creditcard.dto.DeferredApplication
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.repository.CreditCardApplicationRepository
+import org.springframework.dao.QueryTimeoutException
+import org.springframework.data.domain.Limit
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDateTime
+import java.util.concurrent.RejectedExecutionException
+
+class DeferredDecisionRetrierSpec extends Specification {
+
+    def applicationRepository = Mock(CreditCardApplicationRepository)
+    def decisionPipeline = Mock(DecisionPipeline)
+    def pipelineScheduler = Mock(WeightedFairScheduler)
+
+    @Subject
+    def retrier = new DeferredDecisionRetrier(applicationRepository, decisionPipeline, pipelineScheduler,
+            new TransactionTemplate(Stub(PlatformTransactionManager)))
+
+    def "should retry the deferred applications it claims"() {
+        given:
+        def first = deferred("111-11-1111")
+        def second = deferred("222-22-2222")
+        applicationRepository.findDeferredBefore({ it < LocalDateTime.now().minusSeconds(59) }, Limit.of(500)) >>
+                [first, second]
+
+        when:
+        retrier.retryDeferred()
+
+        then: "another instance claimed the second one first"
+        1 * applicationRepository.claimDeferred(first.id, _, _) >> 1
+        1 * applicationRepository.claimDeferred(second.id, _, _) >> 0
+        1 * pipelineScheduler.submit(DeferredDecisionRetrier.SOURCE,
+                PipelinePriority.of(CreditCardApplication.CardType.GOLD, CreditCardApplication.Channel.ONLINE),
+                _) >> { args -> (args[2] as Runnable).run() }
+        1 * decisionPipeline.retry(first.id, "111-11-1111")
+        0 * decisionPipeline.retry(second.id, _)
+    }
+
+    def "should stop the sweep when the pipeline queue is full"() {
+        given:
+        applicationRepository.findDeferredBefore(*_) >> [deferred("111-11-1111"), deferred("222-22-2222")]
+        applicationRepository.claimDeferred(*_) >> 1
+
+        when:
+        retrier.retryDeferred()
+
+        then:
+        1 * pipelineScheduler.submit(*_) >> { throw new RejectedExecutionException("full") }
+        0 * decisionPipeline._
+    }
+
+    def "should leave deferred applications to other instances while its queue is saturated"() {
+        given:
+        applicationRepository.findDeferredBefore(*_) >> [deferred("111-11-1111")]
+        pipelineScheduler.size() >> 2000
+
+        when:
+        retrier.retryDeferred()
+
+        then:
+        0 * applicationRepository.claimDeferred(*_)
+        0 * pipelineScheduler.submit(*_)
+    }
+
+    def "should leave deferred applications for the next sweep when they cannot be looked up"() {
+        given:
+        applicationRepository.findDeferredBefore(*_) >> { throw new QueryTimeoutException("timeout") }
+
+        when:
+        retrier.retryDeferred()
+
+        then:
+        noExceptionThrown()
+        0 * pipelineScheduler._
+    }
+
+    private static DeferredApplication deferred(String ssn) {
+        new DeferredApplication(UUID.randomUUID(), ssn, CreditCardApplication.CardType.GOLD,
+                CreditCardApplication.Channel.ONLINE)
+    }
+}
@@ -2,6 +2,9 @@ package com.bank.creditcard.service
 
 import com.bank.creditcard.dto.CreditBureauReport
 import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.rules.DecisionRulesRegistry
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.springframework.core.io.DefaultResourceLoader
 import spock.lang.Specification
 import spock.lang.Subject
 import spock.lang.Unroll
@@ -9,7 +12,8 @@ import spock.lang.Unroll
 class RiskAssessmentServiceSpec extends Specification {
 
     @Subject
-    def service = new RiskAssessmentService()
+    def service = new RiskAssessmentService(
+            new DecisionRulesRegistry(new ObjectMapper(), new DefaultResourceLoader(), "classpath:decision-rules.json"))
 
     @Unroll
     def "should calculate risk score correctly for credit score #creditScore"() {
@@ -0,0 +1,168 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.model.CreditCardApplication
+import com.bank.creditcard.repository.CreditCardApplicationRepository
+import com.bank.creditcard.repository.CustomerRepository
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.data.domain.Limit
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.springframework.transaction.support.TransactionSynchronizationUtils
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDateTime
+
+class SsnFilterServiceSpec extends Specification {
+
+    static final Set<CreditCardApplication.ApplicationStatus> UNDECIDED = CreditCardApplication.ApplicationStatus.UNDECIDED
+
+    def applicationRepository = Mock(CreditCardApplicationRepository)
+    def customerRepository = Mock(CustomerRepository)
+    def registry = new SimpleMeterRegistry()
+
+    @Subject
+    def service = new SsnFilterService(applicationRepository, customerRepository, 0.01, 1_000, 100)
+
+    def setup() {
+        service.bindTo(registry)
+    }
+
+    def cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization()
+        }
+    }
+
+    def "should answer maybe for every SSN until the filters are built"() {
+        expect:
+        !service.ready
+        service.mightBeCustomer("123-45-6789")
+        service.mightHavePending("123-45-6789")
+        registry.get("ssn.filter.queries.skipped").tag("filter", "customers").functionCounter().count() == 0
+    }
+
+    def "should build from keyset pages of customers and the pending stream"() {
+        given: "one full page of customers, then a short one"
+        def firstPage = (0..<SsnFilterService.PAGE_SIZE).collect { ssn(it) }
+        def secondPage = [ssn(SsnFilterService.PAGE_SIZE)]
+
+        when:
+        service.rebuild()
+
+        then:
+        1 * customerRepository.count() >> 10_001
+        1 * applicationRepository.countByStatusIn(UNDECIDED) >> 1
+        1 * customerRepository.findSsnsAfter("", Limit.of(SsnFilterService.PAGE_SIZE)) >> firstPage
+        1 * customerRepository.findSsnsAfter(firstPage.last(), Limit.of(SsnFilterService.PAGE_SIZE)) >> secondPage
+        1 * applicationRepository.streamCustomerSsnsByStatusIn(UNDECIDED) >> [ssn(42)].stream()
+        service.ready
+
+        and: "known SSNs are maybes"
+        (0..SsnFilterService.PAGE_SIZE).every { service.mightBeCustomer(ssn(it)) }
+        service.mightHavePending(ssn(42))
+
+        and: "an unknown SSN is ruled out of both"
+        !service.mightBeCustomer("999-99-9999")
+        !service.mightHavePending("999-99-9999")
+    }
+
+    def "should count skipped lookups and the false positives the database reports"() {
+        given:
+        build(["111-11-1111"], [])
+
+        when:
+        def negatives = (0..<1_000).count { !service.mightBeCustomer(ssn(it)) }
+        service.mightBeCustomer("111-11-1111")
+        service.customerLookedUp(true)
+        (1_000 - negatives).times { service.customerLookedUp(false) }
+
+        then:
+        registry.get("ssn.filter.queries.skipped").tag("filter", "customers").functionCounter().count() == negatives
+        registry.get("ssn.filter.false.positives").tag("filter", "customers").functionCounter().count() ==
+                1_000 - negatives
+        registry.get("ssn.filter.false.positive.rate").tag("filter", "customers").gauge().value() < 0.05
+        registry.get("ssn.filter.expected.fpp").tag("filter", "customers").gauge().value() > 0
+    }
+
+    def "should add new customers and pending applications at once"() {
+        given:
+        build([], [])
+
+        when:
+        service.customerAdded("123-45-6789")
+        service.pendingAdded("123-45-6789")
+
+        then:
+        service.mightBeCustomer("123-45-6789")
+        service.mightHavePending("123-45-6789")
+    }
+
+    def "should remove a decided SSN from the pending filter only after commit"() {
+        given:
+        build([], ["123-45-6789"])
+        TransactionSynchronizationManager.initSynchronization()
+
+        when: "the decision is saved"
+        service.pendingRemoved("123-45-6789")
+
+        then: "it still counts as pending while the transaction may roll back"
+        service.mightHavePending("123-45-6789")
+
+        when:
+        TransactionSynchronizationUtils.triggerAfterCommit()
+
+        then:
+        !service.mightHavePending("123-45-6789")
+    }
+
+    def "should keep SSNs added while a rebuild is streaming"() {
+        given:
+        customerRepository.findSsnsAfter(_, _) >> []
+        applicationRepository.streamCustomerSsnsByStatusIn(UNDECIDED) >> {
+            // Submitted on another thread after the filter's source query ran
+            service.pendingAdded("123-45-6789")
+            [].stream()
+        }
+
+        when:
+        service.rebuild()
+
+        then:
+        service.mightHavePending("123-45-6789")
+    }
+
+    def "should catch up on rows other instances inserted since the last pass"() {
+        given:
+        def built = LocalDateTime.now()
+        build([], [])
+
+        when:
+        service.catchUp()
+
+        then: "rows from slightly before the build are read again, in case they committed late"
+        1 * customerRepository.findSsnsCreatedSince({ it >= built.minus(SsnFilterService.CATCH_UP_OVERLAP) && it < built }) >>
+                ["123-45-6789"]
+        1 * applicationRepository.findCustomerSsnsByStatusInCreatedSince(UNDECIDED, _) >> ["123-45-6789"]
+        service.mightBeCustomer("123-45-6789")
+        service.mightHavePending("123-45-6789")
+    }
+
+    def "should not catch up before the first build"() {
+        when:
+        service.catchUp()
+
+        then:
+        0 * customerRepository._
+        0 * applicationRepository._
+    }
+
+    private void build(List<String> customers, List<String> pending) {
+        customerRepository.findSsnsAfter("", _) >> customers
+        applicationRepository.streamCustomerSsnsByStatusIn(UNDECIDED) >> pending.stream()
+        service.rebuild()
+    }
+
+    private static String ssn(int i) {
+        String.format("%03d-%02d-%04d", i.intdiv(1_000_000), i.intdiv(10_000) % 100, i % 10_000)
+    }
+}
@@ -0,0 +1,78 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.model.ApplicationStageTiming
+import com.bank.creditcard.model.CreditCardApplication
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.dao.DataAccessResourceFailureException
+import org.springframework.jdbc.core.JdbcTemplate
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+
+class StageTimingRecorderSpec extends Specification {
+
+    def jdbcTemplate = Mock(JdbcTemplate)
+    def registry = new SimpleMeterRegistry()
+
+    def "should write recorded timings in batches on flush"() {
+        given:
+        def recorder = recorder(100, 2)
+        5.times { recorder.record(timing()) }
+
+        when:
+        recorder.flush()
+
+        then:
+        2 * jdbcTemplate.batchUpdate(_, { it.size() == 2 }, 2, _) >> ([[1, 1]] as int[][])
+        1 * jdbcTemplate.batchUpdate(_, { it.size() == 1 }, 1, _) >> ([[1]] as int[][])
+        registry.get("pipeline.timings.written").functionCounter().count() == 5
+    }
+
+    def "should drop timings rather than block when the queue is full"() {
+        given:
+        def recorder = recorder(2, 10)
+
+        when:
+        3.times { recorder.record(timing()) }
+        recorder.flush()
+
+        then:
+        1 * jdbcTemplate.batchUpdate(_, { it.size() == 2 }, 2, _) >> ([[1, 1]] as int[][])
+        registry.get("pipeline.timings.dropped").functionCounter().count() == 1
+    }
+
+    def "should count a batch that cannot be written as dropped and keep going"() {
+        given:
+        def recorder = recorder(100, 2)
+        4.times { recorder.record(timing()) }
+
+        when:
+        recorder.flush()
+
+        then:
+        1 * jdbcTemplate.batchUpdate(*_) >> { throw new DataAccessResourceFailureException("down") }
+        1 * jdbcTemplate.batchUpdate(*_) >> ([[1, 1]] as int[][])
+        registry.get("pipeline.timings.dropped").functionCounter().count() == 2
+        registry.get("pipeline.timings.written").functionCounter().count() == 2
+    }
+
+    def "should do nothing when there is nothing to flush"() {
+        when:
+        recorder(100, 2).flush()
+
+        then:
+        0 * jdbcTemplate._
+    }
+
+    private StageTimingRecorder recorder(int capacity, int batchSize) {
+        def recorder = new StageTimingRecorder(jdbcTemplate, capacity, batchSize)
+        recorder.bindTo(registry)
+        recorder
+    }
+
+    private static ApplicationStageTiming timing() {
+        new ApplicationStageTiming(applicationId: UUID.randomUUID(),
+                status: CreditCardApplication.ApplicationStatus.APPROVED,
+                decidedAt: LocalDateTime.now(), queueWaitMs: 1, totalMs: 10)
+    }
+}
@@ -0,0 +1,154 @@
+package com.bank.creditcard.service
+
+import com.bank.creditcard.dto.VelocityRecord
+import com.bank.creditcard.model.Address
+import com.bank.creditcard.model.Customer
+import com.bank.creditcard.repository.CreditCardApplicationRepository
+import com.bank.creditcard.velocity.VelocityCounters
+import com.bank.creditcard.velocity.VelocityDimension
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Duration
+import java.time.LocalDateTime
+import java.util.stream.Stream
+
+class VelocityScreeningServiceSpec extends Specification {
+
+    def applicationRepository = Mock(CreditCardApplicationRepository)
+    def velocityCounters = new VelocityCounters(Duration.ofHours(24), 24, 4, 10_000)
+
+    @Subject
+    def service = new VelocityScreeningService(applicationRepository, velocityCounters, Duration.ofHours(24),
+            2, 2, 2, 3, 2)
+
+    def "should pass an applicant within every limit"() {
+        given:
+        def customer = customer("123-45-6789", "+1 555 010 0100", "john@example.com", "123 Main St")
+        service.record(UUID.randomUUID(), customer, "device-1", LocalDateTime.now())
+        service.record(UUID.randomUUID(), customer, "device-1", LocalDateTime.now())
+
+        expect:
+        service.exceededLimits(customer, "device-1").isEmpty()
+    }
+
+    def "should report each dimension over its limit"() {
+        given: "three applications sharing a phone and an address, two of them a device"
+        service.record(UUID.randomUUID(), customer("111-11-1111", "+1 555 010 0100", "a@example.com", "1 Elm St"), "device-1",
+                LocalDateTime.now())
+        service.record(UUID.randomUUID(), customer("222-22-2222", "(555) 010-0100", "b@example.com", "1 ELM ST."), "device-1",
+                LocalDateTime.now())
+        def third = customer("333-33-3333", "555.010.0100", "c@example.com", "1 elm st")
+        service.record(UUID.randomUUID(), third, null, LocalDateTime.now())
+
+        expect: "the phone matches across formats; three addresses are still within their limit"
+        service.exceededLimits(third, null) == [VelocityDimension.PHONE]
+
+        when: "a fourth arrives on the same device and address"
+        def fourth = customer("444-44-4444", "+1 555 999 0000", "d@example.com", "1 Elm St")
+        service.record(UUID.randomUUID(), fourth, "device-1", LocalDateTime.now())
+
+        then:
+        service.exceededLimits(fourth, "device-1") == [VelocityDimension.ADDRESS, VelocityDimension.DEVICE]
+    }
+
+    def "should not count applications older than the window"() {
+        given:
+        def customer = customer("123-45-6789", "+1 555 010 0100", "john@example.com", "123 Main St")
+        3.times { service.record(UUID.randomUUID(), customer, null, LocalDateTime.now().minusHours(25)) }
+
+        expect:
+        service.exceededLimits(customer, null).isEmpty()
+    }
+
+    def "should rebuild the counts from recent applications"() {
+        given:
+        def since
+        def recent = (1..3).collect {
+            new VelocityRecord(UUID.randomUUID(), "123-45-6789", "+1${it}5550100", "user${it}@example.com", "${it} Main St", "10001",
+                    null, LocalDateTime.now().minusHours(it))
+        }
+
+        when:
+        service.rebuild()
+
+        then:
+        1 * applicationRepository.streamVelocityRecordsSince(_) >> { LocalDateTime from ->
+            since = from
+            recent.stream()
+        }
+        since.isBefore(LocalDateTime.now().minusHours(23))
+        service.exceededLimits(customer("123-45-6789", "+1 555 777 0000", "x@example.com", "9 Oak St"), null) ==
+                [VelocityDimension.SSN]
+    }
+
+    def "should count an application once however often it is recorded"() {
+        given:
+        def customer = customer("123-45-6789", "+1 555 010 0100", "john@example.com", "123 Main St")
+        def id = UUID.randomUUID()
+
+        when:
+        3.times { service.record(id, customer, null, LocalDateTime.now()) }
+
+        then:
+        service.exceededLimits(customer, null).isEmpty()
+    }
+
+    def "should count what other instances committed once caught up, and this instance's own only once"() {
+        given: "one application of the applicant's submitted here, and two on other instances"
+        def customer = customer("123-45-6789", "+1 555 010 0100", "john@example.com", "123 Main St")
+        def own = UUID.randomUUID()
+        applicationRepository.streamVelocityRecordsSince(_) >> { Stream.empty() }
+        service.rebuild()
+        service.record(own, customer, null, LocalDateTime.now())
+        def elsewhere = [own, UUID.randomUUID(), UUID.randomUUID()].collect {
+            new VelocityRecord(it, "123-45-6789", "+1 555 010 0100", "john@example.com", "123 Main St", "62701",
+                    null, LocalDateTime.now())
+        }
+
+        expect:
+        service.exceededLimits(customer, null).isEmpty()
+
+        when:
+        service.catchUp()
+
+        then: "a little before the last pass, for rows that committed late"
+        1 * applicationRepository.streamVelocityRecordsSince({
+            it.isBefore(LocalDateTime.now().minus(VelocityScreeningService.CATCH_UP_OVERLAP).plusSeconds(1))
+        }) >> { elsewhere.stream() }
+        service.exceededLimits(customer, null) == [VelocityDimension.SSN, VelocityDimension.PHONE,
+                                                   VelocityDimension.EMAIL]
+
+        when: "the next pass sees the same rows again"
+        service.catchUp()
+
+        then:
+        1 * applicationRepository.streamVelocityRecordsSince(_) >> { elsewhere.stream() }
+        service.exceededLimits(customer, null) == [VelocityDimension.SSN, VelocityDimension.PHONE,
+                                                   VelocityDimension.EMAIL]
+    }
+
+    def "should not catch up before the counts are built"() {
+        when:
+        service.catchUp()
+
+        then:
+        0 * applicationRepository._
+    }
+
+    def "should keep no identifier in the clear"() {
+        given:
+        def customer = customer("123-45-6789", "+1 555 010 0100", "john@example.com", "123 Main St")
+
+        when:
+        service.record(UUID.randomUUID(), customer, "device-1", LocalDateTime.now())
+
+        then: "one key per dimension, each a keyed hash"
+        velocityCounters.size() == 5
+    }
+
+    private static Customer customer(String ssn, String phone, String email, String street) {
+        new Customer(ssn: ssn, phoneNumber: phone, email: email, firstName: "John", lastName: "Doe",
+                address: new Address(street, "Springfield", "IL", "62701", "USA"))
+    }
+}
@@ -0,0 +1,29 @@
+package com.bank.creditcard.velocity
+
+import spock.lang.Specification
+
+class KeyedHashSpec extends Specification {
+
+    // Key 00..0f from the SipHash reference implementation
+    def hash = new KeyedHash(0x0706050403020100L, 0x0f0e0d0c0b0a0908L)
+
+    def "should match the SipHash-2-4 reference vectors"() {
+        expect:
+        hash.hash((0..<length).collect { it as byte } as byte[]) == expected
+
+        where:
+        length | expected
+        0      | 0x726fdb47dd0e0e31L
+        1      | 0x74f839c593dc67fdL
+        7      | 0xab0200f58b01d137L
+        8      | 0x93f5f5799a932462L
+        15     | 0xa129ca6149be45e5L
+    }
+
+    def "should hash the same value differently under another key"() {
+        expect:
+        hash.hash("123-45-6789") == hash.hash("123-45-6789")
+        hash.hash("123-45-6789") != KeyedHash.random().hash("123-45-6789")
+        hash.hash("123-45-6789") != hash.hash("123-45-6780")
+    }
+}
@@ -0,0 +1,143 @@
+package com.bank.creditcard.velocity
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+class VelocityCountersSpec extends Specification {
+
+    static final long HOUR = Duration.ofHours(1).toMillis()
+
+    def now = new AtomicLong(1_000 * HOUR)
+    def counters = new VelocityCounters(Duration.ofHours(24), 24, 4, 1_000, now::get)
+
+    def "should count events within the window"() {
+        when:
+        3.times { counters.increment(42L, now.get()) }
+        counters.increment(42L, now.get() - 5 * HOUR)
+        counters.increment(7L, now.get())
+
+        then:
+        counters.count(42L) == 4
+        counters.count(7L) == 1
+        counters.count(99L) == 0
+    }
+
+    def "should stop counting events as they slide out of the window"() {
+        given:
+        counters.increment(42L, now.get() - 23 * HOUR)
+        counters.increment(42L, now.get() - 2 * HOUR)
+        counters.increment(42L, now.get())
+
+        expect:
+        counters.count(42L) == 3
+
+        when:
+        now.addAndGet(HOUR)
+
+        then:
+        counters.count(42L) == 2
+
+        when:
+        now.addAndGet(22 * HOUR)
+
+        then:
+        counters.count(42L) == 1
+
+        when:
+        now.addAndGet(HOUR)
+
+        then:
+        counters.count(42L) == 0
+    }
+
+    def "should reuse slots once a key sees events again after a gap"() {
+        given:
+        counters.increment(42L, now.get())
+        now.addAndGet(30 * HOUR)
+
+        when:
+        counters.increment(42L, now.get())
+
+        then:
+        counters.count(42L) == 1
+    }
+
+    def "should ignore events older than the window"() {
+        when:
+        counters.increment(42L, now.get() - 24 * HOUR)
+        counters.increment(42L, now.get())
+        counters.increment(42L, now.get() - 30 * HOUR)
+
+        then:
+        counters.count(42L) == 1
+        counters.size() == 1
+    }
+
+    def "should evict keys whose window has passed"() {
+        given:
+        counters.increment(1L, now.get() - 20 * HOUR)
+        counters.increment(2L, now.get())
+
+        when:
+        now.addAndGet(5 * HOUR)
+        def removed = counters.evictExpired()
+
+        then:
+        removed == 1
+        counters.size() == 1
+        counters.count(2L) == 1
+    }
+
+    def "should stay within its key bound by dropping the least recently used keys"() {
+        given:
+        def bounded = new VelocityCounters(Duration.ofHours(24), 24, 1, 3, now::get)
+        def registry = new SimpleMeterRegistry()
+        bounded.bindTo(registry)
+        (1L..3L).each { bounded.increment(it, now.get()) }
+
+        when: "key 1 is read again, then a fourth key arrives"
+        bounded.count(1L)
+        bounded.increment(4L, now.get())
+
+        then:
+        bounded.size() == 3
+        bounded.count(2L) == 0
+        bounded.count(1L) == 1
+        registry.get("velocity.evictions").functionCounter().count() == 1
+        registry.get("velocity.keys").gauge().value() == 3
+    }
+
+    def "should count concurrent increments exactly"() {
+        given:
+        def pool = Executors.newFixedThreadPool(8)
+
+        when:
+        8.times {
+            pool.submit { 10_000.times { i -> counters.increment(i % 16 as long, now.get()) } }
+        }
+        pool.shutdown()
+        pool.awaitTermination(10, TimeUnit.SECONDS)
+
+        then:
+        (0L..15L).sum { counters.count(it) } == 80_000
+    }
+
+    def "should reject a window that does not split into whole buckets"() {
+        when:
+        new VelocityCounters(Duration.ofMillis(1000), 7, 4, 100)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        when:
+        new VelocityCounters(Duration.ofHours(24), 24, 3, 100)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
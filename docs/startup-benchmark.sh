@@ -0,0 +1,48 @@
+#!/bin/bash
+
+# Measure time-to-ready of the service image, with and without the faststart optimizations.
+# Expects PostgreSQL from docker-compose to be running (docker-compose up -d postgres).
+#
+# Usage: docs/startup-benchmark.sh [runs] [output.csv]
+
+RUNS=${1:-5}
+OUT=${2:-startup-benchmark.csv}
+IMAGE=credit-card-service:startup-benchmark
+NETWORK=$(docker network ls --format '{{.Name}}' | grep -m1 credit-card-service)
+
+cd credit-card-service
+./gradlew bootJar -q && docker build -q -t "$IMAGE" . > /dev/null || exit 1
+
+# run_variant <name> <docker run options> [-- <command overriding the entrypoint>]
+run_variant() {
+    local variant=$1
+    shift
+    local options=() command=()
+    while [ $# -gt 0 ] && [ "$1" != "--" ]; do options+=("$1"); shift; done
+    [ "$1" = "--" ] && shift && command=("$@")
+    for i in $(seq 1 "$RUNS"); do
+        local started=$(date +%s%N)
+        local container=$(docker run -d --rm --network "$NETWORK" -p 8080:8080 \
+            -e SPRING_DATASOURCE_URL=jdbc:postgresql://postgres:5432/creditcard_db \
+            -e SPRING_DATASOURCE_USERNAME=creditcard_user \
+            -e SPRING_DATASOURCE_PASSWORD=creditcard_pass \
+            "${options[@]}" "$IMAGE" "${command[@]}")
+
+        until curl -sf http://localhost:8080/actuator/health/readiness > /dev/null; do
+            sleep 0.05
+        done
+        local ready=$(date +%s%N)
+
+        # The JVM's own view, excluding container start
+        local jvm_ready=$(curl -s -u admin:admin123 http://localhost:8080/actuator/metrics/application.ready.time \
+            | sed -E 's/.*"value":([0-9.E]+).*/\1/')
+
+        echo "$variant,$i,$(( (ready - started) / 1000000 )),$jvm_ready" >> "../$OUT"
+        docker stop "$container" > /dev/null
+    done
+}
+
+echo "variant,run,wall_ms,application_ready_seconds" > "../$OUT"
+
+run_variant faststart
+run_variant baseline -e SPRING_PROFILES_ACTIVE=default --entrypoint java -- -jar app.jar
@@ -0,0 +1,112 @@
+// Holds 10k application status watchers open against either stack and compares their footprint.
+//
+//   reactive: k6 run -e MODE=reactive docs/status-watchers.k6.js
+//             (service started with SPRING_PROFILES_ACTIVE=reactive; one SSE stream per watcher on :8081)
+//   servlet:  k6 run -e MODE=poll docs/status-watchers.k6.js
+//             (each watcher polls GET /{applicationNumber} every second with If-None-Match on :8080)
+//
+// While the test is at its plateau, record for each mode:
+//   connections  SELECT count(*) FROM pg_stat_activity WHERE datname = 'creditcard_db';
+//                /actuator/metrics/hikaricp.connections.active and r2dbc.pool.acquired
+//   memory       /actuator/metrics/jvm.memory.used?tag=area:heap and the process RSS (ps -o rss= -p <pid>)
+//   threads      /actuator/metrics/jvm.threads.live
+//   watchers     /actuator/metrics/reactive.status.watchers (reactive mode; should read 10000)
+//
+// Watchers are spread over WATCHED applications, submitted once in setup(). A watch ends when its
+// application is decided or after reactive.watch.max-duration, so keep the decision pipeline
+// saturated (or the bureau slow) if the plateau has to last longer than a decision takes.
+import http from 'k6/http';
+import encoding from 'k6/encoding';
+import { check, sleep } from 'k6';
+
+const MODE = __ENV.MODE || 'reactive';
+const SERVLET_URL = __ENV.SERVLET_URL || 'http://localhost:8080';
+const REACTIVE_URL = __ENV.REACTIVE_URL || 'http://localhost:8081';
+const WATCHERS = parseInt(__ENV.WATCHERS || '10000');
+const WATCHED = parseInt(__ENV.WATCHED || '500');
+const HOLD = __ENV.HOLD || '3m';
+const BASE_PATH = '/api/v1/credit-card-applications';
+
+export const options = {
+    setupTimeout: '10m',
+    scenarios: {
+        watchers: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: WATCHERS },
+                { duration: HOLD, target: WATCHERS },
+                { duration: '30s', target: 0 },
+            ],
+            gracefulRampDown: '30s',
+        },
+    },
+};
+
+export function setup() {
+    const basic = encoding.b64encode(`${__ENV.USERNAME || 'admin'}:${__ENV.PASSWORD || 'admin123'}`);
+    const token = http.post(`${SERVLET_URL}/api/v1/auth/token`, null,
+        { headers: { Authorization: `Basic ${basic}` } }).json('accessToken');
+    const headers = { Authorization: `Bearer ${token}`, 'Content-Type': 'application/json' };
+
+    const applications = [];
+    for (let i = 0; i < WATCHED; i++) {
+        const response = http.post(`${submitUrl()}${BASE_PATH}`, JSON.stringify(application(i)), { headers });
+        check(response, { submitted: r => r.status === 201 });
+        applications.push(response.json('applicationNumber'));
+    }
+    return { token, applications };
+}
+
+export default function (data) {
+    const applicationNumber = data.applications[(__VU - 1) % data.applications.length];
+    const headers = { Authorization: `Bearer ${data.token}` };
+
+    if (MODE === 'reactive') {
+        // Returns when the stream ends: the application was decided or the watch timed out
+        const response = http.get(`${REACTIVE_URL}${BASE_PATH}/${applicationNumber}/status`, {
+            headers: Object.assign({ Accept: 'text/event-stream' }, headers),
+            timeout: '10m',
+        });
+        check(response, { 'stream ended normally': r => r.status === 200 });
+        return;
+    }
+
+    let etag = null;
+    for (;;) {
+        const response = http.get(`${SERVLET_URL}${BASE_PATH}/${applicationNumber}`, {
+            headers: etag ? Object.assign({ 'If-None-Match': etag }, headers) : headers,
+        });
+        check(response, { polled: r => r.status === 200 || r.status === 304 });
+        if (response.status === 200) {
+            etag = response.headers['Etag'];
+            const status = response.json('status');
+            if (status === 'APPROVED' || status === 'REJECTED' || status === 'CANCELLED') {
+                return;
+            }
+        }
+        sleep(1);
+    }
+}
+
+function submitUrl() {
+    return MODE === 'reactive' ? REACTIVE_URL : SERVLET_URL;
+}
+
+function application(i) {
+    // Pending SSNs are unique, so repeated runs against the same database need a new RUN_OFFSET
+    const serial = String((parseInt(__ENV.RUN_OFFSET || '0') + i) % 1000000).padStart(6, '0');
+    return {
+        firstName: 'Load',
+        lastName: `Watcher${i}`,
+        email: `watcher${serial}@example.com`,
+        phoneNumber: '+12025550100',
+        ssn: `9${serial.slice(0, 2)}-${serial.slice(2, 4)}-${serial.slice(4)}00`,
+        dateOfBirth: '1985-06-15',
+        address: { streetAddress: '1 Load St', city: 'Austin', state: 'TX', zipCode: '73301', country: 'USA' },
+        annualIncome: 85000,
+        employmentStatus: 'FULL_TIME',
+        requestedLimit: 5000,
+        cardType: 'GOLD',
+    };
+}